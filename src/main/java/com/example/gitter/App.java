@@ -3,9 +3,14 @@ package com.example.gitter;
 import com.example.gitter.commands.add.AddCommand;
 import com.example.gitter.commands.checkout.CheckoutCommand;
 import com.example.gitter.commands.commit.CommitCommand;
+import com.example.gitter.commands.commitgraph.CommitGraphCommand;
+import com.example.gitter.commands.compact.CompactCommand;
 import com.example.gitter.commands.diff.DiffCommand;
+import com.example.gitter.commands.fsck.FsckCommand;
+import com.example.gitter.commands.fsmonitor.FsMonitorCommand;
 import com.example.gitter.commands.init.InitCommand;
 import com.example.gitter.commands.log.LogCommand;
+import com.example.gitter.commands.repack.RepackCommand;
 import com.example.gitter.commands.reset.ResetCommand;
 import com.example.gitter.commands.status.StatusCommand;
 import picocli.CommandLine;
@@ -26,6 +31,11 @@ import picocli.CommandLine.Command;
         DiffCommand.class,
         ResetCommand.class,
         CheckoutCommand.class,
+        FsMonitorCommand.class,
+        RepackCommand.class,
+        CompactCommand.class,
+        FsckCommand.class,
+        CommitGraphCommand.class,
         CommandLine.HelpCommand.class
     }
 )
@@ -2,9 +2,11 @@ package com.example.gitter.commands.add;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 import com.example.gitter.utils.FileUtils;
 import com.example.gitter.utils.Indexing;
+import com.example.gitter.utils.Pathspec;
 import com.example.gitter.utils.RepositoryState;
 
 import java.io.IOException;
@@ -18,7 +20,7 @@ public class AddStrategy implements CommandStrategy<AddOptions> {
     
     @Override
     public Integer execute(AddOptions options) throws IOException {
-        WorkingDirectoryStatus status = RepositoryState.getWorkingDirectoryStatus();
+        WorkingDirectoryStatus status = RepositoryState.getWorkingDirectoryStatus(Pathspec.of(options.getFiles()));
         Map<String, FileEntry> indexMap = Indexing.loadIndex();
         
         Set<String> changedAndNewFiles = new HashSet<>();
@@ -27,7 +29,7 @@ public class AddStrategy implements CommandStrategy<AddOptions> {
         
         for (String pattern : options.getFiles()) {
             processPattern(pattern, changedAndNewFiles, status.getUnstagedDeleted(), 
-                          status.getAllWorkingFiles().keySet(), indexMap);
+                          status.getAllWorkingFiles(), indexMap);
         }
         
         Indexing.saveIndex(indexMap.values());
@@ -37,11 +39,11 @@ public class AddStrategy implements CommandStrategy<AddOptions> {
     private void processPattern(String pattern, 
                                 Set<String> changedAndNewFiles,
                                 Set<String> deletedFiles,
-                                Set<String> allWorkingFiles,
+                                Map<String, ObjectId> allWorkingFiles,
                                 Map<String, FileEntry> indexMap) throws IOException {
         
         Set<String> matchingChangedFiles = FileUtils.findMatchingFiles(pattern, changedAndNewFiles);
-        Indexing.stageFiles(matchingChangedFiles, indexMap);
+        Indexing.stageFiles(matchingChangedFiles, allWorkingFiles, indexMap);
         
         Set<String> matchingDeletedFiles = FileUtils.findMatchingFiles(pattern, deletedFiles);
         for (String filePath : matchingDeletedFiles) {
@@ -49,7 +51,7 @@ public class AddStrategy implements CommandStrategy<AddOptions> {
         }
         
         if (matchingChangedFiles.isEmpty() && matchingDeletedFiles.isEmpty()) {
-            Set<String> matchingExistingFiles = FileUtils.findMatchingFiles(pattern, allWorkingFiles);
+            Set<String> matchingExistingFiles = FileUtils.findMatchingFiles(pattern, allWorkingFiles.keySet());
             if (matchingExistingFiles.isEmpty()) {
                 throw new IOException(String.format(ERROR_PATHSPEC_NO_MATCH, pattern));
             }
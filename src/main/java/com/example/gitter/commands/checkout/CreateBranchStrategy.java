@@ -1,11 +1,13 @@
 package com.example.gitter.commands.checkout;
 
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.utils.RepositoryState;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+import static com.example.gitter.constants.Constants.EMPTY_STRING;
 import static com.example.gitter.constants.Constants.NEWLINE;
 import static com.example.gitter.constants.Messages.*;
 import static com.example.gitter.constants.PathConstants.HEAD;
@@ -24,8 +26,8 @@ public class CreateBranchStrategy extends AbstractCheckoutStrategy {
     
     @Override
     protected void performCheckout(CheckoutOptions options, Path branchFile) throws IOException {
-        String currentCommit = RepositoryState.getCurrentCommitHash();
-        Files.writeString(branchFile, currentCommit + NEWLINE);
+        ObjectId currentCommit = RepositoryState.getCurrentCommitHash();
+        Files.writeString(branchFile, (currentCommit != null ? currentCommit.name() : EMPTY_STRING) + NEWLINE);
         Files.writeString(HEAD, options.getBranch() + NEWLINE);
     }
     
@@ -1,5 +1,6 @@
 package com.example.gitter.commands.checkout;
 
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.utils.Indexing;
 import com.example.gitter.utils.RepositoryState;
 
@@ -31,8 +32,8 @@ public class StandardCheckoutStrategy extends AbstractCheckoutStrategy {
     
     @Override
     protected void performCheckout(CheckoutOptions options, Path branchFile) throws IOException {
-        String sourceCommit = RepositoryState.getCurrentCommitHash();
-        String targetCommit = RepositoryState.getCommitHashFromBranch(options.getBranch());
+        ObjectId sourceCommit = RepositoryState.getCurrentCommitHash();
+        ObjectId targetCommit = RepositoryState.getCommitHashFromBranch(options.getBranch());
         
         Files.writeString(HEAD, options.getBranch() + NEWLINE);
         Indexing.updateIndex(targetCommit);
@@ -3,10 +3,12 @@ package com.example.gitter.commands.commit;
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.models.Commit;
 import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 import com.example.gitter.utils.Indexing;
 import com.example.gitter.utils.ObjectStore;
 import com.example.gitter.utils.RepositoryState;
+import com.example.gitter.utils.TreeUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -36,7 +38,7 @@ public abstract class AbstractCommitStrategy implements CommandStrategy<CommitOp
             return 1;
         }
         
-        String commitHash = createAndWriteCommit(options, result.getIndexMap());
+        ObjectId commitHash = createAndWriteCommit(options, result.getIndexMap());
         Indexing.updateIndex(commitHash);
         
         return 0;
@@ -63,14 +65,15 @@ public abstract class AbstractCommitStrategy implements CommandStrategy<CommitOp
         }
     }
     
-    protected final String createAndWriteCommit(CommitOptions options, Map<String, FileEntry> indexMap) 
+    protected final ObjectId createAndWriteCommit(CommitOptions options, Map<String, FileEntry> indexMap) 
             throws IOException {
-        String parentCommit = RepositoryState.getCurrentCommitHash();
-        Commit commit = new Commit(options.getMessage(), parentCommit, indexMap);
-        String commitHash = ObjectStore.writeCommit(commit.serialize());
+        ObjectId parentCommit = RepositoryState.getCurrentCommitHash();
+        ObjectId tree = TreeUtils.writeTrees(indexMap, Indexing.getTreeCache(indexMap.values()));
+        Commit commit = new Commit(options.getMessage(), parentCommit, tree);
+        ObjectId commitHash = ObjectStore.writeCommit(commit.serialize());
         
         String currentBranch = RepositoryState.getCurrentBranch();
-        Files.writeString(HEADS.resolve(currentBranch), commitHash);
+        Files.writeString(HEADS.resolve(currentBranch), commitHash.name());
         
         return commitHash;
     }    
@@ -0,0 +1,66 @@
+package com.example.gitter.commands.commitgraph;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.FileUtils;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+import java.util.concurrent.Callable;
+
+import static com.example.gitter.constants.Constants.COMMIT_GRAPH_ACTION_WRITE;
+import static com.example.gitter.constants.Messages.*;
+
+@Command(name = "commit-graph",
+         synopsisHeading = "",
+         customSynopsis = {
+             "NAME:",
+             "commit-graph - Write the commit-graph file",
+             "",
+             "SYNOPSIS:",
+             "gitter commit-graph write",
+             ""
+         },
+         descriptionHeading = "DESCRIPTION:%n",
+         description = {
+             "Write the commit-graph file",
+             "",
+             "Records the parent, generation number, timestamp and root tree of every commit",
+             "reachable from a branch in .gitter/objects/info/commit-graph. History walks",
+             "(e.g. reset HEAD~N) read parents from this file instead of parsing commit",
+             "objects. Commits made later are read from their objects until the next write.",
+             ""
+         },
+         parameterListHeading = "ARGUMENTS:%n"
+)
+public class CommitGraphCommand implements Callable<Integer> {
+    
+    @Parameters(paramLabel = "<action>",
+                description = "Action to perform (write)")
+    private String action;
+    
+    @Override
+    public Integer call() {
+        if (!FileUtils.isGitterInitialized()) {
+            System.err.println(ERROR_NOT_INITIALIZED);
+            return 1;
+        }
+        
+        if (!COMMIT_GRAPH_ACTION_WRITE.equals(action)) {
+            System.err.println(String.format(ERROR_UNKNOWN_COMMIT_GRAPH_ACTION, action));
+            return 1;
+        }
+        
+        try {
+            CommitGraphOptions options = CommitGraphOptions.builder()
+                    .action(action)
+                    .build();
+            
+            CommandStrategy<CommitGraphOptions> strategy = options.getStrategy();
+            return strategy.execute(options);
+            
+        } catch (Exception e) {
+            System.err.println(ERROR_FAILED_TO_WRITE_COMMIT_GRAPH + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.gitter.commands.commitgraph;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+
+import static com.example.gitter.constants.Constants.COMMIT_GRAPH_ACTION_WRITE;
+
+public class CommitGraphOptions {
+    private final String action;
+    
+    private CommitGraphOptions(Builder builder) {
+        this.action = builder.action;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public static class Builder {
+        private String action = COMMIT_GRAPH_ACTION_WRITE;
+        
+        private Builder() {}
+        
+        public Builder action(String action) {
+            this.action = action;
+            return this;
+        }
+        
+        public CommitGraphOptions build() {
+            return new CommitGraphOptions(this);
+        }
+    }
+    
+    public CommandStrategy<CommitGraphOptions> getStrategy() {
+        return new WriteCommitGraphStrategy();
+    }
+    
+    public String getAction() {
+        return action;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.gitter.commands.commitgraph;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.CommitGraph;
+
+import java.io.IOException;
+
+import static com.example.gitter.constants.Constants.NEWLINE;
+import static com.example.gitter.constants.Messages.COMMIT_GRAPH_WRITTEN;
+
+public class WriteCommitGraphStrategy implements CommandStrategy<CommitGraphOptions> {
+    
+    @Override
+    public Integer execute(CommitGraphOptions options) throws IOException {
+        int count = CommitGraph.write();
+        System.out.print(String.format(COMMIT_GRAPH_WRITTEN, count) + NEWLINE);
+        return 0;
+    }
+}
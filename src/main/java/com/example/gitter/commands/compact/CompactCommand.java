@@ -0,0 +1,70 @@
+package com.example.gitter.commands.compact;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.FileUtils;
+import com.example.gitter.utils.RepositoryConfig;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.concurrent.Callable;
+
+import static com.example.gitter.constants.Messages.*;
+
+@Command(name = "compact",
+         synopsisHeading = "",
+         customSynopsis = {
+             "NAME:",
+             "compact - Pack all objects, storing similar blobs as deltas",
+             "",
+             "SYNOPSIS:",
+             "gitter compact [--window=<n>] [--depth=<n>]",
+             ""
+         },
+         descriptionHeading = "DESCRIPTION:%n",
+         description = {
+             "Pack all objects, storing similar blobs as deltas",
+             "",
+             "Like repack, moves every object into one new pack. Blobs are sorted by size and",
+             "each blob is compared with the preceding blobs in the window, in parallel. A",
+             "blob is stored as copy/insert instructions against the most similar one when",
+             "that is much smaller than the blob itself. Deltas are resolved transparently",
+             "when objects are read.",
+             ""
+         },
+         optionListHeading = "OPTIONS:%n"
+)
+public class CompactCommand implements Callable<Integer> {
+    
+    @Option(names = {"--window"},
+            description = "Number of similarly sized blobs tried as delta bases (default: pack.window, 10)",
+            paramLabel = "<n>")
+    private Integer window;
+    
+    @Option(names = {"--depth"},
+            description = "Maximum delta chain length, 0 disables deltas (default: pack.depth, 50)",
+            paramLabel = "<n>")
+    private Integer depth;
+    
+    @Override
+    public Integer call() {
+        if (!FileUtils.isGitterInitialized()) {
+            System.err.println(ERROR_NOT_INITIALIZED);
+            return 1;
+        }
+        
+        try {
+            RepositoryConfig config = RepositoryConfig.getInstance();
+            CompactOptions options = CompactOptions.builder()
+                    .window(window != null ? window : config.getPackWindow())
+                    .depth(depth != null ? depth : config.getPackDepth())
+                    .build();
+            
+            CommandStrategy<CompactOptions> strategy = options.getStrategy();
+            return strategy.execute(options);
+            
+        } catch (Exception e) {
+            System.err.println(ERROR_FAILED_TO_COMPACT + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gitter.commands.compact;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+
+import static com.example.gitter.constants.Constants.DEFAULT_PACK_DEPTH;
+import static com.example.gitter.constants.Constants.DEFAULT_PACK_WINDOW;
+import static com.example.gitter.constants.Messages.ERROR_OPTION_NEGATIVE;
+
+public class CompactOptions {
+    private final int window;
+    private final int depth;
+    
+    private CompactOptions(Builder builder) {
+        if (builder.window < 0) {
+            throw new IllegalArgumentException(String.format(ERROR_OPTION_NEGATIVE, "--window"));
+        }
+        if (builder.depth < 0) {
+            throw new IllegalArgumentException(String.format(ERROR_OPTION_NEGATIVE, "--depth"));
+        }
+        
+        this.window = builder.window;
+        this.depth = builder.depth;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public static class Builder {
+        private int window = DEFAULT_PACK_WINDOW;
+        private int depth = DEFAULT_PACK_DEPTH;
+        
+        private Builder() {}
+        
+        public Builder window(int window) {
+            this.window = window;
+            return this;
+        }
+        
+        public Builder depth(int depth) {
+            this.depth = depth;
+            return this;
+        }
+        
+        public CompactOptions build() {
+            return new CompactOptions(this);
+        }
+    }
+    
+    public CommandStrategy<CompactOptions> getStrategy() {
+        return new CompactStrategy();
+    }
+    
+    public int getWindow() {
+        return window;
+    }
+    
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.gitter.commands.compact;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.ObjectStore;
+import com.example.gitter.utils.PackFile;
+
+import java.io.IOException;
+
+import static com.example.gitter.constants.Constants.NEWLINE;
+import static com.example.gitter.constants.Messages.COMPACT_DONE;
+import static com.example.gitter.constants.Messages.COMPACT_NOTHING_TO_DO;
+
+public class CompactStrategy implements CommandStrategy<CompactOptions> {
+    
+    @Override
+    public Integer execute(CompactOptions options) throws IOException {
+        PackFile pack = ObjectStore.compact(options.getWindow(), options.getDepth());
+        if (pack == null) {
+            System.out.print(COMPACT_NOTHING_TO_DO + NEWLINE);
+            return 0;
+        }
+        
+        System.out.print(String.format(COMPACT_DONE, pack.getIndex().getObjectCount(), pack.getPackPath().getFileName()) + NEWLINE);
+        return 0;
+    }
+}
@@ -3,7 +3,10 @@ package com.example.gitter.commands.diff;
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.utils.FileUtils;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import static com.example.gitter.constants.Messages.*;
@@ -15,7 +18,7 @@ import static com.example.gitter.constants.Messages.*;
              "diff - Show changes between the working tree and the index",
              "",
              "SYNOPSIS:",
-             "gitter diff",
+             "gitter diff [<pathspec>...]",
              ""
          },
          descriptionHeading = "DESCRIPTION:%n",
@@ -24,11 +27,18 @@ import static com.example.gitter.constants.Messages.*;
              "",
              "Shows unstaged changes for all modified files in unified diff format.",
              "Compares the working tree version against what's staged in the index.",
+             "With pathspecs, only matching paths are scanned and diffed.",
              ""
-         }
+         },
+         parameterListHeading = "ARGUMENTS:%n"
 )
 public class DiffCommand implements Callable<Integer> {
     
+    @Parameters(paramLabel = "<pathspec>",
+                description = "Limit the output to matching files, directories, or patterns",
+                arity = "0..*")
+    private List<String> paths = new ArrayList<>();
+    
     @Override
     public Integer call() {
         if (!FileUtils.isGitterInitialized()) {
@@ -37,7 +47,9 @@ public class DiffCommand implements Callable<Integer> {
         }
         
         try {
-            DiffOptions options = DiffOptions.builder().build();
+            DiffOptions options = DiffOptions.builder()
+                    .paths(paths)
+                    .build();
             CommandStrategy<DiffOptions> strategy = options.getStrategy();
             return strategy.execute(options);
             
@@ -2,17 +2,30 @@ package com.example.gitter.commands.diff;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
 
+import java.util.Collections;
+import java.util.List;
+
 public class DiffOptions {
+    private final List<String> paths;
     
-    private DiffOptions(Builder builder) {}
+    private DiffOptions(Builder builder) {
+        this.paths = builder.paths != null ? Collections.unmodifiableList(builder.paths) : List.of();
+    }
     
     public static Builder builder() {
         return new Builder();
     }
     
     public static class Builder {
+        private List<String> paths;
+        
         private Builder() {}
         
+        public Builder paths(List<String> paths) {
+            this.paths = paths;
+            return this;
+        }
+        
         public DiffOptions build() {
             return new DiffOptions(this);
         }
@@ -21,4 +34,8 @@ public class DiffOptions {
     public CommandStrategy<DiffOptions> getStrategy() {
         return new DiffStrategy();
     }
+    
+    public List<String> getPaths() {
+        return paths;
+    }
 }
@@ -2,11 +2,13 @@ package com.example.gitter.commands.diff;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 import com.example.gitter.utils.HashUtils;
 import com.example.gitter.utils.Indexing;
 import com.example.gitter.utils.ObjectStore;
 import com.example.gitter.utils.OutputFormatter;
+import com.example.gitter.utils.Pathspec;
 import com.example.gitter.utils.RepositoryState;
 
 import java.io.IOException;
@@ -22,7 +24,7 @@ public class DiffStrategy implements CommandStrategy<DiffOptions> {
     
     @Override
     public Integer execute(DiffOptions options) throws IOException {
-        WorkingDirectoryStatus status = RepositoryState.getWorkingDirectoryStatus();
+        WorkingDirectoryStatus status = RepositoryState.getWorkingDirectoryStatus(Pathspec.of(options.getPaths()));
         Map<String, FileEntry> indexMap = Indexing.loadIndex();
         Path workingDir = GITTER.getParent();
         
@@ -60,13 +62,13 @@ public class DiffStrategy implements CommandStrategy<DiffOptions> {
             return;
         }
         
-        String workingHash = HashUtils.hashFile(workingFile);
+        ObjectId workingHash = HashUtils.hashFile(workingFile);
         if (indexEntry.getHash().equals(workingHash)) {
             return;
         }
         
-        String indexContent = ObjectStore.readBlob(indexEntry.getHash()).getDataAsString();
-        String workingContent = Files.readString(workingFile);
+        byte[] indexContent = ObjectStore.readBlob(indexEntry.getHash()).getData();
+        byte[] workingContent = Files.readAllBytes(workingFile);
         
         System.out.println(String.format(DIFF_HEADER_A, file));
         System.out.println(String.format(DIFF_HEADER_B, file));
@@ -0,0 +1,61 @@
+package com.example.gitter.commands.fsck;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.FileUtils;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.concurrent.Callable;
+
+import static com.example.gitter.constants.Messages.*;
+
+@Command(name = "fsck",
+         synopsisHeading = "",
+         customSynopsis = {
+             "NAME:",
+             "fsck - Verify the integrity of the object store",
+             "",
+             "SYNOPSIS:",
+             "gitter fsck [--no-progress]",
+             ""
+         },
+         descriptionHeading = "DESCRIPTION:%n",
+         description = {
+             "Verify the integrity of the object store",
+             "",
+             "Rehashes every object in parallel (core.workers) and checks that its content",
+             "matches its id, then walks the history of every branch. Prints corrupt objects,",
+             "objects that are referenced but missing, and dangling objects that no branch",
+             "reaches. Progress and throughput are shown on stderr. Exits with 1 if anything",
+             "is corrupt or missing; dangling objects alone are not an error.",
+             ""
+         },
+         optionListHeading = "OPTIONS:%n"
+)
+public class FsckCommand implements Callable<Integer> {
+    
+    @Option(names = {"--no-progress"},
+            description = "Do not report progress on stderr")
+    private boolean noProgress;
+    
+    @Override
+    public Integer call() {
+        if (!FileUtils.isGitterInitialized()) {
+            System.err.println(ERROR_NOT_INITIALIZED);
+            return 1;
+        }
+        
+        try {
+            FsckOptions options = FsckOptions.builder()
+                    .progress(!noProgress)
+                    .build();
+            
+            CommandStrategy<FsckOptions> strategy = options.getStrategy();
+            return strategy.execute(options);
+            
+        } catch (Exception e) {
+            System.err.println(ERROR_FAILED_TO_FSCK + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.gitter.commands.fsck;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+
+public class FsckOptions {
+    private final boolean progress;
+    
+    private FsckOptions(Builder builder) {
+        this.progress = builder.progress;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public static class Builder {
+        private boolean progress = true;
+        
+        private Builder() {}
+        
+        public Builder progress(boolean progress) {
+            this.progress = progress;
+            return this;
+        }
+        
+        public FsckOptions build() {
+            return new FsckOptions(this);
+        }
+    }
+    
+    public CommandStrategy<FsckOptions> getStrategy() {
+        return new FsckStrategy();
+    }
+    
+    public boolean isProgress() {
+        return progress;
+    }
+}
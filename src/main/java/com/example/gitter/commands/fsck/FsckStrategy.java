@@ -0,0 +1,50 @@
+package com.example.gitter.commands.fsck;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.models.FsckReport;
+import com.example.gitter.utils.Fsck;
+
+import java.io.IOException;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.*;
+
+public class FsckStrategy implements CommandStrategy<FsckOptions> {
+    
+    @Override
+    public Integer execute(FsckOptions options) throws IOException {
+        Fsck.ProgressListener listener = options.isProgress() ? FsckStrategy::printProgress : (c, t, b, e) -> {};
+        FsckReport report = new Fsck(listener).run();
+        if (options.isProgress()) {
+            System.err.print(NEWLINE);
+        }
+        
+        for (FsckReport.Finding finding : report.getCorrupt()) {
+            String type = finding.getType() != null ? finding.getType() : FSCK_UNKNOWN_OBJECT_TYPE;
+            System.out.print(String.format(FSCK_CORRUPT, type, finding.getId(), finding.getDetail()) + NEWLINE);
+        }
+        for (FsckReport.Finding finding : report.getMissing()) {
+            System.out.print(String.format(FSCK_MISSING, finding.getType(), finding.getId(), finding.getDetail()) + NEWLINE);
+        }
+        for (FsckReport.Finding finding : report.getDangling()) {
+            System.out.print(String.format(FSCK_DANGLING, finding.getType(), finding.getId()) + NEWLINE);
+        }
+        
+        if (options.isProgress()) {
+            double megabytes = report.getByteCount() / BYTES_PER_MEGABYTE;
+            double seconds = report.getElapsedNanos() / NANOS_PER_SECOND;
+            System.err.print(String.format(FSCK_SUMMARY, report.getObjectCount(), megabytes, seconds,
+                    throughput(report.getByteCount(), report.getElapsedNanos())) + NEWLINE);
+        }
+        return report.isHealthy() ? 0 : 1;
+    }
+    
+    private static void printProgress(long checked, long total, long bytes, long elapsedNanos) {
+        long percent = total == 0 ? 100 : checked * 100 / total;
+        System.err.print(String.format(FSCK_PROGRESS, percent, checked, total, throughput(bytes, elapsedNanos)));
+    }
+    
+    private static double throughput(long bytes, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : bytes / BYTES_PER_MEGABYTE / (elapsedNanos / NANOS_PER_SECOND);
+    }
+}
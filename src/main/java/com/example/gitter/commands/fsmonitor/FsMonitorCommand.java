@@ -0,0 +1,60 @@
+package com.example.gitter.commands.fsmonitor;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.FileUtils;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.concurrent.Callable;
+
+import static com.example.gitter.constants.Messages.*;
+
+@Command(name = "fsmonitor",
+         synopsisHeading = "",
+         customSynopsis = {
+             "NAME:",
+             "fsmonitor - Watch the working tree for changes",
+             "",
+             "SYNOPSIS:",
+             "gitter fsmonitor [--stop]",
+             ""
+         },
+         descriptionHeading = "DESCRIPTION:%n",
+         description = {
+             "Watch the working tree for changes",
+             "",
+             "Runs a file system monitor that records which paths change. While it is",
+             "running, status, add, commit, diff and checkout only re-examine changed paths",
+             "instead of scanning the whole working tree. Run it in the background,",
+             "e.g. 'gitter fsmonitor &'.",
+             ""
+         },
+         optionListHeading = "OPTIONS:%n"
+)
+public class FsMonitorCommand implements Callable<Integer> {
+    
+    @Option(names = {"--stop"},
+            description = "Stop the running file system monitor")
+    private boolean stop;
+    
+    @Override
+    public Integer call() {
+        if (!FileUtils.isGitterInitialized()) {
+            System.err.println(ERROR_NOT_INITIALIZED);
+            return 1;
+        }
+        
+        try {
+            FsMonitorOptions options = FsMonitorOptions.builder()
+                    .stop(stop)
+                    .build();
+            
+            CommandStrategy<FsMonitorOptions> strategy = options.getStrategy();
+            return strategy.execute(options);
+            
+        } catch (Exception e) {
+            System.err.println(ERROR_FAILED_TO_RUN_FSMONITOR + e.getMessage());
+            return 1;
+        }
+    }
+}
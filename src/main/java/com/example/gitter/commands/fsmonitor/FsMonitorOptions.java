@@ -0,0 +1,41 @@
+package com.example.gitter.commands.fsmonitor;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+
+public class FsMonitorOptions {
+    private final boolean stop;
+    
+    private FsMonitorOptions(Builder builder) {
+        this.stop = builder.stop;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public static class Builder {
+        private boolean stop = false;
+        
+        private Builder() {}
+        
+        public Builder stop(boolean stop) {
+            this.stop = stop;
+            return this;
+        }
+        
+        public FsMonitorOptions build() {
+            return new FsMonitorOptions(this);
+        }
+    }
+    
+    public CommandStrategy<FsMonitorOptions> getStrategy() {
+        if (stop) {
+            return new StopFsMonitorStrategy();
+        }
+        return new RunFsMonitorStrategy();
+    }
+    
+    public boolean isStop() {
+        return stop;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.gitter.commands.fsmonitor;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.FsMonitor;
+
+import java.io.IOException;
+
+import static com.example.gitter.constants.Constants.NEWLINE;
+import static com.example.gitter.constants.Messages.*;
+import static com.example.gitter.constants.PathConstants.GITTER;
+
+public class RunFsMonitorStrategy implements CommandStrategy<FsMonitorOptions> {
+    
+    @Override
+    public Integer execute(FsMonitorOptions options) throws IOException {
+        String repoRoot = GITTER.getParent().toString();
+        if (FsMonitor.isRunning()) {
+            System.err.print(String.format(FSMONITOR_ALREADY_RUNNING, repoRoot) + NEWLINE);
+            return 1;
+        }
+        
+        System.out.print(String.format(FSMONITOR_WATCHING, repoRoot) + NEWLINE);
+        FsMonitor.run();
+        System.out.print(FSMONITOR_STOPPED + NEWLINE);
+        return 0;
+    }
+}
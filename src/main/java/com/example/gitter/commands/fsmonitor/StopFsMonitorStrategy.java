@@ -0,0 +1,19 @@
+package com.example.gitter.commands.fsmonitor;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.FsMonitor;
+
+import static com.example.gitter.constants.Constants.NEWLINE;
+import static com.example.gitter.constants.Messages.FSMONITOR_NOT_RUNNING;
+
+public class StopFsMonitorStrategy implements CommandStrategy<FsMonitorOptions> {
+    
+    @Override
+    public Integer execute(FsMonitorOptions options) {
+        if (!FsMonitor.stop()) {
+            System.err.print(FSMONITOR_NOT_RUNNING + NEWLINE);
+            return 1;
+        }
+        return 0;
+    }
+}
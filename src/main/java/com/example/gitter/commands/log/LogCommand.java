@@ -3,6 +3,7 @@ package com.example.gitter.commands.log;
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.utils.FileUtils;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 
 import java.util.concurrent.Callable;
 
@@ -15,20 +16,43 @@ import static com.example.gitter.constants.Messages.*;
              "log - Show commit history in reverse chronological order (newest first)",
              "",
              "SYNOPSIS:",
-             "gitter log",
+             "gitter log [-n <n>] [--skip=<n>] [--oneline]",
              ""
          },
          descriptionHeading = "DESCRIPTION:%n",
          description = {
              "Show commit history in reverse chronological order (newest first)",
              "",
-             "Displays up to 10 commits, showing commit hash (40-character SHA-1),",
-             "author information, commit date and time, and commit message.",
+             "Displays up to 10 commits (see --max-count), showing commit hash (40-character",
+             "SHA-1), author information, commit date and time, and commit message.",
+             "",
+             "Commits are printed as they are read, so long histories start showing at once",
+             "and piping into e.g. 'head' stops the walk when the reader exits.",
+             "",
+             "Examples:",
+             "gitter log -n 100000 > audit.txt   # Whole history, up to 100000 commits",
+             "gitter log --skip=10 -n 10         # Second page of 10 commits",
+             "gitter log --oneline               # Short hash and title per line",
              ""
-         }
+         },
+         optionListHeading = "OPTIONS:%n"
 )
 public class LogCommand implements Callable<Integer> {
     
+    @Option(names = {"-n", "--max-count"},
+            description = "Show at most <n> commits (default: 10)",
+            paramLabel = "<n>")
+    private Integer maxCount;
+    
+    @Option(names = {"--skip"},
+            description = "Skip the <n> most recent commits before showing any",
+            paramLabel = "<n>")
+    private int skip;
+    
+    @Option(names = {"--oneline"},
+            description = "Show each commit as its abbreviated hash and title on one line")
+    private boolean oneline;
+    
     @Override
     public Integer call() {
         if (!FileUtils.isGitterInitialized()) {
@@ -37,7 +61,13 @@ public class LogCommand implements Callable<Integer> {
         }
         
         try {
-            LogOptions options = LogOptions.builder().build();
+            LogOptions.Builder builder = LogOptions.builder()
+                    .skip(skip)
+                    .oneline(oneline);
+            if (maxCount != null) {
+                builder.maxCount(maxCount);
+            }
+            LogOptions options = builder.build();
             CommandStrategy<LogOptions> strategy = options.getStrategy();
             return strategy.execute(options);
         } catch (Exception e) {
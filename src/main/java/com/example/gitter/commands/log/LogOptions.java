@@ -2,18 +2,53 @@ package com.example.gitter.commands.log;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
 
+import static com.example.gitter.constants.Constants.MAX_LOG_COMMITS;
+import static com.example.gitter.constants.Messages.ERROR_OPTION_NEGATIVE;
+
 public class LogOptions {
+    private final int maxCount;
+    private final int skip;
+    private final boolean oneline;
     
-    private LogOptions(Builder builder) {}
+    private LogOptions(Builder builder) {
+        if (builder.maxCount < 0) {
+            throw new IllegalArgumentException(String.format(ERROR_OPTION_NEGATIVE, "--max-count"));
+        }
+        if (builder.skip < 0) {
+            throw new IllegalArgumentException(String.format(ERROR_OPTION_NEGATIVE, "--skip"));
+        }
+        
+        this.maxCount = builder.maxCount;
+        this.skip = builder.skip;
+        this.oneline = builder.oneline;
+    }
     
     public static Builder builder() {
         return new Builder();
     }
     
     public static class Builder {
+        private int maxCount = MAX_LOG_COMMITS;
+        private int skip = 0;
+        private boolean oneline = false;
         
         private Builder() {}
         
+        public Builder maxCount(int maxCount) {
+            this.maxCount = maxCount;
+            return this;
+        }
+        
+        public Builder skip(int skip) {
+            this.skip = skip;
+            return this;
+        }
+        
+        public Builder oneline(boolean oneline) {
+            this.oneline = oneline;
+            return this;
+        }
+        
         public LogOptions build() {
             return new LogOptions(this);
         }
@@ -22,4 +57,16 @@ public class LogOptions {
     public CommandStrategy<LogOptions> getStrategy() {
         return new LogStrategy();
     }
+    
+    public int getMaxCount() {
+        return maxCount;
+    }
+    
+    public int getSkip() {
+        return skip;
+    }
+    
+    public boolean isOneline() {
+        return oneline;
+    }
 }
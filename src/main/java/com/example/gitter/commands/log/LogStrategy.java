@@ -2,61 +2,115 @@ package com.example.gitter.commands.log;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.models.Commit;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.utils.ObjectStore;
 import com.example.gitter.utils.OutputFormatter;
 import com.example.gitter.utils.RepositoryState;
 
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
-import static com.example.gitter.constants.Constants.MAX_LOG_COMMITS;
+import static com.example.gitter.constants.Constants.BROKEN_PIPE_MESSAGE;
+import static com.example.gitter.constants.Constants.LOG_OUTPUT_BUFFER_SIZE;
 import static com.example.gitter.constants.Constants.NEWLINE;
+import static com.example.gitter.constants.Messages.ERROR_FAILED_TO_WRITE_LOG;
 import static com.example.gitter.constants.Messages.LOG_NO_COMMITS;
 
+/**
+ * Prints each commit as soon as it is read, walking from HEAD through parents, so memory
+ * use does not grow with --max-count. Skipped commits are passed through the commit-graph
+ * where possible, without being parsed.
+ *
+ * Output goes through a buffer straight to stdout. If the reader of a pipe exits, no
+ * further commits are read; any other write error (e.g. a full disk) fails the command.
+ */
 public class LogStrategy implements CommandStrategy<LogOptions> {
+    private final OutputStream stdout;
+    
+    public LogStrategy() {
+        // System.out would swallow write errors, so a full disk could not be told apart
+        this(new FileOutputStream(FileDescriptor.out));
+    }
+    
+    LogStrategy(OutputStream stdout) {
+        this.stdout = stdout;
+    }
     
     @Override
     public Integer execute(LogOptions options) throws IOException {
-        List<Commit> commits = loadCommitHistory(MAX_LOG_COMMITS);
-        
-        if (commits.isEmpty()) {
-            System.out.print(LOG_NO_COMMITS + NEWLINE);
+        return log(RepositoryState.getCurrentCommitHash(), options);
+    }
+    
+    /**
+     * Print the log starting at head
+     *
+     * @param head Commit to start from, or null if the branch has no commits
+     */
+    int log(ObjectId head, LogOptions options) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(stdout, StandardCharsets.UTF_8), LOG_OUTPUT_BUFFER_SIZE);
+        try {
+            if (head == null) {
+                write(out, LOG_NO_COMMITS + NEWLINE);
+            } else {
+                writeCommits(out, head, options);
+            }
+            flush(out);
             return 0;
+        } catch (UncheckedIOException e) {
+            if (isBrokenPipe(e.getCause())) {
+                return 0;
+            }
+            System.err.println(ERROR_FAILED_TO_WRITE_LOG + e.getCause().getMessage());
+            return 1;
         }
-        
-        for (Commit commit : commits) {
-            OutputFormatter.displayCommit(commit);
-        }
-        
-        return 0;
     }
     
-    private List<Commit> loadCommitHistory(int maxCount) throws IOException {
-        List<Commit> commits = new ArrayList<>();
-        String currentHash = RepositoryState.getCurrentCommitHash();
-        
-        if (currentHash.isEmpty()) {
-            return commits;
+    private void writeCommits(Writer out, ObjectId currentHash, LogOptions options) throws IOException {
+        for (int i = 0; i < options.getSkip() && currentHash != null; i++) {
+            currentHash = RepositoryState.getParentCommitHash(currentHash);
         }
         
-        while (currentHash != null && !currentHash.isEmpty() && commits.size() < maxCount) {
-            Commit commit = loadCommit(currentHash);
-            if (commit == null) {
-                break;
-            }
+        int shown = 0;
+        while (currentHash != null && shown < options.getMaxCount() && ObjectStore.exists(currentHash)) {
+            Commit commit = ObjectStore.readParsedCommit(currentHash);
+            write(out, options.isOneline() ? OutputFormatter.formatCommitOneline(commit) : OutputFormatter.formatCommit(commit));
             
-            commits.add(commit);
+            shown++;
             currentHash = commit.getParent();
         }
-        
-        return commits;
     }
     
-    private Commit loadCommit(String hash) throws IOException {
-        if (!ObjectStore.exists(hash)) {
-            return null;
+    /**
+     * Errors writing the output are unchecked, so they are not mistaken for errors
+     * reading commits
+     */
+    private static void write(Writer out, String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return Commit.fromObjectContent(hash, ObjectStore.readCommit(hash));
+    }
+    
+    private static void flush(Writer out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * The reader has exited, e.g. log piped into head
+     */
+    private static boolean isBrokenPipe(IOException e) {
+        return e.getMessage() != null && e.getMessage().contains(BROKEN_PIPE_MESSAGE);
     }
 }
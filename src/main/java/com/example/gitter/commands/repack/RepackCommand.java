@@ -0,0 +1,50 @@
+package com.example.gitter.commands.repack;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.FileUtils;
+import picocli.CommandLine.Command;
+
+import java.util.concurrent.Callable;
+
+import static com.example.gitter.constants.Messages.*;
+
+@Command(name = "repack",
+         synopsisHeading = "",
+         customSynopsis = {
+             "NAME:",
+             "repack - Pack loose objects into a single pack file",
+             "",
+             "SYNOPSIS:",
+             "gitter repack",
+             ""
+         },
+         descriptionHeading = "DESCRIPTION:%n",
+         description = {
+             "Pack loose objects into a single pack file",
+             "",
+             "Moves every loose object (.gitter/objects/ab/...) and the contents of existing",
+             "packs into one new pack (.gitter/objects/pack/pack-<checksum>.pack) with a",
+             "sorted index (.idx), then deletes the loose files and the old packs.",
+             "Packed objects are read transparently by all other commands.",
+             ""
+         }
+)
+public class RepackCommand implements Callable<Integer> {
+    
+    @Override
+    public Integer call() {
+        if (!FileUtils.isGitterInitialized()) {
+            System.err.println(ERROR_NOT_INITIALIZED);
+            return 1;
+        }
+        
+        try {
+            RepackOptions options = RepackOptions.builder().build();
+            CommandStrategy<RepackOptions> strategy = options.getStrategy();
+            return strategy.execute(options);
+        } catch (Exception e) {
+            System.err.println(ERROR_FAILED_TO_REPACK + e.getMessage());
+            return 1;
+        }
+    }
+}
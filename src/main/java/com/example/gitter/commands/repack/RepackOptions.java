@@ -0,0 +1,25 @@
+package com.example.gitter.commands.repack;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+
+public class RepackOptions {
+    
+    private RepackOptions(Builder builder) {}
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public static class Builder {
+        
+        private Builder() {}
+        
+        public RepackOptions build() {
+            return new RepackOptions(this);
+        }
+    }
+    
+    public CommandStrategy<RepackOptions> getStrategy() {
+        return new RepackStrategy();
+    }
+}
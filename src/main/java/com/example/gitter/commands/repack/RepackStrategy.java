@@ -0,0 +1,26 @@
+package com.example.gitter.commands.repack;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.utils.ObjectStore;
+import com.example.gitter.utils.PackFile;
+
+import java.io.IOException;
+
+import static com.example.gitter.constants.Constants.NEWLINE;
+import static com.example.gitter.constants.Messages.REPACK_DONE;
+import static com.example.gitter.constants.Messages.REPACK_NOTHING_TO_DO;
+
+public class RepackStrategy implements CommandStrategy<RepackOptions> {
+    
+    @Override
+    public Integer execute(RepackOptions options) throws IOException {
+        PackFile pack = ObjectStore.repack();
+        if (pack == null) {
+            System.out.print(REPACK_NOTHING_TO_DO + NEWLINE);
+            return 0;
+        }
+        
+        System.out.print(String.format(REPACK_DONE, pack.getIndex().getObjectCount(), pack.getPackPath().getFileName()) + NEWLINE);
+        return 0;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.gitter.commands.reset;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.utils.Indexing;
 import com.example.gitter.utils.RepositoryState;
 
@@ -19,7 +20,7 @@ public class ResetToCommitStrategy implements CommandStrategy<ResetOptions> {
     @Override
     public Integer execute(ResetOptions options) throws IOException {
         String commitRef = options.isEmpty() ? HEAD_REF : options.getFirst();
-        String targetCommitHash = resolveCommitHash(commitRef);
+        ObjectId targetCommitHash = resolveCommitHash(commitRef);
         
         if (targetCommitHash == null) {
             return 1;
@@ -27,16 +28,16 @@ public class ResetToCommitStrategy implements CommandStrategy<ResetOptions> {
         
         String currentBranch = RepositoryState.getCurrentBranch();
         Path branchFile = HEADS.resolve(currentBranch);
-        Files.writeString(branchFile, targetCommitHash + NEWLINE);
+        Files.writeString(branchFile, targetCommitHash.name() + NEWLINE);
         
         Indexing.updateIndex(targetCommitHash);
         
         return 0;
     }
     
-    private String resolveCommitHash(String commitRef) throws IOException {
-        String targetCommitHash = RepositoryState.getCurrentCommitHash();
-        if (targetCommitHash.isEmpty()) {
+    private ObjectId resolveCommitHash(String commitRef) throws IOException {
+        ObjectId targetCommitHash = RepositoryState.getCurrentCommitHash();
+        if (targetCommitHash == null) {
             String currentBranch = RepositoryState.getCurrentBranch();
             System.err.printf(ERROR_NO_COMMITS_YET + NEWLINE, currentBranch);
             return null;
@@ -60,9 +61,9 @@ public class ResetToCommitStrategy implements CommandStrategy<ResetOptions> {
         }
         
         for (int i = 0; i < stepsBack; i++) {
-            String parent = RepositoryState.getParentCommitHash(targetCommitHash);
+            ObjectId parent = RepositoryState.getParentCommitHash(targetCommitHash);
             
-            if (parent == null || parent.isEmpty()) {
+            if (parent == null) {
                 System.err.printf(ERROR_CANNOT_GO_BACK_INITIAL + NEWLINE, stepsBack);
                 return null;
             }
@@ -2,12 +2,15 @@ package com.example.gitter.commands.reset;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.utils.FileUtils;
 import com.example.gitter.utils.Indexing;
+import com.example.gitter.utils.Pathspec;
 import com.example.gitter.utils.RepositoryState;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -33,7 +36,6 @@ public class UnstageFilesStrategy implements CommandStrategy<ResetOptions> {
             return indexMap.keySet();
         }
         
-        Map<String, String> allWorkingFiles = RepositoryState.getWorkingFiles();
         Set<String> filesToUnstage = new HashSet<>();
         
         for (String pattern : options.getArgs()) {
@@ -42,7 +44,8 @@ public class UnstageFilesStrategy implements CommandStrategy<ResetOptions> {
             if (!matchingIndexFiles.isEmpty()) {
                 filesToUnstage.addAll(matchingIndexFiles);
             } else {
-                Set<String> matchingWorkingFiles = FileUtils.findMatchingFiles(pattern, allWorkingFiles.keySet());
+                // Only scan the working tree below the pattern to tell "unchanged" from "no such path"
+                Map<String, ObjectId> matchingWorkingFiles = RepositoryState.getWorkingFiles(Pathspec.of(List.of(pattern)));
                 if (matchingWorkingFiles.isEmpty()) {
                     throw new IOException(String.format(ERROR_PATHSPEC_NO_MATCH, pattern));
                 }
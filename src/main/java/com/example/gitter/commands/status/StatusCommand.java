@@ -3,7 +3,10 @@ package com.example.gitter.commands.status;
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.utils.FileUtils;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import static com.example.gitter.constants.Messages.*;
@@ -15,7 +18,7 @@ import static com.example.gitter.constants.Messages.*;
              "status - Show the working tree status",
              "",
              "SYNOPSIS:",
-             "gitter status",
+             "gitter status [<pathspec>...]",
              ""
          },
          descriptionHeading = "DESCRIPTION:%n",
@@ -24,11 +27,18 @@ import static com.example.gitter.constants.Messages.*;
              "",
              "Displays changes in three categories - changes staged for commit,",
              "changes not staged for commit, and untracked files.",
+             "With pathspecs, only matching paths are scanned and shown.",
              ""
-         }
+         },
+         parameterListHeading = "ARGUMENTS:%n"
 )
 public class StatusCommand implements Callable<Integer> {
     
+    @Parameters(paramLabel = "<pathspec>",
+                description = "Limit the output to matching files, directories, or patterns",
+                arity = "0..*")
+    private List<String> paths = new ArrayList<>();
+    
     @Override
     public Integer call() {
         if (!FileUtils.isGitterInitialized()) {
@@ -37,7 +47,9 @@ public class StatusCommand implements Callable<Integer> {
         }
         
         try {
-            StatusOptions options = StatusOptions.builder().build();
+            StatusOptions options = StatusOptions.builder()
+                    .paths(paths)
+                    .build();
             CommandStrategy<StatusOptions> strategy = options.getStrategy();
             return strategy.execute(options);
         } catch (Exception e) {
@@ -2,18 +2,30 @@ package com.example.gitter.commands.status;
 
 import com.example.gitter.commands.strategy.CommandStrategy;
 
+import java.util.Collections;
+import java.util.List;
+
 public class StatusOptions {
+    private final List<String> paths;
     
-    private StatusOptions(Builder builder) {}
+    private StatusOptions(Builder builder) {
+        this.paths = builder.paths != null ? Collections.unmodifiableList(builder.paths) : List.of();
+    }
     
     public static Builder builder() {
         return new Builder();
     }
     
     public static class Builder {
+        private List<String> paths;
         
         private Builder() {}
         
+        public Builder paths(List<String> paths) {
+            this.paths = paths;
+            return this;
+        }
+        
         public StatusOptions build() {
             return new StatusOptions(this);
         }
@@ -22,4 +34,8 @@ public class StatusOptions {
     public CommandStrategy<StatusOptions> getStrategy() {
         return new StatusStrategy();
     }
+    
+    public List<String> getPaths() {
+        return paths;
+    }
 }
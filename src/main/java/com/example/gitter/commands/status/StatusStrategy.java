@@ -3,6 +3,7 @@ package com.example.gitter.commands.status;
 import com.example.gitter.commands.strategy.CommandStrategy;
 import com.example.gitter.models.WorkingDirectoryStatus;
 import com.example.gitter.utils.OutputFormatter;
+import com.example.gitter.utils.Pathspec;
 import com.example.gitter.utils.RepositoryState;
 
 import java.io.IOException;
@@ -12,7 +13,7 @@ public class StatusStrategy implements CommandStrategy<StatusOptions> {
     @Override
     public Integer execute(StatusOptions options) throws IOException {
         String currentBranch = RepositoryState.getCurrentBranch();
-        WorkingDirectoryStatus status = RepositoryState.getWorkingDirectoryStatus();
+        WorkingDirectoryStatus status = RepositoryState.getWorkingDirectoryStatus(Pathspec.of(options.getPaths()));
         
         OutputFormatter.displayStatus(currentBranch, status);
         return 0;
@@ -14,6 +14,7 @@ public class Constants {
     public static final String GLOB_WILDCARD_ASTERISK = "*";
     public static final String GLOB_WILDCARD_QUESTION = "?";
     public static final String PATH_SEPARATOR = "/";
+    public static final String PATH_SEPARATOR_SUCCESSOR = "0";  // next character after '/', bounds sorted path ranges
     public static final String GLOB_MATCHER_PREFIX = "glob:";
     
     // Commit format
@@ -23,10 +24,16 @@ public class Constants {
     public static final String HEAD_REF = "HEAD";
     public static final String HEAD_ANCESTOR_PREFIX = "HEAD~";
     public static final int HEAD_ANCESTOR_PREFIX_LENGTH = 5;
+    public static final String BRANCH_REF_PREFIX = "refs/heads/";
     
     // Hashing
     public static final String HASH_ALGORITHM = "SHA-1";
     public static final int HASH_SHORT_LENGTH = 7;
+    public static final int OBJECT_ID_LENGTH = 20;
+    public static final int OBJECT_ID_HEX_LENGTH = 40;
+    public static final int HASH_BUFFER_SIZE = 64 * 1024;
+    public static final long HASH_MMAP_THRESHOLD = 64L * 1024 * 1024;
+    public static final long HASH_MMAP_WINDOW_SIZE = 256L * 1024 * 1024;
     
     // Empty/Utility
     public static final String EMPTY_STRING = "";
@@ -34,11 +41,123 @@ public class Constants {
     // Object store
     public static final String OBJECT_TYPE_BLOB = "blob";
     public static final String OBJECT_TYPE_COMMIT = "commit";
+    public static final String OBJECT_TYPE_TREE = "tree";
+    public static final String OBJECT_TYPE_DELTA = "delta";  // pack entry: base id + Delta instructions, resolves to a blob
+    public static final String OBJECT_TYPE_CHUNKED = "chunked";  // ChunkManifest of a large blob, stored under the blob's id
     public static final String NULL_BYTE = "\0";
     public static final byte NULL_BYTE_VALUE = 0;
     public static final int HASH_SHARD_START = 0;
     public static final int HASH_SHARD_END = 2;
+    public static final int OBJECT_BUFFER_SIZE = 8 * 1024;
+    public static final int OBJECT_HEADER_MAX_LENGTH = 32;
+    public static final String TEMP_OBJECT_PREFIX = "tmp-obj-";
+    public static final long OBJECT_MMAP_THRESHOLD = 1024 * 1024;  // smaller loose objects are cheaper to read than to map
+    public static final int DEFAULT_OBJECT_CACHE_LIMIT = 32 * 1024 * 1024;
+    public static final int OBJECT_CACHE_ENTRY_OVERHEAD = 128;  // estimated bytes of id, map entry and object headers
+    public static final int DEFAULT_MMAP_WINDOW_SIZE = 32 * 1024 * 1024;
+    public static final long DEFAULT_MMAP_LIMIT = 256L * 1024 * 1024;
+    public static final int ZLIB_HEADER_BYTE = 0x78;  // first byte of every zlib stream; legacy objects start with the type name
+    
+    // Pack files (objects/pack/pack-<checksum>.pack + .idx)
+    public static final String PACK_SIGNATURE = "PACK";
+    public static final String PACK_INDEX_SIGNATURE = "GIDX";
+    public static final int PACK_VERSION = 1;
+    public static final int PACK_HEADER_LENGTH = 8;
+    public static final int PACK_FANOUT_SIZE = 256;
+    public static final String PACK_DIR = "pack";
+    public static final String PACK_FILE_PREFIX = "pack-";
+    public static final String PACK_TEMP_PREFIX = "tmp-pack-";
+    public static final String PACK_FILE_PERMISSIONS = "rw-r--r--";
+    public static final String PACK_EXTENSION = ".pack";
+    public static final String PACK_INDEX_EXTENSION = ".idx";
+    
+    // Deltas
+    public static final int DELTA_BLOCK_SIZE = 16;
+    public static final int DELTA_COPY_OPCODE = 0x80;
+    public static final int DELTA_MAX_INSERT = 0x7f;
+    public static final int DELTA_MIN_OBJECT_SIZE = 64;
+    public static final int DELTA_SEARCH_BATCH_SIZE = 256;
+    public static final int DELTA_MAX_CHAIN_LENGTH = 4096;  // hard stop for corrupt (cyclic) chains, above any pack.depth in use
+    public static final int DEFAULT_PACK_WINDOW = 10;
+    public static final int DEFAULT_PACK_DEPTH = 50;
+    public static final int DEFAULT_DELTA_BASE_CACHE_LIMIT = 16 * 1024 * 1024;
+    
+    // Content-defined chunking of large blobs
+    public static final int CHUNK_MIN_SIZE = 256 * 1024;
+    public static final int CHUNK_AVERAGE_SIZE = 1024 * 1024;  // must be a power of two
+    public static final int CHUNK_MAX_SIZE = 4 * 1024 * 1024;
+    public static final int CHUNK_NORMALIZATION_LEVEL = 2;
+    public static final long CHUNK_GEAR_SEED = 0x6769747465724344L;  // fixed so that boundaries, and chunk ids, never change
+    public static final long DEFAULT_CHUNK_THRESHOLD = 16L * 1024 * 1024;
+    
+    // Durability of object writes (core.fsync)
+    public static final String FSYNC_NONE = "none";
+    public static final String FSYNC_BATCH = "batch";
+    public static final String FSYNC_PER_OBJECT = "per-object";
+    public static final String DEFAULT_FSYNC = FSYNC_BATCH;
+    
+    // Object databases (core.objectDatabase)
+    public static final String OBJECT_DATABASE_LOOSE = "loose";
+    public static final String OBJECT_DATABASE_MEMORY = "memory";
+    public static final String OBJECT_DATABASE_LOG = "log";
+    public static final String DEFAULT_OBJECT_DATABASE = OBJECT_DATABASE_LOOSE;
+    public static final String OBJECT_LOG_SIGNATURE = "GLOG";
+    public static final int OBJECT_LOG_VERSION = 1;
+    public static final int OBJECT_LOG_HEADER_LENGTH = 8;
+    
+    // Object presence filter (objects/presence-filter)
+    public static final String OBJECT_FILTER_FILE = "presence-filter";
+    public static final String OBJECT_FILTER_LOCK_FILE = "presence-filter.lock";
+    public static final String OBJECT_FILTER_SIGNATURE = "GFLT";
+    public static final int OBJECT_FILTER_VERSION = 1;
+    public static final int OBJECT_FILTER_BITS_PER_OBJECT = 10;
+    public static final int OBJECT_FILTER_HASH_COUNT = 7;  // optimal for 10 bits per object, about 1% false positives
+    public static final int OBJECT_FILTER_MIN_CAPACITY = 1024;
+    
+    // Commit-graph (objects/info/commit-graph)
+    public static final String COMMIT_GRAPH_SIGNATURE = "CGPH";
+    public static final int COMMIT_GRAPH_VERSION = 1;
+    public static final int COMMIT_GRAPH_HEADER_LENGTH = 8;
+    public static final int COMMIT_GRAPH_RECORD_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES + OBJECT_ID_LENGTH;  // parent, generation, timestamp, tree
+    public static final int COMMIT_GRAPH_NO_PARENT = -1;
+    public static final int COMMIT_GRAPH_PARENT_NOT_IN_GRAPH = -2;  // parent object was missing when the graph was written
+    public static final String COMMIT_GRAPH_ACTION_WRITE = "write";
+    
+    // Repository check (gitter fsck)
+    public static final long FSCK_PROGRESS_INTERVAL_NANOS = 250_000_000L;
+    public static final double BYTES_PER_MEGABYTE = 1024.0 * 1024;
+    public static final double NANOS_PER_SECOND = 1e9;
+    
+    // Repository config (.gitter/config)
+    public static final String CONFIG_SEPARATOR = "=";
+    public static final String CONFIG_COMMENT_PREFIX = "#";
+    public static final String CONFIG_CORE_WORKERS = "core.workers";
+    public static final String CONFIG_CORE_UNTRACKED_CACHE = "core.untrackedCache";
+    public static final String CONFIG_CORE_COMPRESSION = "core.compression";
+    public static final String CONFIG_CORE_DELTA_BASE_CACHE_LIMIT = "core.deltaBaseCacheLimit";
+    public static final String CONFIG_CORE_OBJECT_CACHE_LIMIT = "core.objectCacheLimit";
+    public static final String CONFIG_CORE_MMAP_WINDOW_SIZE = "core.mmapWindowSize";
+    public static final String CONFIG_CORE_MMAP_LIMIT = "core.mmapLimit";
+    public static final String CONFIG_CORE_CHUNK_THRESHOLD = "core.chunkThreshold";
+    public static final String CONFIG_CORE_FSYNC = "core.fsync";
+    public static final String CONFIG_CORE_OBJECT_DATABASE = "core.objectDatabase";
+    public static final String CONFIG_PACK_WINDOW = "pack.window";
+    public static final String CONFIG_PACK_DEPTH = "pack.depth";
+    
+    // File system monitor
+    public static final String FSMONITOR_QUERY = "QUERY";
+    public static final String FSMONITOR_STOP = "STOP";
+    public static final String FSMONITOR_OK = "OK";
+    public static final String FSMONITOR_FULL_SCAN = "FULL";
+    public static final String FSMONITOR_TOKEN_SEPARATOR = ":";
+    public static final String FSMONITOR_COOKIE_PREFIX = "fsmonitor-cookie-";
+    public static final long FSMONITOR_COOKIE_TIMEOUT_MS = 2000;
+    public static final long FSMONITOR_POLL_INTERVAL_MS = 100;
+    public static final int FSMONITOR_MAX_TOKENS = 16;
     
     public static final int MAX_LOG_COMMITS = 10;
+    public static final int LOG_ONELINE_HASH_LENGTH = 7;
+    public static final int LOG_OUTPUT_BUFFER_SIZE = 64 * 1024;
+    public static final String BROKEN_PIPE_MESSAGE = "Broken pipe";
     public static final int DIFF_CONTEXT_LINES = 3;
 }
@@ -66,7 +66,9 @@ public class Messages {
     public static final String LOG_AUTHOR = "Author: user";
     public static final String LOG_DATE = "Date:   %s";
     public static final String LOG_MESSAGE_INDENT = "    ";
+    public static final String LOG_ONELINE = COLOR_YELLOW + "%s" + COLOR_RESET + " %s";
     public static final String ERROR_FAILED_TO_READ_LOG = "Error: Failed to read commit log - ";
+    public static final String ERROR_FAILED_TO_WRITE_LOG = "Error: Failed to write commit log - ";
     
     public static final String ERROR_PATHSPEC_NO_MATCH = "Error: pathspec '%s' did not match any files";
     public static final String ERROR_FAILED_TO_ADD = "Error: Failed to add files - ";
@@ -97,10 +99,61 @@ public class Messages {
     // Object store messages
     public static final String ERROR_EXPECTED_OBJECT_TYPE = "Expected %s, got %s";
     public static final String ERROR_OBJECT_NOT_FOUND = "Object not found: %s";
+    public static final String ERROR_INVALID_OBJECT_ID = "Invalid object id: %s";
     public static final String ERROR_OBJECT_SIZE_MISMATCH = "Object corruption: expected size %d, got %d";
     public static final String ERROR_MALFORMED_OBJECT_NO_NULL = "Malformed object: no null byte separator";
     public static final String ERROR_MALFORMED_OBJECT_HEADER = "Malformed object header: %s";
+    public static final String ERROR_OBJECT_TOO_LARGE = "Object of %d bytes is too large to load into memory";
+    public static final String ERROR_FILE_CHANGED_WHILE_READING = "File changed while being read: %s";
+    public static final String ERROR_CORRUPT_PACK = "Corrupt pack file: %s";
+    public static final String ERROR_CORRUPT_DELTA = "Corrupt delta object";
+    public static final String ERROR_CORRUPT_OBJECT_LOG = "Corrupt object log: %s";
+    public static final String ERROR_CORRUPT_COMMIT_GRAPH = "Corrupt commit-graph: %s";
+    public static final String ERROR_PACKING_NEEDS_LOOSE_OBJECTS = "Packing requires core.objectDatabase = loose";
+    public static final String ERROR_MALFORMED_CHUNK_MANIFEST = "Malformed chunk manifest line: %s";
+    public static final String ERROR_MALFORMED_TREE_ENTRY = "Malformed tree entry: %s";
+    
+    // Repack messages
+    public static final String REPACK_NOTHING_TO_DO = "Nothing to repack";
+    public static final String REPACK_DONE = "Packed %d objects into %s";
+    public static final String ERROR_FAILED_TO_REPACK = "Error: Failed to repack - ";
+    
+    // Compact messages
+    public static final String COMPACT_NOTHING_TO_DO = "Nothing to compact";
+    public static final String COMPACT_DONE = "Packed %d objects into %s";
+    public static final String ERROR_OPTION_NEGATIVE = "%s must not be negative";
+    public static final String ERROR_FAILED_TO_COMPACT = "Error: Failed to compact - ";
+    
+    // Commit-graph messages
+    public static final String COMMIT_GRAPH_WRITTEN = "Wrote commit-graph with %d commits";
+    public static final String ERROR_UNKNOWN_COMMIT_GRAPH_ACTION = "Error: Unknown commit-graph action '%s' (expected 'write')";
+    public static final String ERROR_FAILED_TO_WRITE_COMMIT_GRAPH = "Error: Failed to write commit-graph - ";
+    public static final String WARNING_COMMIT_GRAPH_UNREADABLE = "Warning: Ignoring commit-graph: %s (rewrite it with 'gitter commit-graph write')";
+    
+    // Fsck messages
+    public static final String FSCK_CHECKING_OBJECTS = "checking objects";
+    public static final String FSCK_PROGRESS = "Checking objects: %d%% (%d/%d), %.1f MB/s\r";
+    public static final String FSCK_SUMMARY = "Checked %d objects (%.1f MB) in %.1f s, %.1f MB/s";
+    public static final String FSCK_CORRUPT = "corrupt %s %s: %s";
+    public static final String FSCK_MISSING = "missing %s %s (referenced by %s)";
+    public static final String FSCK_DANGLING = "dangling %s %s";
+    public static final String FSCK_UNKNOWN_TYPE = "unknown object type '%s'";
+    public static final String FSCK_HASH_MISMATCH = "content hashes to %s";
+    public static final String FSCK_UNKNOWN_OBJECT_TYPE = "object";
+    public static final String ERROR_FAILED_TO_FSCK = "Error: Failed to check repository - ";
     
     // Repository state messages
     public static final String WARNING_COULD_NOT_PROCESS_FILE = "Warning: Could not process %s: %s";
+    public static final String ERROR_INTERRUPTED = "Interrupted while %s";
+    
+    // File system monitor messages
+    public static final String FSMONITOR_WATCHING = "Watching %s for changes (stop with 'gitter fsmonitor --stop')";
+    public static final String FSMONITOR_ALREADY_RUNNING = "File system monitor is already running for %s";
+    public static final String FSMONITOR_STOPPED = "File system monitor stopped";
+    public static final String FSMONITOR_NOT_RUNNING = "File system monitor is not running";
+    public static final String WARNING_FSMONITOR_WATCH_FAILED = "Warning: Could not watch %s: %s (falling back to full scans)";
+    public static final String ERROR_FAILED_TO_RUN_FSMONITOR = "Error: File system monitor failed - ";
+    
+    // Config messages
+    public static final String ERROR_INVALID_CONFIG_VALUE = "Invalid value for config '%s': %s";
 }
@@ -5,16 +5,25 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import static com.example.gitter.constants.Constants.GITTER_DIR;
+import static com.example.gitter.constants.Constants.PACK_DIR;
 import static com.example.gitter.constants.Constants.USER_DIR;
 
 public class PathConstants {
     private static final Path REPOSITORY_ROOT = findRepositoryRoot();
     public static final Path GITTER = REPOSITORY_ROOT.resolve(GITTER_DIR);
     public static final Path OBJECTS = GITTER.resolve("objects");
+    public static final Path PACKS = OBJECTS.resolve(PACK_DIR);
+    public static final Path OBJECT_LOG = OBJECTS.resolve("objects.log");
+    public static final Path COMMIT_GRAPH = OBJECTS.resolve("info").resolve("commit-graph");
     public static final Path REFS = GITTER.resolve("refs");
     public static final Path HEADS = REFS.resolve("heads");
     public static final Path HEAD = GITTER.resolve("HEAD");
     public static final Path INDEX = GITTER.resolve("index");
+    public static final Path CONFIG = GITTER.resolve("config");
+    public static final Path UNTRACKED_CACHE = GITTER.resolve("untracked-cache");
+    public static final Path TREE_CACHE = GITTER.resolve("tree-cache");
+    public static final Path FSMONITOR_SOCKET = GITTER.resolve("fsmonitor.sock");
+    public static final Path FSMONITOR_STATE = GITTER.resolve("fsmonitor-state");
     
     /**
      * Search upward from user.dir to find .gitter folder.
@@ -0,0 +1,92 @@
+package com.example.gitter.models;
+
+import com.example.gitter.constants.Constants;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.gitter.constants.Messages.ERROR_MALFORMED_CHUNK_MANIFEST;
+
+/**
+ * The chunks of a large blob, in file order. Each chunk is an ordinary blob.
+ *
+ * Serialization format:
+ *
+ * <chunk1 hash> <chunk1 size>
+ * <chunk2 hash> <chunk2 size>
+ * ...
+ */
+public class ChunkManifest {
+    private static final String SEPARATOR = " ";
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long totalSize;
+
+    public static class Chunk {
+        private final ObjectId id;
+        private final long size;
+
+        public Chunk(ObjectId id, long size) {
+            this.id = id;
+            this.size = size;
+        }
+
+        public ObjectId getId() {
+            return id;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    public void add(ObjectId id, long size) {
+        chunks.add(new Chunk(id, size));
+        totalSize += size;
+    }
+
+    public List<Chunk> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * @return Size of the blob, the sum of the chunk sizes
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public byte[] serialize() {
+        StringBuilder sb = new StringBuilder();
+        for (Chunk chunk : chunks) {
+            sb.append(chunk.id.name()).append(SEPARATOR).append(chunk.size).append(Constants.NEWLINE);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static ChunkManifest deserialize(byte[] content) throws IOException {
+        ChunkManifest manifest = new ChunkManifest();
+        for (String line : new String(content, StandardCharsets.UTF_8).split(Constants.NEWLINE)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split(SEPARATOR);
+            if (parts.length != 2 || !ObjectId.isValid(parts[0])) {
+                throw new IOException(String.format(ERROR_MALFORMED_CHUNK_MANIFEST, line));
+            }
+            try {
+                long size = Long.parseLong(parts[1]);
+                if (size < 0) {
+                    throw new IOException(String.format(ERROR_MALFORMED_CHUNK_MANIFEST, line));
+                }
+                manifest.add(ObjectId.fromString(parts[0]), size);
+            } catch (NumberFormatException e) {
+                throw new IOException(String.format(ERROR_MALFORMED_CHUNK_MANIFEST, line));
+            }
+        }
+        return manifest;
+    }
+}
@@ -3,11 +3,14 @@ package com.example.gitter.models;
 import com.example.gitter.constants.Constants;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.example.gitter.constants.Messages.ERROR_REPOSITORY_CORRUPT;
+
 /**
  * Serialization format:
  *      
@@ -16,36 +19,77 @@ import java.util.Map;
  * ...
  * timestamp: <timestamp>
  * parent: <parent>
+ * tree: <root tree hash>
+ *
+ * Commits written before trees were introduced list every file instead of a root tree.
+ * They are still read (getFiles()), and are written by the constructors taking files:
+ *
  * files:
  * <file1 path>\t<file1 hash>
  * <file2 path>\t<file2 hash>
  * ...
+ *
+ * Parsing reads only the header (everything before "files:"); the file list of such a
+ * commit is kept as bytes and decoded on the first getFiles(), so walking history does
+ * not build a FileEntry per file of every commit.
  */
 public class Commit {
     private static final String FIELD_MESSAGE = "message: ";
     private static final String FIELD_TIMESTAMP = "timestamp: ";
     private static final String FIELD_PARENT = "parent: ";
+    private static final String FIELD_TREE = "tree: ";
     private static final String FIELD_FILES = "files:";
     
-    private final String hash;
+    private final ObjectId hash;
     private final String message;
     private final String timestamp;
-    private final String parent;
-    private final Map<String, FileEntry> files;  // path -> FileEntry
+    private final ObjectId parent;
+    private final ObjectId tree;
+    private volatile Map<String, FileEntry> files;  // path -> FileEntry, only without a tree; null until decoded
+    private final byte[] data;  // serialized commit, while files are not decoded
+    private final int filesOffset;  // start of the file list in data
+    
+    public Commit(ObjectId hash, String message, String timestamp, ObjectId parent, ObjectId tree) {
+        this(hash, message, timestamp, parent, tree, Map.of());
+    }
+    
+    public Commit(ObjectId hash, String message, String timestamp, ObjectId parent, Map<String, FileEntry> files) {
+        this(hash, message, timestamp, parent, null, files);
+    }
     
-    public Commit(String hash, String message, String timestamp, String parent, Map<String, FileEntry> files) {
+    private Commit(ObjectId hash, String message, String timestamp, ObjectId parent, ObjectId tree,
+            Map<String, FileEntry> files) {
         this.hash = hash;
         this.message = message;
         this.timestamp = timestamp;
         this.parent = parent;
+        this.tree = tree;
         this.files = new HashMap<>(files);
+        this.data = null;
+        this.filesOffset = 0;
     }
     
-    public Commit(String message, String parent, Map<String, FileEntry> files) {
+    private Commit(ObjectId hash, String message, String timestamp, ObjectId parent, ObjectId tree,
+            byte[] data, int filesOffset) {
+        this.hash = hash;
+        this.message = message;
+        this.timestamp = timestamp;
+        this.parent = parent;
+        this.tree = tree;
+        this.files = data == null ? Map.of() : null;
+        this.data = data;
+        this.filesOffset = filesOffset;
+    }
+    
+    public Commit(String message, ObjectId parent, ObjectId tree) {
+        this(null, message, Instant.now().toString(), parent, tree);
+    }
+    
+    public Commit(String message, ObjectId parent, Map<String, FileEntry> files) {
         this(null, message, Instant.now().toString(), parent, files);
     }
     
-    public String getHash() {
+    public ObjectId getHash() {
         return hash;
     }
     
@@ -57,37 +101,76 @@ public class Commit {
         return timestamp;
     }
     
-    public String getParent() {
+    public ObjectId getParent() {
         return parent;
     }
     
-    public Map<String, FileEntry> getFiles() {
-        return Collections.unmodifiableMap(files);
+    /**
+     * @return Root tree, or null for a commit that lists its files itself (getFiles())
+     */
+    public ObjectId getTree() {
+        return tree;
+    }
+    
+    /**
+     * @return Files listed by a commit without a tree; empty if the commit has a tree
+     * @throws IOException if the file list of a parsed commit is malformed
+     */
+    public Map<String, FileEntry> getFiles() throws IOException {
+        Map<String, FileEntry> decoded = files;
+        if (decoded == null) {
+            decoded = parseFiles(data, filesOffset);
+            files = decoded;
+        }
+        return Collections.unmodifiableMap(decoded);
     }
     
     public String serialize() {
         StringBuilder sb = new StringBuilder();
         sb.append(FIELD_MESSAGE).append(message).append(Constants.NEWLINE);
         sb.append(FIELD_TIMESTAMP).append(timestamp).append(Constants.NEWLINE);
-        sb.append(FIELD_PARENT).append(parent != null ? parent : "").append(Constants.NEWLINE);
+        sb.append(FIELD_PARENT).append(parent != null ? parent.name() : "").append(Constants.NEWLINE);
+        if (tree != null) {
+            sb.append(FIELD_TREE).append(tree.name()).append(Constants.NEWLINE);
+            return sb.toString();
+        }
         sb.append(FIELD_FILES).append(Constants.NEWLINE);
-        for (FileEntry entry : files.values()) {
+        Map<String, FileEntry> decoded = files;
+        if (decoded == null) {
+            // Not decoded yet: the file list is copied as it was read
+            return sb.append(new String(data, filesOffset, data.length - filesOffset, StandardCharsets.UTF_8)).toString();
+        }
+        for (FileEntry entry : decoded.values()) {
             sb.append(entry.toString()).append(Constants.NEWLINE);
         }
         return sb.toString();
     }
     
-    public static Commit deserialize(String hash, String content) throws IOException {
-        String[] lines = content.split(Constants.NEWLINE, -1);
+    public static Commit deserialize(ObjectId hash, String content) throws IOException {
+        return parse(hash, content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static Commit fromObjectContent(ObjectId hash, ObjectContent content) throws IOException {
+        // The file list stays in the cached buffer until it is needed, without a copy
+        return parse(hash, content.array());
+    }
+    
+    /**
+     * Parse the header lines up to "files:", leaving the file list (if any) in data
+     */
+    private static Commit parse(ObjectId hash, byte[] data) throws IOException {
         StringBuilder messageBuilder = new StringBuilder();
         String timestamp = null;
-        String parent = null;
-        Map<String, FileEntry> files = new HashMap<>();
+        ObjectId parent = null;
+        ObjectId tree = null;
         
         boolean readingMessage = false;
-        boolean readingFiles = false;
         
-        for (String line : lines) {
+        for (int start = 0; start <= data.length; ) {
+            int end = lineEnd(data, start);
+            String line = new String(data, start, end - start, StandardCharsets.UTF_8);
+            start = end + 1;
+            
             if (line.startsWith(FIELD_MESSAGE)) {
                 messageBuilder.append(line.substring(FIELD_MESSAGE.length()));
                 readingMessage = true;
@@ -96,21 +179,51 @@ public class Commit {
                 timestamp = line.substring(FIELD_TIMESTAMP.length());
             } else if (line.startsWith(FIELD_PARENT)) {
                 String p = line.substring(FIELD_PARENT.length()).trim();
-                parent = p.isEmpty() ? null : p;
-            } else if (line.equals(FIELD_FILES)) {
-                readingFiles = true;
-            } else if (readingFiles && !line.trim().isEmpty()) {
-                FileEntry entry = FileEntry.fromString(line);
-                files.put(entry.getPath(), entry);
+                parent = p.isEmpty() ? null : parseHash(p);
+            } else if (!readingMessage && line.startsWith(FIELD_TREE)) {
+                tree = parseHash(line.substring(FIELD_TREE.length()).trim());
+            } else if (!readingMessage && line.equals(FIELD_FILES)) {
+                return new Commit(hash, messageBuilder.toString(), timestamp, parent, tree,
+                        data, Math.min(start, data.length));
             } else if (readingMessage) {
                 messageBuilder.append(Constants.NEWLINE).append(line);
             }
         }
         
-        return new Commit(hash, messageBuilder.toString(), timestamp, parent, files);
+        return new Commit(hash, messageBuilder.toString(), timestamp, parent, tree, null, 0);
+    }
+    
+    private static Map<String, FileEntry> parseFiles(byte[] data, int offset) throws IOException {
+        Map<String, FileEntry> files = new HashMap<>();
+        for (int start = offset; start < data.length; ) {
+            int end = lineEnd(data, start);
+            String line = new String(data, start, end - start, StandardCharsets.UTF_8);
+            start = end + 1;
+            
+            if (!line.trim().isEmpty()) {
+                FileEntry entry = FileEntry.fromString(line);
+                files.put(entry.getPath(), entry);
+            }
+        }
+        return files;
     }
     
-    public static Commit fromObjectContent(String hash, ObjectContent content) throws IOException {
-        return deserialize(hash, content.getDataAsString());
+    /**
+     * @return Index of the newline ending the line starting at start, or data.length
+     */
+    private static int lineEnd(byte[] data, int start) {
+        for (int i = start; i < data.length; i++) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+    
+    private static ObjectId parseHash(String hex) throws IOException {
+        if (!ObjectId.isValid(hex)) {
+            throw new IOException(ERROR_REPOSITORY_CORRUPT);
+        }
+        return ObjectId.fromString(hex);
     }
 }
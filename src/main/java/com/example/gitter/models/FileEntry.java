@@ -7,39 +7,81 @@ import static com.example.gitter.constants.Messages.ERROR_REPOSITORY_CORRUPT;
 
 /**
  * Represents a file entry in the index (staging area) and commit - <path>\t<hash>
- * 
- * NOTE: Future optimization opportunity:
- * Add stat caching (mtime, size) to avoid re-hashing unchanged files.
+ *
+ * Index entries additionally carry the cached stat data of the working file
+ * (see {@link FileStat}) - <path>\t<hash>\t<mtime>\t<ctime>\t<size>\t<inode>\t<device>
+ * Entries read from commits have no stat data.
  */
 public class FileEntry {
     private final String path;
-    private final String hash;
-    
-    public FileEntry(String path, String hash) {
+    private final ObjectId hash;
+    private final FileStat stat;
+
+    public FileEntry(String path, ObjectId hash) {
+        this(path, hash, null);
+    }
+
+    public FileEntry(String path, ObjectId hash, FileStat stat) {
         this.path = path;
         this.hash = hash;
+        this.stat = stat;
     }
-    
+
     public String getPath() {
         return path;
     }
-    
-    public String getHash() {
+
+    public ObjectId getHash() {
         return hash;
     }
-    
+
+    /**
+     * @return Cached stat data, or null if the entry has not been stat'ed yet
+     */
+    public FileStat getStat() {
+        return stat;
+    }
+
+    public FileEntry withStat(FileStat stat) {
+        return new FileEntry(path, hash, stat);
+    }
+
     @Override
     public String toString() {
         return path + TAB + hash;
     }
-    
+
+    public String toIndexString() {
+        return stat == null ? toString() : toString() + TAB + stat;
+    }
+
     public static FileEntry fromString(String line) throws IOException {
         String[] parts = line.split(TAB);
-        
+
         if (parts.length != 2) {
             throw new IOException(ERROR_REPOSITORY_CORRUPT);
         }
-        
-        return new FileEntry(parts[0], parts[1]);
+
+        return new FileEntry(parts[0], parseHash(parts[1]));
+    }
+
+    public static FileEntry fromIndexString(String line) throws IOException {
+        String[] parts = line.split(TAB);
+
+        if (parts.length != 2 && parts.length != 2 + FileStat.FIELD_COUNT) {
+            throw new IOException(ERROR_REPOSITORY_CORRUPT);
+        }
+        if (parts.length == 2) {
+            return new FileEntry(parts[0], parseHash(parts[1]));
+        }
+
+        return new FileEntry(parts[0], parseHash(parts[1]), FileStat.fromFields(parts, 2));
+    }
+
+    private static ObjectId parseHash(String hex) throws IOException {
+        if (!ObjectId.isValid(hex)) {
+            throw new IOException(ERROR_REPOSITORY_CORRUPT);
+        }
+        return ObjectId.fromString(hex);
     }
 }
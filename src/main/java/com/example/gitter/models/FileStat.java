@@ -0,0 +1,106 @@
+package com.example.gitter.models;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.gitter.constants.Constants.TAB;
+import static com.example.gitter.constants.Messages.ERROR_REPOSITORY_CORRUPT;
+
+/**
+ * File system metadata cached in the index - <mtime>\t<ctime>\t<size>\t<inode>\t<device>
+ * Timestamps are nanoseconds since the epoch.
+ *
+ * If the stat data of a working file still matches its cached stat, the file content is
+ * assumed unchanged and the hash recorded in the index is reused instead of re-hashing.
+ */
+public class FileStat {
+    public static final int FIELD_COUNT = 5;
+
+    private final long mtime;
+    private final long ctime;
+    private final long size;
+    private final long inode;
+    private final long device;
+
+    public FileStat(long mtime, long ctime, long size, long inode, long device) {
+        this.mtime = mtime;
+        this.ctime = ctime;
+        this.size = size;
+        this.inode = inode;
+        this.device = device;
+    }
+
+    public long getMtime() {
+        return mtime;
+    }
+
+    public long getCtime() {
+        return ctime;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getInode() {
+        return inode;
+    }
+
+    public long getDevice() {
+        return device;
+    }
+
+    /**
+     * A file is racily clean when it was modified in the same second the index was written
+     * (or later). A change made within that second may leave mtime and size untouched, so the
+     * cached stat cannot be trusted and the file must be re-hashed.
+     *
+     * @param indexTimestamp Last modification time of the index file in nanoseconds
+     */
+    public boolean isRacilyClean(long indexTimestamp) {
+        return TimeUnit.NANOSECONDS.toSeconds(mtime) >= TimeUnit.NANOSECONDS.toSeconds(indexTimestamp);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FileStat)) {
+            return false;
+        }
+        FileStat other = (FileStat) o;
+        return mtime == other.mtime
+                && ctime == other.ctime
+                && size == other.size
+                && inode == other.inode
+                && device == other.device;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mtime) * 31 + Long.hashCode(size);
+    }
+
+    @Override
+    public String toString() {
+        return mtime + TAB + ctime + TAB + size + TAB + inode + TAB + device;
+    }
+
+    public static FileStat fromFields(String[] fields, int offset) throws IOException {
+        if (fields.length - offset != FIELD_COUNT) {
+            throw new IOException(ERROR_REPOSITORY_CORRUPT);
+        }
+
+        try {
+            return new FileStat(
+                Long.parseLong(fields[offset]),
+                Long.parseLong(fields[offset + 1]),
+                Long.parseLong(fields[offset + 2]),
+                Long.parseLong(fields[offset + 3]),
+                Long.parseLong(fields[offset + 4]));
+        } catch (NumberFormatException e) {
+            throw new IOException(ERROR_REPOSITORY_CORRUPT);
+        }
+    }
+}
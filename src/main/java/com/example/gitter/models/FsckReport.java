@@ -0,0 +1,114 @@
+package com.example.gitter.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Findings of a repository check:
+ * - corrupt: stored objects that cannot be read or whose content does not hash to their id
+ * - missing: objects referenced by reachable objects but not stored
+ * - dangling: stored objects not reachable from any branch, nor referenced by other
+ *   unreachable objects (the tips of lost history)
+ */
+public class FsckReport {
+    private final List<Finding> corrupt = new ArrayList<>();
+    private final List<Finding> missing = new ArrayList<>();
+    private final List<Finding> dangling = new ArrayList<>();
+    private long objectCount;
+    private long byteCount;
+    private long elapsedNanos;
+
+    /**
+     * @param type Stored type, or null if the object could not be read far enough
+     */
+    public synchronized void addCorrupt(ObjectId id, String type, String reason) {
+        corrupt.add(new Finding(id, type, reason));
+    }
+
+    /**
+     * @param type Type the reference expects
+     * @param referencedBy Id of the referring object, or the branch ref
+     */
+    public synchronized void addMissing(ObjectId id, String type, String referencedBy) {
+        missing.add(new Finding(id, type, referencedBy));
+    }
+
+    public synchronized void addDangling(ObjectId id, String type) {
+        dangling.add(new Finding(id, type, null));
+    }
+
+    public synchronized void setTotals(long objectCount, long byteCount, long elapsedNanos) {
+        this.objectCount = objectCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public synchronized List<Finding> getCorrupt() {
+        return sorted(corrupt);
+    }
+
+    public synchronized List<Finding> getMissing() {
+        return sorted(missing);
+    }
+
+    public synchronized List<Finding> getDangling() {
+        return sorted(dangling);
+    }
+
+    /**
+     * @return Whether nothing is corrupt or missing; dangling objects are harmless
+     */
+    public synchronized boolean isHealthy() {
+        return corrupt.isEmpty() && missing.isEmpty();
+    }
+
+    public synchronized long getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * @return Bytes of object content hashed
+     */
+    public synchronized long getByteCount() {
+        return byteCount;
+    }
+
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private static List<Finding> sorted(List<Finding> findings) {
+        List<Finding> copy = new ArrayList<>(findings);
+        copy.sort(Comparator.comparing(Finding::getId));
+        return Collections.unmodifiableList(copy);
+    }
+
+    public static class Finding {
+        private final ObjectId id;
+        private final String type;
+        private final String detail;
+
+        private Finding(ObjectId id, String type, String detail) {
+            this.id = id;
+            this.type = type;
+            this.detail = detail;
+        }
+
+        public ObjectId getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return Why a corrupt object is corrupt, or what refers to a missing one
+         */
+        public String getDetail() {
+            return detail;
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.example.gitter.models;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 /**
  * Represents the parsed content of a Gitter object (blob, commit, tree)
  * Gitter objects have format: "type size\0content"
+ *
+ * The content buffer is shared, not copied: asBuffer(), openStream() and writeTo() read it
+ * in place, while getData() returns a private copy for callers that need a byte[].
  */
 public class ObjectContent {
     private final String type;
     private final int size;
     private final byte[] data;
     
+    /**
+     * @param data Content buffer, owned by this object from now on
+     */
     public ObjectContent(String type, int size, byte[] data) {
         this.type = type;
         this.size = size;
@@ -29,6 +40,32 @@ public class ObjectContent {
         return data.clone();
     }
     
+    /**
+     * @return The shared content buffer itself, for parsers in this package that only read
+     *         it and may keep it (see Commit)
+     */
+    byte[] array() {
+        return data;
+    }
+    
+    /**
+     * @return Read-only view of the content, with its own position
+     */
+    public ByteBuffer asBuffer() {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+    
+    /**
+     * @return Stream over the content, without copying it
+     */
+    public InputStream openStream() {
+        return new ByteArrayInputStream(data);
+    }
+    
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(data);
+    }
+    
     public String getDataAsString() {
         return new String(data, StandardCharsets.UTF_8);
     }
@@ -0,0 +1,22 @@
+package com.example.gitter.models;
+
+/**
+ * The "type size" header of a Gitter object, readable without loading the content
+ */
+public class ObjectHeader {
+    private final String type;
+    private final long size;
+    
+    public ObjectHeader(String type, long size) {
+        this.type = type;
+        this.size = size;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.gitter.models;
+
+import java.util.Arrays;
+
+import static com.example.gitter.constants.Constants.OBJECT_ID_HEX_LENGTH;
+import static com.example.gitter.constants.Constants.OBJECT_ID_LENGTH;
+import static com.example.gitter.constants.Messages.ERROR_INVALID_OBJECT_ID;
+
+/**
+ * Immutable 20-byte SHA-1 object name.
+ *
+ * Stored as five ints instead of a 40-character hex String (about 40 instead of ~100 bytes
+ * of heap per hash), compared word by word, and converted to/from hex through lookup tables.
+ * The first word of a SHA-1 is already uniformly distributed, so it is kept as the hash code.
+ */
+public final class ObjectId implements Comparable<ObjectId> {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = new byte['f' + 1];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < HEX_DIGITS.length; i++) {
+            HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+            HEX_VALUES[Character.toUpperCase(HEX_DIGITS[i])] = (byte) i;
+        }
+    }
+
+    private final int w1;
+    private final int w2;
+    private final int w3;
+    private final int w4;
+    private final int w5;
+
+    private ObjectId(int w1, int w2, int w3, int w4, int w5) {
+        this.w1 = w1;
+        this.w2 = w2;
+        this.w3 = w3;
+        this.w4 = w4;
+        this.w5 = w5;
+    }
+
+    /**
+     * @param raw 20-byte binary object name
+     */
+    public static ObjectId fromRaw(byte[] raw) {
+        if (raw.length != OBJECT_ID_LENGTH) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_OBJECT_ID, raw.length + " bytes"));
+        }
+        return fromRaw(raw, 0);
+    }
+
+    /**
+     * @param raw Buffer holding a binary object name at offset
+     */
+    public static ObjectId fromRaw(byte[] raw, int offset) {
+        return new ObjectId(
+                readInt(raw, offset),
+                readInt(raw, offset + 4),
+                readInt(raw, offset + 8),
+                readInt(raw, offset + 12),
+                readInt(raw, offset + 16));
+    }
+
+    /**
+     * @param hex 40-character hex object name (either case)
+     * @throws IllegalArgumentException if hex is not a valid object name
+     */
+    public static ObjectId fromString(String hex) {
+        if (!isValid(hex)) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_OBJECT_ID, hex));
+        }
+        return new ObjectId(
+                parseInt(hex, 0),
+                parseInt(hex, 8),
+                parseInt(hex, 16),
+                parseInt(hex, 24),
+                parseInt(hex, 32));
+    }
+
+    public static boolean isValid(String hex) {
+        if (hex == null || hex.length() != OBJECT_ID_HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < hex.length(); i++) {
+            char c = hex.charAt(i);
+            if (c >= HEX_VALUES.length || HEX_VALUES[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 40-character lowercase hex form
+     */
+    public String name() {
+        char[] hex = new char[OBJECT_ID_HEX_LENGTH];
+        formatInt(w1, hex, 0);
+        formatInt(w2, hex, 8);
+        formatInt(w3, hex, 16);
+        formatInt(w4, hex, 24);
+        formatInt(w5, hex, 32);
+        return new String(hex);
+    }
+
+    /**
+     * @return First length hex digits, e.g. for short hashes in output
+     */
+    public String abbreviate(int length) {
+        return name().substring(0, length);
+    }
+
+    public byte[] toByteArray() {
+        byte[] raw = new byte[OBJECT_ID_LENGTH];
+        copyRawTo(raw, 0);
+        return raw;
+    }
+
+    public void copyRawTo(byte[] buffer, int offset) {
+        writeInt(w1, buffer, offset);
+        writeInt(w2, buffer, offset + 4);
+        writeInt(w3, buffer, offset + 8);
+        writeInt(w4, buffer, offset + 12);
+        writeInt(w5, buffer, offset + 16);
+    }
+
+    /**
+     * @return First byte of the name (0-255), which also selects the object's shard
+     */
+    public int getFirstByte() {
+        return w1 >>> 24;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ObjectId)) {
+            return false;
+        }
+        ObjectId id = (ObjectId) other;
+        return w1 == id.w1 && w2 == id.w2 && w3 == id.w3 && w4 == id.w4 && w5 == id.w5;
+    }
+
+    @Override
+    public int hashCode() {
+        return w1;
+    }
+
+    /**
+     * Unsigned byte-wise order, the same order as sorting the hex names
+     */
+    @Override
+    public int compareTo(ObjectId other) {
+        int cmp = Integer.compareUnsigned(w1, other.w1);
+        if (cmp == 0) {
+            cmp = Integer.compareUnsigned(w2, other.w2);
+        }
+        if (cmp == 0) {
+            cmp = Integer.compareUnsigned(w3, other.w3);
+        }
+        if (cmp == 0) {
+            cmp = Integer.compareUnsigned(w4, other.w4);
+        }
+        if (cmp == 0) {
+            cmp = Integer.compareUnsigned(w5, other.w5);
+        }
+        return cmp;
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) << 24
+                | (buffer[offset + 1] & 0xff) << 16
+                | (buffer[offset + 2] & 0xff) << 8
+                | (buffer[offset + 3] & 0xff);
+    }
+
+    private static void writeInt(int value, byte[] buffer, int offset) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    private static int parseInt(String hex, int offset) {
+        int value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 4) | HEX_VALUES[hex.charAt(i)];
+        }
+        return value;
+    }
+
+    private static void formatInt(int value, char[] hex, int offset) {
+        for (int i = offset + 7; i >= offset; i--) {
+            hex[i] = HEX_DIGITS[value & 0xf];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.gitter.models;
+
+import com.example.gitter.constants.Constants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.gitter.constants.Constants.OBJECT_TYPE_BLOB;
+import static com.example.gitter.constants.Constants.OBJECT_TYPE_TREE;
+import static com.example.gitter.constants.Constants.TAB;
+import static com.example.gitter.constants.Messages.ERROR_MALFORMED_TREE_ENTRY;
+
+/**
+ * One directory of a commit: its files (blobs) and subdirectories (trees), sorted by name,
+ * so that equal directories serialize, and therefore hash, the same.
+ *
+ * Serialization format:
+ *
+ * blob\t<file name>\t<blob hash>
+ * tree\t<directory name>\t<tree hash>
+ * ...
+ */
+public class Tree {
+    private final List<Entry> entries;
+
+    public static class Entry {
+        private final String name;
+        private final ObjectId hash;
+        private final boolean tree;
+
+        private Entry(String name, ObjectId hash, boolean tree) {
+            this.name = name;
+            this.hash = hash;
+            this.tree = tree;
+        }
+
+        public static Entry blob(String name, ObjectId hash) {
+            return new Entry(name, hash, false);
+        }
+
+        public static Entry tree(String name, ObjectId hash) {
+            return new Entry(name, hash, true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ObjectId getHash() {
+            return hash;
+        }
+
+        /**
+         * @return Whether the entry is a subdirectory rather than a file
+         */
+        public boolean isTree() {
+            return tree;
+        }
+    }
+
+    public Tree(Collection<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(Entry::getName));
+        this.entries = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * @return Entries sorted by name
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public String serialize() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries) {
+            sb.append(entry.tree ? OBJECT_TYPE_TREE : OBJECT_TYPE_BLOB)
+                    .append(TAB).append(entry.name)
+                    .append(TAB).append(entry.hash.name())
+                    .append(Constants.NEWLINE);
+        }
+        return sb.toString();
+    }
+
+    public static Tree deserialize(String content) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : content.split(Constants.NEWLINE)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split(TAB);
+            if (parts.length != 3 || parts[1].isEmpty() || !ObjectId.isValid(parts[2])) {
+                throw new IOException(String.format(ERROR_MALFORMED_TREE_ENTRY, line));
+            }
+            ObjectId hash = ObjectId.fromString(parts[2]);
+            if (OBJECT_TYPE_TREE.equals(parts[0])) {
+                entries.add(Entry.tree(parts[1], hash));
+            } else if (OBJECT_TYPE_BLOB.equals(parts[0])) {
+                entries.add(Entry.blob(parts[1], hash));
+            } else {
+                throw new IOException(String.format(ERROR_MALFORMED_TREE_ENTRY, line));
+            }
+        }
+        return new Tree(entries);
+    }
+
+    public static Tree fromObjectContent(ObjectContent content) throws IOException {
+        return deserialize(content.getDataAsString());
+    }
+}
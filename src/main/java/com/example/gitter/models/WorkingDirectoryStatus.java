@@ -18,9 +18,9 @@ public class WorkingDirectoryStatus {
     private final Set<String> unstagedModified;
     private final Set<String> unstagedDeleted;
     private final Set<String> untracked;
-    private final Map<String, String> allWorkingFiles;
+    private final Map<String, ObjectId> allWorkingFiles;
     
-    public WorkingDirectoryStatus(Map<String, String> allWorkingFiles) {
+    public WorkingDirectoryStatus(Map<String, ObjectId> allWorkingFiles) {
         this.stagedNew = new HashSet<>();
         this.stagedModified = new HashSet<>();
         this.stagedDeleted = new HashSet<>();
@@ -54,7 +54,7 @@ public class WorkingDirectoryStatus {
         return Collections.unmodifiableSet(untracked);
     }
     
-    public Map<String, String> getAllWorkingFiles() {
+    public Map<String, ObjectId> getAllWorkingFiles() {
         return Collections.unmodifiableMap(allWorkingFiles);
     }
     
@@ -0,0 +1,113 @@
+package com.example.gitter.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static com.example.gitter.constants.Constants.*;
+
+/**
+ * Splits a stream into content-defined chunks (FastCDC).
+ *
+ * A gear hash rolls over the bytes and a chunk ends where its top bits are all zero, so
+ * boundaries depend only on the nearby content: an edit in the middle of a large file
+ * changes the chunks around it while the others keep their ids and are stored once.
+ * Below the average size a stricter mask is used and above it a looser one, which keeps
+ * chunk sizes close to the average ("normalized chunking"). Chunks are never smaller than
+ * the minimum size (except the last) nor larger than the maximum.
+ */
+public class Chunker {
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(CHUNK_GEAR_SEED);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final InputStream in;
+    private final int minSize;
+    private final int averageSize;
+    private final byte[] buffer;
+    private final long strictMask;
+    private final long looseMask;
+    private int length;
+    private boolean endOfStream;
+
+    public Chunker(InputStream in) {
+        this(in, CHUNK_MIN_SIZE, CHUNK_AVERAGE_SIZE, CHUNK_MAX_SIZE);
+    }
+
+    /**
+     * @param averageSize Target chunk size, a power of two
+     */
+    Chunker(InputStream in, int minSize, int averageSize, int maxSize) {
+        this.in = in;
+        this.minSize = minSize;
+        this.averageSize = averageSize;
+        this.buffer = new byte[maxSize];
+
+        int bits = Integer.numberOfTrailingZeros(averageSize);
+        this.strictMask = topBits(bits + CHUNK_NORMALIZATION_LEVEL);
+        this.looseMask = topBits(bits - CHUNK_NORMALIZATION_LEVEL);
+    }
+
+    /**
+     * @return The next chunk, or null at the end of the stream
+     */
+    public byte[] next() throws IOException {
+        fill();
+        if (length == 0) {
+            return null;
+        }
+
+        int cut = findCut();
+        byte[] chunk = Arrays.copyOf(buffer, cut);
+        System.arraycopy(buffer, cut, buffer, 0, length - cut);
+        length -= cut;
+        return chunk;
+    }
+
+    private void fill() throws IOException {
+        while (!endOfStream && length < buffer.length) {
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read == -1) {
+                endOfStream = true;
+            } else {
+                length += read;
+            }
+        }
+    }
+
+    private int findCut() {
+        if (length <= minSize) {
+            return length;
+        }
+
+        long hash = 0;
+        int normal = Math.min(averageSize, length);
+        int i = minSize;
+        for (; i < normal; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+            if ((hash & strictMask) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < length; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+            if ((hash & looseMask) == 0) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * The top bits of the gear hash depend on the last 64 bytes, the bottom ones on far fewer
+     */
+    private static long topBits(int count) {
+        return count <= 0 ? 0 : -1L << (Long.SIZE - count);
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.ERROR_CORRUPT_COMMIT_GRAPH;
+import static com.example.gitter.constants.Messages.WARNING_COMMIT_GRAPH_UNREADABLE;
+import static com.example.gitter.constants.PathConstants.COMMIT_GRAPH;
+
+/**
+ * Commit-graph file: the parent, generation number, timestamp and root tree of every
+ * commit reachable from a branch, so history can be walked without reading and parsing
+ * commit objects
+ *
+ * The file is memory-mapped and looked up like a pack index (fanout, then binary search).
+ * Parents are stored as positions in the file, so a walk stays inside the mapping. The
+ * generation number of a commit is one more than its parent's (1 for a root commit):
+ * a commit can only be an ancestor of commits with a higher generation.
+ *
+ * Commits are immutable, so the graph never goes stale; commits made after it was written
+ * are simply not in it, and callers fall back to reading them. A graph that cannot be read
+ * (truncated, checksum mismatch) is ignored with a warning in the same way.
+ *
+ * Format: "CGPH" | version (int) | fanout (256 ints) | commit ids (20 bytes each, sorted)
+ * | records (parent position int, generation int, timestamp epoch millis long, tree id
+ * 20 bytes, zeros for commits without a tree) | checksum (SHA-1 of everything before)
+ */
+public class CommitGraph {
+    private static final int FANOUT_OFFSET = COMMIT_GRAPH_HEADER_LENGTH;
+    private static final int IDS_OFFSET = FANOUT_OFFSET + PACK_FANOUT_SIZE * Integer.BYTES;
+    private static final int PARENT_OFFSET = 0;
+    private static final int GENERATION_OFFSET = PARENT_OFFSET + Integer.BYTES;
+    private static final int TIMESTAMP_OFFSET = GENERATION_OFFSET + Integer.BYTES;
+    private static final int TREE_OFFSET = TIMESTAMP_OFFSET + Long.BYTES;
+
+    private static CommitGraph instance;
+    private static boolean loaded;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int recordsOffset;
+
+    private CommitGraph(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+        this.recordsOffset = IDS_OFFSET + count * OBJECT_ID_LENGTH;
+    }
+
+    /**
+     * @return The repository's commit-graph, or null if none has been written or it
+     *         cannot be read
+     */
+    public static synchronized CommitGraph getInstance() {
+        if (!loaded) {
+            instance = Files.exists(COMMIT_GRAPH) ? openOrWarn(COMMIT_GRAPH) : null;
+            loaded = true;
+        }
+        return instance;
+    }
+
+    /**
+     * @return The commit-graph in file, or null after warning that it cannot be read
+     */
+    static CommitGraph openOrWarn(Path file) {
+        try {
+            return open(file);
+        } catch (IOException e) {
+            System.err.println(String.format(WARNING_COMMIT_GRAPH_UNREADABLE, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Forget the loaded commit-graph, so the next getInstance() reads the file again
+     */
+    public static synchronized void reset() {
+        instance = null;
+        loaded = false;
+    }
+
+    /**
+     * Write the commit-graph of every commit reachable from a branch
+     *
+     * @return Number of commits in the graph
+     */
+    public static int write() throws IOException {
+        Files.createDirectories(COMMIT_GRAPH.getParent());
+        int written = write(COMMIT_GRAPH, RepositoryState.getBranches().values());
+        reset();
+        return written;
+    }
+
+    /**
+     * Write the commit-graph of the commits reachable from tips to a temporary file and
+     * rename it into place
+     *
+     * @return Number of commits in the graph
+     */
+    static int write(Path file, Collection<ObjectId> tips) throws IOException {
+        Map<ObjectId, Commit> commits = readCommits(tips);
+        List<ObjectId> ids = new ArrayList<>(commits.keySet());
+        Collections.sort(ids);
+        Map<ObjectId, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+
+        int[] parents = new int[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            ObjectId parent = commits.get(ids.get(i)).getParent();
+            parents[i] = parent == null ? COMMIT_GRAPH_NO_PARENT
+                    : positions.getOrDefault(parent, COMMIT_GRAPH_PARENT_NOT_IN_GRAPH);
+        }
+        int[] generations = computeGenerations(parents);
+
+        int length = IDS_OFFSET + ids.size() * (OBJECT_ID_LENGTH + COMMIT_GRAPH_RECORD_LENGTH) + OBJECT_ID_LENGTH;
+        ByteBuffer out = ByteBuffer.allocate(length)
+                .put(COMMIT_GRAPH_SIGNATURE.getBytes(StandardCharsets.US_ASCII))
+                .putInt(COMMIT_GRAPH_VERSION);
+        int[] fanout = new int[PACK_FANOUT_SIZE];
+        for (ObjectId id : ids) {
+            fanout[id.getFirstByte()]++;
+        }
+        for (int b = 0, total = 0; b < PACK_FANOUT_SIZE; b++) {
+            total += fanout[b];
+            out.putInt(total);
+        }
+
+        byte[] raw = new byte[OBJECT_ID_LENGTH];
+        for (ObjectId id : ids) {
+            id.copyRawTo(raw, 0);
+            out.put(raw);
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            Commit commit = commits.get(ids.get(i));
+            out.putInt(parents[i]).putInt(generations[i]).putLong(parseTimestamp(commit.getTimestamp()));
+            if (commit.getTree() != null) {
+                commit.getTree().copyRawTo(raw, 0);
+            } else {
+                Arrays.fill(raw, (byte) 0);
+            }
+            out.put(raw);
+        }
+        MessageDigest digest = HashUtils.getDigest();
+        digest.update(out.array(), 0, out.position());
+        out.put(digest.digest());
+
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), null);
+        try {
+            Files.write(tempFile, out.array());
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Commits reachable from tips, skipping those whose object is missing
+     */
+    private static Map<ObjectId, Commit> readCommits(Collection<ObjectId> tips) throws IOException {
+        Map<ObjectId, Commit> commits = new HashMap<>();
+        Deque<ObjectId> pending = new ArrayDeque<>(tips);
+        while (!pending.isEmpty()) {
+            ObjectId id = pending.pop();
+            if (commits.containsKey(id) || !ObjectStore.exists(id)) {
+                continue;
+            }
+            Commit commit = ObjectStore.readParsedCommit(id);
+            commits.put(id, commit);
+            if (commit.getParent() != null) {
+                pending.push(commit.getParent());
+            }
+        }
+        return commits;
+    }
+
+    /**
+     * Generation numbers from parent positions, following each chain of parents up to the
+     * first commit whose generation is known instead of recursing
+     */
+    private static int[] computeGenerations(int[] parents) {
+        int[] generations = new int[parents.length];
+        int[] chain = new int[parents.length];
+        for (int i = 0; i < parents.length; i++) {
+            int length = 0;
+            int position = i;
+            while (generations[position] == 0) {
+                chain[length++] = position;
+                if (parents[position] < 0) {
+                    break;
+                }
+                position = parents[position];
+            }
+            int generation = generations[position];
+            while (length > 0) {
+                generation++;
+                generations[chain[--length]] = generation;
+            }
+        }
+        return generations;
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        try {
+            return timestamp == null ? 0 : Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Map a commit-graph file, checking its header, length and checksum
+     */
+    static CommitGraph open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < IDS_OFFSET + OBJECT_ID_LENGTH) {
+            throw new IOException(String.format(ERROR_CORRUPT_COMMIT_GRAPH, file));
+        }
+        byte[] signature = new byte[COMMIT_GRAPH_SIGNATURE.length()];
+        buffer.get(0, signature);
+        if (!Arrays.equals(signature, COMMIT_GRAPH_SIGNATURE.getBytes(StandardCharsets.US_ASCII))
+                || buffer.getInt(signature.length) != COMMIT_GRAPH_VERSION) {
+            throw new IOException(String.format(ERROR_CORRUPT_COMMIT_GRAPH, file));
+        }
+        int count = buffer.getInt(IDS_OFFSET - Integer.BYTES);
+        if (count < 0 || buffer.remaining()
+                != IDS_OFFSET + (long) count * (OBJECT_ID_LENGTH + COMMIT_GRAPH_RECORD_LENGTH) + OBJECT_ID_LENGTH) {
+            throw new IOException(String.format(ERROR_CORRUPT_COMMIT_GRAPH, file));
+        }
+
+        int checksumOffset = buffer.remaining() - OBJECT_ID_LENGTH;
+        MessageDigest digest = HashUtils.getDigest();
+        digest.update(buffer.slice(0, checksumOffset));
+        byte[] checksum = new byte[OBJECT_ID_LENGTH];
+        buffer.get(checksumOffset, checksum);
+        if (!Arrays.equals(digest.digest(), checksum)) {
+            throw new IOException(String.format(ERROR_CORRUPT_COMMIT_GRAPH, file));
+        }
+        return new CommitGraph(buffer, count);
+    }
+
+    public int getCommitCount() {
+        return count;
+    }
+
+    /**
+     * @return Position of the commit in the graph, or -1 if it is not in it
+     */
+    public int find(ObjectId id) {
+        int firstByte = id.getFirstByte();
+        int low = firstByte == 0 ? 0 : buffer.getInt(FANOUT_OFFSET + (firstByte - 1) * Integer.BYTES);
+        int high = buffer.getInt(FANOUT_OFFSET + firstByte * Integer.BYTES) - 1;
+        byte[] key = id.toByteArray();
+        byte[] name = new byte[OBJECT_ID_LENGTH];
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            buffer.get(IDS_OFFSET + mid * OBJECT_ID_LENGTH, name);
+            int cmp = Arrays.compareUnsigned(name, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param position 0..getCommitCount()-1, in commit id order
+     */
+    public ObjectId getId(int position) {
+        byte[] raw = new byte[OBJECT_ID_LENGTH];
+        buffer.get(IDS_OFFSET + position * OBJECT_ID_LENGTH, raw);
+        return ObjectId.fromRaw(raw);
+    }
+
+    /**
+     * @return Position of the parent, COMMIT_GRAPH_NO_PARENT for a root commit, or
+     *         COMMIT_GRAPH_PARENT_NOT_IN_GRAPH if the parent was missing when the graph
+     *         was written
+     */
+    public int getParentPosition(int position) {
+        return buffer.getInt(record(position) + PARENT_OFFSET);
+    }
+
+    public int getGeneration(int position) {
+        return buffer.getInt(record(position) + GENERATION_OFFSET);
+    }
+
+    /**
+     * @return Commit time in epoch milliseconds, or 0 if the commit's timestamp could not
+     *         be parsed
+     */
+    public long getTimestamp(int position) {
+        return buffer.getLong(record(position) + TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * @return Root tree of the commit, or null for a commit that lists its files itself
+     */
+    public ObjectId getTree(int position) {
+        byte[] raw = new byte[OBJECT_ID_LENGTH];
+        buffer.get(record(position) + TREE_OFFSET, raw);
+        for (byte b : raw) {
+            if (b != 0) {
+                return ObjectId.fromRaw(raw);
+            }
+        }
+        return null;
+    }
+
+    private int record(int position) {
+        return recordsOffset + position * COMMIT_GRAPH_RECORD_LENGTH;
+    }
+}
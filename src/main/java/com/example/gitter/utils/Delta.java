@@ -0,0 +1,207 @@
+package com.example.gitter.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.ERROR_CORRUPT_DELTA;
+
+/**
+ * Binary delta between two versions of a blob: copy/insert instructions that rebuild
+ * the target from the base.
+ *
+ * Format: base size (varint) | target size (varint) | instructions, where an instruction is
+ * - 0x01..0x7f: insert the next n literal bytes
+ * - 0x80, offset (varint), length (varint): copy length bytes of the base starting at offset
+ *
+ * Matches are found by indexing the base in fixed-size blocks and sliding a rolling
+ * hash of the same size over the target; every hit is extended in both directions.
+ */
+public class Delta {
+    private static final int HASH_MULTIPLIER = 31;
+
+    /**
+     * @return Delta that turns base into target
+     */
+    public static byte[] create(byte[] base, byte[] target) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, base.length);
+        writeVarint(out, target.length);
+
+        Map<Integer, Integer> blocks = indexBlocks(base);
+        int highPower = power(DELTA_BLOCK_SIZE - 1);
+        int insertStart = 0;
+        int i = 0;
+        int hash = target.length >= DELTA_BLOCK_SIZE ? hash(target, 0) : 0;
+
+        while (i + DELTA_BLOCK_SIZE <= target.length) {
+            Integer offset = blocks.get(hash);
+            if (offset != null && regionsEqual(base, offset, target, i, DELTA_BLOCK_SIZE)) {
+                int copyOffset = offset;
+                int length = DELTA_BLOCK_SIZE;
+                while (copyOffset + length < base.length && i + length < target.length
+                        && base[copyOffset + length] == target[i + length]) {
+                    length++;
+                }
+                // Pull bytes waiting to be inserted into the copy when they match too
+                while (i > insertStart && copyOffset > 0 && base[copyOffset - 1] == target[i - 1]) {
+                    i--;
+                    copyOffset--;
+                    length++;
+                }
+
+                writeInserts(out, target, insertStart, i);
+                out.write(DELTA_COPY_OPCODE);
+                writeVarint(out, copyOffset);
+                writeVarint(out, length);
+
+                i += length;
+                insertStart = i;
+                if (i + DELTA_BLOCK_SIZE <= target.length) {
+                    hash = hash(target, i);
+                }
+                continue;
+            }
+
+            if (i + DELTA_BLOCK_SIZE < target.length) {
+                hash = (hash - target[i] * highPower) * HASH_MULTIPLIER + target[i + DELTA_BLOCK_SIZE];
+            }
+            i++;
+        }
+
+        writeInserts(out, target, insertStart, target.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the delta is malformed or was made for a different base
+     */
+    public static byte[] apply(byte[] base, byte[] delta) throws IOException {
+        int[] position = {0};
+        long baseSize = readVarint(delta, position);
+        long targetSize = readVarint(delta, position);
+        if (baseSize != base.length || targetSize > Integer.MAX_VALUE) {
+            throw new IOException(ERROR_CORRUPT_DELTA);
+        }
+
+        byte[] target = new byte[(int) targetSize];
+        int written = 0;
+        while (position[0] < delta.length) {
+            int opcode = delta[position[0]++] & 0xff;
+            if (opcode == DELTA_COPY_OPCODE) {
+                long offset = readVarint(delta, position);
+                long length = readVarint(delta, position);
+                if (offset + length > base.length || written + length > target.length) {
+                    throw new IOException(ERROR_CORRUPT_DELTA);
+                }
+                System.arraycopy(base, (int) offset, target, written, (int) length);
+                written += (int) length;
+            } else if (opcode > 0 && opcode < DELTA_COPY_OPCODE) {
+                if (position[0] + opcode > delta.length || written + opcode > target.length) {
+                    throw new IOException(ERROR_CORRUPT_DELTA);
+                }
+                System.arraycopy(delta, position[0], target, written, opcode);
+                position[0] += opcode;
+                written += opcode;
+            } else {
+                throw new IOException(ERROR_CORRUPT_DELTA);
+            }
+        }
+
+        if (written != target.length) {
+            throw new IOException(ERROR_CORRUPT_DELTA);
+        }
+        return target;
+    }
+
+    /**
+     * Read the target size from the start of a delta stream without reading the instructions
+     */
+    public static long readTargetSize(InputStream in) throws IOException {
+        readVarint(in);
+        return readVarint(in);
+    }
+
+    private static Map<Integer, Integer> indexBlocks(byte[] base) {
+        Map<Integer, Integer> blocks = new HashMap<>();
+        for (int offset = 0; offset + DELTA_BLOCK_SIZE <= base.length; offset += DELTA_BLOCK_SIZE) {
+            blocks.putIfAbsent(hash(base, offset), offset);
+        }
+        return blocks;
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int hash = 0;
+        for (int i = offset; i < offset + DELTA_BLOCK_SIZE; i++) {
+            hash = hash * HASH_MULTIPLIER + data[i];
+        }
+        return hash;
+    }
+
+    private static int power(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= HASH_MULTIPLIER;
+        }
+        return result;
+    }
+
+    private static boolean regionsEqual(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeInserts(ByteArrayOutputStream out, byte[] target, int start, int end) {
+        while (start < end) {
+            int length = Math.min(end - start, DELTA_MAX_INSERT);
+            out.write(length);
+            out.write(target, start, length);
+            start += length;
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IOException(ERROR_CORRUPT_DELTA);
+            }
+            int b = data[position[0]++] & 0xff;
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException(ERROR_CORRUPT_DELTA);
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.read();
+            if (b == -1) {
+                throw new IOException(ERROR_CORRUPT_DELTA);
+            }
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException(ERROR_CORRUPT_DELTA);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of resolved delta bases, capped by the total content size.
+ *
+ * Many deltas usually share a few bases (e.g. every version of a file against the
+ * newest one), so keeping recently resolved bases avoids walking the same chain again.
+ */
+public class DeltaBaseCache {
+    private final long byteLimit;
+    private final LinkedHashMap<ObjectId, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * @param byteLimit Maximum total size of cached contents
+     */
+    public DeltaBaseCache(long byteLimit) {
+        this.byteLimit = byteLimit;
+    }
+
+    /**
+     * @return Cached content (not a copy, must not be modified), or null
+     */
+    public synchronized byte[] get(ObjectId id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Cache content, evicting the least recently used entries to stay within the limit.
+     * Contents larger than the whole limit are not cached.
+     */
+    public synchronized void put(ObjectId id, byte[] content) {
+        if (content.length > byteLimit) {
+            return;
+        }
+
+        byte[] previous = entries.put(id, content);
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += content.length;
+
+        Iterator<Map.Entry<ObjectId, byte[]>> eldest = entries.entrySet().iterator();
+        while (size > byteLimit && eldest.hasNext()) {
+            size -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.gitter.constants.Constants.*;
+
+/**
+ * Chooses delta bases for blobs, like git's pack window.
+ *
+ * Blobs are sorted by size (largest first, so deltas mostly drop bytes) and each blob is
+ * compared with the preceding blobs within the window. The comparisons for different
+ * blobs are independent and run in parallel on the worker pool. Chain depths are then
+ * assigned in sorted order, where every base precedes its deltas; a delta that would
+ * exceed the maximum depth is dropped and the blob stays whole.
+ *
+ * Contents are loaded batch by batch and released once they fall out of the window.
+ */
+public class DeltaSearch {
+    private final int window;
+    private final int maxDepth;
+    private final ContentLoader loader;
+
+    @FunctionalInterface
+    public interface ContentLoader {
+        byte[] load(ObjectId id) throws IOException;
+    }
+
+    /**
+     * A chosen delta: the target is rebuilt by applying delta to base
+     */
+    public static class Result {
+        private final ObjectId base;
+        private final byte[] delta;
+
+        private Result(ObjectId base, byte[] delta) {
+            this.base = base;
+            this.delta = delta;
+        }
+
+        public ObjectId getBase() {
+            return base;
+        }
+
+        public byte[] getDelta() {
+            return delta;
+        }
+    }
+
+    /**
+     * @param window Number of preceding blobs tried as bases for each blob
+     * @param maxDepth Maximum length of a delta chain
+     * @param loader Reads blob contents
+     */
+    public DeltaSearch(int window, int maxDepth, ContentLoader loader) {
+        this.window = window;
+        this.maxDepth = maxDepth;
+        this.loader = loader;
+    }
+
+    /**
+     * @param blobSizes Candidate blobs with their content sizes
+     * @return Chosen delta for each blob worth storing as a delta
+     */
+    public Map<ObjectId, Result> search(Map<ObjectId, Long> blobSizes) throws IOException {
+        List<ObjectId> sorted = blobSizes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= DELTA_MIN_OBJECT_SIZE && entry.getValue() <= Integer.MAX_VALUE)
+                .sorted(Map.Entry.<ObjectId, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        byte[][] contents = new byte[sorted.size()][];
+        int[] bestBase = new int[sorted.size()];
+        byte[][] bestDelta = new byte[sorted.size()][];
+
+        for (int start = 0; start < sorted.size(); start += DELTA_SEARCH_BATCH_SIZE) {
+            int end = Math.min(start + DELTA_SEARCH_BATCH_SIZE, sorted.size());
+            int windowStart = Math.max(0, start - window);
+            for (int i = 0; i < windowStart; i++) {
+                contents[i] = null;
+            }
+
+            List<Integer> toLoad = IntStream.range(windowStart, end)
+                    .filter(i -> contents[i] == null)
+                    .boxed()
+                    .collect(Collectors.toList());
+            WorkerPool.forEach(toLoad, i -> {
+                try {
+                    contents[i] = loader.load(sorted.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, "loading delta candidates");
+
+            List<Integer> targets = IntStream.range(start, end).boxed().collect(Collectors.toList());
+            WorkerPool.forEach(targets, i -> findBestBase(i, contents, bestBase, bestDelta), "searching for deltas");
+        }
+
+        return assignChains(sorted, bestBase, bestDelta);
+    }
+
+    private void findBestBase(int target, byte[][] contents, int[] bestBase, byte[][] bestDelta) {
+        // A delta only pays off if it is clearly smaller than the blob itself
+        int maxSize = contents[target].length / 2 - OBJECT_ID_LENGTH;
+        bestBase[target] = -1;
+
+        for (int base = Math.max(0, target - window); base < target; base++) {
+            byte[] delta = Delta.create(contents[base], contents[target]);
+            if (delta.length < maxSize) {
+                maxSize = delta.length;
+                bestBase[target] = base;
+                bestDelta[target] = delta;
+            }
+        }
+    }
+
+    private Map<ObjectId, Result> assignChains(List<ObjectId> sorted, int[] bestBase, byte[][] bestDelta) {
+        Map<ObjectId, Result> results = new HashMap<>();
+        int[] depth = new int[sorted.size()];
+
+        for (int i = 0; i < sorted.size(); i++) {
+            int base = bestBase[i];
+            if (base >= 0 && depth[base] < maxDepth) {
+                depth[i] = depth[base] + 1;
+                results.put(sorted.get(i), new Result(sorted.get(base), bestDelta[i]));
+            }
+        }
+        return results;
+    }
+}
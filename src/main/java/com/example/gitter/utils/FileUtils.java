@@ -1,16 +1,23 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.models.FileStat;
+
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.example.gitter.constants.Constants.*;
 import static com.example.gitter.constants.PathConstants.GITTER;
 
 public class FileUtils {
+    private static final String UNIX_STAT_ATTRIBUTES = "unix:lastModifiedTime,ctime,size,ino,dev";
 
     public static boolean isGitterInitialized() {
         return Files.exists(GITTER) && Files.isDirectory(GITTER);
@@ -20,6 +27,35 @@ public class FileUtils {
         Path workingDir = GITTER.getParent();
         return workingDir.relativize(file);
     }
+
+    /**
+     * Read the stat data cached in the index for a file. Symbolic links are followed, as
+     * they are when the file is hashed, so retargeting a link shows up as a stat change.
+     * Falls back to basic attributes (no inode/device) on file systems without a unix view.
+     */
+    public static FileStat readStat(Path file) throws IOException {
+        try {
+            Map<String, Object> attrs = Files.readAttributes(file, UNIX_STAT_ATTRIBUTES);
+            return new FileStat(
+                toNanos((FileTime) attrs.get("lastModifiedTime")),
+                toNanos((FileTime) attrs.get("ctime")),
+                (Long) attrs.get("size"),
+                (Long) attrs.get("ino"),
+                (Long) attrs.get("dev"));
+        } catch (UnsupportedOperationException e) {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStat(
+                toNanos(attrs.lastModifiedTime()),
+                toNanos(attrs.creationTime()),
+                attrs.size(),
+                0,
+                0);
+        }
+    }
+
+    private static long toNanos(FileTime time) {
+        return time.to(TimeUnit.NANOSECONDS);
+    }
    
     /**
      * Check if a file path matches the given pattern
@@ -138,4 +174,25 @@ public class FileUtils {
             }
         }
     }
+    
+    /**
+     * Flush a file's content to disk
+     */
+    public static void fsync(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+    
+    /**
+     * Flush a directory's entries to disk, so files created in or renamed into it survive
+     * a crash. Not all platforms can open a directory for this; there it is a no-op.
+     */
+    public static void fsyncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException | UnsupportedOperationException e) {
+            // e.g. Windows, which flushes directory entries with the file
+        }
+    }
 }
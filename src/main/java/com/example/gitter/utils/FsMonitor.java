@@ -0,0 +1,459 @@
+package com.example.gitter.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.WARNING_FSMONITOR_WATCH_FAILED;
+import static com.example.gitter.constants.PathConstants.FSMONITOR_SOCKET;
+import static com.example.gitter.constants.PathConstants.GITTER;
+
+/**
+ * File system monitor daemon: watches the working tree with a WatchService and records
+ * which paths changed, so status only re-examines those paths instead of the whole tree.
+ *
+ * Every change is stamped with a sequence number. A token "<daemonId>:<sequence>" names a
+ * point in time; querying with a token returns the paths changed after it plus a new token.
+ * A full scan is requested instead when the token comes from another daemon instance, or
+ * when events may have been lost since (queue overflow, watch limit, .gitterignore change).
+ *
+ * Only the last FSMONITOR_MAX_TOKENS tokens handed out are honoured. Changes no newer than
+ * the oldest of them are dropped, so the change map stays bounded; an older token gets a
+ * full scan.
+ *
+ * Before answering, the daemon writes a cookie file into .gitter and waits until its own
+ * event for it arrives, so all changes made before the query are accounted for.
+ *
+ * Protocol (one connection per request, over a unix domain socket in .gitter):
+ *   QUERY <token>  ->  OK <new token>\n<path>\n...   or   FULL <new token>\n
+ *   STOP           ->  connection closed, daemon exits
+ */
+public class FsMonitor {
+    private static final String NO_TOKEN = "-";
+
+    private final Path workingDir;
+    private final Path gitterDir;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private final Map<String, Long> changes = new HashMap<>();  // path -> sequence of last change
+    private final Deque<Long> issuedTokens = new ArrayDeque<>();  // sequences, oldest first
+    private final Set<String> seenCookies = new HashSet<>();
+    private final String daemonId = UUID.randomUUID().toString();
+    private GitterIgnore gitterIgnore;
+    private long sequence;
+    private long overflowSequence;
+    private boolean watchFailed;
+    private int cookieCounter;
+    private volatile boolean running = true;
+
+    private FsMonitor(Path workingDir) throws IOException {
+        this.workingDir = workingDir;
+        this.gitterDir = workingDir.resolve(GITTER_DIR);
+        this.watchService = workingDir.getFileSystem().newWatchService();
+        this.gitterIgnore = GitterIgnore.getInstance();
+    }
+
+    /**
+     * Check whether a monitor is answering on this repository's socket
+     */
+    public static boolean isRunning() {
+        try {
+            connect(GITTER.getParent()).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Watch the working tree until stopped. Blocks the calling thread.
+     */
+    public static void run() throws IOException {
+        run(GITTER.getParent());
+    }
+
+    /**
+     * Watch the working tree of the repository in workingDir until stopped
+     */
+    static void run(Path workingDir) throws IOException {
+        FsMonitor monitor = new FsMonitor(workingDir);
+        Path socket = getSocket(workingDir);
+        try (ServerSocketChannel server = bind(socket)) {
+            monitor.registerTree(monitor.workingDir, false);
+            monitor.register(monitor.gitterDir);
+
+            Thread serverThread = new Thread(() -> monitor.serve(server), "fsmonitor-server");
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            monitor.processEvents();
+        } finally {
+            monitor.watchService.close();
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    /**
+     * Ask a running monitor to exit
+     *
+     * @return false if no monitor is running
+     */
+    public static boolean stop() {
+        return stop(GITTER.getParent());
+    }
+
+    static boolean stop(Path workingDir) {
+        try (SocketChannel channel = connect(workingDir)) {
+            PrintWriter writer = new PrintWriter(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8);
+            writer.println(FSMONITOR_STOP);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Query a running monitor for the paths changed since a token.
+     *
+     * @param token Token returned by the previous query, or null
+     * @return The response, or null if no monitor is running
+     */
+    public static Response query(String token) {
+        return query(GITTER.getParent(), token);
+    }
+
+    static Response query(Path workingDir, String token) {
+        try (SocketChannel channel = connect(workingDir)) {
+            PrintWriter writer = new PrintWriter(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8);
+            writer.println(FSMONITOR_QUERY + SPACE + (token == null ? NO_TOKEN : token));
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            String header = reader.readLine();
+            if (header == null) {
+                return null;
+            }
+
+            String[] parts = header.split(SPACE, 2);
+            List<String> changedPaths = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    changedPaths.add(line);
+                }
+            }
+            return new Response(parts[1], FSMONITOR_FULL_SCAN.equals(parts[0]), changedPaths);
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static Path getSocket(Path workingDir) {
+        return workingDir.resolve(GITTER_DIR).resolve(FSMONITOR_SOCKET.getFileName());
+    }
+
+    private static SocketChannel connect(Path workingDir) throws IOException {
+        Path socket = getSocket(workingDir);
+        if (!Files.exists(socket)) {
+            throw new IOException(socket.toString());
+        }
+        return SocketChannel.open(UnixDomainSocketAddress.of(socket));
+    }
+
+    private static ServerSocketChannel bind(Path socket) throws IOException {
+        // A socket file nobody answers on is left over from a killed monitor
+        Files.deleteIfExists(socket);
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        return server;
+    }
+
+    private void processEvents() throws IOException {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.poll(FSMONITOR_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (key == null) {
+                continue;
+            }
+
+            Path dir = watchedDirs.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                    markOverflow();
+                } else {
+                    handleEvent(dir, dir.resolve((Path) event.context()), event.kind());
+                }
+            }
+
+            if (!key.reset()) {
+                synchronized (this) {
+                    watchedDirs.remove(key);
+                }
+            }
+        }
+    }
+
+    private synchronized void handleEvent(Path dir, Path child, WatchEvent.Kind<?> kind) throws IOException {
+        if (dir.equals(gitterDir)) {
+            String name = child.getFileName().toString();
+            if (name.startsWith(FSMONITOR_COOKIE_PREFIX) && kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                seenCookies.add(name);
+                notifyAll();
+            }
+            return;
+        }
+
+        String relativePath = workingDir.relativize(child).toString();
+        if (relativePath.equals(GITTERIGNORE_FILE)) {
+            // Ignore rules changed: the set of visible files may differ everywhere
+            gitterIgnore = GitterIgnore.reload();
+            markOverflow();
+            return;
+        }
+        boolean directory = Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+        if (gitterIgnore.shouldIgnore(relativePath)
+                || (directory && kind == StandardWatchEventKinds.ENTRY_MODIFY)) {
+            // Changes inside a directory are reported by the directory's own watch
+            return;
+        }
+
+        recordChange(relativePath);
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE && directory) {
+            // Anything created inside before the watch was registered produced no event
+            registerTree(child, true);
+        }
+    }
+
+    private void recordChange(String relativePath) {
+        ++sequence;
+        if (!issuedTokens.isEmpty()) {
+            // Without a token nobody can ask for changes since some point
+            changes.put(relativePath, sequence);
+        }
+    }
+
+    private synchronized void markOverflow() {
+        overflowSequence = ++sequence;
+    }
+
+    private void registerTree(Path root, boolean recordFiles) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String relativePath = workingDir.relativize(dir).toString();
+                if (!dir.equals(workingDir) && gitterIgnore.shouldIgnoreDirectory(relativePath)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (recordFiles) {
+                    recordChange(workingDir.relativize(file).toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path dir) {
+        if (watchFailed) {
+            return;
+        }
+        try {
+            WatchKey key = dir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            synchronized (this) {
+                watchedDirs.put(key, dir);
+            }
+        } catch (IOException e) {
+            // Typically the inotify watch limit; changes below dir would go unnoticed
+            System.err.println(String.format(WARNING_FSMONITOR_WATCH_FAILED, dir, e.getMessage()));
+            watchFailed = true;
+        }
+    }
+
+    private void serve(ServerSocketChannel server) {
+        while (running) {
+            try (SocketChannel client = server.accept()) {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+                String request = reader.readLine();
+                if (request == null) {
+                    continue;
+                }
+
+                if (request.equals(FSMONITOR_STOP)) {
+                    running = false;
+                    return;
+                }
+                if (request.startsWith(FSMONITOR_QUERY + SPACE)) {
+                    String token = request.substring(FSMONITOR_QUERY.length() + 1);
+                    PrintWriter writer = new PrintWriter(Channels.newOutputStream(client), false, StandardCharsets.UTF_8);
+                    answerQuery(token, writer);
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                if (!server.isOpen()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void answerQuery(String token, PrintWriter writer) throws IOException {
+        boolean synced = waitForCookie();
+
+        synchronized (this) {
+            String newToken = daemonId + FSMONITOR_TOKEN_SEPARATOR + sequence;
+            long since = parseSequence(token);
+            boolean expired = issuedTokens.isEmpty() || since < issuedTokens.peekFirst();
+            if (!synced || watchFailed || since < 0 || expired || since < overflowSequence) {
+                writer.println(FSMONITOR_FULL_SCAN + SPACE + newToken);
+            } else {
+                writer.println(FSMONITOR_OK + SPACE + newToken);
+                for (Map.Entry<String, Long> change : changes.entrySet()) {
+                    if (change.getValue() > since) {
+                        writer.println(change.getKey());
+                    }
+                }
+            }
+            issueToken(sequence);
+        }
+    }
+
+    /**
+     * Remember a handed-out token and drop the changes no remembered token can ask for
+     */
+    private void issueToken(long tokenSequence) {
+        if (issuedTokens.isEmpty() || issuedTokens.peekLast() != tokenSequence) {
+            issuedTokens.addLast(tokenSequence);
+        }
+        if (issuedTokens.size() > FSMONITOR_MAX_TOKENS) {
+            issuedTokens.removeFirst();
+        }
+        long oldest = issuedTokens.peekFirst();
+        changes.values().removeIf(changeSequence -> changeSequence <= oldest);
+    }
+
+    /**
+     * @return The sequence number of a token issued by this daemon, or -1
+     */
+    private long parseSequence(String token) {
+        String prefix = daemonId + FSMONITOR_TOKEN_SEPARATOR;
+        if (!token.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Write a cookie file and wait until its creation event is processed, which
+     * guarantees every event that happened before the query has been recorded.
+     */
+    private boolean waitForCookie() throws IOException {
+        String cookieName;
+        synchronized (this) {
+            cookieName = FSMONITOR_COOKIE_PREFIX + (++cookieCounter);
+        }
+        Path cookie = gitterDir.resolve(cookieName);
+        Files.writeString(cookie, EMPTY_STRING);
+
+        try {
+            long deadline = System.currentTimeMillis() + FSMONITOR_COOKIE_TIMEOUT_MS;
+            synchronized (this) {
+                while (!seenCookies.remove(cookieName)) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    wait(remaining);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            Files.deleteIfExists(cookie);
+        }
+    }
+
+    /**
+     * Answer to a query: either the paths changed since the queried token,
+     * or a request to fall back to a full scan
+     */
+    public static class Response {
+        private final String token;
+        private final boolean fullScan;
+        private final List<String> changedPaths;
+
+        public Response(String token, boolean fullScan, List<String> changedPaths) {
+            this.token = token;
+            this.fullScan = fullScan;
+            this.changedPaths = changedPaths;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public boolean isFullScan() {
+            return fullScan;
+        }
+
+        /**
+         * Changed files and directories relative to the working directory.
+         * A changed directory means anything below it may have changed.
+         */
+        public List<String> getChangedPaths() {
+            return changedPaths;
+        }
+    }
+}
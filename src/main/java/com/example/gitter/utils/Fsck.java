@@ -0,0 +1,350 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ChunkManifest;
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.FsckReport;
+import com.example.gitter.models.ObjectHeader;
+import com.example.gitter.models.ObjectId;
+import com.example.gitter.models.Tree;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.*;
+
+/**
+ * Verifies every stored object and the connectivity of the history (gitter fsck).
+ *
+ * Objects are checked in parallel (core.workers): each one is inflated and its content
+ * rehashed and compared with its id. Contents are streamed through the digest, so only
+ * deltas are held in memory, one at a time per worker, while they are resolved; chunked
+ * blobs are hashed over their chunks in order. On the way the objects that deltas and
+ * chunked blobs are built from are noted, together with the ids of commits.
+ *
+ * Reachability is then walked from every branch in refs/heads: a commit leads to its parent
+ * and its root tree (or, for commits written before trees, its files), a tree to its files
+ * and subtrees, a blob to the objects it is built from. Only ids are kept, never contents,
+ * so memory grows with the number of objects but not with their size.
+ */
+public class Fsck {
+    private final ProgressListener listener;
+    private final FsckReport report = new FsckReport();
+    private final Map<ObjectId, List<ObjectId>> links = new ConcurrentHashMap<>();
+    private final Set<ObjectId> commits = ConcurrentHashMap.newKeySet();
+    private final Set<ObjectId> trees = ConcurrentHashMap.newKeySet();
+    private final Set<ObjectId> corrupt = ConcurrentHashMap.newKeySet();
+    private final AtomicLong checkedCount = new AtomicLong();
+    private final AtomicLong checkedBytes = new AtomicLong();
+    private final AtomicLong lastProgressNanos = new AtomicLong();
+    private long startNanos;
+    private long totalCount;
+
+    /**
+     * Told how far the object check is, at most every FSCK_PROGRESS_INTERVAL_NANOS
+     * and once at the end; never called concurrently
+     */
+    public interface ProgressListener {
+        void onProgress(long checked, long total, long bytes, long elapsedNanos);
+    }
+
+    public Fsck(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    public FsckReport run() throws IOException {
+        startNanos = System.nanoTime();
+        Set<ObjectId> stored = checkObjects();
+        Set<ObjectId> reachable = walkBranches(stored);
+        findDangling(stored, reachable);
+
+        report.setTotals(totalCount, checkedBytes.get(), System.nanoTime() - startNanos);
+        return report;
+    }
+
+    /**
+     * @return Ids of all stored objects
+     */
+    private Set<ObjectId> checkObjects() throws IOException {
+        List<ObjectId> ids = new ArrayList<>(ObjectStore.listObjects());
+        totalCount = ids.size();
+        WorkerPool.forEach(ids, this::checkObject, FSCK_CHECKING_OBJECTS);
+        listener.onProgress(checkedCount.get(), totalCount, checkedBytes.get(), System.nanoTime() - startNanos);
+        return new HashSet<>(ids);
+    }
+
+    private void checkObject(ObjectId id) {
+        String type = null;
+        try (InputStream in = ObjectStore.openObject(id)) {
+            ObjectHeader header = ObjectStore.parseHeader(in);
+            type = header.getType();
+
+            ObjectId actual;
+            if (OBJECT_TYPE_BLOB.equals(type) || OBJECT_TYPE_COMMIT.equals(type)) {
+                actual = hashContent(in, header);
+            } else if (OBJECT_TYPE_TREE.equals(type)) {
+                byte[] content = ObjectStore.readContent(in, header);
+                checkedBytes.addAndGet(content.length);
+                actual = HashUtils.hashObject(OBJECT_TYPE_TREE, content);
+            } else if (OBJECT_TYPE_DELTA.equals(type)) {
+                byte[] payload = ObjectStore.readContent(in, header);
+                if (payload.length < OBJECT_ID_LENGTH) {
+                    throw new IOException(ERROR_CORRUPT_DELTA);
+                }
+                links.put(id, List.of(ObjectId.fromRaw(payload, 0)));
+                byte[] content = ObjectStore.resolveDelta(payload);
+                checkedBytes.addAndGet(content.length);
+                actual = HashUtils.hashBytes(content);
+            } else if (OBJECT_TYPE_CHUNKED.equals(type)) {
+                ChunkManifest manifest = ChunkManifest.deserialize(ObjectStore.readContent(in, header));
+                List<ObjectId> chunkIds = new ArrayList<>();
+                for (ChunkManifest.Chunk chunk : manifest.getChunks()) {
+                    chunkIds.add(chunk.getId());
+                }
+                links.put(id, chunkIds);
+                actual = hashChunks(manifest);
+            } else {
+                report.addCorrupt(id, type, String.format(FSCK_UNKNOWN_TYPE, type));
+                corrupt.add(id);
+                return;
+            }
+
+            if (OBJECT_TYPE_COMMIT.equals(type)) {
+                commits.add(id);
+            } else if (OBJECT_TYPE_TREE.equals(type)) {
+                trees.add(id);
+            }
+            if (!actual.equals(id)) {
+                report.addCorrupt(id, type, String.format(FSCK_HASH_MISMATCH, actual));
+                corrupt.add(id);
+            }
+        } catch (IOException | RuntimeException e) {
+            report.addCorrupt(id, type, e.getMessage());
+            corrupt.add(id);
+        } finally {
+            checkedCount.incrementAndGet();
+            reportProgress();
+        }
+    }
+
+    /**
+     * Hash the rest of the stream, which must be exactly the size given in the header
+     */
+    private ObjectId hashContent(InputStream in, ObjectHeader header) throws IOException {
+        MessageDigest digest = HashUtils.getDigest();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            total += read;
+        }
+        if (total != header.getSize()) {
+            throw new IOException(String.format(ERROR_OBJECT_SIZE_MISMATCH, header.getSize(), total));
+        }
+        checkedBytes.addAndGet(total);
+        return ObjectId.fromRaw(digest.digest());
+    }
+
+    private ObjectId hashChunks(ChunkManifest manifest) throws IOException {
+        // Own digest: reading the chunks may use the thread's shared one
+        MessageDigest digest = HashUtils.newDigest();
+        try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            checkedBytes.addAndGet(ObjectStore.copyChunks(manifest, out));
+        }
+        return ObjectId.fromRaw(digest.digest());
+    }
+
+    private void reportProgress() {
+        long now = System.nanoTime();
+        long last = lastProgressNanos.get();
+        if (now - last >= FSCK_PROGRESS_INTERVAL_NANOS && lastProgressNanos.compareAndSet(last, now)) {
+            synchronized (listener) {
+                listener.onProgress(checkedCount.get(), totalCount, checkedBytes.get(), now - startNanos);
+            }
+        }
+    }
+
+    private Set<ObjectId> walkBranches(Set<ObjectId> stored) throws IOException {
+        Set<ObjectId> reachable = new HashSet<>();
+        Deque<ObjectId> pendingCommits = new ArrayDeque<>();
+        for (Map.Entry<String, ObjectId> branch : RepositoryState.getBranches().entrySet()) {
+            ObjectId tip = branch.getValue();
+            if (!stored.contains(tip)) {
+                report.addMissing(tip, OBJECT_TYPE_COMMIT, BRANCH_REF_PREFIX + branch.getKey());
+                reachable.add(tip);
+            } else {
+                pendingCommits.push(tip);
+            }
+        }
+
+        while (!pendingCommits.isEmpty()) {
+            ObjectId commitId = pendingCommits.pop();
+            if (!reachable.add(commitId) || corrupt.contains(commitId)) {
+                continue;
+            }
+            Commit commit = readCommit(commitId);
+            if (commit == null) {
+                continue;
+            }
+
+            ObjectId parent = commit.getParent();
+            if (parent != null && !reachable.contains(parent)) {
+                if (stored.contains(parent)) {
+                    pendingCommits.push(parent);
+                } else {
+                    report.addMissing(parent, OBJECT_TYPE_COMMIT, commitId.name());
+                    reachable.add(parent);
+                }
+            }
+            if (commit.getTree() != null) {
+                reachTree(commit.getTree(), commitId, stored, reachable);
+            }
+            for (FileEntry file : commit.getFiles().values()) {
+                reachBlob(file.getHash(), commitId, stored, reachable);
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Mark a tree reachable, together with its subtrees and files
+     */
+    private void reachTree(ObjectId rootId, ObjectId referencedBy, Set<ObjectId> stored, Set<ObjectId> reachable) {
+        Deque<ObjectId[]> pending = new ArrayDeque<>();
+        pending.push(new ObjectId[] {rootId, referencedBy});
+        while (!pending.isEmpty()) {
+            ObjectId[] next = pending.pop();
+            ObjectId id = next[0];
+            if (!reachable.add(id) || corrupt.contains(id)) {
+                continue;
+            }
+            if (!stored.contains(id)) {
+                report.addMissing(id, OBJECT_TYPE_TREE, next[1].name());
+                continue;
+            }
+            Tree tree = readTree(id);
+            if (tree == null) {
+                continue;
+            }
+            for (Tree.Entry entry : tree.getEntries()) {
+                if (entry.isTree()) {
+                    pending.push(new ObjectId[] {entry.getHash(), id});
+                } else {
+                    reachBlob(entry.getHash(), id, stored, reachable);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The parsed commit, or null if it hashes correctly but cannot be parsed
+     *         (reported as corrupt)
+     */
+    private Commit readCommit(ObjectId id) {
+        try {
+            Commit commit = ObjectStore.readParsedCommit(id);
+            // The file list is decoded lazily; decode it here so a malformed one is reported
+            commit.getFiles();
+            return commit;
+        } catch (IOException | RuntimeException e) {
+            report.addCorrupt(id, OBJECT_TYPE_COMMIT, e.getMessage());
+            corrupt.add(id);
+            return null;
+        }
+    }
+
+    /**
+     * @return The parsed tree, or null if it hashes correctly but cannot be parsed
+     *         (reported as corrupt)
+     */
+    private Tree readTree(ObjectId id) {
+        try {
+            return ObjectStore.readParsedTree(id);
+        } catch (IOException | RuntimeException e) {
+            report.addCorrupt(id, OBJECT_TYPE_TREE, e.getMessage());
+            corrupt.add(id);
+            return null;
+        }
+    }
+
+    /**
+     * Mark a blob reachable, together with the deltas bases and chunks it is built from
+     */
+    private void reachBlob(ObjectId blobId, ObjectId referencedBy, Set<ObjectId> stored, Set<ObjectId> reachable) {
+        Deque<ObjectId[]> pending = new ArrayDeque<>();
+        pending.push(new ObjectId[] {blobId, referencedBy});
+        while (!pending.isEmpty()) {
+            ObjectId[] next = pending.pop();
+            ObjectId id = next[0];
+            if (!reachable.add(id)) {
+                continue;
+            }
+            if (!stored.contains(id)) {
+                report.addMissing(id, OBJECT_TYPE_BLOB, next[1].name());
+                continue;
+            }
+            for (ObjectId link : links.getOrDefault(id, List.of())) {
+                pending.push(new ObjectId[] {link, id});
+            }
+        }
+    }
+
+    /**
+     * Unreachable objects are dangling unless another unreachable object refers to them,
+     * so that lost history shows up as its tips only
+     */
+    private void findDangling(Set<ObjectId> stored, Set<ObjectId> reachable) throws IOException {
+        Set<ObjectId> referenced = new HashSet<>();
+        for (ObjectId id : stored) {
+            if (reachable.contains(id) || corrupt.contains(id)) {
+                continue;
+            }
+            referenced.addAll(links.getOrDefault(id, List.of()));
+            Commit commit = commits.contains(id) ? readCommit(id) : null;
+            if (commit != null) {
+                if (commit.getParent() != null) {
+                    referenced.add(commit.getParent());
+                }
+                if (commit.getTree() != null) {
+                    referenced.add(commit.getTree());
+                }
+                for (FileEntry file : commit.getFiles().values()) {
+                    referenced.add(file.getHash());
+                }
+            }
+            Tree tree = trees.contains(id) ? readTree(id) : null;
+            if (tree != null) {
+                for (Tree.Entry entry : tree.getEntries()) {
+                    referenced.add(entry.getHash());
+                }
+            }
+        }
+
+        for (ObjectId id : stored) {
+            if (!reachable.contains(id) && !corrupt.contains(id) && !referenced.contains(id)) {
+                report.addDangling(id, getType(id));
+            }
+        }
+    }
+
+    private String getType(ObjectId id) {
+        if (commits.contains(id)) {
+            return OBJECT_TYPE_COMMIT;
+        }
+        return trees.contains(id) ? OBJECT_TYPE_TREE : OBJECT_TYPE_BLOB;
+    }
+}
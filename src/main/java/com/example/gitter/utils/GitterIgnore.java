@@ -30,7 +30,15 @@ public class GitterIgnore {
         }
         return instance;
     }
-    
+
+    /**
+     * Re-read .gitterignore, for long-running processes that see it change
+     */
+    public static GitterIgnore reload() throws IOException {
+        instance = load();
+        return instance;
+    }
+
     private static GitterIgnore load() throws IOException {
         Path ignoreFile = GITTER.getParent().resolve(GITTERIGNORE_FILE);
         Set<String> ignoredDirectories = new HashSet<>();
@@ -56,10 +64,8 @@ public class GitterIgnore {
     }
     
     public boolean shouldIgnore(String relativePath) {
-        for (String dir : ignoredDirectories) {
-            if (relativePath.equals(dir) || relativePath.startsWith(dir + "/")) {
-                return true;
-            }
+        if (shouldIgnoreDirectory(relativePath)) {
+            return true;
         }
         
         if (ignoredFiles.contains(relativePath)) {
@@ -68,4 +74,17 @@ public class GitterIgnore {
         
         return false;
     }
+    
+    /**
+     * Check whether a directory is ignored as a whole, so walkers can skip its subtree
+     */
+    public boolean shouldIgnoreDirectory(String relativePath) {
+        for (String dir : ignoredDirectories) {
+            if (relativePath.equals(dir) || relativePath.startsWith(dir + "/")) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
 }
@@ -1,35 +1,97 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.models.ObjectId;
+
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-import static com.example.gitter.constants.Constants.HASH_ALGORITHM;
+import static com.example.gitter.constants.Constants.*;
 import static com.example.gitter.constants.Messages.ERROR_HASH_ALGORITHM_NOT_FOUND;
 
+/**
+ * SHA-1 hashing of files and byte arrays.
+ *
+ * Files are streamed through a fixed-size direct buffer (or memory-mapped in windows
+ * when large), so heap usage does not depend on file size. Digest instances and read
+ * buffers are reused per thread.
+ */
 public class HashUtils {
-    
-    public static String hashFile(Path filePath) throws IOException {
-        byte[] fileBytes = Files.readAllBytes(filePath);
-        return hashBytes(fileBytes);
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(HashUtils::newDigest);
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HASH_BUFFER_SIZE));
+
+    public static ObjectId hashFile(Path filePath) throws IOException {
+        MessageDigest digest = getDigest();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= HASH_MMAP_THRESHOLD) {
+                updateMapped(digest, channel, size);
+            } else {
+                updateBuffered(digest, channel);
+            }
+        }
+        return ObjectId.fromRaw(digest.digest());
     }
-    
-    public static String hashBytes(byte[] bytes) {
+
+    public static ObjectId hashBytes(byte[] bytes) {
+        MessageDigest digest = getDigest();
+        return ObjectId.fromRaw(digest.digest(bytes));
+    }
+
+    /**
+     * Hash content together with its object header ("type size\0"), so that objects of
+     * different types never share an id even when their content is the same (e.g. an
+     * empty tree and an empty blob)
+     */
+    public static ObjectId hashObject(String type, byte[] content) {
+        MessageDigest digest = getDigest();
+        digest.update((type + SPACE + content.length + NULL_BYTE).getBytes(StandardCharsets.UTF_8));
+        return ObjectId.fromRaw(digest.digest(content));
+    }
+
+    /**
+     * @return This thread's digest instance, reset and ready for use
+     */
+    static MessageDigest getDigest() {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        return digest;
+    }
+
+    private static void updateBuffered(MessageDigest digest, FileChannel channel) throws IOException {
+        ByteBuffer buffer = READ_BUFFER.get();
+        buffer.clear();
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Map the file window by window; a single mapping is limited to 2 GB.
+     */
+    private static void updateMapped(MessageDigest digest, FileChannel channel, long size) throws IOException {
+        long position = 0;
+        while (position < size) {
+            long windowSize = Math.min(HASH_MMAP_WINDOW_SIZE, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+            digest.update(window);
+            position += windowSize;
+        }
+    }
+
+    static MessageDigest newDigest() {
         try {
-            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-            byte[] hash = digest.digest(bytes);
-            
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
+            return MessageDigest.getInstance(HASH_ALGORITHM);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(String.format(ERROR_HASH_ALGORITHM_NOT_FOUND, HASH_ALGORITHM), e);
         }
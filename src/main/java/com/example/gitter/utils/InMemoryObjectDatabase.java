@@ -0,0 +1,105 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Objects held in memory only, deflated like loose objects so that large repositories
+ * still fit. Nothing survives the process: meant for tests and throwaway repositories.
+ * Objects of a batch become readable at commit() and are dropped by close() otherwise.
+ */
+public class InMemoryObjectDatabase implements ObjectDatabase {
+    private final Map<ObjectId, byte[]> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public InputStream stream(ObjectId id) {
+        byte[] deflated = objects.get(id);
+        return deflated == null ? null : new InflaterInputStream(new ByteArrayInputStream(deflated));
+    }
+
+    @Override
+    public boolean exists(ObjectId id) {
+        return objects.containsKey(id);
+    }
+
+    @Override
+    public Collection<ObjectId> listObjects() {
+        return new ArrayList<>(objects.keySet());
+    }
+
+    @Override
+    public WriteBatch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * @return Number of objects stored
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    private class Batch extends WriteBatch {
+        private final Map<ObjectId, byte[]> pending = new LinkedHashMap<>();
+
+        @Override
+        public synchronized int getPendingCount() {
+            return pending.size();
+        }
+
+        @Override
+        synchronized boolean contains(ObjectId id) {
+            return pending.containsKey(id) || exists(id);
+        }
+
+        @Override
+        ObjectOutput newObject() {
+            return new ObjectOutput() {
+                private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                @Override
+                public void write(int b) {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                void store(ObjectId id) {
+                    synchronized (Batch.this) {
+                        if (!contains(id)) {
+                            pending.put(id, out.toByteArray());
+                        }
+                    }
+                }
+
+                @Override
+                void discard() {
+                }
+            };
+        }
+
+        @Override
+        public synchronized void commit() {
+            objects.putAll(pending);
+            pending.clear();
+        }
+
+        @Override
+        public synchronized void close() {
+            pending.clear();
+        }
+    }
+}
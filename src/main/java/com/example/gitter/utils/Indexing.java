@@ -1,13 +1,16 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.models.Commit;
 import com.example.gitter.models.FileEntry;
-import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.FileStat;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.example.gitter.constants.Constants.*;
@@ -19,6 +22,9 @@ import static com.example.gitter.constants.PathConstants.INDEX;
  * Utility class for index (staging area) operations
  */
 public class Indexing {
+    // Hashes of the index as last loaded or saved, and its stat data then
+    private static FileStat loadedStat;
+    private static Map<String, ObjectId> loadedHashes;
 
     /**
      * Load index as a map (path -> FileEntry) for quick lookup
@@ -29,25 +35,103 @@ public class Indexing {
             List<String> lines = Files.readAllLines(INDEX);
             for (String line : lines) {
                 if (!line.trim().isEmpty()) {
-                    FileEntry entry = FileEntry.fromString(line);
+                    FileEntry entry = FileEntry.fromIndexString(line);
                     indexMap.put(entry.getPath(), entry);
                 }
             }
         }
+        rememberIndex(indexMap.values());
         
         return indexMap;
     }
 
+    private static void rememberIndex(Collection<FileEntry> entries) throws IOException {
+        if (!Files.exists(INDEX)) {
+            loadedStat = null;
+            return;
+        }
+        Map<String, ObjectId> hashes = new HashMap<>();
+        for (FileEntry entry : entries) {
+            hashes.put(entry.getPath(), entry.getHash());
+        }
+        loadedStat = FileUtils.readStat(INDEX);
+        loadedHashes = hashes;
+    }
+
+    /**
+     * Cached tree ids of the index, without the directories where files differ from it
+     *
+     * @param files Files about to be committed or saved as the index, usually the loaded index
+     */
+    public static TreeCache getTreeCache(Collection<FileEntry> files) throws IOException {
+        TreeCache trees = TreeCache.load();
+        if (trees.isEmpty()) {
+            return trees;
+        }
+
+        FileStat stat = FileUtils.readStat(INDEX);
+        if (!stat.equals(loadedStat)) {
+            loadIndex();
+        }
+        int unchanged = 0;
+        for (FileEntry entry : files) {
+            if (entry.getHash().equals(loadedHashes.get(entry.getPath()))) {
+                unchanged++;
+            } else {
+                trees.invalidate(entry.getPath());
+            }
+        }
+        if (unchanged < loadedHashes.size()) {
+            Set<String> paths = files.stream().map(FileEntry::getPath).collect(Collectors.toSet());
+            for (String path : loadedHashes.keySet()) {
+                if (!paths.contains(path)) {
+                    trees.invalidate(path);
+                }
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Last modification time of the index in nanoseconds, used for racy-clean detection
+     */
+    public static long getIndexTimestamp() throws IOException {
+        if (!Files.exists(INDEX)) {
+            return 0;
+        }
+        return Files.getLastModifiedTime(INDEX).to(TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Save index (staged files) to disk
      * 
+     * Stat data of entries modified in the same second the index is written is dropped,
+     * since a later change within that second would go unnoticed. Such files are
+     * re-hashed on the next scan. The cached trees of directories with changed files are
+     * dropped.
+     * 
      * @param stagedFiles Collection of files to save to index
      */
     public static void saveIndex(Collection<FileEntry> stagedFiles) throws IOException {
+        writeIndex(stagedFiles, getTreeCache(stagedFiles));
+    }
+
+    private static void writeIndex(Collection<FileEntry> stagedFiles, TreeCache trees) throws IOException {
+        long writeTimestamp = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
         String content = stagedFiles.stream()
-                .map(entry -> entry.toString() + NEWLINE)
+                .map(entry -> smudgeRacyEntry(entry, writeTimestamp).toIndexString() + NEWLINE)
                 .collect(Collectors.joining());
         Files.writeString(INDEX, content);
+        rememberIndex(stagedFiles);
+        trees.save();
+    }
+
+    private static FileEntry smudgeRacyEntry(FileEntry entry, long writeTimestamp) {
+        FileStat stat = entry.getStat();
+        if (stat != null && stat.isRacilyClean(writeTimestamp)) {
+            return entry.withStat(null);
+        }
+        return entry;
     }
 
     /**
@@ -56,8 +140,8 @@ public class Indexing {
      * @param commitHash The commit hash to sync the index to
      * @throws IOException if the commit object doesn't exist (repository corruption)
      */
-    public static void updateIndex(String commitHash) throws IOException {
-        if (commitHash == null || commitHash.isEmpty()) {
+    public static void updateIndex(ObjectId commitHash) throws IOException {
+        if (commitHash == null) {
             clearIndex();
             return;
         }
@@ -66,25 +150,35 @@ public class Indexing {
             throw new IOException(String.format(ERROR_OBJECT_NOT_FOUND, commitHash));
         }
 
-        ObjectContent commitObj = ObjectStore.readCommit(commitHash);
-        String[] lines = commitObj.getDataAsString().split(NEWLINE);
+        Commit commit = ObjectStore.readParsedCommit(commitHash);
+        Map<String, FileEntry> currentIndex = loadIndex();
+        TreeCache trees = getTreeCache(currentIndex.values());
         List<FileEntry> entries = new ArrayList<>();
-        for(int i=lines.length-1; i>=0; i--) {
-            if (lines[i].startsWith(FILES_SECTION_MARKER)) {
-                break;
-            } else if (!lines[i].trim().isEmpty()) {
-                entries.add(FileEntry.fromString(lines[i]));
-            }
+        // Directories the index already has as committed are not read again; the commit's
+        // trees become the cached trees of the new index
+        for (FileEntry entry : TreeUtils.readFiles(commit, currentIndex, trees).values()) {
+            entries.add(carryOverStat(entry, currentIndex));
         }
 
-        saveIndex(entries);
+        writeIndex(entries, trees);
+    }
+
+    /**
+     * Keep the cached stat data of an index entry whose content is unchanged by the update
+     */
+    private static FileEntry carryOverStat(FileEntry entry, Map<String, FileEntry> currentIndex) {
+        FileEntry current = currentIndex.get(entry.getPath());
+        if (current != null && current.getStat() != null && current.getHash().equals(entry.getHash())) {
+            return entry.withStat(current.getStat());
+        }
+        return entry;
     }
 
     /**
      * Clear the index (remove all staged files)
      */
     public static void clearIndex() throws IOException {
-        Files.writeString(INDEX, EMPTY_STRING);
+        writeIndex(List.of(), new TreeCache());
     }
     
     /**
@@ -96,23 +190,33 @@ public class Indexing {
      * @throws IOException if file operations fail
      */
     public static boolean stageModifiedFiles(Map<String, FileEntry> indexMap, WorkingDirectoryStatus status) throws IOException {
-        Map<String, String> workingFiles = status.getAllWorkingFiles();
+        Map<String, ObjectId> workingFiles = status.getAllWorkingFiles();
         Path workingDir = GITTER.getParent();
         boolean anyChanges = false;
         
-        // Stage all unstaged modified files
+        // Objects already stored (e.g. a file changed back) are not written again
+        List<ObjectId> currentHashes = new ArrayList<>();
         for (String path : status.getUnstagedModified()) {
-            String currentHash = workingFiles.get(path);
-            
-            // Check if object already exists (avoid re-writing)
-            if (!ObjectStore.exists(currentHash)) {
+            currentHashes.add(workingFiles.get(path));
+        }
+        Set<ObjectId> storedHashes = ObjectStore.batchExists(currentHashes);
+        
+        // Stage all unstaged modified files
+        try (WriteBatch batch = ObjectStore.newBatch()) {
+            for (String path : status.getUnstagedModified()) {
+                ObjectId currentHash = workingFiles.get(path);
                 Path sourceFile = workingDir.resolve(path);
-                byte[] content = Files.readAllBytes(sourceFile);
-                currentHash = ObjectStore.writeBlob(content);
+                FileStat stat = FileUtils.readStat(sourceFile);
+                
+                if (currentHash == null || !storedHashes.contains(currentHash)) {
+                    currentHash = batch.writeBlob(sourceFile);
+                }
+                
+                indexMap.put(path, new FileEntry(path, currentHash, stat));
+                anyChanges = true;
             }
-            
-            indexMap.put(path, new FileEntry(path, currentHash));
-            anyChanges = true;
+            // Objects are durable before the index refers to them
+            batch.commit();
         }
         
         // Stage all deletions (remove from index)
@@ -127,18 +231,37 @@ public class Indexing {
     
     /**
      * Stage the specified files by reading their content and storing in object store.
+     * Files whose working hash is already stored are only stat'ed, not read or written again.
      * 
      * @param filePaths Collection of file paths to stage
+     * @param workingHashes Hashes of the working files, as computed by status
      * @param indexMap The current index map to update
      * @throws IOException if file operations fail
      */
-    public static void stageFiles(Collection<String> filePaths, Map<String, FileEntry> indexMap) throws IOException {
+    public static void stageFiles(Collection<String> filePaths, Map<String, ObjectId> workingHashes,
+                                  Map<String, FileEntry> indexMap) throws IOException {
         Path workingDir = GITTER.getParent();
-        for (String relativePath : filePaths) {
-            Path sourceFile = workingDir.resolve(relativePath);
-            byte[] content = Files.readAllBytes(sourceFile);
-            String actualHash = ObjectStore.writeBlob(content);
-            indexMap.put(relativePath, new FileEntry(relativePath, actualHash));
+        
+        List<ObjectId> currentHashes = new ArrayList<>();
+        for (String path : filePaths) {
+            currentHashes.add(workingHashes.get(path));
+        }
+        Set<ObjectId> storedHashes = ObjectStore.batchExists(currentHashes);
+        
+        try (WriteBatch batch = ObjectStore.newBatch()) {
+            for (String relativePath : filePaths) {
+                ObjectId actualHash = workingHashes.get(relativePath);
+                Path sourceFile = workingDir.resolve(relativePath);
+                // Stat before reading so a concurrent modification shows up as a stat mismatch
+                FileStat stat = FileUtils.readStat(sourceFile);
+                
+                if (actualHash == null || !storedHashes.contains(actualHash)) {
+                    actualHash = batch.writeBlob(sourceFile);
+                }
+                indexMap.put(relativePath, new FileEntry(relativePath, actualHash, stat));
+            }
+            // Objects are durable before the index refers to them
+            batch.commit();
         }
     }
     
@@ -0,0 +1,349 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.ERROR_CORRUPT_OBJECT_LOG;
+
+/**
+ * All objects appended to a single file, for repositories with many small objects where
+ * one file per object costs more in inodes and directory syncs than the objects themselves.
+ *
+ * Log format: "GLOG" | version (int) | records
+ * Record: object id (20 bytes) | length (long) | the object deflated like a loose object
+ *
+ * The file is scanned once when first used to build an in-memory index from id to record.
+ * A record cut short by a crash can only be the last one; it is truncated away by that scan.
+ * A record is appended with a single write once its object is complete, so objects are
+ * readable as soon as they are written. commit() forces the log to disk unless core.fsync
+ * is none (per-object forces it after every record), and there is nothing to discard on
+ * close().
+ *
+ * Appends and truncation hold a lock on the log. Under it, the records other processes
+ * appended since the last scan are indexed first, so a record always goes after them.
+ */
+public class LogObjectDatabase implements ObjectDatabase, Closeable {
+    private static final int RECORD_HEADER_LENGTH = OBJECT_ID_LENGTH + Long.BYTES;
+    // A file lock is held by the whole JVM, so threads take turns before locking
+    private static final Object LOG_LOCK = new Object();
+
+    private final Path logPath;
+    private final String fsyncMode;
+    private final Map<ObjectId, Record> index = new HashMap<>();
+    private FileChannel channel;
+    private long end;
+
+    /**
+     * @param fsyncMode One of the core.fsync modes
+     */
+    public LogObjectDatabase(Path logPath, String fsyncMode) {
+        this.logPath = logPath;
+        this.fsyncMode = fsyncMode;
+    }
+
+    @Override
+    public InputStream stream(ObjectId id) throws IOException {
+        Record record;
+        FileChannel log;
+        synchronized (this) {
+            log = open(false);
+            record = log == null ? null : index.get(id);
+        }
+        if (record == null) {
+            return null;
+        }
+        return new InflaterInputStream(
+                new BufferedInputStream(new RecordInputStream(log, record), OBJECT_BUFFER_SIZE));
+    }
+
+    @Override
+    public synchronized boolean exists(ObjectId id) throws IOException {
+        return open(false) != null && index.containsKey(id);
+    }
+
+    @Override
+    public synchronized Collection<ObjectId> listObjects() throws IOException {
+        return open(false) == null ? new ArrayList<>() : new ArrayList<>(index.keySet());
+    }
+
+    @Override
+    public WriteBatch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * @return Number of objects in the log
+     */
+    public synchronized int size() throws IOException {
+        return open(false) == null ? 0 : index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            index.clear();
+        }
+    }
+
+    /**
+     * @param create Whether a missing log is created
+     * @return The open log, or null if it does not exist and create is false
+     */
+    private FileChannel open(boolean create) throws IOException {
+        if (channel == null) {
+            if (!create && !Files.exists(logPath)) {
+                return null;
+            }
+            Files.createDirectories(logPath.getParent());
+            channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE);
+            load();
+        }
+        return channel;
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(OBJECT_LOG_HEADER_LENGTH)
+                    .put(OBJECT_LOG_SIGNATURE.getBytes(StandardCharsets.US_ASCII))
+                    .putInt(OBJECT_LOG_VERSION)
+                    .flip();
+            writeFully(header, 0);
+            end = OBJECT_LOG_HEADER_LENGTH;
+            return;
+        }
+
+        ByteBuffer header = readFully(0, OBJECT_LOG_HEADER_LENGTH);
+        byte[] signature = new byte[OBJECT_LOG_SIGNATURE.length()];
+        header.get(signature);
+        if (!OBJECT_LOG_SIGNATURE.equals(new String(signature, StandardCharsets.US_ASCII))
+                || header.getInt() != OBJECT_LOG_VERSION) {
+            channel.close();
+            channel = null;
+            throw new IOException(String.format(ERROR_CORRUPT_OBJECT_LOG, logPath));
+        }
+
+        end = OBJECT_LOG_HEADER_LENGTH;
+        if (scan(size) < size) {
+            synchronized (LOG_LOCK) {
+                FileLock lock = channel.lock();
+                try {
+                    catchUp();
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Index the complete records between end and size, advancing end past them
+     *
+     * @return The new end
+     */
+    private long scan(long size) throws IOException {
+        while (end + RECORD_HEADER_LENGTH <= size) {
+            ByteBuffer recordHeader = readFully(end, RECORD_HEADER_LENGTH);
+            ObjectId id = ObjectId.fromRaw(recordHeader.array(), 0);
+            long length = recordHeader.getLong(OBJECT_ID_LENGTH);
+            long dataStart = end + RECORD_HEADER_LENGTH;
+            if (length < 0 || dataStart + length > size) {
+                break;
+            }
+            index.putIfAbsent(id, new Record(dataStart, length));
+            end = dataStart + length;
+        }
+        return end;
+    }
+
+    /**
+     * Index what other processes appended since the last scan and cut off a record torn
+     * by a crash. Only called with the log locked, when no append can be half-written.
+     */
+    private void catchUp() throws IOException {
+        long size = channel.size();
+        if (scan(size) < size) {
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Append a complete record, unless the object is in the log already
+     */
+    private synchronized void append(ObjectId id, byte[] deflated) throws IOException {
+        FileChannel log = open(true);
+        if (index.containsKey(id)) {
+            return;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + deflated.length);
+        id.copyRawTo(record.array(), 0);
+        record.putLong(OBJECT_ID_LENGTH, deflated.length);
+        record.put(RECORD_HEADER_LENGTH, deflated);
+
+        synchronized (LOG_LOCK) {
+            FileLock lock = log.lock();
+            try {
+                catchUp();
+                if (index.containsKey(id)) {
+                    return;
+                }
+                writeFully(record, end);
+                index.put(id, new Record(end + RECORD_HEADER_LENGTH, deflated.length));
+                end += record.capacity();
+            } finally {
+                lock.release();
+            }
+        }
+        if (FSYNC_PER_OBJECT.equals(fsyncMode)) {
+            log.force(false);
+        }
+    }
+
+    private synchronized void sync() throws IOException {
+        if (channel != null && !FSYNC_NONE.equals(fsyncMode)) {
+            channel.force(false);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new IOException(String.format(ERROR_CORRUPT_OBJECT_LOG, logPath));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static class Record {
+        private final long offset;
+        private final long length;
+
+        private Record(long offset, long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The bytes of one record, read with positional reads so that any number of them
+     * can be open on the shared channel at once
+     */
+    private static class RecordInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private final long limit;
+
+        private RecordInputStream(FileChannel channel, Record record) {
+            this.channel = channel;
+            this.position = record.offset;
+            this.limit = record.offset + record.length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= limit) {
+                return -1;
+            }
+            int wanted = (int) Math.min(len, limit - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, wanted), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Objects are appended as they are stored; the batch only tracks what commit() must force
+     */
+    private class Batch extends WriteBatch {
+        private int pendingCount;
+
+        @Override
+        public synchronized int getPendingCount() {
+            return pendingCount;
+        }
+
+        @Override
+        boolean contains(ObjectId id) throws IOException {
+            return exists(id);
+        }
+
+        @Override
+        ObjectOutput newObject() {
+            return new ObjectOutput() {
+                private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                @Override
+                public void write(int b) {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                void store(ObjectId id) throws IOException {
+                    append(id, out.toByteArray());
+                    if (FSYNC_BATCH.equals(fsyncMode)) {
+                        synchronized (Batch.this) {
+                            pendingCount++;
+                        }
+                    }
+                }
+
+                @Override
+                void discard() {
+                }
+            };
+        }
+
+        @Override
+        public synchronized void commit() throws IOException {
+            sync();
+            pendingCount = 0;
+        }
+
+        @Override
+        public synchronized void close() {
+            pendingCount = 0;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.InflaterInputStream;
+
+import static com.example.gitter.constants.Constants.*;
+
+/**
+ * The default object database: one zlib file per object, sharded by hash (objects/ab/cdef123),
+ * plus packs (objects/pack/pack-*.pack + .idx) written by repack() and compact().
+ *
+ * Objects written before compression was introduced are stored uncompressed. They are
+ * told apart by their first byte (a zlib stream starts with 0x78, a raw object with its
+ * type name) and remain readable, so existing repositories need no migration.
+ *
+ * Reads and exists() look for a loose object first and then search the pack indexes.
+ * Packs are discovered once per instance; resetPacks() forgets them (and the presence
+ * filter) after a repack.
+ *
+ * New objects are written to temporary files (objects/tmp-obj-*) and renamed into place
+ * according to core.fsync:
+ *
+ * - none: objects are renamed into place as they are written, nothing is fsynced
+ * - per-object: each object file, and the directory it is renamed into, is fsynced on its own
+ * - batch: objects stay in temporary files until commit(), which fsyncs all of them, renames
+ *   them into place and then fsyncs each shard directory once
+ *
+ * In batch mode the objects only become readable at commit(), but a crash can never leave
+ * a truncated object under its real name, at the cost of one directory sync per shard
+ * rather than per object.
+ *
+ * batchExists() first asks an ObjectFilter of all loose and packed objects, so that most
+ * objects that are not stored are ruled out without a file system lookup. The filter is
+ * built from the shard directories and pack indexes on first use and kept in
+ * objects/presence-filter. The stored filter is only ever widened or deleted, never
+ * replaced by one missing stored objects, and only while holding a lock on
+ * objects/presence-filter.lock, so that concurrent processes cannot lose each other's
+ * objects:
+ *
+ * - batch: commit() adds the new ids to the stored filter before renaming the objects
+ *   into place, so a crash in between only leaves false positives
+ * - none, per-object: each object is renamed into place after deleting the stored filter,
+ *   which is rebuilt from the shard directories when the batch ends
+ *
+ * A process keeps the filter it read, which misses objects other processes write later;
+ * batchExists() may therefore miss objects, but never reports one that is not stored.
+ */
+public class LooseObjectDatabase implements ObjectDatabase {
+    // FileChannel locks are held per JVM, so threads and instances in one process queue here
+    private static final Object FILTER_LOCK = new Object();
+
+    private final Path objectsDir;
+    private final Path packDir;
+    private final String fsyncMode;
+    private final Path filterPath;
+    private final Path filterLockPath;
+    private List<PackFile> packs;
+    private ObjectFilter filter;
+
+    /**
+     * @param fsyncMode One of the core.fsync modes
+     */
+    public LooseObjectDatabase(Path objectsDir, String fsyncMode) {
+        this.objectsDir = objectsDir;
+        this.packDir = objectsDir.resolve(PACK_DIR);
+        this.fsyncMode = fsyncMode;
+        this.filterPath = objectsDir.resolve(OBJECT_FILTER_FILE);
+        this.filterLockPath = objectsDir.resolve(OBJECT_FILTER_LOCK_FILE);
+    }
+
+    public Path getPackDirectory() {
+        return packDir;
+    }
+
+    @Override
+    public InputStream stream(ObjectId id) throws IOException {
+        Path objectPath = getObjectPath(id);
+        if (!Files.exists(objectPath)) {
+            PackFile pack = findPack(id);
+            return pack == null ? null : pack.openObject(id);
+        }
+
+        // Large objects are read through mapped windows instead of copies into heap buffers
+        InputStream in = Files.size(objectPath) >= OBJECT_MMAP_THRESHOLD
+                ? WindowCache.getInstance().open(objectPath, 0)
+                : new BufferedInputStream(Files.newInputStream(objectPath), OBJECT_BUFFER_SIZE);
+        in.mark(1);
+        int firstByte = in.read();
+        in.reset();
+        if (firstByte == ZLIB_HEADER_BYTE) {
+            return new InflaterInputStream(in);
+        }
+        return in;
+    }
+
+    @Override
+    public boolean exists(ObjectId id) throws IOException {
+        return Files.exists(getObjectPath(id)) || findPack(id) != null;
+    }
+
+    /**
+     * Loose objects first, then packed ones not also stored loose
+     */
+    @Override
+    public Collection<ObjectId> listObjects() throws IOException {
+        Set<ObjectId> ids = new LinkedHashSet<>(listLooseObjects());
+        for (PackFile pack : getPacks()) {
+            PackIndex index = pack.getIndex();
+            for (int i = 0; i < index.getObjectCount(); i++) {
+                ids.add(index.getObjectId(i));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Objects ruled out by the filter are not looked up; the others still are, since the
+     * filter may be wrong about them
+     */
+    @Override
+    public Set<ObjectId> batchExists(Collection<ObjectId> ids) throws IOException {
+        ObjectFilter presence = getFilter();
+        Set<ObjectId> found = new HashSet<>();
+        for (ObjectId id : ids) {
+            if (presence.mightContain(id) && exists(id)) {
+                found.add(id);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public WriteBatch newBatch() {
+        return new Batch();
+    }
+
+    Path getObjectPath(ObjectId id) {
+        // Shard: first 2 hex chars = directory, remaining = filename
+        String name = id.name();
+        String dirName = name.substring(HASH_SHARD_START, HASH_SHARD_END);
+        String fileName = name.substring(HASH_SHARD_END);
+        return objectsDir.resolve(dirName).resolve(fileName);
+    }
+
+    /**
+     * @return Names of all loose objects (objects/ab/cdef...), in no particular order
+     */
+    List<ObjectId> listLooseObjects() throws IOException {
+        List<ObjectId> ids = new ArrayList<>();
+        if (!Files.isDirectory(objectsDir)) {
+            return ids;
+        }
+
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(objectsDir, Files::isDirectory)) {
+            for (Path shard : shards) {
+                String shardName = shard.getFileName().toString();
+                if (shardName.length() != HASH_SHARD_END) {
+                    continue;
+                }
+                try (DirectoryStream<Path> objects = Files.newDirectoryStream(shard)) {
+                    for (Path object : objects) {
+                        String name = shardName + object.getFileName();
+                        if (ObjectId.isValid(name)) {
+                            ids.add(ObjectId.fromString(name));
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    synchronized List<PackFile> getPacks() throws IOException {
+        if (packs == null) {
+            List<PackFile> found = new ArrayList<>();
+            if (Files.isDirectory(packDir)) {
+                String glob = PACK_FILE_PREFIX + GLOB_WILDCARD_ASTERISK + PACK_INDEX_EXTENSION;
+                try (DirectoryStream<Path> indexes = Files.newDirectoryStream(packDir, glob)) {
+                    for (Path indexPath : indexes) {
+                        found.add(PackFile.open(indexPath));
+                    }
+                }
+            }
+            packs = Collections.unmodifiableList(found);
+        }
+        return packs;
+    }
+
+    /**
+     * Forget the packs after they changed, together with the filter: a pack may hold
+     * objects the filter has never seen
+     */
+    synchronized void resetPacks() throws IOException {
+        packs = null;
+        filter = null;
+        Files.deleteIfExists(filterPath);
+    }
+
+    private synchronized ObjectFilter getFilter() throws IOException {
+        if (filter == null) {
+            filter = ObjectFilter.read(filterPath);
+        }
+        if (filter == null) {
+            if (!Files.isDirectory(objectsDir)) {
+                filter = buildFilter();
+            } else {
+                storeFilter(List.of());
+            }
+        }
+        return filter;
+    }
+
+    private ObjectFilter buildFilter() throws IOException {
+        List<ObjectId> ids = listLooseObjects();
+        for (PackFile pack : getPacks()) {
+            PackIndex index = pack.getIndex();
+            for (int i = 0; i < index.getObjectCount(); i++) {
+                ids.add(index.getObjectId(i));
+            }
+        }
+
+        ObjectFilter built = new ObjectFilter(Math.max(OBJECT_FILTER_MIN_CAPACITY, 2 * ids.size()));
+        for (ObjectId id : ids) {
+            built.add(id);
+        }
+        return built;
+    }
+
+    /**
+     * Under the filter lock, add ids to the stored filter, building it from the stored
+     * objects (and ids) if there is none or it has grown past its capacity. The result
+     * becomes this process's filter.
+     */
+    private synchronized void storeFilter(Collection<ObjectId> ids) throws IOException {
+        synchronized (FILTER_LOCK) {
+            FileChannel lock = lockFilter();
+            try {
+                ObjectFilter stored = ObjectFilter.read(filterPath);
+                if (stored != null) {
+                    for (ObjectId id : ids) {
+                        stored.add(id);
+                    }
+                }
+                if (stored == null || stored.isOverfilled()) {
+                    stored = buildFilter();
+                    for (ObjectId id : ids) {
+                        stored.add(id);
+                    }
+                }
+                stored.write(filterPath);
+                filter = stored;
+            } finally {
+                lock.close();
+            }
+        }
+    }
+
+    /**
+     * Rename an object into place with the stored filter deleted, under the filter lock,
+     * so no filter built meanwhile can miss it
+     */
+    private synchronized void placeUnfiltered(ObjectId id, Path tempFile, Batch batch) throws IOException {
+        synchronized (FILTER_LOCK) {
+            FileChannel lock = lockFilter();
+            try {
+                Files.deleteIfExists(filterPath);
+                batch.moveIntoPlace(id, tempFile);
+            } finally {
+                lock.close();
+            }
+        }
+        if (filter != null) {
+            filter.add(id);
+        }
+    }
+
+    /**
+     * @return Channel holding an exclusive lock on the filter lock file until it is closed
+     */
+    private FileChannel lockFilter() throws IOException {
+        FileChannel channel = FileChannel.open(filterLockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            channel.lock();
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private PackFile findPack(ObjectId id) throws IOException {
+        for (PackFile pack : getPacks()) {
+            if (pack.contains(id)) {
+                return pack;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Batch of temporary object files, placed according to core.fsync. Shard directories
+     * are created at most once per batch.
+     */
+    private class Batch extends WriteBatch {
+        private final Map<ObjectId, Path> pending = new LinkedHashMap<>();
+        private final Set<Path> knownDirectories = new HashSet<>();
+        private final Set<Path> changedDirectories = new LinkedHashSet<>();
+        private boolean placedUnfiltered;
+
+        @Override
+        public synchronized int getPendingCount() {
+            return pending.size();
+        }
+
+        @Override
+        synchronized boolean contains(ObjectId id) throws IOException {
+            return pending.containsKey(id) || exists(id);
+        }
+
+        @Override
+        ObjectOutput newObject() throws IOException {
+            return new TempObject(newTempFile());
+        }
+
+        private synchronized Path newTempFile() throws IOException {
+            ensureDirectory(objectsDir);
+            return objectsDir.resolve(TEMP_OBJECT_PREFIX + UUID.randomUUID());
+        }
+
+        /**
+         * Take over a completely written temporary object file
+         */
+        private synchronized void add(ObjectId id, Path tempFile) throws IOException {
+            if (contains(id)) {
+                Files.delete(tempFile);
+                return;
+            }
+            if (FSYNC_BATCH.equals(fsyncMode)) {
+                pending.put(id, tempFile);
+                return;
+            }
+
+            if (FSYNC_PER_OBJECT.equals(fsyncMode)) {
+                FileUtils.fsync(tempFile);
+            }
+            placeUnfiltered(id, tempFile, this);
+            placedUnfiltered = true;
+            syncDirectories();
+        }
+
+        @Override
+        public synchronized void commit() throws IOException {
+            for (Path tempFile : pending.values()) {
+                FileUtils.fsync(tempFile);
+            }
+            if (!pending.isEmpty()) {
+                storeFilter(pending.keySet());
+            }
+            for (Map.Entry<ObjectId, Path> entry : pending.entrySet()) {
+                moveIntoPlace(entry.getKey(), entry.getValue());
+            }
+            pending.clear();
+            syncDirectories();
+            restoreFilter();
+        }
+
+        /**
+         * Store a filter again after objects were placed without one (unless another
+         * process has already built one since)
+         */
+        private void restoreFilter() throws IOException {
+            if (placedUnfiltered) {
+                placedUnfiltered = false;
+                storeFilter(List.of());
+            }
+        }
+
+        private void moveIntoPlace(ObjectId id, Path tempFile) throws IOException {
+            Path objectPath = getObjectPath(id);
+            ensureDirectory(objectPath.getParent());
+            Files.move(tempFile, objectPath, StandardCopyOption.ATOMIC_MOVE);
+            changedDirectories.add(objectPath.getParent());
+        }
+
+        private void ensureDirectory(Path dir) throws IOException {
+            if (knownDirectories.add(dir) && !Files.isDirectory(dir)) {
+                Files.createDirectories(dir);
+                changedDirectories.add(dir.getParent());
+            }
+        }
+
+        private void syncDirectories() throws IOException {
+            if (!FSYNC_NONE.equals(fsyncMode)) {
+                for (Path dir : changedDirectories) {
+                    FileUtils.fsyncDirectory(dir);
+                }
+            }
+            changedDirectories.clear();
+        }
+
+        /**
+         * Discard objects that were not committed
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            for (Path tempFile : pending.values()) {
+                Files.deleteIfExists(tempFile);
+            }
+            pending.clear();
+            restoreFilter();
+        }
+
+        private class TempObject extends ObjectOutput {
+            private final Path tempFile;
+            private final OutputStream out;
+
+            private TempObject(Path tempFile) throws IOException {
+                this.tempFile = tempFile;
+                this.out = Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+            }
+
+            @Override
+            void store(ObjectId id) throws IOException {
+                add(id, tempFile);
+            }
+
+            @Override
+            void discard() throws IOException {
+                out.close();
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+}
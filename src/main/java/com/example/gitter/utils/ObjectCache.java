@@ -0,0 +1,147 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.ObjectId;
+import com.example.gitter.models.Tree;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.gitter.constants.Constants.OBJECT_CACHE_ENTRY_OVERHEAD;
+
+/**
+ * LRU cache of objects read during one command, capped by an estimate of their heap size.
+ *
+ * Holds the raw ObjectContent and, for commits and trees, the parsed Commit or Tree, so
+ * walking history or reading the same commit from several places neither inflates nor
+ * parses it again.
+ * Objects are immutable and named by their content, so entries never need invalidation.
+ */
+public class ObjectCache {
+    private final long byteLimit;
+    private final LinkedHashMap<ObjectId, CachedObject> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param byteLimit Maximum estimated heap size of the cached objects
+     */
+    public ObjectCache(long byteLimit) {
+        this.byteLimit = byteLimit;
+    }
+
+    /**
+     * @return Cached content, or null (counted as a miss)
+     */
+    public synchronized ObjectContent getContent(ObjectId id) {
+        CachedObject cached = entries.get(id);
+        return record(cached != null ? cached.content : null);
+    }
+
+    /**
+     * @return Cached content, or null, without counting a hit or miss: for a lookup inside
+     *         a read that has been counted already, or a read that does not fill the cache
+     */
+    public synchronized ObjectContent peekContent(ObjectId id) {
+        CachedObject cached = entries.get(id);
+        return cached != null ? cached.content : null;
+    }
+
+    /**
+     * @return Cached parsed commit, or null (counted as a miss)
+     */
+    public synchronized Commit getCommit(ObjectId id) {
+        CachedObject cached = entries.get(id);
+        return record(cached != null ? cached.commit : null);
+    }
+
+    /**
+     * @return Cached parsed tree, or null (counted as a miss)
+     */
+    public synchronized Tree getTree(ObjectId id) {
+        CachedObject cached = entries.get(id);
+        return record(cached != null ? cached.tree : null);
+    }
+
+    public synchronized void putContent(ObjectId id, ObjectContent content) {
+        CachedObject cached = entries.computeIfAbsent(id, key -> new CachedObject());
+        cached.content = content;
+        resize(id, cached);
+    }
+
+    /**
+     * @param weight Estimated heap size of the parsed commit
+     */
+    public synchronized void putCommit(ObjectId id, Commit commit, long weight) {
+        CachedObject cached = entries.computeIfAbsent(id, key -> new CachedObject());
+        cached.commit = commit;
+        cached.parsedWeight = weight;
+        resize(id, cached);
+    }
+
+    /**
+     * @param weight Estimated heap size of the parsed tree
+     */
+    public synchronized void putTree(ObjectId id, Tree tree, long weight) {
+        CachedObject cached = entries.computeIfAbsent(id, key -> new CachedObject());
+        cached.tree = tree;
+        cached.parsedWeight = weight;
+        resize(id, cached);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private <T> T record(T value) {
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    private void resize(ObjectId id, CachedObject cached) {
+        size -= cached.weight;
+        cached.weight = OBJECT_CACHE_ENTRY_OVERHEAD + cached.parsedWeight
+                + (cached.content != null ? cached.content.getSize() : 0);
+        size += cached.weight;
+
+        if (cached.weight > byteLimit) {
+            entries.remove(id);
+            size -= cached.weight;
+            return;
+        }
+
+        Iterator<Map.Entry<ObjectId, CachedObject>> eldest = entries.entrySet().iterator();
+        while (size > byteLimit && eldest.hasNext()) {
+            size -= eldest.next().getValue().weight;
+            eldest.remove();
+        }
+    }
+
+    private static class CachedObject {
+        private ObjectContent content;
+        private Commit commit;
+        private Tree tree;
+        private long parsedWeight;
+        private long weight;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.ObjectHeader;
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Storage of objects by id, underneath ObjectStore.
+ *
+ * A database stores each object as "type size\0content" and returns it exactly as stored:
+ * deltas and chunked blobs are resolved by ObjectStore, which also owns the caches. The
+ * implementation is chosen by core.objectDatabase:
+ *
+ * - loose: one zlib file per object under objects/, plus packs (LooseObjectDatabase)
+ * - memory: objects held in the process only, for tests and throwaway repositories
+ * - log: a single append-only file with an in-memory hash index (LogObjectDatabase)
+ */
+public interface ObjectDatabase {
+
+    /**
+     * @return Stream positioned at the object's "type size\0" header, or null if the object
+     *         is not stored
+     */
+    InputStream stream(ObjectId id) throws IOException;
+
+    boolean exists(ObjectId id) throws IOException;
+
+    /**
+     * @return Ids of all stored objects, each once, in no particular order
+     */
+    Collection<ObjectId> listObjects() throws IOException;
+
+    /**
+     * Start a group of writes; see WriteBatch
+     */
+    WriteBatch newBatch() throws IOException;
+
+    /**
+     * @return The object as stored, or null if it is not stored
+     */
+    default ObjectContent read(ObjectId id) throws IOException {
+        try (InputStream in = stream(id)) {
+            if (in == null) {
+                return null;
+            }
+            ObjectHeader header = ObjectStore.parseHeader(in);
+            byte[] content = ObjectStore.readContent(in, header);
+            return new ObjectContent(header.getType(), content.length, content);
+        }
+    }
+
+    /**
+     * Write one object under the given id and commit it
+     */
+    default void write(ObjectId id, String type, byte[] content) throws IOException {
+        try (WriteBatch batch = newBatch()) {
+            ObjectStore.writeObject(id, type, content, batch);
+            batch.commit();
+        }
+    }
+
+    /**
+     * @return The ids among the given ones that are stored
+     */
+    default Set<ObjectId> batchExists(Collection<ObjectId> ids) throws IOException {
+        Set<ObjectId> found = new HashSet<>();
+        for (ObjectId id : ids) {
+            if (exists(id)) {
+                found.add(id);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static com.example.gitter.constants.Constants.*;
+
+/**
+ * Bloom filter over object ids: mightContain() is false only for objects that were never
+ * added, and wrongly true for about 1% of the others while no more than the capacity has
+ * been added.
+ *
+ * Object ids are SHA-1 hashes already, so the bit positions are taken from the id itself
+ * (two 64-bit words combined as h1 + i * h2) instead of hashing it again.
+ *
+ * File format: "GFLT" | version (int) | capacity (int) | count (int) | bits (longs)
+ */
+public class ObjectFilter {
+    private static final int HEADER_LENGTH = OBJECT_FILTER_SIGNATURE.length() + 3 * Integer.BYTES;
+
+    private final int capacity;
+    private final long[] bits;
+    private int count;
+
+    /**
+     * @param capacity Number of objects the filter is sized for
+     */
+    public ObjectFilter(int capacity) {
+        this(capacity, new long[wordCount(capacity)], 0);
+    }
+
+    private ObjectFilter(int capacity, long[] bits, int count) {
+        this.capacity = capacity;
+        this.bits = bits;
+        this.count = count;
+    }
+
+    public void add(ObjectId id) {
+        ByteBuffer raw = ByteBuffer.wrap(id.toByteArray());
+        for (int i = 0; i < OBJECT_FILTER_HASH_COUNT; i++) {
+            long bit = bitIndex(raw, i);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        count++;
+    }
+
+    public boolean mightContain(ObjectId id) {
+        ByteBuffer raw = ByteBuffer.wrap(id.toByteArray());
+        for (int i = 0; i < OBJECT_FILTER_HASH_COUNT; i++) {
+            long bit = bitIndex(raw, i);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long bitIndex(ByteBuffer raw, int i) {
+        long h1 = raw.getLong(0);
+        long h2 = raw.getLong(Long.BYTES);
+        return Math.floorMod(h1 + i * h2, (long) bits.length * Long.SIZE);
+    }
+
+    /**
+     * @return Number of objects added, counting repeated ones again
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return Whether more objects were added than the filter is sized for, so that
+     *         false positives become more frequent
+     */
+    public boolean isOverfilled() {
+        return count > capacity;
+    }
+
+    /**
+     * Write the filter to a temporary file and rename it into place
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + bits.length * Long.BYTES)
+                .put(OBJECT_FILTER_SIGNATURE.getBytes(StandardCharsets.US_ASCII))
+                .putInt(OBJECT_FILTER_VERSION)
+                .putInt(capacity)
+                .putInt(count);
+        buffer.asLongBuffer().put(bits);
+
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), null);
+        try {
+            Files.write(tempFile, buffer.array());
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * @return The filter stored in file, or null if there is none or it cannot be used
+     */
+    public static ObjectFilter read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_LENGTH) {
+            return null;
+        }
+        byte[] signature = new byte[OBJECT_FILTER_SIGNATURE.length()];
+        buffer.get(signature);
+        if (!OBJECT_FILTER_SIGNATURE.equals(new String(signature, StandardCharsets.US_ASCII))
+                || buffer.getInt() != OBJECT_FILTER_VERSION) {
+            return null;
+        }
+        int capacity = buffer.getInt();
+        int count = buffer.getInt();
+        if (capacity <= 0 || count < 0 || buffer.remaining() != wordCount(capacity) * Long.BYTES) {
+            return null;
+        }
+
+        long[] bits = new long[wordCount(capacity)];
+        buffer.asLongBuffer().get(bits);
+        return new ObjectFilter(capacity, bits, count);
+    }
+
+    private static int wordCount(int capacity) {
+        long bitCount = (long) capacity * OBJECT_FILTER_BITS_PER_OBJECT;
+        return (int) ((bitCount + Long.SIZE - 1) / Long.SIZE);
+    }
+}
@@ -1,82 +1,626 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.models.ChunkManifest;
+import com.example.gitter.models.Commit;
 import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.ObjectHeader;
+import com.example.gitter.models.ObjectId;
+import com.example.gitter.models.Tree;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 import static com.example.gitter.constants.Constants.*;
 import static com.example.gitter.constants.Messages.*;
 import static com.example.gitter.constants.PathConstants.OBJECTS;
+import static com.example.gitter.constants.PathConstants.OBJECT_LOG;
 
 /**
- * All objects (blobs, commits, trees) are stored in a unified objects/ directory
- * using format: "type size\0content"
+ * All objects (blobs, commits, trees) are stored using format: "type size\0content",
+ * zlib-compressed as a whole (level from core.compression), in the ObjectDatabase chosen
+ * by core.objectDatabase (by default loose files under objects/, see LooseObjectDatabase).
  * 
- * Files are sharded by hash for performance: objects/ab/cdef123
+ * repack() moves loose objects into a pack (objects/pack/pack-*.pack + .idx); it and
+ * compact() need the loose database.
+ * 
+ * compact() additionally stores similar blobs as deltas against each other. A delta entry
+ * ("delta size\0" + base id + Delta instructions) is resolved transparently when read;
+ * recently resolved bases are kept in a DeltaBaseCache (core.deltaBaseCacheLimit).
+ * 
+ * Blobs above core.chunkThreshold are split into chunk blobs, and a "chunked" object
+ * holding their ChunkManifest is stored under the id of the whole content. Reads,
+ * readHeader() and copyBlob() reassemble them transparently.
+ * 
+ * Objects read are kept in an ObjectCache (core.objectCacheLimit), together with the parsed
+ * Commit or Tree for commits and trees (readParsedCommit, readParsedTree), so repeated reads
+ * within a command are free.
  */
 public class ObjectStore {
+    private static ObjectDatabase database;
+    private static DeltaBaseCache deltaBaseCache;
+    private static ObjectCache objectCache;
 
-    public static ObjectContent readBlob(String hash) throws IOException {
+    public static ObjectContent readBlob(ObjectId hash) throws IOException {
         return readObject(hash, OBJECT_TYPE_BLOB);
     }
 
-    public static String writeBlob(byte[] content) throws IOException {
-        return writeObject(OBJECT_TYPE_BLOB, content);
+    /**
+     * Blobs larger than core.chunkThreshold are stored in chunks (see writeChunked)
+     */
+    public static ObjectId writeBlob(byte[] content) throws IOException {
+        try (WriteBatch batch = newBatch()) {
+            ObjectId hash = writeBlob(content, batch);
+            batch.commit();
+            return hash;
+        }
+    }
+    
+    static ObjectId writeBlob(byte[] content, WriteBatch batch) throws IOException {
+        if (content.length > RepositoryConfig.getInstance().getChunkThreshold()) {
+            return writeChunked(new ByteArrayInputStream(content), batch);
+        }
+        return writeObject(OBJECT_TYPE_BLOB, content, batch);
+    }
+    
+    /**
+     * Store a file as a blob without loading it into memory: the file is hashed and
+     * deflated into a new object in a single pass, which is named once its hash is known.
+     * If the object already exists, the new object is dropped instead.
+     * Files larger than core.chunkThreshold are stored in chunks (see writeChunked).
+     * 
+     * @throws IOException if the file changes size while it is read
+     */
+    public static ObjectId writeBlob(Path file) throws IOException {
+        try (WriteBatch batch = newBatch()) {
+            ObjectId hash = writeBlob(file, batch);
+            batch.commit();
+            return hash;
+        }
+    }
+    
+    static ObjectId writeBlob(Path file, WriteBatch batch) throws IOException {
+        // The manifest is built from the bytes actually read, so no size check is needed there
+        if (Files.size(file) > RepositoryConfig.getInstance().getChunkThreshold()) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return writeChunked(in, batch);
+            }
+        }
+        
+        WriteBatch.ObjectOutput object = batch.newObject();
+        try {
+            MessageDigest digest = HashUtils.getDigest();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                Deflater deflater = new Deflater(RepositoryConfig.getInstance().getCompressionLevel());
+                try (OutputStream out = new DeflaterOutputStream(object, deflater, OBJECT_BUFFER_SIZE)) {
+                    out.write(buildHeader(OBJECT_TYPE_BLOB, size));
+                    
+                    ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+                    long total = 0;
+                    int read;
+                    while ((read = channel.read(buffer.clear())) != -1) {
+                        digest.update(buffer.array(), 0, read);
+                        out.write(buffer.array(), 0, read);
+                        total += read;
+                    }
+                    if (total != size) {
+                        throw new IOException(String.format(ERROR_FILE_CHANGED_WHILE_READING, file));
+                    }
+                } finally {
+                    deflater.end();
+                }
+            }
+            
+            ObjectId hash = ObjectId.fromRaw(digest.digest());
+            object.store(hash);
+            return hash;
+        } catch (IOException | RuntimeException e) {
+            object.discard();
+            throw e;
+        }
+    }
+
+    /**
+     * Split a large blob into content-defined chunks (see Chunker), each stored as an
+     * ordinary blob, and store their ChunkManifest under the id of the whole content.
+     * The blob keeps the id it would have unchunked, so hashing a working file still
+     * identifies it, while versions of a file that differ in a few places share most
+     * of their chunks.
+     */
+    private static ObjectId writeChunked(InputStream in, WriteBatch batch) throws IOException {
+        // Own digest: writing each chunk reuses the thread's shared one
+        MessageDigest digest = HashUtils.newDigest();
+        ChunkManifest manifest = new ChunkManifest();
+        Chunker chunker = new Chunker(in);
+        byte[] chunk;
+        while ((chunk = chunker.next()) != null) {
+            digest.update(chunk);
+            manifest.add(writeObject(OBJECT_TYPE_BLOB, chunk, batch), chunk.length);
+        }
+        
+        // A file that fits in one chunk is that chunk, already stored as a blob
+        ObjectId hash = ObjectId.fromRaw(digest.digest());
+        writeObject(hash, OBJECT_TYPE_CHUNKED, manifest.serialize(), batch);
+        return hash;
+    }
+
+    /**
+     * Stream a blob's content into target (created or truncated) without holding it in memory;
+     * only blobs stored as deltas are rebuilt in memory first. A blob already in the object
+     * cache is written straight from its buffer. Streamed blobs never enter the cache, so
+     * this lookup does not count towards its hits and misses.
+     * 
+     * @return Number of bytes written
+     */
+    public static long copyBlob(ObjectId hash, Path target) throws IOException {
+        ObjectContent cached = getObjectCache().peekContent(hash);
+        if (cached != null) {
+            if (!OBJECT_TYPE_BLOB.equals(cached.getType())) {
+                throw new IOException(String.format(ERROR_EXPECTED_OBJECT_TYPE, OBJECT_TYPE_BLOB, cached.getType()));
+            }
+            return writeBuffer(cached.asBuffer(), target);
+        }
+        
+        try (InputStream in = openObject(hash)) {
+            ObjectHeader header = parseHeader(in);
+            if (OBJECT_TYPE_DELTA.equals(header.getType())) {
+                return writeBuffer(ByteBuffer.wrap(resolveDelta(readContent(in, header))), target);
+            }
+            try (OutputStream out = Files.newOutputStream(target)) {
+                if (OBJECT_TYPE_CHUNKED.equals(header.getType())) {
+                    return copyChunks(ChunkManifest.deserialize(readContent(in, header)), out);
+                }
+                return copyContent(in, header, out);
+            }
+        }
+    }
+    
+    /**
+     * Copy a whole or delta blob (not a chunked one) to out
+     */
+    private static long copyBlob(ObjectId hash, OutputStream out) throws IOException {
+        try (InputStream in = openObject(hash)) {
+            ObjectHeader header = parseHeader(in);
+            if (OBJECT_TYPE_DELTA.equals(header.getType())) {
+                byte[] content = resolveDelta(readContent(in, header));
+                out.write(content);
+                return content.length;
+            }
+            return copyContent(in, header, out);
+        }
+    }
+    
+    private static long copyContent(InputStream in, ObjectHeader header, OutputStream out) throws IOException {
+        if (!OBJECT_TYPE_BLOB.equals(header.getType())) {
+            throw new IOException(String.format(ERROR_EXPECTED_OBJECT_TYPE, OBJECT_TYPE_BLOB, header.getType()));
+        }
+        long copied = in.transferTo(out);
+        if (copied != header.getSize()) {
+            throw new IOException(String.format(ERROR_OBJECT_SIZE_MISMATCH, header.getSize(), copied));
+        }
+        return copied;
+    }
+    
+    /**
+     * Write the chunks of a chunked blob to out one after another
+     */
+    static long copyChunks(ChunkManifest manifest, OutputStream out) throws IOException {
+        long total = 0;
+        for (ChunkManifest.Chunk chunk : manifest.getChunks()) {
+            long copied = copyBlob(chunk.getId(), out);
+            if (copied != chunk.getSize()) {
+                throw new IOException(String.format(ERROR_OBJECT_SIZE_MISMATCH, chunk.getSize(), copied));
+            }
+            total += copied;
+        }
+        return total;
+    }
+    
+    private static long writeBuffer(ByteBuffer content, Path target) throws IOException {
+        long size = content.remaining();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+        return size;
     }
 
-    public static ObjectContent readCommit(String hash) throws IOException {
+    public static ObjectContent readCommit(ObjectId hash) throws IOException {
         return readObject(hash, OBJECT_TYPE_COMMIT);
     }
     
-    public static String writeCommit(String commitContent) throws IOException {
-        return writeObject(OBJECT_TYPE_COMMIT, commitContent.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Read and parse a commit, reusing an earlier parse of the same commit
+     */
+    public static Commit readParsedCommit(ObjectId hash) throws IOException {
+        ObjectCache cache = getObjectCache();
+        Commit commit = cache.getCommit(hash);
+        if (commit == null) {
+            ObjectContent content = readObject(hash, OBJECT_TYPE_COMMIT, false);
+            commit = Commit.fromObjectContent(hash, content);
+            // Parsed strings take about twice the UTF-8 bytes
+            cache.putCommit(hash, commit, 2L * content.getSize());
+        }
+        return commit;
+    }
+    
+    public static ObjectId writeCommit(String commitContent) throws IOException {
+        try (WriteBatch batch = newBatch()) {
+            ObjectId hash = writeCommit(commitContent, batch);
+            batch.commit();
+            return hash;
+        }
+    }
+    
+    static ObjectId writeCommit(String commitContent, WriteBatch batch) throws IOException {
+        return writeObject(OBJECT_TYPE_COMMIT, commitContent.getBytes(StandardCharsets.UTF_8), batch);
+    }
+    
+    public static ObjectContent readTree(ObjectId hash) throws IOException {
+        return readObject(hash, OBJECT_TYPE_TREE);
+    }
+    
+    /**
+     * Read and parse a tree, reusing an earlier parse of the same tree
+     */
+    public static Tree readParsedTree(ObjectId hash) throws IOException {
+        ObjectCache cache = getObjectCache();
+        Tree tree = cache.getTree(hash);
+        if (tree == null) {
+            ObjectContent content = readObject(hash, OBJECT_TYPE_TREE, false);
+            tree = Tree.fromObjectContent(content);
+            // Parsed strings take about twice the UTF-8 bytes
+            cache.putTree(hash, tree, 2L * content.getSize());
+        }
+        return tree;
     }
     
-    public static boolean exists(String hash) {
-        if (hash == null || hash.isEmpty()) {
+    static ObjectId writeTree(Tree tree, WriteBatch batch) throws IOException {
+        byte[] content = tree.serialize().getBytes(StandardCharsets.UTF_8);
+        // Trees are hashed with their type, so an empty tree is not taken for the empty blob
+        return writeObject(HashUtils.hashObject(OBJECT_TYPE_TREE, content), OBJECT_TYPE_TREE, content, batch);
+    }
+    
+    /**
+     * Read only the type and size of an object, inflating just the bytes up to the header end
+     * (or, for a chunked blob, its manifest)
+     */
+    public static ObjectHeader readHeader(ObjectId hash) throws IOException {
+        return readHeader(hash, true);
+    }
+    
+    /**
+     * @param resolveChunks Whether a chunked blob is reported as the blob it stands for,
+     *                      or as stored (type chunked, size of the manifest)
+     */
+    private static ObjectHeader readHeader(ObjectId hash, boolean resolveChunks) throws IOException {
+        try (InputStream in = openObject(hash)) {
+            ObjectHeader header = parseHeader(in);
+            if (OBJECT_TYPE_CHUNKED.equals(header.getType()) && resolveChunks) {
+                ChunkManifest manifest = ChunkManifest.deserialize(readContent(in, header));
+                return new ObjectHeader(OBJECT_TYPE_BLOB, manifest.getTotalSize());
+            }
+            if (!OBJECT_TYPE_DELTA.equals(header.getType())) {
+                return header;
+            }
+            
+            // The delta starts with the size of the blob it produces
+            in.skipNBytes(OBJECT_ID_LENGTH);
+            return new ObjectHeader(OBJECT_TYPE_BLOB, Delta.readTargetSize(in));
+        }
+    }
+    
+    public static boolean exists(ObjectId hash) throws IOException {
+        if (hash == null) {
             return false;
         }
+        return getDatabase().exists(hash);
+    }
+    
+    /**
+     * Check many objects at once; the loose database rules most absent ones out without
+     * touching the file system (see LooseObjectDatabase)
+     * 
+     * @return The ids among the given ones that are stored (never null ones)
+     */
+    public static Set<ObjectId> batchExists(Collection<ObjectId> hashes) throws IOException {
+        List<ObjectId> candidates = new ArrayList<>(hashes.size());
+        for (ObjectId hash : hashes) {
+            if (hash != null) {
+                candidates.add(hash);
+            }
+        }
+        return getDatabase().batchExists(candidates);
+    }
+    
+    /**
+     * @return Ids of all stored objects, in no particular order
+     */
+    public static Collection<ObjectId> listObjects() throws IOException {
+        return getDatabase().listObjects();
+    }
+    
+    /**
+     * Start a group of writes to the object database, made durable together by commit()
+     */
+    public static WriteBatch newBatch() throws IOException {
+        return getDatabase().newBatch();
+    }
+    
+    /**
+     * @return The database chosen by core.objectDatabase, unless replaced by useDatabase()
+     */
+    public static synchronized ObjectDatabase getDatabase() throws IOException {
+        if (database == null) {
+            RepositoryConfig config = RepositoryConfig.getInstance();
+            switch (config.getObjectDatabase()) {
+                case OBJECT_DATABASE_MEMORY:
+                    database = new InMemoryObjectDatabase();
+                    break;
+                case OBJECT_DATABASE_LOG:
+                    database = new LogObjectDatabase(OBJECT_LOG, config.getFsyncMode());
+                    break;
+                default:
+                    database = new LooseObjectDatabase(OBJECTS, config.getFsyncMode());
+            }
+        }
+        return database;
+    }
+    
+    /**
+     * Read and write objects through the given database from now on, e.g. an
+     * InMemoryObjectDatabase in tests; null goes back to core.objectDatabase.
+     * Cached objects are dropped.
+     */
+    public static synchronized void useDatabase(ObjectDatabase newDatabase) {
+        database = newDatabase;
+        objectCache = null;
+        deltaBaseCache = null;
+    }
+    
+    /**
+     * Packing works on loose files and pack files, so it needs the loose database
+     */
+    private static LooseObjectDatabase getLooseDatabase() throws IOException {
+        if (!(getDatabase() instanceof LooseObjectDatabase)) {
+            throw new IOException(ERROR_PACKING_NEEDS_LOOSE_OBJECTS);
+        }
+        return (LooseObjectDatabase) getDatabase();
+    }
+    
+    /**
+     * Move all objects (loose and already packed) into a single new pack, then delete
+     * the loose files and the old packs. Loose objects are copied without recompressing.
+     * 
+     * @return The new pack, or null if there was nothing to repack
+     */
+    public static PackFile repack() throws IOException {
+        LooseObjectDatabase loose = getLooseDatabase();
+        List<ObjectId> looseObjects = loose.listLooseObjects();
+        List<PackFile> oldPacks = loose.getPacks();
+        if (looseObjects.isEmpty() && oldPacks.size() <= 1) {
+            return null;
+        }
+        
+        PackFile newPack;
+        try (PackWriter writer = new PackWriter(loose.getPackDirectory())) {
+            for (ObjectId id : looseObjects) {
+                byte[] stored = Files.readAllBytes(loose.getObjectPath(id));
+                if (stored.length > 0 && (stored[0] & 0xff) == ZLIB_HEADER_BYTE) {
+                    writer.addCompressed(id, stored);
+                } else {
+                    addObject(writer, id, openObject(id));
+                }
+            }
+            for (PackFile pack : oldPacks) {
+                PackIndex index = pack.getIndex();
+                for (int i = 0; i < index.getObjectCount(); i++) {
+                    ObjectId id = index.getObjectId(i);
+                    if (!writer.contains(id)) {
+                        addObject(writer, id, pack.openObject(id));
+                    }
+                }
+            }
+            newPack = writer.finish();
+        }
         
-        Path objectPath = getObjectPath(hash);
-        return Files.exists(objectPath);
+        removeOldCopies(loose, newPack, oldPacks, looseObjects);
+        return newPack;
     }
-
-    private static Path getObjectPath(String hash) {
-        // Shard: first 2 chars = directory, remaining = filename
-        String dirName = hash.substring(HASH_SHARD_START, HASH_SHARD_END);
-        String fileName = hash.substring(HASH_SHARD_END);
-        return OBJECTS.resolve(dirName).resolve(fileName);
+    
+    /**
+     * Like repack(), but blobs are stored as deltas against similar blobs where that is
+     * much smaller than the blob itself. Existing deltas are recomputed.
+     * 
+     * @param window Number of similarly sized blobs tried as bases for each blob
+     * @param depth Maximum delta chain length; 0 stores every blob whole
+     * @return The new pack, or null if the repository has no objects
+     */
+    public static PackFile compact(int window, int depth) throws IOException {
+        LooseObjectDatabase loose = getLooseDatabase();
+        List<ObjectId> looseObjects = loose.listLooseObjects();
+        List<PackFile> oldPacks = loose.getPacks();
+        
+        Set<ObjectId> allObjects = new TreeSet<>(looseObjects);
+        for (PackFile pack : oldPacks) {
+            PackIndex index = pack.getIndex();
+            for (int i = 0; i < index.getObjectCount(); i++) {
+                allObjects.add(index.getObjectId(i));
+            }
+        }
+        if (allObjects.isEmpty()) {
+            return null;
+        }
+        
+        Map<ObjectId, ObjectHeader> headers = new HashMap<>();
+        Map<ObjectId, Long> blobSizes = new HashMap<>();
+        for (ObjectId id : allObjects) {
+            // Chunked blobs keep their manifest; their chunks are blobs of their own
+            ObjectHeader header = readHeader(id, false);
+            headers.put(id, header);
+            if (OBJECT_TYPE_BLOB.equals(header.getType())) {
+                blobSizes.put(id, header.getSize());
+            }
+        }
+        
+        DeltaSearch search = new DeltaSearch(window, depth, id -> readObject(id, OBJECT_TYPE_BLOB).getData());
+        Map<ObjectId, DeltaSearch.Result> deltas = search.search(blobSizes);
+        
+        PackFile newPack;
+        try (PackWriter writer = new PackWriter(loose.getPackDirectory())) {
+            for (ObjectId id : allObjects) {
+                DeltaSearch.Result delta = deltas.get(id);
+                if (delta != null) {
+                    writer.add(id, OBJECT_TYPE_DELTA, toDeltaPayload(delta));
+                } else {
+                    String type = headers.get(id).getType();
+                    byte[] content = OBJECT_TYPE_CHUNKED.equals(type)
+                            ? readStored(id).content
+                            : readObject(id, type).getData();
+                    writer.add(id, type, content);
+                }
+            }
+            newPack = writer.finish();
+        }
+        
+        removeOldCopies(loose, newPack, oldPacks, looseObjects);
+        return newPack;
+    }
+    
+    private static byte[] toDeltaPayload(DeltaSearch.Result delta) {
+        byte[] instructions = delta.getDelta();
+        byte[] payload = new byte[OBJECT_ID_LENGTH + instructions.length];
+        delta.getBase().copyRawTo(payload, 0);
+        System.arraycopy(instructions, 0, payload, OBJECT_ID_LENGTH, instructions.length);
+        return payload;
+    }
+    
+    /**
+     * The new pack holds everything now, so the old packs and loose files can go
+     */
+    private static void removeOldCopies(LooseObjectDatabase loose, PackFile newPack, List<PackFile> oldPacks,
+            List<ObjectId> looseObjects) throws IOException {
+        for (PackFile pack : oldPacks) {
+            if (!pack.getPackPath().equals(newPack.getPackPath())) {
+                Files.deleteIfExists(pack.getIndexPath());
+                Files.deleteIfExists(pack.getPackPath());
+            }
+        }
+        for (ObjectId id : looseObjects) {
+            Path objectPath = loose.getObjectPath(id);
+            Files.deleteIfExists(objectPath);
+            deleteIfEmpty(objectPath.getParent());
+        }
+        
+        loose.resetPacks();
+    }
+    
+    private static void addObject(PackWriter writer, ObjectId id, InputStream source) throws IOException {
+        try (InputStream in = source) {
+            ObjectHeader header = parseHeader(in);
+            writer.add(id, header.getType(), readContent(in, header));
+        }
+    }
+    
+    private static void deleteIfEmpty(Path dir) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            if (!entries.iterator().hasNext()) {
+                Files.delete(dir);
+            }
+        }
+    }
+    
+    static List<ObjectId> listLooseObjects() throws IOException {
+        return getLooseDatabase().listLooseObjects();
+    }
+    
+    static List<PackFile> getPacks() throws IOException {
+        return getLooseDatabase().getPacks();
+    }
+    
+    static Path getObjectPath(ObjectId hash) throws IOException {
+        return getLooseDatabase().getObjectPath(hash);
     }
     
     /**
      * Write any object type to the store
-     * Uses format: "type size\0content" and sharding: objects/ab/cdef123...
+     * Uses format: "type size\0content"
+     * Nothing is written if the object already exists. Objects are written completely
+     * before the batch files them under their id, so a crash or a concurrent reader never
+     * sees a partially written object under its real name.
      * 
      * @param type Object type ("blob", "commit", "tree")
      * @param content The object content
      */
-    private static String writeObject(String type, byte[] content) throws IOException {
-        String hash = HashUtils.hashBytes(content);
-        String header = type + SPACE + content.length + NULL_BYTE;
-        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
-        
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        outputStream.write(headerBytes);
-        outputStream.write(content);
-        byte[] fullContent = outputStream.toByteArray();
+    private static ObjectId writeObject(String type, byte[] content, WriteBatch batch) throws IOException {
+        ObjectId hash = HashUtils.hashBytes(content);
+        writeObject(hash, type, content, batch);
+        return hash;
+    }
+    
+    /**
+     * Write an object under the given id, for objects whose id is not the hash of
+     * what is stored (chunked blobs)
+     */
+    static ObjectId writeObject(ObjectId hash, String type, byte[] content, WriteBatch batch)
+            throws IOException {
+        if (batch.contains(hash)) {
+            return hash;
+        }
         
-        Path objectPath = getObjectPath(hash);
-        Files.createDirectories(objectPath.getParent());
-        Files.write(objectPath, fullContent);
-
+        WriteBatch.ObjectOutput object = batch.newObject();
+        try {
+            writeDeflated(object, type, content);
+            object.store(hash);
+        } catch (IOException | RuntimeException e) {
+            object.discard();
+            throw e;
+        }
         return hash;
     }
     
+    private static byte[] buildHeader(String type, long size) {
+        String header = type + SPACE + size + NULL_BYTE;
+        return header.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    static void writeDeflated(OutputStream target, String type, byte[] content) throws IOException {
+        byte[] headerBytes = buildHeader(type, content.length);
+        
+        Deflater deflater = new Deflater(RepositoryConfig.getInstance().getCompressionLevel());
+        try (OutputStream out = new DeflaterOutputStream(target, deflater, OBJECT_BUFFER_SIZE)) {
+            out.write(headerBytes);
+            out.write(content);
+        } finally {
+            deflater.end();
+        }
+    }
+    
     /**
      * Read any object type from the store
      * Parses format: "type size\0content"
@@ -86,52 +630,181 @@ public class ObjectStore {
      * @return The ObjectContent object
      * @throws IOException if object doesn't exist or is corrupted
      */
-    private static ObjectContent readObject(String hash, String type) throws IOException {
-        Path objectPath = getObjectPath(hash);
-        if (!Files.exists(objectPath)) {
-            throw new IOException(String.format(ERROR_OBJECT_NOT_FOUND, hash));
+    private static ObjectContent readObject(ObjectId hash, String type) throws IOException {
+        return readObject(hash, type, true);
+    }
+    
+    /**
+     * @param counted Whether the cache lookup counts as a hit or miss; false when the caller
+     *                has already counted this read against the parsed object
+     */
+    private static ObjectContent readObject(ObjectId hash, String type, boolean counted) throws IOException {
+        ObjectCache cache = getObjectCache();
+        ObjectContent content = counted ? cache.getContent(hash) : cache.peekContent(hash);
+        if (content == null) {
+            StoredObject stored = readStored(hash);
+            if (OBJECT_TYPE_DELTA.equals(stored.type)) {
+                stored = new StoredObject(OBJECT_TYPE_BLOB, resolveDelta(stored.content));
+            } else if (OBJECT_TYPE_CHUNKED.equals(stored.type)) {
+                stored = new StoredObject(OBJECT_TYPE_BLOB, readChunks(ChunkManifest.deserialize(stored.content)));
+            }
+            content = new ObjectContent(stored.type, stored.content.length, stored.content);
+            cache.putContent(hash, content);
         }
         
-        byte[] fullContent = Files.readAllBytes(objectPath);
+        if (!type.equals(content.getType())) {
+            throw new IOException(String.format(ERROR_EXPECTED_OBJECT_TYPE, type, content.getType()));
+        }
+        return content;
+    }
+    
+    /**
+     * Read an object as stored, without resolving deltas
+     */
+    private static StoredObject readStored(ObjectId hash) throws IOException {
+        try (InputStream in = openObject(hash)) {
+            ObjectHeader header = parseHeader(in);
+            return new StoredObject(header.getType(), readContent(in, header));
+        }
+    }
+    
+    private static byte[] readChunks(ChunkManifest manifest) throws IOException {
+        if (manifest.getTotalSize() > Integer.MAX_VALUE) {
+            throw new IOException(String.format(ERROR_OBJECT_TOO_LARGE, manifest.getTotalSize()));
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream((int) manifest.getTotalSize());
+        copyChunks(manifest, content);
+        return content.toByteArray();
+    }
+    
+    /**
+     * Follow the chain of bases down to a whole blob (or a cached base), then apply
+     * the deltas from there back up. Every intermediate result is cached as a base.
+     */
+    static byte[] resolveDelta(byte[] payload) throws IOException {
+        Deque<ObjectId> baseIds = new ArrayDeque<>();
+        Deque<byte[]> pendingDeltas = new ArrayDeque<>();
+        DeltaBaseCache cache = getDeltaBaseCache();
         
-        int nullByteIndex = -1;
-        for (int i = 0; i < fullContent.length; i++) {
-            if (fullContent[i] == NULL_BYTE_VALUE) {
-                nullByteIndex = i;
+        byte[] delta = payload;
+        byte[] content;
+        while (true) {
+            if (delta.length < OBJECT_ID_LENGTH || pendingDeltas.size() >= DELTA_MAX_CHAIN_LENGTH) {
+                throw new IOException(ERROR_CORRUPT_DELTA);
+            }
+            ObjectId baseId = ObjectId.fromRaw(delta, 0);
+            pendingDeltas.push(Arrays.copyOfRange(delta, OBJECT_ID_LENGTH, delta.length));
+            
+            content = cache.get(baseId);
+            if (content != null) {
                 break;
             }
+            
+            StoredObject base = readStored(baseId);
+            if (OBJECT_TYPE_DELTA.equals(base.type)) {
+                baseIds.push(baseId);
+                delta = base.content;
+                continue;
+            }
+            if (!OBJECT_TYPE_BLOB.equals(base.type)) {
+                throw new IOException(String.format(ERROR_EXPECTED_OBJECT_TYPE, OBJECT_TYPE_BLOB, base.type));
+            }
+            cache.put(baseId, base.content);
+            content = base.content;
+            break;
         }
         
-        if (nullByteIndex == -1) {
-            throw new IOException(ERROR_MALFORMED_OBJECT_NO_NULL);
+        content = Delta.apply(content, pendingDeltas.pop());
+        while (!pendingDeltas.isEmpty()) {
+            cache.put(baseIds.pop(), content);
+            content = Delta.apply(content, pendingDeltas.pop());
+        }
+        return content;
+    }
+    
+    /**
+     * @return Cache of objects read by this process, e.g. for its hit/miss counters
+     */
+    public static synchronized ObjectCache getObjectCache() throws IOException {
+        if (objectCache == null) {
+            objectCache = new ObjectCache(RepositoryConfig.getInstance().getObjectCacheLimit());
+        }
+        return objectCache;
+    }
+    
+    private static synchronized DeltaBaseCache getDeltaBaseCache() throws IOException {
+        if (deltaBaseCache == null) {
+            deltaBaseCache = new DeltaBaseCache(RepositoryConfig.getInstance().getDeltaBaseCacheLimit());
+        }
+        return deltaBaseCache;
+    }
+    
+    /**
+     * Read the content following a parsed header. The header size is trusted only as far as
+     * the stream actually delivers, and nothing may follow the content.
+     */
+    static byte[] readContent(InputStream in, ObjectHeader header) throws IOException {
+        if (header.getSize() > Integer.MAX_VALUE) {
+            throw new IOException(String.format(ERROR_OBJECT_TOO_LARGE, header.getSize()));
+        }
+        byte[] content = in.readNBytes((int) header.getSize());
+        if (content.length != header.getSize() || in.read() != -1) {
+            throw new IOException(String.format(ERROR_OBJECT_SIZE_MISMATCH, header.getSize(), content.length));
+        }
+        return content;
+    }
+    
+    /**
+     * Open an object for reading, positioned at its header
+     */
+    static InputStream openObject(ObjectId hash) throws IOException {
+        InputStream in = getDatabase().stream(hash);
+        if (in == null) {
+            throw new IOException(String.format(ERROR_OBJECT_NOT_FOUND, hash));
+        }
+        return in;
+    }
+    
+    /**
+     * Consume "type size\0" from the stream, leaving it positioned at the content
+     */
+    static ObjectHeader parseHeader(InputStream in) throws IOException {
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(OBJECT_HEADER_MAX_LENGTH);
+        int b;
+        while ((b = in.read()) != NULL_BYTE_VALUE) {
+            if (b == -1 || headerBytes.size() >= OBJECT_HEADER_MAX_LENGTH) {
+                throw new IOException(ERROR_MALFORMED_OBJECT_NO_NULL);
+            }
+            headerBytes.write(b);
         }
         
         // Parse header: "type size"
-        String header = new String(fullContent, 0, nullByteIndex, StandardCharsets.UTF_8);
+        String header = headerBytes.toString(StandardCharsets.UTF_8);
         String[] parts = header.split(SPACE);
-        
         if (parts.length < 2) {
             throw new IOException(String.format(ERROR_MALFORMED_OBJECT_HEADER, header));
         }
         
-        String objectType = parts[0];
-        if (!type.equals(objectType)) {
-            throw new IOException(String.format(ERROR_EXPECTED_OBJECT_TYPE, type, objectType));
-        }
-
-        int size;
+        long size;
         try {
-            size = Integer.parseInt(parts[1]);
+            size = Long.parseLong(parts[1]);
         } catch (NumberFormatException e) {
             throw new IOException(String.format(ERROR_MALFORMED_OBJECT_HEADER, header));
         }
-        
-        // Extract content after null byte
-        byte[] content = Arrays.copyOfRange(fullContent, nullByteIndex + 1, fullContent.length);        
-        if (size != content.length) {
-            throw new IOException(String.format(ERROR_OBJECT_SIZE_MISMATCH, size, content.length));
+        if (size < 0) {
+            throw new IOException(String.format(ERROR_MALFORMED_OBJECT_HEADER, header));
         }
         
-        return new ObjectContent(objectType, size, content);
+        return new ObjectHeader(parts[0], size);
+    }
+    
+    private static class StoredObject {
+        private final String type;
+        private final byte[] content;
+        
+        private StoredObject(String type, byte[] content) {
+            this.type = type;
+            this.content = content;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.example.gitter.utils;
 
 import com.example.gitter.models.Commit;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 import org.eclipse.jgit.diff.DiffAlgorithm;
 import org.eclipse.jgit.diff.Edit;
@@ -23,24 +24,25 @@ public class OutputFormatter {
     /**
      * Show diff for a deleted file
      */
-    public static void showDeletedFileDiff(String relativePath, String indexHash) throws IOException {
-        String indexContent = ObjectStore.readBlob(indexHash).getDataAsString();
+    public static void showDeletedFileDiff(String relativePath, ObjectId indexHash) throws IOException {
+        byte[] indexContent = ObjectStore.readBlob(indexHash).getData();
         System.out.println(String.format(DIFF_HEADER_A, relativePath));
         System.out.println(String.format(DIFF_HEADER_B, relativePath));
-        showDiff(indexContent, EMPTY_STRING);
+        showDiff(indexContent, new byte[0]);
         System.out.println();
     }
     
     /**
-     * Show diff between two file versions using unified diff format
+     * Show diff between two file versions using unified diff format.
+     * The raw bytes are diffed as they are instead of being decoded into strings first.
      * 
      * @param oldContent The original content
      * @param newContent The new content
      */
-    public static void showDiff(String oldContent, String newContent) {
+    public static void showDiff(byte[] oldContent, byte[] newContent) {
         try {
-            RawText oldText = new RawText(oldContent.getBytes());
-            RawText newText = new RawText(newContent.getBytes());
+            RawText oldText = new RawText(oldContent);
+            RawText newText = new RawText(newContent);
             
             EditList edits = DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM)
                     .diff(RawTextComparator.DEFAULT, oldText, newText);
@@ -92,27 +94,38 @@ public class OutputFormatter {
     }
     
     /**
-     * Display a commit in log format
+     * Format a commit in log format
      */
-    public static void displayCommit(Commit commit) {
-        System.out.print(String.format(LOG_COMMIT_HASH, commit.getHash()) + NEWLINE);
-        System.out.print(LOG_AUTHOR + NEWLINE);
+    public static String formatCommit(Commit commit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(LOG_COMMIT_HASH, commit.getHash())).append(NEWLINE);
+        sb.append(LOG_AUTHOR).append(NEWLINE);
         
         try {
             Instant instant = Instant.parse(commit.getTimestamp());
             String formattedDate = LOG_DATE_FORMATTER.format(instant);
-            System.out.print(String.format(LOG_DATE, formattedDate) + NEWLINE);
+            sb.append(String.format(LOG_DATE, formattedDate)).append(NEWLINE);
         } catch (Exception e) {
-            System.out.print(String.format(LOG_DATE, commit.getTimestamp()) + NEWLINE);
+            sb.append(String.format(LOG_DATE, commit.getTimestamp())).append(NEWLINE);
         }
         
-        System.out.println();
+        sb.append(NEWLINE);
         String[] messageLines = commit.getMessage().split(NEWLINE);
         for (String line : messageLines) {
-            System.out.println(LOG_MESSAGE_INDENT + line);
+            sb.append(LOG_MESSAGE_INDENT).append(line).append(NEWLINE);
         }
         
-        System.out.println();
+        return sb.append(NEWLINE).toString();
+    }
+    
+    /**
+     * Format a commit as its abbreviated hash and the first line of its message
+     */
+    public static String formatCommitOneline(Commit commit) {
+        String message = commit.getMessage();
+        int lineEnd = message.indexOf(NEWLINE);
+        String title = lineEnd < 0 ? message : message.substring(0, lineEnd);
+        return String.format(LOG_ONELINE, commit.getHash().abbreviate(LOG_ONELINE_HASH_LENGTH), title) + NEWLINE;
     }
     
     /**
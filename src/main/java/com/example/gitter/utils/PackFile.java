@@ -0,0 +1,66 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.InflaterInputStream;
+
+import static com.example.gitter.constants.Constants.*;
+
+/**
+ * A .pack file together with its .idx
+ *
+ * Each pack entry is an object exactly as it is stored loose: the zlib stream of
+ * "type size\0content". Entries are read by inflating from the offset given by the index,
+ * through memory-mapped windows of the pack shared in the WindowCache.
+ */
+public class PackFile {
+    private final Path packPath;
+    private final PackIndex index;
+
+    private PackFile(Path packPath, PackIndex index) {
+        this.packPath = packPath;
+        this.index = index;
+    }
+
+    /**
+     * @param indexPath Path of the .idx file; the .pack file with the same name must exist
+     */
+    public static PackFile open(Path indexPath) throws IOException {
+        String fileName = indexPath.getFileName().toString();
+        String baseName = fileName.substring(0, fileName.length() - PACK_INDEX_EXTENSION.length());
+        return new PackFile(indexPath.resolveSibling(baseName + PACK_EXTENSION), PackIndex.load(indexPath));
+    }
+
+    public Path getPackPath() {
+        return packPath;
+    }
+
+    public Path getIndexPath() {
+        String fileName = packPath.getFileName().toString();
+        String baseName = fileName.substring(0, fileName.length() - PACK_EXTENSION.length());
+        return packPath.resolveSibling(baseName + PACK_INDEX_EXTENSION);
+    }
+
+    public PackIndex getIndex() {
+        return index;
+    }
+
+    public boolean contains(ObjectId id) {
+        return index.contains(id);
+    }
+
+    /**
+     * @return Inflating stream positioned at the object's header, or null if the object is not in this pack
+     */
+    public InputStream openObject(ObjectId id) throws IOException {
+        long offset = index.findOffset(id);
+        if (offset < 0) {
+            return null;
+        }
+
+        return new InflaterInputStream(WindowCache.getInstance().open(packPath, offset));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.ERROR_CORRUPT_PACK;
+
+/**
+ * Sorted object index of a pack file (.idx)
+ *
+ * The fanout table narrows a lookup to the objects sharing the first byte of the
+ * name, which are then binary searched, so a lookup costs O(log n) without a stat call.
+ *
+ * Format: "GIDX" | version (int) | fanout (256 ints, fanout[b] = number of objects whose
+ * first byte is <= b) | object names (20 bytes each, sorted) | pack offsets (8 bytes each)
+ * | pack checksum (20 bytes)
+ */
+public class PackIndex {
+    private final int[] fanout;
+    private final byte[] names;
+    private final long[] offsets;
+
+    private PackIndex(int[] fanout, byte[] names, long[] offsets) {
+        this.fanout = fanout;
+        this.names = names;
+        this.offsets = offsets;
+    }
+
+    public static PackIndex load(Path indexPath) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        int fixedLength = PACK_HEADER_LENGTH + PACK_FANOUT_SIZE * Integer.BYTES + OBJECT_ID_LENGTH;
+        if (buffer.remaining() < fixedLength || !hasSignature(buffer) || buffer.getInt() != PACK_VERSION) {
+            throw new IOException(String.format(ERROR_CORRUPT_PACK, indexPath));
+        }
+
+        int[] fanout = new int[PACK_FANOUT_SIZE];
+        for (int i = 0; i < PACK_FANOUT_SIZE; i++) {
+            fanout[i] = buffer.getInt();
+        }
+
+        int count = fanout[PACK_FANOUT_SIZE - 1];
+        if (count < 0 || buffer.remaining() != (long) count * (OBJECT_ID_LENGTH + Long.BYTES) + OBJECT_ID_LENGTH) {
+            throw new IOException(String.format(ERROR_CORRUPT_PACK, indexPath));
+        }
+
+        byte[] names = new byte[count * OBJECT_ID_LENGTH];
+        buffer.get(names);
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = buffer.getLong();
+        }
+        return new PackIndex(fanout, names, offsets);
+    }
+
+    private static boolean hasSignature(ByteBuffer buffer) {
+        byte[] signature = new byte[PACK_INDEX_SIGNATURE.length()];
+        buffer.get(signature);
+        return Arrays.equals(signature, PACK_INDEX_SIGNATURE.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return Offset of the object in the pack, or -1 if it is not in this pack
+     */
+    public long findOffset(ObjectId id) {
+        int position = find(id);
+        return position < 0 ? -1 : offsets[position];
+    }
+
+    public boolean contains(ObjectId id) {
+        return find(id) >= 0;
+    }
+
+    public int getObjectCount() {
+        return offsets.length;
+    }
+
+    /**
+     * @param position 0..getObjectCount()-1, in object name order
+     */
+    public ObjectId getObjectId(int position) {
+        return ObjectId.fromRaw(names, position * OBJECT_ID_LENGTH);
+    }
+
+    private int find(ObjectId id) {
+        int firstByte = id.getFirstByte();
+        int low = firstByte == 0 ? 0 : fanout[firstByte - 1];
+        int high = fanout[firstByte] - 1;
+        byte[] key = id.toByteArray();
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int start = mid * OBJECT_ID_LENGTH;
+            int cmp = Arrays.compareUnsigned(names, start, start + OBJECT_ID_LENGTH, key, 0, OBJECT_ID_LENGTH);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
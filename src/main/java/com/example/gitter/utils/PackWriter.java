@@ -0,0 +1,177 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestOutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.example.gitter.constants.Constants.*;
+
+/**
+ * Writes a new pack: entries are appended to a temporary file, then the pack is named
+ * after its checksum and its index is written next to it.
+ *
+ * Pack format: "PACK" | version (int) | entries | checksum of everything before (20 bytes)
+ *
+ * The .idx is moved into place last, so readers never see a pack without its index.
+ */
+public class PackWriter implements Closeable {
+    private final Path packDir;
+    private final Path tempPack;
+    private final DigestOutputStream out;
+    private final Map<ObjectId, Long> offsets = new TreeMap<>();
+    private long position;
+    private boolean finished;
+
+    /**
+     * @param packDir Directory receiving the pack, usually objects/pack
+     */
+    public PackWriter(Path packDir) throws IOException {
+        this.packDir = packDir;
+        Files.createDirectories(packDir);
+        this.tempPack = Files.createTempFile(packDir, PACK_TEMP_PREFIX, PACK_EXTENSION);
+        this.out = new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempPack), HASH_BUFFER_SIZE),
+                HashUtils.newDigest());
+
+        write(PACK_SIGNATURE.getBytes(StandardCharsets.US_ASCII));
+        write(ByteBuffer.allocate(Integer.BYTES).putInt(PACK_VERSION).array());
+    }
+
+    public boolean contains(ObjectId id) {
+        return offsets.containsKey(id);
+    }
+
+    public int getObjectCount() {
+        return offsets.size();
+    }
+
+    /**
+     * Add an object given its already deflated loose representation; duplicates are skipped
+     */
+    public void addCompressed(ObjectId id, byte[] deflated) throws IOException {
+        if (offsets.containsKey(id)) {
+            return;
+        }
+        offsets.put(id, position);
+        write(deflated);
+    }
+
+    /**
+     * Add an object, deflating it at the configured compression level; duplicates are skipped
+     */
+    public void add(ObjectId id, String type, byte[] content) throws IOException {
+        if (offsets.containsKey(id)) {
+            return;
+        }
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        ObjectStore.writeDeflated(deflated, type, content);
+        addCompressed(id, deflated.toByteArray());
+    }
+
+    /**
+     * Write the checksum trailer and the index, and move both into place
+     *
+     * @return The finished pack
+     */
+    public PackFile finish() throws IOException {
+        byte[] checksum = out.getMessageDigest().digest();
+        out.on(false);
+        out.write(checksum);
+        out.close();
+        finished = true;
+
+        String baseName = PACK_FILE_PREFIX + ObjectId.fromRaw(checksum).name();
+        Path packPath = packDir.resolve(baseName + PACK_EXTENSION);
+        Path indexPath = packDir.resolve(baseName + PACK_INDEX_EXTENSION);
+        // The objects are deleted from elsewhere once the pack exists, so it must be on disk first
+        boolean fsync = !FSYNC_NONE.equals(RepositoryConfig.getInstance().getFsyncMode());
+        makeReadable(tempPack);
+        if (fsync) {
+            FileUtils.fsync(tempPack);
+        }
+        Files.move(tempPack, packPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Path tempIndex = Files.createTempFile(packDir, PACK_TEMP_PREFIX, PACK_INDEX_EXTENSION);
+        try {
+            writeIndex(tempIndex, checksum);
+            makeReadable(tempIndex);
+            if (fsync) {
+                FileUtils.fsync(tempIndex);
+            }
+            Files.move(tempIndex, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempIndex);
+        }
+        if (fsync) {
+            FileUtils.fsyncDirectory(packDir);
+        }
+        return PackFile.open(indexPath);
+    }
+
+    private void writeIndex(Path indexPath, byte[] packChecksum) throws IOException {
+        int[] fanout = new int[PACK_FANOUT_SIZE];
+        for (ObjectId id : offsets.keySet()) {
+            fanout[id.getFirstByte()]++;
+        }
+        for (int i = 1; i < PACK_FANOUT_SIZE; i++) {
+            fanout[i] += fanout[i - 1];
+        }
+
+        try (DataOutputStream index = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(indexPath), HASH_BUFFER_SIZE))) {
+            index.write(PACK_INDEX_SIGNATURE.getBytes(StandardCharsets.US_ASCII));
+            index.writeInt(PACK_VERSION);
+            for (int count : fanout) {
+                index.writeInt(count);
+            }
+            byte[] raw = new byte[OBJECT_ID_LENGTH];
+            for (ObjectId id : offsets.keySet()) {
+                id.copyRawTo(raw, 0);
+                index.write(raw);
+            }
+            for (long offset : offsets.values()) {
+                index.writeLong(offset);
+            }
+            index.write(packChecksum);
+        }
+    }
+
+    /**
+     * Temporary files are private (0600); give packs the permissions of loose objects
+     */
+    private static void makeReadable(Path path) throws IOException {
+        if (Files.getFileStore(path).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(PACK_FILE_PERMISSIONS));
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    /**
+     * Discard the pack if finish() was not reached
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(tempPack);
+        }
+    }
+}
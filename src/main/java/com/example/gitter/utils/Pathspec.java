@@ -0,0 +1,141 @@
+package com.example.gitter.utils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static com.example.gitter.constants.Constants.*;
+
+/**
+ * Set of user-provided patterns limiting which paths a command looks at.
+ * Uses the same matching rules as FileUtils.findMatchingFiles: exact paths,
+ * directories (subdir/) and glob patterns (*.txt, src/*.java).
+ *
+ * Besides matching, a pathspec knows which subtrees can contain matches, so the
+ * working tree walk can start there instead of at the repository root.
+ */
+public class Pathspec {
+    private static final Pathspec ALL = new Pathspec(List.of());
+
+    private final List<String> patterns;
+
+    private Pathspec(List<String> patterns) {
+        this.patterns = patterns;
+    }
+
+    /**
+     * @return Pathspec matching every path
+     */
+    public static Pathspec all() {
+        return ALL;
+    }
+
+    /**
+     * @param patterns User-provided patterns (relative to their current directory); empty matches everything
+     */
+    public static Pathspec of(Collection<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return ALL;
+        }
+
+        List<String> normalized = patterns.stream()
+                .map(FileUtils::normalizePattern)
+                .collect(Collectors.toList());
+        return new Pathspec(normalized);
+    }
+
+    public boolean matchesAll() {
+        return patterns.isEmpty() || patterns.stream().anyMatch(Pathspec::isRoot);
+    }
+
+    /**
+     * Whether matches can be anywhere in the tree (e.g. "*.txt"), so the whole tree has to be walked
+     */
+    public boolean requiresFullWalk() {
+        return matchesAll() || getWalkRoots().contains(EMPTY_STRING);
+    }
+
+    public boolean matches(String relativePath) {
+        if (matchesAll()) {
+            return true;
+        }
+
+        for (String pattern : patterns) {
+            if (relativePath.equals(pattern) || FileUtils.matchesPattern(relativePath, pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Copy of fileMap restricted to matching paths
+     */
+    public <T> Map<String, T> filter(Map<String, T> fileMap) {
+        if (matchesAll()) {
+            return fileMap;
+        }
+
+        return fileMap.entrySet().stream()
+                .filter(entry -> matches(entry.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Paths (files or directories, relative to the repository root) that contain every match.
+     * A glob contributes its leading literal directories, e.g. "src/main" for "src/main/*.java".
+     * Roots nested below another root are dropped; "" stands for the repository root.
+     */
+    public Set<String> getWalkRoots() {
+        Set<String> roots = new TreeSet<>();
+        if (matchesAll()) {
+            roots.add(EMPTY_STRING);
+            return roots;
+        }
+
+        for (String pattern : patterns) {
+            roots.add(getLiteralPrefix(pattern));
+        }
+
+        Set<String> outermost = new TreeSet<>();
+        for (String root : roots) {
+            boolean nested = outermost.stream()
+                    .anyMatch(parent -> parent.isEmpty() || root.startsWith(parent + PATH_SEPARATOR));
+            if (!nested) {
+                outermost.add(root);
+            }
+        }
+        return outermost;
+    }
+
+    private static boolean isRoot(String pattern) {
+        return pattern.isEmpty() || pattern.equals(CURRENT_DIR_PATTERN);
+    }
+
+    private static boolean isGlob(String pattern) {
+        return pattern.contains(GLOB_WILDCARD_ASTERISK) || pattern.contains(GLOB_WILDCARD_QUESTION);
+    }
+
+    /**
+     * Leading path components without wildcards. A glob without a directory part also
+     * matches file names in any directory, so it has no literal prefix.
+     */
+    private static String getLiteralPrefix(String pattern) {
+        if (!isGlob(pattern)) {
+            return pattern.endsWith(PATH_SEPARATOR) ? pattern.substring(0, pattern.length() - 1) : pattern;
+        }
+
+        StringBuilder prefix = new StringBuilder();
+        String[] components = pattern.split(PATH_SEPARATOR);
+        for (int i = 0; i < components.length - 1 && !isGlob(components[i]); i++) {
+            if (prefix.length() > 0) {
+                prefix.append(PATH_SEPARATOR);
+            }
+            prefix.append(components[i]);
+        }
+        return prefix.toString();
+    }
+}
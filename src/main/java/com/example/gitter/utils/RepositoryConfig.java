@@ -0,0 +1,216 @@
+package com.example.gitter.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.ERROR_INVALID_CONFIG_VALUE;
+import static com.example.gitter.constants.PathConstants.CONFIG;
+
+/**
+ * Singleton that handles .gitter/config parsing
+ * Format: one "key = value" setting per line, lines starting with '#' are comments
+ */
+public class RepositoryConfig {
+    private static RepositoryConfig instance;
+    private final Map<String, String> settings;
+
+    private RepositoryConfig(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    public static RepositoryConfig getInstance() throws IOException {
+        if (instance == null) {
+            instance = load();
+        }
+        return instance;
+    }
+
+    private static RepositoryConfig load() throws IOException {
+        Map<String, String> settings = new HashMap<>();
+
+        if (Files.exists(CONFIG)) {
+            for (String line : Files.readAllLines(CONFIG)) {
+                String trimmed = line.trim();
+                int separator = trimmed.indexOf(CONFIG_SEPARATOR);
+                if (trimmed.isEmpty() || trimmed.startsWith(CONFIG_COMMENT_PREFIX) || separator < 0) {
+                    continue;
+                }
+                settings.put(trimmed.substring(0, separator).trim(), trimmed.substring(separator + 1).trim());
+            }
+        }
+
+        return new RepositoryConfig(settings);
+    }
+
+    public String getString(String key, String defaultValue) {
+        return settings.getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = settings.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, key, value));
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = settings.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, key, value));
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = settings.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        if (value.equalsIgnoreCase(Boolean.TRUE.toString())) {
+            return true;
+        }
+        if (value.equalsIgnoreCase(Boolean.FALSE.toString())) {
+            return false;
+        }
+        throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, key, value));
+    }
+
+    /**
+     * Number of threads used for parallel work such as hashing the working tree.
+     * Defaults to the number of available processors.
+     */
+    public int getWorkerCount() {
+        int workers = getInt(CONFIG_CORE_WORKERS, Runtime.getRuntime().availableProcessors());
+        if (workers < 1) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, CONFIG_CORE_WORKERS, workers));
+        }
+        return workers;
+    }
+
+    /**
+     * Whether full working tree scans may reuse cached directory listings (untracked cache).
+     * Disable on file systems that do not update directory mtimes reliably.
+     */
+    public boolean isUntrackedCacheEnabled() {
+        return getBoolean(CONFIG_CORE_UNTRACKED_CACHE, true);
+    }
+
+    /**
+     * zlib level used to compress objects: 0 (none) to 9 (best), -1 for the zlib default
+     */
+    public int getCompressionLevel() {
+        int level = getInt(CONFIG_CORE_COMPRESSION, Deflater.DEFAULT_COMPRESSION);
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, CONFIG_CORE_COMPRESSION, level));
+        }
+        return level;
+    }
+
+    /**
+     * Maximum total size of resolved delta bases kept in memory while reading packed objects
+     */
+    public int getDeltaBaseCacheLimit() {
+        return getNonNegativeInt(CONFIG_CORE_DELTA_BASE_CACHE_LIMIT, DEFAULT_DELTA_BASE_CACHE_LIMIT);
+    }
+
+    /**
+     * Maximum estimated heap size of objects and parsed commits cached while a command runs
+     */
+    public int getObjectCacheLimit() {
+        return getNonNegativeInt(CONFIG_CORE_OBJECT_CACHE_LIMIT, DEFAULT_OBJECT_CACHE_LIMIT);
+    }
+
+    /**
+     * Number of preceding (similarly sized) blobs tried as delta bases by compact
+     */
+    public int getPackWindow() {
+        return getNonNegativeInt(CONFIG_PACK_WINDOW, DEFAULT_PACK_WINDOW);
+    }
+
+    /**
+     * Maximum length of a delta chain written by compact; 0 disables deltas
+     */
+    public int getPackDepth() {
+        return getNonNegativeInt(CONFIG_PACK_DEPTH, DEFAULT_PACK_DEPTH);
+    }
+
+    /**
+     * Size of the windows in which pack files and large loose objects are memory-mapped
+     */
+    public int getMmapWindowSize() {
+        int size = getInt(CONFIG_CORE_MMAP_WINDOW_SIZE, DEFAULT_MMAP_WINDOW_SIZE);
+        if (size < 1) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, CONFIG_CORE_MMAP_WINDOW_SIZE, size));
+        }
+        return size;
+    }
+
+    /**
+     * Maximum total size of the memory-mapped windows kept open for reuse
+     */
+    public long getMmapLimit() {
+        long limit = getLong(CONFIG_CORE_MMAP_LIMIT, DEFAULT_MMAP_LIMIT);
+        if (limit < 0) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, CONFIG_CORE_MMAP_LIMIT, limit));
+        }
+        return limit;
+    }
+
+    /**
+     * Blobs larger than this are split into content-defined chunks
+     */
+    public long getChunkThreshold() {
+        long threshold = getLong(CONFIG_CORE_CHUNK_THRESHOLD, DEFAULT_CHUNK_THRESHOLD);
+        if (threshold < 0) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, CONFIG_CORE_CHUNK_THRESHOLD, threshold));
+        }
+        return threshold;
+    }
+
+    /**
+     * How object writes are made durable: none, batch or per-object (see LooseObjectDatabase)
+     */
+    public String getFsyncMode() {
+        String mode = getString(CONFIG_CORE_FSYNC, DEFAULT_FSYNC);
+        if (!FSYNC_NONE.equals(mode) && !FSYNC_BATCH.equals(mode) && !FSYNC_PER_OBJECT.equals(mode)) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, CONFIG_CORE_FSYNC, mode));
+        }
+        return mode;
+    }
+
+    /**
+     * @return One of loose, memory or log (see ObjectDatabase)
+     */
+    public String getObjectDatabase() {
+        String database = getString(CONFIG_CORE_OBJECT_DATABASE, DEFAULT_OBJECT_DATABASE);
+        if (!OBJECT_DATABASE_LOOSE.equals(database) && !OBJECT_DATABASE_MEMORY.equals(database)
+                && !OBJECT_DATABASE_LOG.equals(database)) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, CONFIG_CORE_OBJECT_DATABASE, database));
+        }
+        return database;
+    }
+
+    private int getNonNegativeInt(String key, int defaultValue) {
+        int value = getInt(key, defaultValue);
+        if (value < 0) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_CONFIG_VALUE, key, value));
+        }
+        return value;
+    }
+}
@@ -2,51 +2,202 @@ package com.example.gitter.utils;
 
 import com.example.gitter.models.Commit;
 import com.example.gitter.models.FileEntry;
-import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.FileStat;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.Messages.ERROR_REPOSITORY_CORRUPT;
 import static com.example.gitter.constants.Messages.WARNING_COULD_NOT_PROCESS_FILE;
 import static com.example.gitter.constants.PathConstants.*;
 
 /**
  * Utility class for analyzing repository state (working directory, index, commits)
  * 
- * NOTE: Future optimization opportunity - Add stat caching to avoid re-hashing all files.
- * Current implementation hashes every file to check for changes, which is simpler but slower
- * for large repositories.
+ * Working files are only hashed when their stat data differs from the data cached
+ * in the index (or the entry is racily clean), otherwise the indexed hash is reused.
+ * With a running file system monitor ('gitter fsmonitor') only changed paths are examined.
  */
 public class RepositoryState {
+    private static final String HASHING_DESCRIPTION = "hashing working tree";
     
     /**
      * Get all files in working directory with their hashes
      */
-    public static Map<String, String> getWorkingFiles() throws IOException {
-        Map<String, String> result = new HashMap<>();
+    public static Map<String, ObjectId> getWorkingFiles() throws IOException {
+        return getWorkingFiles(Pathspec.all());
+    }
+    
+    /**
+     * Get the working directory files matching pathspec with their hashes
+     */
+    public static Map<String, ObjectId> getWorkingFiles(Pathspec pathspec) throws IOException {
+        return getWorkingFiles(Indexing.loadIndex(), pathspec);
+    }
+    
+    /**
+     * Walk and hash only the subtrees that can contain matches of pathspec. The file system
+     * monitor snapshot and the untracked cache describe the whole tree, so they are
+     * neither used nor updated here.
+     */
+    private static Map<String, ObjectId> getWorkingFiles(Map<String, FileEntry> indexMap, Pathspec pathspec)
+            throws IOException {
+        if (pathspec.requiresFullWalk()) {
+            return pathspec.filter(getWorkingFiles(indexMap));
+        }
+        
         Path workingDir = GITTER.getParent();
         GitterIgnore gitterIgnore = GitterIgnore.getInstance();
         
-        try (var stream = Files.walk(workingDir)) {
-            stream.filter(Files::isRegularFile)
-                  .filter(path -> !gitterIgnore.shouldIgnore(FileUtils.getRelativePath(path).toString()))
-                  .forEach(path -> {
-                      try {
-                          String relativePath = FileUtils.getRelativePath(path).toString();
-                          String hash = HashUtils.hashFile(path);
-                          result.put(relativePath, hash);
-                      } catch (IOException e) {
-                          System.err.println(String.format(WARNING_COULD_NOT_PROCESS_FILE, path, e.getMessage()));
-                      }
-                  });
+        Set<Path> candidates = new LinkedHashSet<>();
+        for (String root : pathspec.getWalkRoots()) {
+            Path path = workingDir.resolve(root).normalize();
+            if (!path.startsWith(workingDir)) {
+                continue;
+            }
+            
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                if (!gitterIgnore.shouldIgnoreDirectory(root)) {
+                    candidates.addAll(WorkingTreeWalker.listFiles(workingDir, path, gitterIgnore));
+                }
+            } else if (Files.isRegularFile(path) && !gitterIgnore.shouldIgnore(root)) {
+                candidates.add(path);
+            }
+        }
+        
+        List<Path> files = new ArrayList<>();
+        for (Path file : candidates) {
+            if (pathspec.matches(FileUtils.getRelativePath(file).toString())) {
+                files.add(file);
+            }
         }
         
+        Map<String, ObjectId> result = new ConcurrentHashMap<>();
+        hashFiles(files, indexMap, result);
         return result;
     }
+    
+    /**
+     * Get all files in working directory with their hashes, reusing the hashes of index
+     * entries whose stat data is unchanged.
+     * 
+     * When a file system monitor is running, only the paths it reports as changed since
+     * the last scan are re-examined; everything else comes from the saved snapshot.
+     * Otherwise (or when the monitor asks for it) the whole tree is walked, pruning
+     * ignored directories. File reads and hashing are fanned out over the worker pool.
+     * 
+     * Entries that had to be re-hashed but turned out unchanged get fresh stat data,
+     * both in the given index map and on disk, so the next scan can skip them.
+     */
+    private static Map<String, ObjectId> getWorkingFiles(Map<String, FileEntry> indexMap) throws IOException {
+        Map<String, ObjectId> result = new ConcurrentHashMap<>();
+        Path workingDir = GITTER.getParent();
+        GitterIgnore gitterIgnore = GitterIgnore.getInstance();
+        
+        WorkingTreeSnapshot snapshot = WorkingTreeSnapshot.load();
+        FsMonitor.Response changes = FsMonitor.query(snapshot == null ? null : snapshot.getToken());
+        boolean incremental = changes != null && !changes.isFullScan() && snapshot != null;
+        
+        List<Path> files;
+        if (incremental) {
+            TreeMap<String, ObjectId> previousFiles = snapshot.getFiles();
+            files = getChangedFiles(workingDir, gitterIgnore, changes.getChangedPaths(), previousFiles);
+            result.putAll(previousFiles);
+        } else if (RepositoryConfig.getInstance().isUntrackedCacheEnabled()) {
+            UntrackedCache untrackedCache = UntrackedCache.load();
+            files = WorkingTreeWalker.listFiles(workingDir, gitterIgnore, untrackedCache);
+            untrackedCache.save();
+        } else {
+            files = WorkingTreeWalker.listFiles(workingDir, gitterIgnore);
+        }
+        
+        hashFiles(files, indexMap, result);
+        
+        if (changes != null && (!incremental || !changes.getToken().equals(snapshot.getToken()))) {
+            WorkingTreeSnapshot.save(changes.getToken(), result);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Resolve the paths reported by the file system monitor to the files that need to be
+     * examined again, dropping them (and anything below them) from the previous files.
+     */
+    private static List<Path> getChangedFiles(
+            Path workingDir,
+            GitterIgnore gitterIgnore,
+            List<String> changedPaths,
+            TreeMap<String, ObjectId> previousFiles) throws IOException {
+        
+        Set<Path> files = new LinkedHashSet<>();
+        for (String changedPath : changedPaths) {
+            previousFiles.remove(changedPath);
+            previousFiles.subMap(changedPath + PATH_SEPARATOR, changedPath + PATH_SEPARATOR_SUCCESSOR).clear();
+            
+            Path path = workingDir.resolve(changedPath);
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                if (!gitterIgnore.shouldIgnoreDirectory(changedPath)) {
+                    files.addAll(WorkingTreeWalker.listFiles(workingDir, path, gitterIgnore));
+                }
+            } else if (Files.isRegularFile(path) && !gitterIgnore.shouldIgnore(changedPath)) {
+                files.add(path);
+            }
+        }
+        
+        return new ArrayList<>(files);
+    }
+    
+    /**
+     * Hash the given files on the worker pool into result, skipping files whose
+     * stat data matches their index entry.
+     */
+    private static void hashFiles(List<Path> files, Map<String, FileEntry> indexMap, Map<String, ObjectId> result)
+            throws IOException {
+        Map<String, FileEntry> refreshedEntries = new ConcurrentHashMap<>();
+        long indexTimestamp = Indexing.getIndexTimestamp();
+        
+        WorkerPool.forEach(files, path -> {
+            try {
+                String relativePath = FileUtils.getRelativePath(path).toString();
+                FileStat stat = FileUtils.readStat(path);
+                FileEntry indexEntry = indexMap.get(relativePath);
+                
+                if (isStatClean(indexEntry, stat, indexTimestamp)) {
+                    result.put(relativePath, indexEntry.getHash());
+                    return;
+                }
+                
+                ObjectId hash = HashUtils.hashFile(path);
+                result.put(relativePath, hash);
+                if (indexEntry != null && indexEntry.getHash().equals(hash)) {
+                    refreshedEntries.put(relativePath, indexEntry.withStat(stat));
+                }
+            } catch (IOException e) {
+                System.err.println(String.format(WARNING_COULD_NOT_PROCESS_FILE, path, e.getMessage()));
+            }
+        }, HASHING_DESCRIPTION);
+        
+        if (!refreshedEntries.isEmpty()) {
+            indexMap.putAll(refreshedEntries);
+            Indexing.saveIndex(indexMap.values());
+        }
+    }
+    
+    private static boolean isStatClean(FileEntry indexEntry, FileStat stat, long indexTimestamp) {
+        return indexEntry != null
+                && stat.equals(indexEntry.getStat())
+                && !indexEntry.getStat().isRacilyClean(indexTimestamp);
+    }
 
     public static String getCurrentBranch() throws IOException {
         if (!Files.exists(HEAD)) {
@@ -55,45 +206,98 @@ public class RepositoryState {
         return Files.readString(HEAD).trim();
     }
     
-    public static String getCommitHashFromBranch(String branchName) throws IOException {
+    /**
+     * @return Commit the branch points to, or null if the branch has no commits yet
+     * @throws IOException if the branch file does not hold a valid object id
+     */
+    public static ObjectId getCommitHashFromBranch(String branchName) throws IOException {
         Path branchFile = HEADS.resolve(branchName);
-        if (Files.exists(branchFile) && Files.size(branchFile) > 0) {
-            return Files.readString(branchFile).trim();
+        if (!Files.exists(branchFile)) {
+            return null;
         }
-
-        return EMPTY_STRING;
+        
+        String hash = Files.readString(branchFile).trim();
+        if (hash.isEmpty()) {
+            return null;
+        }
+        if (!ObjectId.isValid(hash)) {
+            throw new IOException(ERROR_REPOSITORY_CORRUPT);
+        }
+        return ObjectId.fromString(hash);
+    }
+    
+    /**
+     * @return Every branch in refs/heads with the commit it points to, sorted by name;
+     *         branches without commits are left out
+     */
+    public static Map<String, ObjectId> getBranches() throws IOException {
+        Map<String, ObjectId> branches = new TreeMap<>();
+        if (!Files.isDirectory(HEADS)) {
+            return branches;
+        }
+        
+        List<Path> branchFiles;
+        try (Stream<Path> files = Files.walk(HEADS)) {
+            branchFiles = files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path branchFile : branchFiles) {
+            String branchName = HEADS.relativize(branchFile).toString();
+            ObjectId commitHash = getCommitHashFromBranch(branchName);
+            if (commitHash != null) {
+                branches.put(branchName, commitHash);
+            }
+        }
+        return branches;
     }
     
     /**
      * Get the current commit hash (composite: current branch → commit hash)
      */
-    public static String getCurrentCommitHash() throws IOException {
+    public static ObjectId getCurrentCommitHash() throws IOException {
         String currentBranch = getCurrentBranch();
         return getCommitHashFromBranch(currentBranch);
     }
     
     /**
-     * Get all files from the last commit on current branch
+     * Get all files of a commit, reading only the trees of directories that differ from
+     * the index (see TreeUtils.readFiles); only directories of the index without a cached
+     * tree are hashed
      */
-    public static Map<String, FileEntry> getCommittedFiles() throws IOException {
-        return getFilesFromCommit(getCurrentCommitHash());
+    private static Map<String, FileEntry> getFilesFromCommit(ObjectId commitHash, Map<String, FileEntry> indexMap)
+            throws IOException {
+        Commit commit = readCommitIfExists(commitHash);
+        return commit == null ? new HashMap<>()
+                : TreeUtils.readFiles(commit, indexMap, Indexing.getTreeCache(indexMap.values()));
     }
     
-    public static Map<String, FileEntry> getFilesFromCommit(String commitHash) throws IOException {
-        if (commitHash == null || commitHash.isEmpty() || !ObjectStore.exists(commitHash)) {
-            return new HashMap<>();
+    private static Commit readCommitIfExists(ObjectId commitHash) throws IOException {
+        if (commitHash == null || !ObjectStore.exists(commitHash)) {
+            return null;
         }
-        
-        Commit commit = Commit.fromObjectContent(commitHash, ObjectStore.readCommit(commitHash));
-        return commit.getFiles();
+        return ObjectStore.readParsedCommit(commitHash);
     }
 
-    public static String getParentCommitHash(String commitHash) throws IOException {
+    /**
+     * Parent of a commit, from the commit-graph when the commit is in it, otherwise from
+     * the commit object
+     *
+     * @return The parent, or null for a root commit or a missing commit object
+     */
+    public static ObjectId getParentCommitHash(ObjectId commitHash) throws IOException {
+        CommitGraph graph = CommitGraph.getInstance();
+        int position = graph == null ? -1 : graph.find(commitHash);
+        if (position >= 0) {
+            int parent = graph.getParentPosition(position);
+            if (parent != COMMIT_GRAPH_PARENT_NOT_IN_GRAPH) {
+                return parent == COMMIT_GRAPH_NO_PARENT ? null : graph.getId(parent);
+            }
+        }
+        
         if (!ObjectStore.exists(commitHash)) {
             return null;
         }
         
-        Commit commit = Commit.fromObjectContent(commitHash, ObjectStore.readCommit(commitHash));
+        Commit commit = ObjectStore.readParsedCommit(commitHash);
         return commit.getParent();
     }
     
@@ -108,15 +312,24 @@ public class RepositoryState {
      * - Untracked: Files in working dir but not in index or commit
      */
     public static WorkingDirectoryStatus getWorkingDirectoryStatus() throws IOException {
+        return getWorkingDirectoryStatus(Pathspec.all());
+    }
+    
+    /**
+     * Get the working directory status restricted to paths matching pathspec; only the
+     * matching subtrees of the working directory are walked and hashed
+     */
+    public static WorkingDirectoryStatus getWorkingDirectoryStatus(Pathspec pathspec) throws IOException {
         Map<String, FileEntry> indexMap = Indexing.loadIndex();
-        Map<String, FileEntry> committedFiles = getCommittedFiles();
-        Map<String, String> workingFiles = getWorkingFiles();
+        Map<String, FileEntry> committedFiles = pathspec.filter(getFilesFromCommit(getCurrentCommitHash(), indexMap));
+        Map<String, ObjectId> workingFiles = getWorkingFiles(indexMap, pathspec);
+        Map<String, FileEntry> stagedFiles = pathspec.filter(indexMap);
         
         WorkingDirectoryStatus status = new WorkingDirectoryStatus(workingFiles);
         
-        categorizeStagedFiles(indexMap, committedFiles, status);
-        categorizeWorkingFiles(indexMap, committedFiles, workingFiles, status);
-        categorizeDeletedFiles(indexMap, committedFiles, workingFiles, status);
+        categorizeStagedFiles(stagedFiles, committedFiles, status);
+        categorizeWorkingFiles(stagedFiles, committedFiles, workingFiles, status);
+        categorizeDeletedFiles(stagedFiles, committedFiles, workingFiles, status);
         
         return status;
     }
@@ -136,7 +349,7 @@ public class RepositoryState {
         
         for (FileEntry stagedEntry : indexMap.values()) {
             String path = stagedEntry.getPath();
-            String stagedHash = stagedEntry.getHash();
+            ObjectId stagedHash = stagedEntry.getHash();
             FileEntry committedEntry = committedFiles.get(path);
             
             if (committedEntry == null) {
@@ -158,12 +371,12 @@ public class RepositoryState {
     private static void categorizeWorkingFiles(
             Map<String, FileEntry> indexMap,
             Map<String, FileEntry> committedFiles,
-            Map<String, String> workingFiles,
+            Map<String, ObjectId> workingFiles,
             WorkingDirectoryStatus status) {
         
-        for (Map.Entry<String, String> entry : workingFiles.entrySet()) {
+        for (Map.Entry<String, ObjectId> entry : workingFiles.entrySet()) {
             String path = entry.getKey();
-            String workingHash = entry.getValue();
+            ObjectId workingHash = entry.getValue();
             FileEntry stagedEntry = indexMap.get(path);
             FileEntry committedEntry = committedFiles.get(path);
             
@@ -194,7 +407,7 @@ public class RepositoryState {
     private static void categorizeDeletedFiles(
             Map<String, FileEntry> indexMap,
             Map<String, FileEntry> committedFiles,
-            Map<String, String> workingFiles,
+            Map<String, ObjectId> workingFiles,
             WorkingDirectoryStatus status) {
         
         Set<String> allTrackedPaths = new HashSet<>();
@@ -215,32 +428,38 @@ public class RepositoryState {
     /**
      * Restore working tree from sourceCommit to targetCommit.
      * 
+     * Only files that differ between the two commits are deleted or written; trees the
+     * commits share are not even read.
+     * 
      * @param sourceCommitHash Current commit hash (to determine deletions)
      * @param targetCommitHash Target commit hash (to restore files from)
      * @throws IOException if file operations fail
      */
-    public static void restoreWorkingTree(String sourceCommitHash, String targetCommitHash) throws IOException {
+    public static void restoreWorkingTree(ObjectId sourceCommitHash, ObjectId targetCommitHash) throws IOException {
         Path workingDir = GITTER.getParent();
-        Map<String, FileEntry> sourceFiles = getFilesFromCommit(sourceCommitHash);
-        Map<String, FileEntry> targetFiles = getFilesFromCommit(targetCommitHash);
+        Map<String, FileEntry> changes = TreeUtils.diff(
+                readCommitIfExists(sourceCommitHash), readCommitIfExists(targetCommitHash));
         
         // Step 1: Delete files that exist in source but not in target
-        for (String sourcePath : sourceFiles.keySet()) {
-            if (!targetFiles.containsKey(sourcePath)) {
-                Path fileToDelete = workingDir.resolve(sourcePath);
+        List<FileEntry> changedFiles = new ArrayList<>();
+        for (Map.Entry<String, FileEntry> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                Path fileToDelete = workingDir.resolve(change.getKey());
                 FileUtils.deleteFile(fileToDelete, workingDir);
+            } else {
+                changedFiles.add(change.getValue());
             }
         }
         
-        // Step 2: Restore/update files from target commit
-        for (FileEntry entry : targetFiles.values()) {
+        // Step 2: Restore/update files changed by target commit. Their blobs are almost
+        // always present, so a presence filter would only add a read before the same lookups
+        for (FileEntry entry : changedFiles) {
             Path workingFile = workingDir.resolve(entry.getPath());
-            String blobHash = entry.getHash();
+            ObjectId blobHash = entry.getHash();
             
             if (ObjectStore.exists(blobHash)) {
-                ObjectContent blobContent = ObjectStore.readBlob(blobHash);
                 Files.createDirectories(workingFile.getParent());
-                Files.write(workingFile, blobContent.getData());
+                ObjectStore.copyBlob(blobHash, workingFile);
             }
         }
     }
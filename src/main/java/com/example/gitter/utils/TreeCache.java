@@ -0,0 +1,126 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.PathConstants.INDEX;
+import static com.example.gitter.constants.PathConstants.TREE_CACHE;
+
+/**
+ * Index extension caching the tree id of each directory of the index.
+ *
+ * Only ids of trees already in the object store are kept; they are recorded when the index
+ * is synced to a commit. Saving the index drops the directories along the path of every
+ * entry added, removed or changed, so a commit serializes and hashes only those directories
+ * and status compares the others with HEAD by id alone. A directory is only cached if all
+ * its subdirectories are.
+ *
+ * The cache belongs to one version of the index: it is discarded when the stat data of
+ * the index differs from the one recorded, e.g. after the index was written by another tool.
+ *
+ * Format: first line is the stat data of the index, followed by one <dir>\t<id> line per
+ * directory
+ */
+public class TreeCache {
+    private static final String ROOT_DIR = CURRENT_DIR_PATTERN;
+
+    private final Map<String, ObjectId> ids;
+
+    public TreeCache() {
+        this(new HashMap<>());
+    }
+
+    private TreeCache(Map<String, ObjectId> ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Load the cache, starting empty if it is missing, unreadable or not for the current index
+     */
+    public static TreeCache load() throws IOException {
+        Map<String, ObjectId> ids = new HashMap<>();
+        if (Files.exists(TREE_CACHE) && Files.exists(INDEX)) {
+            List<String> lines = Files.readAllLines(TREE_CACHE);
+            if (!lines.isEmpty() && lines.get(0).equals(FileUtils.readStat(INDEX).toString())) {
+                parseIds(lines, ids);
+            }
+        }
+        return new TreeCache(ids);
+    }
+
+    private static void parseIds(List<String> lines, Map<String, ObjectId> ids) {
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = line.split(TAB);
+            if (parts.length != 2) {
+                continue;
+            }
+            try {
+                ids.put(parts[0].equals(ROOT_DIR) ? EMPTY_STRING : parts[0], ObjectId.fromString(parts[1]));
+            } catch (IllegalArgumentException e) {
+                // Skip damaged lines, the directory is simply hashed again
+            }
+        }
+    }
+
+    /**
+     * Write the cache for the index as it is on disk now
+     */
+    public void save() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(FileUtils.readStat(INDEX)).append(NEWLINE);
+        for (Map.Entry<String, ObjectId> entry : new TreeMap<>(ids).entrySet()) {
+            String dir = entry.getKey().isEmpty() ? ROOT_DIR : entry.getKey();
+            sb.append(dir).append(TAB).append(entry.getValue().name()).append(NEWLINE);
+        }
+        Files.writeString(TREE_CACHE, sb.toString());
+    }
+
+    public static void delete() throws IOException {
+        Files.deleteIfExists(TREE_CACHE);
+    }
+
+    /**
+     * @param dir Directory relative to the working directory ("" for the root)
+     * @return Id of the directory's tree, or null if it is not cached
+     */
+    public ObjectId get(String dir) {
+        return ids.get(dir);
+    }
+
+    public boolean isEmpty() {
+        return ids.isEmpty();
+    }
+
+    /**
+     * Drop the directories containing a changed path, up to the root
+     */
+    public void invalidate(String path) {
+        for (int slash = path.lastIndexOf(PATH_SEPARATOR); slash > 0; slash = path.lastIndexOf(PATH_SEPARATOR, slash - 1)) {
+            ids.remove(path.substring(0, slash));
+        }
+        ids.remove(EMPTY_STRING);
+    }
+
+    /**
+     * @return Cached ids by directory ("" for the root)
+     */
+    Map<String, ObjectId> getIds() {
+        return Collections.unmodifiableMap(ids);
+    }
+
+    /**
+     * Replace the cached ids, e.g. with the trees of the commit the index was synced to
+     */
+    void replace(Map<String, ObjectId> trees) {
+        ids.clear();
+        ids.putAll(trees);
+    }
+}
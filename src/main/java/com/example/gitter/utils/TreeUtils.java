@@ -0,0 +1,303 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
+import com.example.gitter.models.Tree;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.example.gitter.constants.Constants.OBJECT_TYPE_TREE;
+import static com.example.gitter.constants.Constants.PATH_SEPARATOR;
+import static com.example.gitter.constants.Constants.PATH_SEPARATOR_SUCCESSOR;
+
+/**
+ * Utility class for the trees of commits (one Tree object per directory)
+ *
+ * Trees are built from the flat path -> FileEntry map of the index in memory; only the
+ * trees not already stored are written, so a commit writes one tree per changed directory
+ * (and its parents) however large the repository is. Directories unchanged between commits
+ * share their tree. Directories whose tree id is in the index's TreeCache are not serialized
+ * or hashed again.
+ *
+ * Trees are read lazily: a tree whose id is already known from the other side of a
+ * comparison, or from the same directory of the index, is not read at all.
+ */
+public class TreeUtils {
+    private static final String ROOT = "";
+
+    /**
+     * Build the trees of files and write those not stored yet
+     *
+     * @return Id of the root tree
+     */
+    public static ObjectId writeTrees(Map<String, FileEntry> files) throws IOException {
+        return writeTrees(files, new TreeCache());
+    }
+
+    /**
+     * Build the trees of files and write those not stored yet, reusing the cached trees
+     *
+     * @param cached Tree ids of the directories of files, usually from the index
+     * @return Id of the root tree
+     */
+    public static ObjectId writeTrees(Map<String, FileEntry> files, TreeCache cached) throws IOException {
+        BuiltTrees built = buildTrees(files, cached.getIds());
+        Set<ObjectId> stored = ObjectStore.batchExists(built.ids.values());
+        if (!stored.containsAll(cached.getIds().values())) {
+            // A cached tree is missing from the store, so it cannot be referred to
+            built = buildTrees(files, Map.of());
+            stored = ObjectStore.batchExists(built.ids.values());
+        }
+        try (WriteBatch batch = ObjectStore.newBatch()) {
+            for (Map.Entry<String, Tree> tree : built.trees.entrySet()) {
+                if (!stored.contains(built.ids.get(tree.getKey()))) {
+                    batch.writeTree(tree.getValue());
+                }
+            }
+            // Trees are durable before a commit refers to them
+            batch.commit();
+        }
+        return built.ids.get(ROOT);
+    }
+
+    /**
+     * @return Ids of the trees of files, by directory path ("" for the root), without
+     *         writing anything
+     */
+    static Map<String, ObjectId> hashTrees(Map<String, FileEntry> files) {
+        return buildTrees(files, Map.of()).ids;
+    }
+
+    /**
+     * Files of a commit, whether it has a tree or lists its files itself
+     */
+    public static Map<String, FileEntry> readFiles(Commit commit) throws IOException {
+        return readFiles(commit, Map.of());
+    }
+
+    /**
+     * Files of a commit, taking every directory whose tree equals the tree known files
+     * would have at the same path from known instead of reading it (with known's stat data)
+     *
+     * @param known Files expected to be mostly the same, usually the index
+     */
+    public static Map<String, FileEntry> readFiles(Commit commit, Map<String, FileEntry> known) throws IOException {
+        return readFiles(commit, known, new TreeCache());
+    }
+
+    /**
+     * Files of a commit as readFiles(commit, known), hashing only the directories of known
+     * whose tree is not cached
+     *
+     * @param trees Cached tree ids of known; on return, the tree ids of the commit instead
+     */
+    static Map<String, FileEntry> readFiles(Commit commit, Map<String, FileEntry> known, TreeCache trees)
+            throws IOException {
+        if (commit.getTree() == null) {
+            trees.replace(Map.of());
+            return new HashMap<>(commit.getFiles());
+        }
+
+        Map<String, FileEntry> files = new HashMap<>();
+        TreeMap<String, ObjectId> knownTrees = new TreeMap<>();
+        if (!known.isEmpty()) {
+            knownTrees.putAll(buildTrees(known, trees.getIds()).ids);
+        }
+        Map<String, ObjectId> commitTrees = new HashMap<>();
+        readTree(ROOT, commit.getTree(), new TreeMap<>(known), knownTrees, files, commitTrees);
+        trees.replace(commitTrees);
+        return files;
+    }
+
+    private static void readTree(String dir, ObjectId treeId, TreeMap<String, FileEntry> known,
+            TreeMap<String, ObjectId> knownTrees, Map<String, FileEntry> files, Map<String, ObjectId> commitTrees)
+            throws IOException {
+        commitTrees.put(dir, treeId);
+        if (treeId.equals(knownTrees.get(dir))) {
+            files.putAll(dir.isEmpty() ? known : known.subMap(dir + PATH_SEPARATOR, dir + PATH_SEPARATOR_SUCCESSOR));
+            // Subdirectories of a matching tree match too
+            commitTrees.putAll(dir.isEmpty() ? knownTrees
+                    : knownTrees.subMap(dir + PATH_SEPARATOR, dir + PATH_SEPARATOR_SUCCESSOR));
+            return;
+        }
+
+        for (Tree.Entry entry : ObjectStore.readParsedTree(treeId).getEntries()) {
+            String path = childPath(dir, entry.getName());
+            if (entry.isTree()) {
+                readTree(path, entry.getHash(), known, knownTrees, files, commitTrees);
+            } else {
+                files.put(path, new FileEntry(path, entry.getHash()));
+            }
+        }
+    }
+
+    /**
+     * Files that differ between two commits, either of which may be null (no files).
+     * Subtrees both commits share are not read.
+     *
+     * @return path -> entry in target, or null where target does not have the file
+     */
+    public static Map<String, FileEntry> diff(Commit source, Commit target) throws IOException {
+        Map<String, FileEntry> changes = new HashMap<>();
+        boolean sourceFlat = source != null && source.getTree() == null;
+        boolean targetFlat = target != null && target.getTree() == null;
+        if (!sourceFlat && !targetFlat) {
+            diffTrees(ROOT, source == null ? null : source.getTree(), target == null ? null : target.getTree(), changes);
+            return changes;
+        }
+
+        Map<String, FileEntry> sourceFiles = source == null ? Map.of() : readFiles(source);
+        Map<String, FileEntry> targetFiles = target == null ? Map.of() : readFiles(target);
+        for (String path : sourceFiles.keySet()) {
+            if (!targetFiles.containsKey(path)) {
+                changes.put(path, null);
+            }
+        }
+        for (FileEntry entry : targetFiles.values()) {
+            FileEntry sourceEntry = sourceFiles.get(entry.getPath());
+            if (sourceEntry == null || !sourceEntry.getHash().equals(entry.getHash())) {
+                changes.put(entry.getPath(), entry);
+            }
+        }
+        return changes;
+    }
+
+    private static void diffTrees(String dir, ObjectId source, ObjectId target, Map<String, FileEntry> changes)
+            throws IOException {
+        if (Objects.equals(source, target)) {
+            return;
+        }
+
+        Map<String, Tree.Entry> sourceEntries = readEntries(source);
+        Map<String, Tree.Entry> targetEntries = readEntries(target);
+        Set<String> names = new TreeSet<>(sourceEntries.keySet());
+        names.addAll(targetEntries.keySet());
+
+        for (String name : names) {
+            String path = childPath(dir, name);
+            Tree.Entry sourceEntry = sourceEntries.get(name);
+            Tree.Entry targetEntry = targetEntries.get(name);
+            ObjectId sourceBlob = sourceEntry != null && !sourceEntry.isTree() ? sourceEntry.getHash() : null;
+            ObjectId targetBlob = targetEntry != null && !targetEntry.isTree() ? targetEntry.getHash() : null;
+
+            if (targetBlob != null && !targetBlob.equals(sourceBlob)) {
+                changes.put(path, new FileEntry(path, targetBlob));
+            } else if (sourceBlob != null && targetBlob == null) {
+                changes.put(path, null);
+            }
+            diffTrees(path,
+                    sourceEntry != null && sourceEntry.isTree() ? sourceEntry.getHash() : null,
+                    targetEntry != null && targetEntry.isTree() ? targetEntry.getHash() : null,
+                    changes);
+        }
+    }
+
+    private static Map<String, Tree.Entry> readEntries(ObjectId treeId) throws IOException {
+        Map<String, Tree.Entry> entries = new HashMap<>();
+        if (treeId != null) {
+            for (Tree.Entry entry : ObjectStore.readParsedTree(treeId).getEntries()) {
+                entries.put(entry.getName(), entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Group files by directory and hash the trees bottom-up, so each subdirectory's id is
+     * known before its parent is serialized. Directories with a cached id are taken as they
+     * are; only their parents, which are not cached, are rebuilt.
+     *
+     * @param cached Tree ids by directory; a cached directory's subdirectories must be cached
+     */
+    private static BuiltTrees buildTrees(Map<String, FileEntry> files, Map<String, ObjectId> cached) {
+        BuiltTrees built = new BuiltTrees();
+        built.ids.putAll(cached);
+        if (cached.containsKey(ROOT)) {
+            return built;
+        }
+
+        Map<String, Map<String, Tree.Entry>> directories = new HashMap<>();
+        directories.put(ROOT, new HashMap<>());
+        for (FileEntry file : files.values()) {
+            String path = file.getPath();
+            String dir = parentDir(path);
+            if (!cached.containsKey(dir)) {
+                String name = path.substring(path.lastIndexOf(PATH_SEPARATOR) + 1);
+                getDirectory(directories, dir).put(name, Tree.Entry.blob(name, file.getHash()));
+            }
+        }
+        for (Map.Entry<String, ObjectId> tree : cached.entrySet()) {
+            String dir = tree.getKey();
+            String parent = parentDir(dir);
+            if (!cached.containsKey(parent)) {
+                String name = dir.substring(dir.lastIndexOf(PATH_SEPARATOR) + 1);
+                getDirectory(directories, parent).put(name, Tree.Entry.tree(name, tree.getValue()));
+            }
+        }
+
+        List<String> paths = new ArrayList<>(directories.keySet());
+        paths.sort(Comparator.comparingInt(TreeUtils::depth).reversed());
+
+        for (String dir : paths) {
+            Tree tree = new Tree(directories.get(dir).values());
+            ObjectId id = HashUtils.hashObject(OBJECT_TYPE_TREE, tree.serialize().getBytes(StandardCharsets.UTF_8));
+            built.trees.put(dir, tree);
+            built.ids.put(dir, id);
+            if (!dir.isEmpty()) {
+                String name = dir.substring(dir.lastIndexOf(PATH_SEPARATOR) + 1);
+                directories.get(parentDir(dir)).put(name, Tree.Entry.tree(name, id));
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Entries of a directory, registering it (and its parents) on first use
+     */
+    private static Map<String, Tree.Entry> getDirectory(Map<String, Map<String, Tree.Entry>> directories, String dir) {
+        Map<String, Tree.Entry> entries = directories.get(dir);
+        if (entries == null) {
+            entries = new HashMap<>();
+            directories.put(dir, entries);
+            getDirectory(directories, parentDir(dir));
+        }
+        return entries;
+    }
+
+    private static int depth(String dir) {
+        if (dir.isEmpty()) {
+            return 0;
+        }
+        int depth = 1;
+        for (int i = dir.indexOf(PATH_SEPARATOR); i >= 0; i = dir.indexOf(PATH_SEPARATOR, i + 1)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static String parentDir(String path) {
+        int slash = path.lastIndexOf(PATH_SEPARATOR);
+        return slash < 0 ? ROOT : path.substring(0, slash);
+    }
+
+    private static String childPath(String dir, String name) {
+        return dir.isEmpty() ? name : dir + PATH_SEPARATOR + name;
+    }
+
+    private static class BuiltTrees {
+        private final Map<String, Tree> trees = new LinkedHashMap<>();  // children before parents
+        private final Map<String, ObjectId> ids = new HashMap<>();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.gitter.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.gitter.constants.Constants.*;
+import static com.example.gitter.constants.PathConstants.GITTER;
+import static com.example.gitter.constants.PathConstants.UNTRACKED_CACHE;
+
+/**
+ * Index extension caching directory listings, keyed by directory mtime.
+ *
+ * Adding, removing or renaming an entry updates the mtime of its directory, so a directory
+ * whose mtime is unchanged still has the cached entries and does not need to be read again.
+ * The full listing (files and subdirectories) is kept rather than only untracked files,
+ * so untracked files can be derived against the current index even after add/reset.
+ *
+ * The whole cache is discarded when .gitterignore changes. Directories modified in the same
+ * second the cache is written are not cached (racy, like index entries).
+ *
+ * Format: first line is the .gitterignore fingerprint, followed by one
+ * <dir>\t<mtime>[\t<entry>...] line per directory; subdirectory entries end with '/'
+ */
+public class UntrackedCache {
+    private static final String ROOT_DIR = CURRENT_DIR_PATTERN;
+    private static final String NO_IGNORE_FILE = "-";
+
+    private final Map<String, DirectoryListing> cachedListings;
+    private final Map<String, DirectoryListing> currentListings = new HashMap<>();
+    private final String ignoreFingerprint;
+    private final long timestamp;
+    private boolean changed;
+
+    private UntrackedCache(Map<String, DirectoryListing> cachedListings, String ignoreFingerprint, long timestamp) {
+        this.cachedListings = cachedListings;
+        this.ignoreFingerprint = ignoreFingerprint;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Load the cache, starting empty if it is missing, unreadable or built with other ignore rules
+     */
+    public static UntrackedCache load() throws IOException {
+        String ignoreFingerprint = getIgnoreFingerprint();
+        Map<String, DirectoryListing> listings = new HashMap<>();
+        long timestamp = 0;
+
+        if (Files.exists(UNTRACKED_CACHE)) {
+            List<String> lines = Files.readAllLines(UNTRACKED_CACHE);
+            if (!lines.isEmpty() && lines.get(0).equals(ignoreFingerprint)) {
+                timestamp = Files.getLastModifiedTime(UNTRACKED_CACHE).to(TimeUnit.NANOSECONDS);
+                parseListings(lines, listings);
+            }
+        }
+
+        return new UntrackedCache(listings, ignoreFingerprint, timestamp);
+    }
+
+    private static void parseListings(List<String> lines, Map<String, DirectoryListing> listings) {
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = line.split(TAB);
+            if (parts.length < 2) {
+                continue;
+            }
+            try {
+                long mtime = Long.parseLong(parts[1]);
+                List<String> entries = Arrays.asList(Arrays.copyOfRange(parts, 2, parts.length));
+                listings.put(parts[0], new DirectoryListing(mtime, entries));
+            } catch (NumberFormatException e) {
+                // Skip damaged lines, the directory is simply read again
+            }
+        }
+    }
+
+    private static String getIgnoreFingerprint() throws IOException {
+        Path ignoreFile = GITTER.getParent().resolve(GITTERIGNORE_FILE);
+        if (!Files.exists(ignoreFile)) {
+            return NO_IGNORE_FILE;
+        }
+        return HashUtils.hashFile(ignoreFile).name();
+    }
+
+    /**
+     * @param dir Directory relative to the working directory ("" for the root)
+     * @param mtime Current mtime of the directory in nanoseconds
+     * @return Cached entry names if the directory is unchanged, otherwise null
+     */
+    public List<String> getEntries(String dir, long mtime) {
+        String key = toKey(dir);
+        DirectoryListing listing = cachedListings.get(key);
+        if (listing == null || listing.mtime != mtime || isRacy(mtime, timestamp)) {
+            return null;
+        }
+
+        currentListings.put(key, listing);
+        return listing.entries;
+    }
+
+    /**
+     * Record a fresh listing of a directory
+     */
+    public void putEntries(String dir, long mtime, List<String> entries) {
+        currentListings.put(toKey(dir), new DirectoryListing(mtime, new ArrayList<>(entries)));
+        changed = true;
+    }
+
+    /**
+     * Write the listings used by the last walk; directories that were not visited are dropped.
+     */
+    public void save() throws IOException {
+        if (!changed && currentListings.size() == cachedListings.size()) {
+            return;
+        }
+
+        long writeTimestamp = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        StringBuilder sb = new StringBuilder();
+        sb.append(ignoreFingerprint).append(NEWLINE);
+        for (Map.Entry<String, DirectoryListing> entry : new TreeMap<>(currentListings).entrySet()) {
+            DirectoryListing listing = entry.getValue();
+            if (isRacy(listing.mtime, writeTimestamp)) {
+                continue;
+            }
+            sb.append(entry.getKey()).append(TAB).append(listing.mtime);
+            for (String name : listing.entries) {
+                sb.append(TAB).append(name);
+            }
+            sb.append(NEWLINE);
+        }
+        Files.writeString(UNTRACKED_CACHE, sb.toString());
+    }
+
+    public static void delete() throws IOException {
+        Files.deleteIfExists(UNTRACKED_CACHE);
+    }
+
+    private static boolean isRacy(long mtime, long timestamp) {
+        return TimeUnit.NANOSECONDS.toSeconds(mtime) >= TimeUnit.NANOSECONDS.toSeconds(timestamp);
+    }
+
+    private static String toKey(String dir) {
+        return dir.isEmpty() ? ROOT_DIR : dir;
+    }
+
+    private static class DirectoryListing {
+        private final long mtime;
+        private final List<String> entries;
+
+        private DirectoryListing(long mtime, List<String> entries) {
+            this.mtime = mtime;
+            this.entries = entries;
+        }
+    }
+}
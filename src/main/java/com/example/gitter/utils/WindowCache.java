@@ -0,0 +1,209 @@
+package com.example.gitter.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Memory-mapped read access to object and pack files in fixed-size windows.
+ *
+ * A file is mapped one window (core.mmapWindowSize) at a time instead of being copied onto
+ * the heap. Mapped windows are kept in an LRU so repeated reads from the same pack region
+ * do not map it again. core.mmapLimit caps the total size of the windows the cache retains,
+ * not the process's mapped memory: Java has no explicit unmap, so an evicted window stays
+ * mapped (and valid for streams still reading it) until the garbage collector frees it.
+ *
+ * Windows are keyed by the file's identity (device and inode where available), so a file
+ * replaced under the same name is mapped afresh.
+ */
+public class WindowCache {
+    private static WindowCache instance;
+
+    private final int windowSize;
+    private final long byteLimit;
+    private final LinkedHashMap<WindowKey, ByteBuffer> windows = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes;
+    private long mapCount;
+
+    WindowCache(int windowSize, long byteLimit) {
+        this.windowSize = windowSize;
+        this.byteLimit = byteLimit;
+    }
+
+    public static synchronized WindowCache getInstance() throws IOException {
+        if (instance == null) {
+            RepositoryConfig config = RepositoryConfig.getInstance();
+            instance = new WindowCache(config.getMmapWindowSize(), config.getMmapLimit());
+        }
+        return instance;
+    }
+
+    /**
+     * @return Stream over the file from offset to its end, reading through mapped windows
+     */
+    public InputStream open(Path file, long offset) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Object identity = attributes.fileKey() != null ? attributes.fileKey() : file.toAbsolutePath();
+        return new WindowInputStream(file, identity, attributes.size(), offset);
+    }
+
+    /**
+     * @return Independent view (own position) of the window, mapping it if needed
+     */
+    private synchronized ByteBuffer getWindow(Path file, Object identity, long index, long fileSize) throws IOException {
+        WindowKey key = new WindowKey(identity, index);
+        ByteBuffer window = windows.get(key);
+        if (window == null) {
+            long start = index * windowSize;
+            long length = Math.min(windowSize, fileSize - start);
+            try (FileChannel channel = FileChannel.open(file)) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            windows.put(key, window);
+            mappedBytes += length;
+            mapCount++;
+            evict(key);
+        }
+        return window.duplicate();
+    }
+
+    private void evict(WindowKey keep) {
+        Iterator<Map.Entry<WindowKey, ByteBuffer>> eldest = windows.entrySet().iterator();
+        while (mappedBytes > byteLimit && eldest.hasNext()) {
+            Map.Entry<WindowKey, ByteBuffer> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            mappedBytes -= entry.getValue().capacity();
+            eldest.remove();
+        }
+    }
+
+    public synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    /**
+     * @return Number of windows mapped since creation (cache misses)
+     */
+    public synchronized long getMapCount() {
+        return mapCount;
+    }
+
+    private static class WindowKey {
+        private final Object identity;
+        private final long index;
+
+        private WindowKey(Object identity, long index) {
+            this.identity = identity;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof WindowKey)) {
+                return false;
+            }
+            WindowKey key = (WindowKey) other;
+            return index == key.index && identity.equals(key.identity);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(identity, index);
+        }
+    }
+
+    private class WindowInputStream extends InputStream {
+        private final Path file;
+        private final Object identity;
+        private final long fileSize;
+        private long position;
+        private long markedPosition;
+        private ByteBuffer window;
+
+        private WindowInputStream(Path file, Object identity, long fileSize, long offset) {
+            this.file = file;
+            this.identity = identity;
+            this.fileSize = fileSize;
+            this.position = offset;
+        }
+
+        /**
+         * @return false at the end of the file
+         */
+        private boolean ensureWindow() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            if (position >= fileSize) {
+                return false;
+            }
+            long index = position / windowSize;
+            window = getWindow(file, identity, index, fileSize);
+            window.position((int) (position - index * windowSize));
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureWindow()) {
+                return -1;
+            }
+            position++;
+            return window.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureWindow()) {
+                return -1;
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            long skipped = Math.max(0, Math.min(count, fileSize - position));
+            position += skipped;
+            window = null;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return window == null ? 0 : window.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            markedPosition = position;
+        }
+
+        @Override
+        public synchronized void reset() {
+            position = markedPosition;
+            window = null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.gitter.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import static com.example.gitter.constants.Messages.ERROR_INTERRUPTED;
+
+/**
+ * Runs independent per-item work (file reads, SHA-1 computation) on a ForkJoinPool
+ * sized by the core.workers repository setting.
+ */
+public class WorkerPool {
+
+    /**
+     * Apply the task to every item in parallel and wait for all of them to finish.
+     * Tasks must be thread-safe and should handle per-item failures themselves;
+     * an UncheckedIOException escaping a task is rethrown as IOException.
+     *
+     * @param description What the pool is doing, used in the interruption message
+     */
+    public static <T> void forEach(Collection<T> items, Consumer<T> task, String description) throws IOException {
+        int workers = RepositoryConfig.getInstance().getWorkerCount();
+        if (workers == 1 || items.size() < 2) {
+            runSequentially(items, task);
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            pool.submit(() -> items.parallelStream().forEach(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format(ERROR_INTERRUPTED, description), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static <T> void runSequentially(Collection<T> items, Consumer<T> task) throws IOException {
+        try {
+            items.forEach(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
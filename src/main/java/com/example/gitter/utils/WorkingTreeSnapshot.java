@@ -0,0 +1,81 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.example.gitter.constants.Constants.NEWLINE;
+import static com.example.gitter.constants.PathConstants.FSMONITOR_STATE;
+
+/**
+ * The working files (path -> hash) seen by the last scan, together with the file system
+ * monitor token of that scan. With a running monitor, the next scan starts from this
+ * snapshot and only re-examines the paths that changed since the token.
+ *
+ * Format: first line is the token, followed by one <path>\t<hash> line per file
+ */
+public class WorkingTreeSnapshot {
+    private final String token;
+    private final TreeMap<String, ObjectId> files;
+
+    public WorkingTreeSnapshot(String token, Map<String, ObjectId> files) {
+        this.token = token;
+        this.files = new TreeMap<>(files);
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return Sorted, mutable copy of the snapshot files
+     */
+    public TreeMap<String, ObjectId> getFiles() {
+        return new TreeMap<>(files);
+    }
+
+    /**
+     * @return The saved snapshot, or null if there is none or it cannot be read
+     */
+    public static WorkingTreeSnapshot load() {
+        if (!Files.exists(FSMONITOR_STATE)) {
+            return null;
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(FSMONITOR_STATE);
+            if (lines.isEmpty()) {
+                return null;
+            }
+
+            Map<String, ObjectId> files = new TreeMap<>();
+            for (String line : lines.subList(1, lines.size())) {
+                FileEntry entry = FileEntry.fromString(line);
+                files.put(entry.getPath(), entry.getHash());
+            }
+            return new WorkingTreeSnapshot(lines.get(0), files);
+        } catch (IOException | UncheckedIOException e) {
+            // A damaged snapshot only costs a full scan
+            return null;
+        }
+    }
+
+    public static void save(String token, Map<String, ObjectId> files) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(token).append(NEWLINE);
+        for (Map.Entry<String, ObjectId> file : new TreeMap<>(files).entrySet()) {
+            sb.append(new FileEntry(file.getKey(), file.getValue())).append(NEWLINE);
+        }
+        Files.writeString(FSMONITOR_STATE, sb.toString());
+    }
+
+    public static void delete() throws IOException {
+        Files.deleteIfExists(FSMONITOR_STATE);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.gitter.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.gitter.constants.Constants.PATH_SEPARATOR;
+
+import static com.example.gitter.constants.Messages.WARNING_COULD_NOT_PROCESS_FILE;
+
+/**
+ * Walks the working tree and collects tracked-candidate files.
+ *
+ * Ignored directories (e.g. target/, node_modules/, .gitter/) are pruned with SKIP_SUBTREE
+ * instead of being walked and filtered afterwards, and file types are taken from the
+ * attributes the walk already read rather than stat'ing every path again.
+ *
+ * With an UntrackedCache, directories whose mtime is unchanged are not read at all:
+ * their cached listing is reused and only the subdirectories are descended into.
+ */
+public class WorkingTreeWalker extends SimpleFileVisitor<Path> {
+    private final Path workingDir;
+    private final GitterIgnore gitterIgnore;
+    private final List<Path> files = new ArrayList<>();
+
+    private WorkingTreeWalker(Path workingDir, GitterIgnore gitterIgnore) {
+        this.workingDir = workingDir;
+        this.gitterIgnore = gitterIgnore;
+    }
+
+    /**
+     * @return All regular, non-ignored files below workingDir
+     */
+    public static List<Path> listFiles(Path workingDir, GitterIgnore gitterIgnore) throws IOException {
+        return listFiles(workingDir, workingDir, gitterIgnore);
+    }
+
+    /**
+     * @param start Directory inside workingDir to walk; ignore rules still apply relative to workingDir
+     * @return All regular, non-ignored files below start
+     */
+    public static List<Path> listFiles(Path workingDir, Path start, GitterIgnore gitterIgnore) throws IOException {
+        WorkingTreeWalker walker = new WorkingTreeWalker(workingDir, gitterIgnore);
+        Files.walkFileTree(start, walker);
+        return walker.files;
+    }
+
+    /**
+     * Like listFiles(workingDir, gitterIgnore) but reuses cached directory listings
+     * and records fresh ones in the cache; the caller saves it
+     */
+    public static List<Path> listFiles(Path workingDir, GitterIgnore gitterIgnore, UntrackedCache cache) throws IOException {
+        WorkingTreeWalker walker = new WorkingTreeWalker(workingDir, gitterIgnore);
+        walker.walkCached(workingDir, cache);
+        return walker.files;
+    }
+
+    private void walkCached(Path dir, UntrackedCache cache) throws IOException {
+        String relativeDir = relativize(dir);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(dir, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            visitFileFailed(dir, e);
+            return;
+        }
+
+        long mtime = attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        List<String> entries = cache.getEntries(relativeDir, mtime);
+        if (entries == null) {
+            try {
+                entries = readEntries(dir);
+            } catch (IOException e) {
+                // An unreadable directory is skipped like one the plain walk cannot open
+                visitFileFailed(dir, e);
+                return;
+            }
+            cache.putEntries(relativeDir, mtime, entries);
+        }
+
+        for (String entry : entries) {
+            if (entry.endsWith(PATH_SEPARATOR)) {
+                Path subdir = dir.resolve(entry.substring(0, entry.length() - 1));
+                if (!gitterIgnore.shouldIgnoreDirectory(relativize(subdir))) {
+                    walkCached(subdir, cache);
+                }
+            } else {
+                Path file = dir.resolve(entry);
+                if (!gitterIgnore.shouldIgnore(relativize(file))) {
+                    files.add(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Names of regular files (or links to them) and subdirectories, the latter suffixed with '/'
+     */
+    private List<String> readEntries(Path dir) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    visitFileFailed(child, e);
+                    continue;
+                }
+
+                String name = child.getFileName().toString();
+                if (attrs.isDirectory()) {
+                    entries.add(name + PATH_SEPARATOR);
+                } else if (attrs.isRegularFile() || (attrs.isSymbolicLink() && Files.isRegularFile(child))) {
+                    entries.add(name);
+                }
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        return entries;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        if (!dir.equals(workingDir) && gitterIgnore.shouldIgnoreDirectory(relativize(dir))) {
+            return FileVisitResult.SKIP_SUBTREE;
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        // Symbolic links are not followed by the walk; keep links that resolve to regular files
+        boolean regularFile = attrs.isRegularFile() || (attrs.isSymbolicLink() && Files.isRegularFile(file));
+        if (regularFile && !gitterIgnore.shouldIgnore(relativize(file))) {
+            files.add(file);
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException e) {
+        System.err.println(String.format(WARNING_COULD_NOT_PROCESS_FILE, file, e.getMessage()));
+        return FileVisitResult.CONTINUE;
+    }
+
+    private String relativize(Path path) {
+        return workingDir.relativize(path).toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import com.example.gitter.models.Tree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * A group of object writes made durable together, obtained from ObjectDatabase.newBatch().
+ *
+ * How and when the objects become durable and readable is up to the database (for the
+ * loose database, core.fsync). Objects that exist already, or were written earlier in the
+ * batch, are not written again. Objects not yet committed are discarded by close() where
+ * the database can do so.
+ */
+public abstract class WriteBatch implements Closeable {
+
+    public ObjectId writeBlob(byte[] content) throws IOException {
+        return ObjectStore.writeBlob(content, this);
+    }
+
+    public ObjectId writeBlob(Path file) throws IOException {
+        return ObjectStore.writeBlob(file, this);
+    }
+
+    public ObjectId writeCommit(String commitContent) throws IOException {
+        return ObjectStore.writeCommit(commitContent, this);
+    }
+
+    public ObjectId writeTree(Tree tree) throws IOException {
+        return ObjectStore.writeTree(tree, this);
+    }
+
+    /**
+     * @return Number of objects waiting for commit()
+     */
+    public abstract int getPendingCount();
+
+    /**
+     * Make all pending objects durable and readable
+     */
+    public abstract void commit() throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    /**
+     * @return Whether the object is stored already or pending in this batch
+     */
+    abstract boolean contains(ObjectId id) throws IOException;
+
+    /**
+     * @return Sink for the deflated representation of a new object, whose id is only known
+     *         once it has been written
+     */
+    abstract ObjectOutput newObject() throws IOException;
+
+    /**
+     * The bytes of one new object. After close(), store() files the object under its id,
+     * while discard() drops it.
+     */
+    abstract static class ObjectOutput extends OutputStream {
+
+        /**
+         * Store the written object, unless an object with the same id exists already
+         */
+        abstract void store(ObjectId id) throws IOException;
+
+        abstract void discard() throws IOException;
+    }
+}
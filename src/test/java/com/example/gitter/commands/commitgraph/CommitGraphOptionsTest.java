@@ -0,0 +1,26 @@
+package com.example.gitter.commands.commitgraph;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitGraphOptionsTest {
+
+    @Test
+    void testBuilderDefaults() {
+        CommitGraphOptions options = CommitGraphOptions.builder().build();
+
+        assertEquals("write", options.getAction());
+    }
+
+    @Test
+    void testGetStrategyReturnsWriteStrategy() {
+        CommitGraphOptions options = CommitGraphOptions.builder()
+                .action("write")
+                .build();
+
+        CommandStrategy<CommitGraphOptions> strategy = options.getStrategy();
+        assertInstanceOf(WriteCommitGraphStrategy.class, strategy);
+    }
+}
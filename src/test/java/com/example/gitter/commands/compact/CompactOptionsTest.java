@@ -0,0 +1,42 @@
+package com.example.gitter.commands.compact;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactOptionsTest {
+
+    @Test
+    void testBuilderDefaults() {
+        CompactOptions options = CompactOptions.builder().build();
+
+        assertEquals(10, options.getWindow());
+        assertEquals(50, options.getDepth());
+    }
+
+    @Test
+    void testBuilderWithWindowAndDepth() {
+        CompactOptions options = CompactOptions.builder()
+                .window(4)
+                .depth(0)
+                .build();
+
+        assertEquals(4, options.getWindow());
+        assertEquals(0, options.getDepth());
+    }
+
+    @Test
+    void testNegativeValuesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CompactOptions.builder().window(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> CompactOptions.builder().depth(-1).build());
+    }
+
+    @Test
+    void testGetStrategyReturnsCompactStrategy() {
+        CompactOptions options = CompactOptions.builder().build();
+
+        CommandStrategy<CompactOptions> strategy = options.getStrategy();
+        assertInstanceOf(CompactStrategy.class, strategy);
+    }
+}
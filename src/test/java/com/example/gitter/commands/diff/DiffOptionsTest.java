@@ -3,6 +3,8 @@ package com.example.gitter.commands.diff;
 import com.example.gitter.commands.strategy.CommandStrategy;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DiffOptionsTest {
@@ -21,5 +23,20 @@ class DiffOptionsTest {
         assertNotNull(strategy);
         assertInstanceOf(DiffStrategy.class, strategy);
     }
-}
 
+    @Test
+    void testPathsDefaultToEmpty() {
+        DiffOptions options = DiffOptions.builder().build();
+
+        assertTrue(options.getPaths().isEmpty());
+    }
+
+    @Test
+    void testBuilderWithPaths() {
+        DiffOptions options = DiffOptions.builder()
+                .paths(List.of("src/", "*.txt"))
+                .build();
+
+        assertEquals(List.of("src/", "*.txt"), options.getPaths());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.gitter.commands.fsck;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FsckOptionsTest {
+
+    @Test
+    void testBuilderDefaults() {
+        FsckOptions options = FsckOptions.builder().build();
+
+        assertTrue(options.isProgress());
+    }
+
+    @Test
+    void testBuilderWithoutProgress() {
+        FsckOptions options = FsckOptions.builder()
+                .progress(false)
+                .build();
+
+        assertFalse(options.isProgress());
+    }
+
+    @Test
+    void testGetStrategyReturnsFsckStrategy() {
+        FsckOptions options = FsckOptions.builder().build();
+
+        CommandStrategy<FsckOptions> strategy = options.getStrategy();
+        assertInstanceOf(FsckStrategy.class, strategy);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.gitter.commands.fsmonitor;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FsMonitorOptionsTest {
+
+    @Test
+    void testBuilderDefaults() {
+        FsMonitorOptions options = FsMonitorOptions.builder().build();
+
+        assertFalse(options.isStop());
+    }
+
+    @Test
+    void testGetStrategyReturnsRunStrategyByDefault() {
+        FsMonitorOptions options = FsMonitorOptions.builder().build();
+
+        CommandStrategy<FsMonitorOptions> strategy = options.getStrategy();
+        assertInstanceOf(RunFsMonitorStrategy.class, strategy);
+    }
+
+    @Test
+    void testGetStrategyReturnsStopStrategy() {
+        FsMonitorOptions options = FsMonitorOptions.builder()
+                .stop(true)
+                .build();
+
+        assertTrue(options.isStop());
+        assertInstanceOf(StopFsMonitorStrategy.class, options.getStrategy());
+    }
+}
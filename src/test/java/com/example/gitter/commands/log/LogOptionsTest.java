@@ -12,6 +12,28 @@ class LogOptionsTest {
         LogOptions options = LogOptions.builder().build();
 
         assertNotNull(options);
+        assertEquals(10, options.getMaxCount());
+        assertEquals(0, options.getSkip());
+        assertFalse(options.isOneline());
+    }
+
+    @Test
+    void testBuilderWithPagination() {
+        LogOptions options = LogOptions.builder()
+                .maxCount(100000)
+                .skip(20)
+                .oneline(true)
+                .build();
+
+        assertEquals(100000, options.getMaxCount());
+        assertEquals(20, options.getSkip());
+        assertTrue(options.isOneline());
+    }
+
+    @Test
+    void testNegativeValuesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LogOptions.builder().maxCount(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> LogOptions.builder().skip(-1).build());
     }
 
     @Test
@@ -23,4 +45,3 @@ class LogOptionsTest {
         assertInstanceOf(LogStrategy.class, strategy);
     }
 }
-
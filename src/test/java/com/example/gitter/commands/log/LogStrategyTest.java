@@ -0,0 +1,130 @@
+package com.example.gitter.commands.log;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.ObjectId;
+import com.example.gitter.utils.InMemoryObjectDatabase;
+import com.example.gitter.utils.ObjectStore;
+import com.example.gitter.utils.TreeUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStrategyTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private List<ObjectId> commits;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ObjectStore.useDatabase(new InMemoryObjectDatabase());
+        commits = writeHistory(null, 5, "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ObjectStore.useDatabase(null);
+    }
+
+    /**
+     * @return Ids of the new commits, newest first
+     */
+    private static List<ObjectId> writeHistory(ObjectId parent, int count, String padding) throws IOException {
+        ObjectId tree = TreeUtils.writeTrees(Map.of());
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            parent = ObjectStore.writeCommit(new Commit("commit " + i + padding, parent, tree).serialize());
+            ids.add(0, parent);
+        }
+        return ids;
+    }
+
+    private String log(LogOptions options) throws IOException {
+        assertEquals(0, new LogStrategy(output).log(commits.get(0), options));
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testPrintsNewestFirst() throws IOException {
+        String text = log(LogOptions.builder().build());
+
+        int previous = -1;
+        for (ObjectId id : commits) {
+            int position = text.indexOf(id.toString());
+            assertTrue(position > previous, "Commit missing or out of order: " + id);
+            previous = position;
+        }
+    }
+
+    @Test
+    void testSkipAndMaxCount() throws IOException {
+        String text = log(LogOptions.builder().skip(1).maxCount(2).build());
+
+        assertFalse(text.contains(commits.get(0).toString()));
+        assertTrue(text.contains(commits.get(1).toString()));
+        assertTrue(text.contains(commits.get(2).toString()));
+        assertFalse(text.contains(commits.get(3).toString()));
+    }
+
+    @Test
+    void testSkipPastRootPrintsNothing() throws IOException {
+        assertEquals("", log(LogOptions.builder().skip(10).build()));
+    }
+
+    @Test
+    void testOneline() throws IOException {
+        String[] lines = log(LogOptions.builder().oneline(true).maxCount(2).build()).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains(commits.get(0).abbreviate(7)));
+        assertTrue(lines[0].endsWith(" commit 5"));
+        assertTrue(lines[1].endsWith(" commit 4"));
+    }
+
+    @Test
+    void testNoCommits() throws IOException {
+        assertEquals(0, new LogStrategy(output).log(null, LogOptions.builder().build()));
+
+        assertFalse(output.toString(StandardCharsets.UTF_8).isEmpty());
+    }
+
+    @Test
+    void testClosedPipeStopsReadingCommits() throws IOException {
+        // Reading the root would fail: its parent is not a commit
+        ObjectId notACommit = ObjectStore.writeBlob("blob".getBytes());
+        commits = writeHistory(notACommit, 20, "x".repeat(8 * 1024));
+
+        OutputStream closedPipe = failingStream("Broken pipe");
+        assertEquals(0, new LogStrategy(closedPipe).log(commits.get(0), LogOptions.builder().maxCount(100).build()));
+    }
+
+    @Test
+    void testOtherWriteErrorsFail() throws IOException {
+        OutputStream fullDisk = failingStream("No space left on device");
+
+        assertEquals(1, new LogStrategy(fullDisk).log(commits.get(0), LogOptions.builder().build()));
+    }
+
+    private static OutputStream failingStream(String message) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException(message);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException(message);
+            }
+        };
+    }
+}
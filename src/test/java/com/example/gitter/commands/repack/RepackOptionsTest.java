@@ -0,0 +1,24 @@
+package com.example.gitter.commands.repack;
+
+import com.example.gitter.commands.strategy.CommandStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepackOptionsTest {
+
+    @Test
+    void testBuilderCreatesDefaultOptions() {
+        RepackOptions options = RepackOptions.builder().build();
+
+        assertNotNull(options);
+    }
+
+    @Test
+    void testGetStrategyReturnsRepackStrategy() {
+        RepackOptions options = RepackOptions.builder().build();
+
+        CommandStrategy<RepackOptions> strategy = options.getStrategy();
+        assertInstanceOf(RepackStrategy.class, strategy);
+    }
+}
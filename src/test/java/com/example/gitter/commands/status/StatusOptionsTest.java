@@ -3,6 +3,8 @@ package com.example.gitter.commands.status;
 import com.example.gitter.commands.strategy.CommandStrategy;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class StatusOptionsTest {
@@ -22,5 +24,20 @@ class StatusOptionsTest {
         assertNotNull(strategy);
         assertInstanceOf(StatusStrategy.class, strategy);
     }
-}
 
+    @Test
+    void testPathsDefaultToEmpty() {
+        StatusOptions options = StatusOptions.builder().build();
+
+        assertTrue(options.getPaths().isEmpty());
+    }
+
+    @Test
+    void testBuilderWithPaths() {
+        StatusOptions options = StatusOptions.builder()
+                .paths(List.of("src/", "*.txt"))
+                .build();
+
+        assertEquals(List.of("src/", "*.txt"), options.getPaths());
+    }
+}
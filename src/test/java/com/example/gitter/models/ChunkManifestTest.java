@@ -0,0 +1,36 @@
+package com.example.gitter.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkManifestTest {
+
+    private static final ObjectId FIRST = ObjectId.fromString("da39a3ee5e6b4b0d3255bfef95601890afd80709");
+    private static final ObjectId SECOND = ObjectId.fromString("0123456789abcdef0123456789abcdef01234567");
+
+    @Test
+    void testSerializationRoundTrip() throws IOException {
+        ChunkManifest manifest = new ChunkManifest();
+        manifest.add(FIRST, 3_000_000_000L);
+        manifest.add(SECOND, 42);
+
+        ChunkManifest parsed = ChunkManifest.deserialize(manifest.serialize());
+
+        assertEquals(2, parsed.getChunks().size());
+        assertEquals(FIRST, parsed.getChunks().get(0).getId());
+        assertEquals(3_000_000_000L, parsed.getChunks().get(0).getSize());
+        assertEquals(SECOND, parsed.getChunks().get(1).getId());
+        assertEquals(3_000_000_042L, parsed.getTotalSize());
+    }
+
+    @Test
+    void testMalformedLinesAreRejected() {
+        assertThrows(IOException.class, () -> ChunkManifest.deserialize("not-a-hash 12\n".getBytes()));
+        assertThrows(IOException.class, () -> ChunkManifest.deserialize((FIRST.name() + " big\n").getBytes()));
+        assertThrows(IOException.class, () -> ChunkManifest.deserialize((FIRST.name() + " -1\n").getBytes()));
+        assertThrows(IOException.class, () -> ChunkManifest.deserialize((FIRST.name() + "\n").getBytes()));
+    }
+}
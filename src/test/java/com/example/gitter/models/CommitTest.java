@@ -10,12 +10,19 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
 class CommitTest {
+
+    /**
+     * @return Object id made of the given hex digits followed by zeros
+     */
+    private static ObjectId id(String hexPrefix) {
+        return ObjectId.fromString(String.format("%-40s", hexPrefix).replace(' ', '0'));
+    }
     
     @Test
-    void testCommitCreation() {
+    void testCommitCreation() throws IOException {
         Map<String, FileEntry> files = new HashMap<>();
-        files.put("file1.txt", new FileEntry("file1.txt", "abc123"));
-        files.put("file2.txt", new FileEntry("file2.txt", "def456"));
+        files.put("file1.txt", new FileEntry("file1.txt", id("abc123")));
+        files.put("file2.txt", new FileEntry("file2.txt", id("def456")));
         
         Commit commit = new Commit("Test commit", null, files);
         
@@ -29,9 +36,9 @@ class CommitTest {
     @Test
     void testCommitWithParent() {
         Map<String, FileEntry> files = new HashMap<>();
-        files.put("file1.txt", new FileEntry("file1.txt", "abc123"));
+        files.put("file1.txt", new FileEntry("file1.txt", id("abc123")));
         
-        String parentHash = "parent123abc";
+        ObjectId parentHash = id("aaa123");
         Commit commit = new Commit("Child commit", parentHash, files);
         
         assertEquals("Child commit", commit.getMessage());
@@ -41,25 +48,25 @@ class CommitTest {
     @Test
     void testCommitSerialization() {
         Map<String, FileEntry> files = new HashMap<>();
-        files.put("file1.txt", new FileEntry("file1.txt", "abc123"));
-        files.put("file2.txt", new FileEntry("file2.txt", "def456"));
+        files.put("file1.txt", new FileEntry("file1.txt", id("abc123")));
+        files.put("file2.txt", new FileEntry("file2.txt", id("def456")));
         
-        Commit commit = new Commit("Test message", "parent123", files);
+        Commit commit = new Commit("Test message", id("aaa123"), files);
         String serialized = commit.serialize();
         
         // Verify structure
         assertTrue(serialized.contains("message: Test message"));
-        assertTrue(serialized.contains("parent: parent123"));
+        assertTrue(serialized.contains("parent: " + id("aaa123").name()));
         assertTrue(serialized.contains("files:"));
-        assertTrue(serialized.contains("file1.txt\tabc123"));
-        assertTrue(serialized.contains("file2.txt\tdef456"));
+        assertTrue(serialized.contains("file1.txt\t" + id("abc123").name()));
+        assertTrue(serialized.contains("file2.txt\t" + id("def456").name()));
         assertTrue(serialized.contains("timestamp:"));
     }
     
     @Test
     void testCommitSerializationWithoutParent() {
         Map<String, FileEntry> files = new HashMap<>();
-        files.put("file1.txt", new FileEntry("file1.txt", "abc123"));
+        files.put("file1.txt", new FileEntry("file1.txt", id("abc123")));
         
         Commit commit = new Commit("Initial commit", null, files);
         String serialized = commit.serialize();
@@ -73,16 +80,16 @@ class CommitTest {
     void testCommitDeserialization() throws IOException {
         String commitContent = "message: Test commit\n" +
                               "timestamp: " + Instant.now().toString() + "\n" +
-                              "parent: abc123parent\n" +
+                              "parent: " + id("abc123aaa").name() + "\n" +
                               "files:\n" +
-                              "file1.txt\thash1\n" +
-                              "file2.txt\thash2\n";
+                              "file1.txt\t" + id("1").name() + "\n" +
+                              "file2.txt\t" + id("2").name() + "\n";
         
-        String commitHash = "commit123abc";
+        ObjectId commitHash = id("c123abc");
         Commit commit = Commit.deserialize(commitHash, commitContent);
         
         assertEquals("Test commit", commit.getMessage());
-        assertEquals("abc123parent", commit.getParent());
+        assertEquals(id("abc123aaa"), commit.getParent());
         assertEquals(commitHash, commit.getHash());
         assertEquals(2, commit.getFiles().size());
     }
@@ -92,9 +99,9 @@ class CommitTest {
         String commitContent = "message: Initial commit\n" +
                               "timestamp: " + Instant.now().toString() + "\n" +
                               "files:\n" +
-                              "file1.txt\thash1\n";
+                              "file1.txt\t" + id("1").name() + "\n";
         
-        Commit commit = Commit.deserialize("hash123", commitContent);
+        Commit commit = Commit.deserialize(id("123"), commitContent);
         
         assertEquals("Initial commit", commit.getMessage());
         assertNull(commit.getParent());
@@ -103,7 +110,7 @@ class CommitTest {
     @Test
     void testCommitWithMultilineMessage() {
         Map<String, FileEntry> files = new HashMap<>();
-        files.put("file1.txt", new FileEntry("file1.txt", "abc123"));
+        files.put("file1.txt", new FileEntry("file1.txt", id("abc123")));
         
         String multilineMessage = "Title\n\nDescription paragraph 1\n\nDescription paragraph 2";
         Commit commit = new Commit(multilineMessage, null, files);
@@ -117,14 +124,14 @@ class CommitTest {
     @Test
     void testSerializationRoundTrip() throws IOException {
         Map<String, FileEntry> files = new HashMap<>();
-        files.put("src/Main.java", new FileEntry("src/Main.java", "abc123"));
-        files.put("test/Test.java", new FileEntry("test/Test.java", "def456"));
+        files.put("src/Main.java", new FileEntry("src/Main.java", id("abc123")));
+        files.put("test/Test.java", new FileEntry("test/Test.java", id("def456")));
         
-        Commit original = new Commit("Round trip test", "parent999", files);
+        Commit original = new Commit("Round trip test", id("aaa999"), files);
         String serialized = original.serialize();
         
         // Simulate storing and retrieving
-        String hash = "generatedHash123";
+        ObjectId hash = id("123abc");
         Commit deserialized = Commit.deserialize(hash, serialized);
         
         assertEquals(original.getMessage(), deserialized.getMessage());
@@ -133,4 +140,80 @@ class CommitTest {
         assertEquals(original.getFiles().size(), deserialized.getFiles().size());
         assertEquals(hash, deserialized.getHash());
     }
+    
+    @Test
+    void testTreeRoundTrip() throws IOException {
+        Commit original = new Commit("Tree commit", id("aaa999"), id("7ee"));
+        String serialized = original.serialize();
+        
+        assertTrue(serialized.contains("tree: " + id("7ee").name()));
+        assertFalse(serialized.contains("files:"));
+        
+        Commit deserialized = Commit.deserialize(id("123abc"), serialized);
+        assertEquals(id("7ee"), deserialized.getTree());
+        assertEquals(id("aaa999"), deserialized.getParent());
+        assertTrue(deserialized.getFiles().isEmpty());
+    }
+    
+    @Test
+    void testMessageLineLookingLikeTreeIsPartOfMessage() throws IOException {
+        Commit original = new Commit("Title\ntree: not a hash", null, id("7ee"));
+        
+        Commit deserialized = Commit.deserialize(id("123abc"), original.serialize());
+        
+        assertEquals("Title\ntree: not a hash", deserialized.getMessage());
+        assertEquals(id("7ee"), deserialized.getTree());
+    }
+    
+    @Test
+    void testMessageLineLookingLikeFileListIsPartOfMessage() throws IOException {
+        Commit original = new Commit("Title\nfiles:\nmore text", id("abc"), id("7ee"));
+        
+        Commit deserialized = Commit.deserialize(id("123abc"), original.serialize());
+        
+        assertEquals("Title\nfiles:\nmore text", deserialized.getMessage());
+        assertEquals(original.getTimestamp(), deserialized.getTimestamp());
+        assertEquals(id("abc"), deserialized.getParent());
+        assertEquals(id("7ee"), deserialized.getTree());
+        assertTrue(deserialized.getFiles().isEmpty());
+    }
+    
+    @Test
+    void testCommitWithFilesHasNoTree() throws IOException {
+        Map<String, FileEntry> files = new HashMap<>();
+        files.put("file1.txt", new FileEntry("file1.txt", id("abc123")));
+        
+        Commit deserialized = Commit.deserialize(id("123abc"), new Commit("Flat", null, files).serialize());
+        
+        assertNull(deserialized.getTree());
+        assertEquals(1, deserialized.getFiles().size());
+    }
+    
+    @Test
+    void testFileListIsDecodedOnFirstAccess() throws IOException {
+        String commitContent = "message: Flat commit\n" +
+                              "timestamp: " + Instant.now().toString() + "\n" +
+                              "parent: " + id("abc").name() + "\n" +
+                              "files:\n" +
+                              "not a file entry\n";
+        
+        Commit commit = Commit.deserialize(id("123"), commitContent);
+        
+        assertEquals("Flat commit", commit.getMessage());
+        assertEquals(id("abc"), commit.getParent());
+        assertThrows(IOException.class, commit::getFiles);
+    }
+    
+    @Test
+    void testSerializeBeforeFilesAreDecoded() throws IOException {
+        Map<String, FileEntry> files = new HashMap<>();
+        files.put("a.txt", new FileEntry("a.txt", id("a")));
+        files.put("dir/b.txt", new FileEntry("dir/b.txt", id("b")));
+        String serialized = new Commit("Flat", null, files).serialize();
+        
+        Commit reserialized = Commit.deserialize(id("123"), Commit.deserialize(id("123"), serialized).serialize());
+        
+        assertEquals(2, reserialized.getFiles().size());
+        assertEquals(id("b"), reserialized.getFiles().get("dir/b.txt").getHash());
+    }
 }
@@ -7,39 +7,46 @@ import java.io.IOException;
 import static org.junit.jupiter.api.Assertions.*;
 
 class FileEntryTest {
+
+    /**
+     * @return Object id made of the given hex digits followed by zeros
+     */
+    private static ObjectId id(String hexPrefix) {
+        return ObjectId.fromString(String.format("%-40s", hexPrefix).replace(' ', '0'));
+    }
     
     @Test
     void testFileEntryCreation() {
-        FileEntry entry = new FileEntry("path/to/file.txt", "abc123");
+        FileEntry entry = new FileEntry("path/to/file.txt", id("abc123"));
         
         assertEquals("path/to/file.txt", entry.getPath());
-        assertEquals("abc123", entry.getHash());
+        assertEquals(id("abc123"), entry.getHash());
     }
     
     @Test
     void testToString() {
-        FileEntry entry = new FileEntry("path/to/file.txt", "abc123");
+        FileEntry entry = new FileEntry("path/to/file.txt", id("abc123"));
         String result = entry.toString();
         
-        assertEquals("path/to/file.txt\tabc123", result);
+        assertEquals("path/to/file.txt\t" + id("abc123").name(), result);
     }
     
     @Test
     void testFromString() throws IOException {
-        String line = "path/to/file.txt\tabc123def456";
+        String line = "path/to/file.txt\t" + id("abc123def456").name();
         FileEntry entry = FileEntry.fromString(line);
         
         assertEquals("path/to/file.txt", entry.getPath());
-        assertEquals("abc123def456", entry.getHash());
+        assertEquals(id("abc123def456"), entry.getHash());
     }
     
     @Test
     void testFromStringWithSpacesInPath() throws IOException {
-        String line = "path/to/my file.txt\tabc123";
+        String line = "path/to/my file.txt\t" + id("abc123").name();
         FileEntry entry = FileEntry.fromString(line);
         
         assertEquals("path/to/my file.txt", entry.getPath());
-        assertEquals("abc123", entry.getHash());
+        assertEquals(id("abc123"), entry.getHash());
     }
     
     @Test
@@ -52,11 +59,59 @@ class FileEntryTest {
     
     @Test
     void testSerializationRoundTrip() throws IOException {
-        FileEntry original = new FileEntry("src/Main.java", "def789");
+        FileEntry original = new FileEntry("src/Main.java", id("def789"));
         String serialized = original.toString();
         FileEntry deserialized = FileEntry.fromString(serialized);
         
         assertEquals(original.getPath(), deserialized.getPath());
         assertEquals(original.getHash(), deserialized.getHash());
     }
+    
+    @Test
+    void testIndexStringWithoutStat() throws IOException {
+        FileEntry entry = new FileEntry("src/Main.java", id("def789"));
+        
+        assertEquals("src/Main.java\t" + id("def789").name(), entry.toIndexString());
+        assertNull(FileEntry.fromIndexString(entry.toIndexString()).getStat());
+    }
+    
+    @Test
+    void testIndexStringRoundTripWithStat() throws IOException {
+        FileStat stat = new FileStat(1700000000123456789L, 1700000000223456789L, 42, 1234, 56);
+        FileEntry original = new FileEntry("src/Main.java", id("def789"), stat);
+        
+        FileEntry deserialized = FileEntry.fromIndexString(original.toIndexString());
+        
+        assertEquals(original.getPath(), deserialized.getPath());
+        assertEquals(original.getHash(), deserialized.getHash());
+        assertEquals(stat, deserialized.getStat());
+        // Commit format never includes stat data
+        assertEquals("src/Main.java\t" + id("def789").name(), original.toString());
+    }
+    
+    @Test
+    void testFromIndexStringInvalidStat() {
+        assertThrows(IOException.class, () -> {
+            FileEntry.fromIndexString("file.txt\t" + id("abc123").name() + "\t1\t2");
+        });
+        assertThrows(IOException.class, () -> {
+            FileEntry.fromIndexString("file.txt\t" + id("abc123").name() + "\t1\t2\tx\t4\t5");
+        });
+    }
+    
+    @Test
+    void testFromIndexStringTruncatedLine() {
+        assertThrows(IOException.class, () -> FileEntry.fromIndexString("file.txt"));
+        assertThrows(IOException.class, () -> FileEntry.fromIndexString(""));
+        assertThrows(IOException.class, () -> {
+            FileEntry.fromIndexString("file.txt\t" + id("abc123").name() + "\t1");
+        });
+    }
+    
+    @Test
+    void testFromStringInvalidHash() {
+        assertThrows(IOException.class, () -> {
+            FileEntry.fromString("file.txt\tnot-a-hash");
+        });
+    }
 }
@@ -0,0 +1,51 @@
+package com.example.gitter.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStatTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    void testEquality() {
+        FileStat stat1 = new FileStat(100, 200, 10, 5, 1);
+        FileStat stat2 = new FileStat(100, 200, 10, 5, 1);
+        
+        assertEquals(stat1, stat2);
+        assertEquals(stat1.hashCode(), stat2.hashCode());
+    }
+    
+    @Test
+    void testAnyFieldChangeBreaksEquality() {
+        FileStat stat = new FileStat(100, 200, 10, 5, 1);
+        
+        assertNotEquals(stat, new FileStat(101, 200, 10, 5, 1));
+        assertNotEquals(stat, new FileStat(100, 201, 10, 5, 1));
+        assertNotEquals(stat, new FileStat(100, 200, 11, 5, 1));
+        assertNotEquals(stat, new FileStat(100, 200, 10, 6, 1));
+        assertNotEquals(stat, new FileStat(100, 200, 10, 5, 2));
+        assertNotEquals(stat, null);
+    }
+    
+    @Test
+    void testRacilyCleanWithinSameSecond() {
+        FileStat stat = new FileStat(50 * SECOND + 900, 0, 10, 5, 1);
+        
+        assertTrue(stat.isRacilyClean(50 * SECOND + 100));
+        assertTrue(stat.isRacilyClean(49 * SECOND));
+        assertFalse(stat.isRacilyClean(51 * SECOND));
+    }
+    
+    @Test
+    void testToStringRoundTrip() throws Exception {
+        FileStat stat = new FileStat(100, 200, 10, 5, 1);
+        
+        FileStat parsed = FileStat.fromFields(stat.toString().split("\t"), 0);
+        
+        assertEquals(stat, parsed);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.gitter.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectContentTest {
+
+    private final byte[] data = "line one\nline two\n".getBytes();
+    private final ObjectContent content = new ObjectContent("blob", data.length, data);
+
+    @Test
+    void testBufferIsReadOnlyViewOfContent() {
+        ByteBuffer buffer = content.asBuffer();
+
+        assertTrue(buffer.isReadOnly());
+        assertEquals(data.length, buffer.remaining());
+        assertEquals('l', buffer.get(0));
+        assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, (byte) 'x'));
+    }
+
+    @Test
+    void testBuffersHaveIndependentPositions() {
+        ByteBuffer first = content.asBuffer();
+        first.position(5);
+
+        assertEquals(0, content.asBuffer().position());
+    }
+
+    @Test
+    void testStreamAndWriteToDeliverContent() throws IOException {
+        try (InputStream in = content.openStream()) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeTo(out);
+        assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    void testGetDataReturnsPrivateCopy() {
+        byte[] copy = content.getData();
+        copy[0] = 'X';
+
+        assertEquals('l', content.asBuffer().get(0));
+        assertEquals("line one\nline two\n", content.getDataAsString());
+    }
+}
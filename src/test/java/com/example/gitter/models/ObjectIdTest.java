@@ -0,0 +1,99 @@
+package com.example.gitter.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectIdTest {
+
+    private static final String EMPTY_SHA1 = "da39a3ee5e6b4b0d3255bfef95601890afd80709";
+
+    @Test
+    void testHexRoundTrip() {
+        ObjectId id = ObjectId.fromString(EMPTY_SHA1);
+
+        assertEquals(EMPTY_SHA1, id.name());
+        assertEquals(EMPTY_SHA1, id.toString());
+    }
+
+    @Test
+    void testUpperCaseHexIsAccepted() {
+        assertEquals(ObjectId.fromString(EMPTY_SHA1), ObjectId.fromString(EMPTY_SHA1.toUpperCase()));
+    }
+
+    @Test
+    void testRawRoundTrip() {
+        byte[] raw = new byte[20];
+        for (int i = 0; i < raw.length; i++) {
+            raw[i] = (byte) (i * 13 - 100);
+        }
+
+        ObjectId id = ObjectId.fromRaw(raw);
+
+        assertArrayEquals(raw, id.toByteArray());
+        assertEquals(id, ObjectId.fromString(id.name()));
+    }
+
+    @Test
+    void testFromRawWithOffset() {
+        byte[] buffer = new byte[30];
+        ObjectId.fromString(EMPTY_SHA1).copyRawTo(buffer, 7);
+
+        assertEquals(ObjectId.fromString(EMPTY_SHA1), ObjectId.fromRaw(buffer, 7));
+    }
+
+    @Test
+    void testInvalidNames() {
+        assertFalse(ObjectId.isValid(null));
+        assertFalse(ObjectId.isValid("abc123"));
+        assertFalse(ObjectId.isValid(EMPTY_SHA1.replace('d', 'g')));
+        assertFalse(ObjectId.isValid(EMPTY_SHA1.replace('d', 'é')));
+        assertThrows(IllegalArgumentException.class, () -> ObjectId.fromString("not-a-hash"));
+        assertThrows(IllegalArgumentException.class, () -> ObjectId.fromRaw(new byte[19]));
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        ObjectId a = ObjectId.fromString(EMPTY_SHA1);
+        ObjectId b = ObjectId.fromString(EMPTY_SHA1);
+        ObjectId c = ObjectId.fromString("da39a3ee5e6b4b0d3255bfef95601890afd80708");
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+        assertNotEquals(a, EMPTY_SHA1);
+    }
+
+    @Test
+    void testOrderMatchesHexOrder() {
+        List<String> names = List.of(
+                "ff00000000000000000000000000000000000000",
+                "0000000000000000000000000000000000000001",
+                "8000000000000000000000000000000000000000",
+                "7fffffffffffffffffffffffffffffffffffffff");
+        List<ObjectId> ids = new ArrayList<>();
+        for (String name : names) {
+            ids.add(ObjectId.fromString(name));
+        }
+
+        Collections.sort(ids);
+        List<String> sortedNames = new ArrayList<>(names);
+        Collections.sort(sortedNames);
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(sortedNames.get(i), ids.get(i).name());
+        }
+    }
+
+    @Test
+    void testFirstByteAndAbbreviation() {
+        ObjectId id = ObjectId.fromString(EMPTY_SHA1);
+
+        assertEquals(0xda, id.getFirstByte());
+        assertEquals("da39a3e", id.abbreviate(7));
+    }
+}
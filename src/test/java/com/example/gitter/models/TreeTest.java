@@ -0,0 +1,44 @@
+package com.example.gitter.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeTest {
+
+    private static final ObjectId FIRST = ObjectId.fromString("da39a3ee5e6b4b0d3255bfef95601890afd80709");
+    private static final ObjectId SECOND = ObjectId.fromString("0123456789abcdef0123456789abcdef01234567");
+
+    @Test
+    void testSerializationRoundTrip() throws IOException {
+        Tree tree = new Tree(List.of(Tree.Entry.tree("src", SECOND), Tree.Entry.blob("README.md", FIRST)));
+
+        Tree parsed = Tree.deserialize(tree.serialize());
+
+        assertEquals(2, parsed.getEntries().size());
+        assertEquals("README.md", parsed.getEntries().get(0).getName());
+        assertEquals(FIRST, parsed.getEntries().get(0).getHash());
+        assertFalse(parsed.getEntries().get(0).isTree());
+        assertEquals("src", parsed.getEntries().get(1).getName());
+        assertTrue(parsed.getEntries().get(1).isTree());
+    }
+
+    @Test
+    void testEntryOrderDoesNotChangeSerialization() {
+        Tree forward = new Tree(List.of(Tree.Entry.blob("a", FIRST), Tree.Entry.blob("b", SECOND)));
+        Tree backward = new Tree(List.of(Tree.Entry.blob("b", SECOND), Tree.Entry.blob("a", FIRST)));
+
+        assertEquals(forward.serialize(), backward.serialize());
+    }
+
+    @Test
+    void testMalformedLinesAreRejected() {
+        assertThrows(IOException.class, () -> Tree.deserialize("blob\tname\tnot-a-hash\n"));
+        assertThrows(IOException.class, () -> Tree.deserialize("link\tname\t" + FIRST.name() + "\n"));
+        assertThrows(IOException.class, () -> Tree.deserialize("blob\t\t" + FIRST.name() + "\n"));
+        assertThrows(IOException.class, () -> Tree.deserialize("blob\t" + FIRST.name() + "\n"));
+    }
+}
@@ -9,6 +9,13 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class WorkingDirectoryStatusTest {
 
+    /**
+     * @return Object id made of the given hex digits followed by zeros
+     */
+    private static ObjectId id(String hexPrefix) {
+        return ObjectId.fromString(String.format("%-40s", hexPrefix).replace(' ', '0'));
+    }
+
     @Test
     void testEmptyStatusIsClean() {
         WorkingDirectoryStatus status = new WorkingDirectoryStatus(Map.of());
@@ -139,15 +146,15 @@ class WorkingDirectoryStatusTest {
 
     @Test
     void testGetAllWorkingFiles() {
-        Map<String, String> workingFiles = new HashMap<>();
-        workingFiles.put("file1.txt", "hash1");
-        workingFiles.put("file2.txt", "hash2");
+        Map<String, ObjectId> workingFiles = new HashMap<>();
+        workingFiles.put("file1.txt", id("1"));
+        workingFiles.put("file2.txt", id("2"));
 
         WorkingDirectoryStatus status = new WorkingDirectoryStatus(workingFiles);
 
         assertEquals(2, status.getAllWorkingFiles().size());
-        assertEquals("hash1", status.getAllWorkingFiles().get("file1.txt"));
-        assertEquals("hash2", status.getAllWorkingFiles().get("file2.txt"));
+        assertEquals(id("1"), status.getAllWorkingFiles().get("file1.txt"));
+        assertEquals(id("2"), status.getAllWorkingFiles().get("file2.txt"));
     }
 
     @Test
@@ -212,13 +219,13 @@ class WorkingDirectoryStatusTest {
 
     @Test
     void testImmutabilityOfAllWorkingFiles() {
-        Map<String, String> workingFiles = new HashMap<>();
-        workingFiles.put("file.txt", "hash");
+        Map<String, ObjectId> workingFiles = new HashMap<>();
+        workingFiles.put("file.txt", id("3"));
 
         WorkingDirectoryStatus status = new WorkingDirectoryStatus(workingFiles);
 
         assertThrows(UnsupportedOperationException.class, () -> {
-            status.getAllWorkingFiles().put("another.txt", "hash2");
+            status.getAllWorkingFiles().put("another.txt", id("2"));
         });
     }
 }
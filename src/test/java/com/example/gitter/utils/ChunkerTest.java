@@ -0,0 +1,91 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkerTest {
+
+    private static final int MIN = 256;
+    private static final int AVERAGE = 1024;
+    private static final int MAX = 4096;
+
+    private static List<byte[]> split(byte[] data) throws IOException {
+        Chunker chunker = new Chunker(new ByteArrayInputStream(data), MIN, AVERAGE, MAX);
+        List<byte[]> chunks = new ArrayList<>();
+        byte[] chunk;
+        while ((chunk = chunker.next()) != null) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    void testChunksReassembleToInput() throws IOException {
+        byte[] data = randomBytes(200_000, 1);
+
+        List<byte[]> chunks = split(data);
+
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            joined.write(chunk);
+        }
+        assertArrayEquals(data, joined.toByteArray());
+        assertTrue(chunks.size() > 1);
+    }
+
+    @Test
+    void testChunkSizesStayWithinBounds() throws IOException {
+        List<byte[]> chunks = split(randomBytes(200_000, 2));
+
+        for (int i = 0; i < chunks.size() - 1; i++) {
+            assertTrue(chunks.get(i).length >= MIN, "chunk too small: " + chunks.get(i).length);
+            assertTrue(chunks.get(i).length <= MAX, "chunk too large: " + chunks.get(i).length);
+        }
+        int average = 200_000 / chunks.size();
+        assertTrue(average > AVERAGE / 2 && average < AVERAGE * 2, "average chunk size " + average);
+    }
+
+    @Test
+    void testInsertionOnlyChangesNearbyChunks() throws IOException {
+        byte[] original = randomBytes(200_000, 3);
+        byte[] edited = new byte[original.length + 10];
+        System.arraycopy(original, 0, edited, 0, 100_000);
+        System.arraycopy(original, 100_000, edited, 100_010, 100_000);
+
+        Set<String> originalChunks = new HashSet<>();
+        for (byte[] chunk : split(original)) {
+            originalChunks.add(HashUtils.hashBytes(chunk).name());
+        }
+        List<byte[]> editedChunks = split(edited);
+        long changed = editedChunks.stream()
+                .filter(chunk -> !originalChunks.contains(HashUtils.hashBytes(chunk).name()))
+                .count();
+
+        assertTrue(changed <= 3, changed + " of " + editedChunks.size() + " chunks changed");
+    }
+
+    @Test
+    void testEmptyAndSmallInput() throws IOException {
+        assertTrue(split(new byte[0]).isEmpty());
+
+        List<byte[]> chunks = split(new byte[] {1, 2, 3});
+        assertEquals(1, chunks.size());
+        assertArrayEquals(new byte[] {1, 2, 3}, chunks.get(0));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.gitter.constants.Constants.COMMIT_GRAPH_NO_PARENT;
+import static com.example.gitter.constants.Constants.COMMIT_GRAPH_PARENT_NOT_IN_GRAPH;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitGraphTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path graphFile;
+
+    @BeforeEach
+    void setUp() {
+        ObjectStore.useDatabase(new InMemoryObjectDatabase());
+        graphFile = tempDir.resolve("commit-graph");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ObjectStore.useDatabase(null);
+    }
+
+    private static ObjectId writeCommit(String message, ObjectId parent) throws IOException {
+        ObjectId tree = TreeUtils.writeTrees(Map.of(message, new FileEntry(message, HashUtils.hashBytes(message.getBytes()))));
+        return ObjectStore.writeCommit(new Commit(message, parent, tree).serialize());
+    }
+
+    @Test
+    void testParentsAndGenerations() throws IOException {
+        ObjectId root = writeCommit("root", null);
+        ObjectId middle = writeCommit("middle", root);
+        ObjectId tip = writeCommit("tip", middle);
+        ObjectId branch = writeCommit("branch", root);
+
+        assertEquals(4, CommitGraph.write(graphFile, List.of(tip, branch)));
+        CommitGraph graph = CommitGraph.open(graphFile);
+
+        assertEquals(4, graph.getCommitCount());
+        int tipPosition = graph.find(tip);
+        int middlePosition = graph.getParentPosition(tipPosition);
+        assertEquals(middle, graph.getId(middlePosition));
+        assertEquals(root, graph.getId(graph.getParentPosition(middlePosition)));
+        assertEquals(COMMIT_GRAPH_NO_PARENT, graph.getParentPosition(graph.find(root)));
+        assertEquals(1, graph.getGeneration(graph.find(root)));
+        assertEquals(3, graph.getGeneration(tipPosition));
+        assertEquals(2, graph.getGeneration(graph.find(branch)));
+    }
+
+    @Test
+    void testTreeAndTimestamp() throws IOException {
+        ObjectId id = writeCommit("commit", null);
+        Commit commit = ObjectStore.readParsedCommit(id);
+
+        CommitGraph.write(graphFile, List.of(id));
+        CommitGraph graph = CommitGraph.open(graphFile);
+
+        int position = graph.find(id);
+        assertEquals(commit.getTree(), graph.getTree(position));
+        assertEquals(Instant.parse(commit.getTimestamp()).toEpochMilli(), graph.getTimestamp(position));
+    }
+
+    @Test
+    void testCommitWithoutTree() throws IOException {
+        ObjectId id = ObjectStore.writeCommit(new Commit("flat", null, Map.of()).serialize());
+
+        CommitGraph.write(graphFile, List.of(id));
+
+        assertNull(CommitGraph.open(graphFile).getTree(0));
+    }
+
+    @Test
+    void testMissingParentIsMarked() throws IOException {
+        ObjectId missing = HashUtils.hashBytes("not stored".getBytes());
+        ObjectId id = ObjectStore.writeCommit(new Commit("orphan", missing, TreeUtils.writeTrees(Map.of())).serialize());
+
+        CommitGraph.write(graphFile, List.of(id));
+        CommitGraph graph = CommitGraph.open(graphFile);
+
+        assertEquals(1, graph.getCommitCount());
+        assertEquals(COMMIT_GRAPH_PARENT_NOT_IN_GRAPH, graph.getParentPosition(graph.find(id)));
+        assertEquals(1, graph.getGeneration(graph.find(id)));
+    }
+
+    @Test
+    void testFindUnknownCommit() throws IOException {
+        CommitGraph.write(graphFile, List.of(writeCommit("commit", null)));
+
+        assertEquals(-1, CommitGraph.open(graphFile).find(HashUtils.hashBytes("other".getBytes())));
+    }
+
+    @Test
+    void testEmptyGraph() throws IOException {
+        assertEquals(0, CommitGraph.write(graphFile, List.of()));
+
+        assertEquals(0, CommitGraph.open(graphFile).getCommitCount());
+    }
+
+    @Test
+    void testTruncatedFileIsCorrupt() throws IOException {
+        CommitGraph.write(graphFile, List.of(writeCommit("commit", null)));
+        byte[] content = Files.readAllBytes(graphFile);
+        Files.write(graphFile, Arrays.copyOf(content, content.length - 1));
+
+        assertThrows(IOException.class, () -> CommitGraph.open(graphFile));
+    }
+
+    @Test
+    void testChecksumMismatchIsCorrupt() throws IOException {
+        ObjectId id = writeCommit("commit", null);
+        CommitGraph.write(graphFile, List.of(id));
+        byte[] content = Files.readAllBytes(graphFile);
+        // Flip the last byte of the tree id, leaving header and length intact
+        content[content.length - 20 - 1] ^= 1;
+        Files.write(graphFile, content);
+
+        assertThrows(IOException.class, () -> CommitGraph.open(graphFile));
+    }
+
+    @Test
+    void testUnreadableGraphIsIgnored() throws IOException {
+        Files.write(graphFile, "CGPH".getBytes());
+
+        assertNull(CommitGraph.openOrWarn(graphFile));
+    }
+}
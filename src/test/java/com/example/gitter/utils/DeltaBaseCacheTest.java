@@ -0,0 +1,50 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaBaseCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenOverBudget() {
+        DeltaBaseCache cache = new DeltaBaseCache(10);
+        ObjectId a = HashUtils.hashBytes("a".getBytes());
+        ObjectId b = HashUtils.hashBytes("b".getBytes());
+        ObjectId c = HashUtils.hashBytes("c".getBytes());
+
+        cache.put(a, new byte[4]);
+        cache.put(b, new byte[4]);
+        cache.get(a);
+        cache.put(c, new byte[4]);
+
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b), "Least recently used entry should be evicted");
+        assertNotNull(cache.get(c));
+        assertEquals(8, cache.getSize());
+    }
+
+    @Test
+    void testContentLargerThanBudgetIsNotCached() {
+        DeltaBaseCache cache = new DeltaBaseCache(10);
+        ObjectId id = HashUtils.hashBytes("big".getBytes());
+
+        cache.put(id, new byte[11]);
+
+        assertNull(cache.get(id));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void testReplacingEntryKeepsSizeAccurate() {
+        DeltaBaseCache cache = new DeltaBaseCache(100);
+        ObjectId id = HashUtils.hashBytes("same".getBytes());
+
+        cache.put(id, new byte[30]);
+        cache.put(id, new byte[20]);
+
+        assertEquals(20, cache.getSize());
+        assertEquals(1, cache.getEntryCount());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSearchTest {
+
+    private final Map<ObjectId, byte[]> blobs = new HashMap<>();
+
+    private ObjectId blob(String content) {
+        return blob(content.getBytes());
+    }
+
+    private ObjectId blob(byte[] content) {
+        ObjectId id = HashUtils.hashBytes(content);
+        blobs.put(id, content);
+        return id;
+    }
+
+    private Map<ObjectId, Long> sizes() {
+        Map<ObjectId, Long> sizes = new HashMap<>();
+        blobs.forEach((id, content) -> sizes.put(id, (long) content.length));
+        return sizes;
+    }
+
+    @Test
+    void testVersionsOfAFileBecomeDeltas() throws IOException {
+        String text = "some line in a text file\n".repeat(200);
+        ObjectId v1 = blob(text);
+        ObjectId v2 = blob(text + "appended\n");
+        ObjectId v3 = blob(text + "appended\nand more\n");
+
+        Map<ObjectId, DeltaSearch.Result> deltas = new DeltaSearch(10, 50, blobs::get).search(sizes());
+
+        // Largest first: v3 stays whole, v2 and v1 are derived from the larger versions
+        assertFalse(deltas.containsKey(v3));
+        assertEquals(v3, deltas.get(v2).getBase());
+        assertTrue(deltas.containsKey(v1));
+        for (Map.Entry<ObjectId, DeltaSearch.Result> entry : deltas.entrySet()) {
+            byte[] base = blobs.get(entry.getValue().getBase());
+            assertArrayEquals(blobs.get(entry.getKey()), Delta.apply(base, entry.getValue().getDelta()));
+        }
+    }
+
+    @Test
+    void testUnrelatedAndTinyBlobsStayWhole() throws IOException {
+        Random random = new Random(7);
+        byte[] first = new byte[4096];
+        byte[] second = new byte[4000];
+        random.nextBytes(first);
+        random.nextBytes(second);
+        blob(first);
+        blob(second);
+        blob("tiny");
+        blob("tiny!");
+
+        assertTrue(new DeltaSearch(10, 50, blobs::get).search(sizes()).isEmpty());
+    }
+
+    @Test
+    void testChainDepthIsLimited() throws IOException {
+        StringBuilder text = new StringBuilder("header line for the chain test\n".repeat(100));
+        for (int i = 0; i < 6; i++) {
+            text.append("edit ").append(i).append('\n');
+            blob(text.toString());
+        }
+
+        Map<ObjectId, DeltaSearch.Result> deltas = new DeltaSearch(1, 2, blobs::get).search(sizes());
+
+        for (ObjectId id : deltas.keySet()) {
+            int depth = 0;
+            for (ObjectId current = id; deltas.containsKey(current); current = deltas.get(current).getBase()) {
+                depth++;
+            }
+            assertTrue(depth <= 2, "Chain depth " + depth);
+        }
+        assertEquals(4, deltas.size(), "Every third version should stay whole");
+    }
+
+    @Test
+    void testZeroDepthDisablesDeltas() throws IOException {
+        String text = "repeated content\n".repeat(100);
+        blob(text);
+        blob(text + "x");
+
+        assertTrue(new DeltaSearch(10, 0, blobs::get).search(sizes()).isEmpty());
+    }
+}
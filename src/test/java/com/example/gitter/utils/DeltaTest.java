@@ -0,0 +1,71 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaTest {
+
+    @Test
+    void testSmallEditProducesSmallDelta() throws IOException {
+        String base = "line of a large text file\n".repeat(400);
+        String target = base.substring(0, 5000) + "an inserted line\n" + base.substring(5000);
+
+        byte[] delta = Delta.create(base.getBytes(), target.getBytes());
+
+        assertTrue(delta.length < 100, "Delta size " + delta.length);
+        assertArrayEquals(target.getBytes(), Delta.apply(base.getBytes(), delta));
+    }
+
+    @Test
+    void testUnrelatedContentRoundTrips() throws IOException {
+        Random random = new Random(42);
+        byte[] base = new byte[3000];
+        byte[] target = new byte[2000];
+        random.nextBytes(base);
+        random.nextBytes(target);
+
+        byte[] delta = Delta.create(base, target);
+
+        assertArrayEquals(target, Delta.apply(base, delta));
+    }
+
+    @Test
+    void testDeletionsAndShortContent() throws IOException {
+        byte[] base = "0123456789abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJ".getBytes();
+        byte[] target = "0123456789abcdefghijHIJ".getBytes();
+
+        assertArrayEquals(target, Delta.apply(base, Delta.create(base, target)));
+        assertArrayEquals(new byte[0], Delta.apply(base, Delta.create(base, new byte[0])));
+        assertArrayEquals("xy".getBytes(), Delta.apply(new byte[0], Delta.create(new byte[0], "xy".getBytes())));
+    }
+
+    @Test
+    void testReadTargetSize() throws IOException {
+        byte[] target = "x".repeat(300).getBytes();
+        byte[] delta = Delta.create("x".repeat(200).getBytes(), target);
+
+        assertEquals(300, Delta.readTargetSize(new ByteArrayInputStream(delta)));
+    }
+
+    @Test
+    void testWrongBaseIsRejected() {
+        byte[] delta = Delta.create("the original base content".getBytes(), "the target".getBytes());
+
+        assertThrows(IOException.class, () -> Delta.apply("another base".getBytes(), delta));
+    }
+
+    @Test
+    void testTruncatedDeltaIsRejected() {
+        byte[] base = "abcdefghijklmnopqrstuvwxyz".repeat(4).getBytes();
+        byte[] delta = Delta.create(base, "prefix ".concat(new String(base)).getBytes());
+        byte[] truncated = Arrays.copyOf(delta, delta.length - 1);
+
+        assertThrows(IOException.class, () -> Delta.apply(base, truncated));
+    }
+}
@@ -201,4 +201,13 @@ class FileUtilsTest {
         // Should not throw exception
         assertDoesNotThrow(() -> FileUtils.deleteFile(nonExistent, tempDir));
     }
+    
+    @Test
+    void testReadStatFollowsSymbolicLinks() throws IOException {
+        Path target = tempDir.resolve("target.txt");
+        Files.writeString(target, "content of the link target");
+        Path link = Files.createSymbolicLink(tempDir.resolve("link.txt"), target);
+        
+        assertEquals(FileUtils.readStat(target), FileUtils.readStat(link));
+    }
 }
@@ -0,0 +1,201 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.WorkingDirectoryStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.gitter.constants.Constants.FSMONITOR_MAX_TOKENS;
+import static com.example.gitter.constants.Constants.GITTERIGNORE_FILE;
+import static com.example.gitter.constants.Constants.GITTER_DIR;
+import static com.example.gitter.constants.PathConstants.GITTER;
+import static com.example.gitter.constants.PathConstants.INDEX;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FsMonitorTest {
+    private static final long START_TIMEOUT_MS = 10_000;
+
+    @TempDir
+    Path tempDir;
+    private Path monitoredDir;
+    private Thread monitorThread;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(tempDir.resolve(GITTER_DIR));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (monitorThread != null) {
+            FsMonitor.stop(monitoredDir);
+            monitorThread.join(START_TIMEOUT_MS);
+            assertFalse(monitorThread.isAlive(), "Monitor stops when asked to");
+        }
+    }
+
+    /**
+     * Run a monitor on workingDir in the background
+     *
+     * @return The first answer, once the monitor is watching
+     */
+    private FsMonitor.Response startMonitor(Path workingDir) throws InterruptedException {
+        monitoredDir = workingDir;
+        monitorThread = new Thread(() -> {
+            try {
+                FsMonitor.run(workingDir);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "fsmonitor-test");
+        monitorThread.setDaemon(true);
+        monitorThread.start();
+
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            FsMonitor.Response response = FsMonitor.query(workingDir, null);
+            if (response != null) {
+                return response;
+            }
+            Thread.sleep(20);
+        }
+        fail("Monitor did not start");
+        return null;
+    }
+
+    @Test
+    void testQueryReturnsExactlyTheChangedPaths() throws Exception {
+        Files.writeString(tempDir.resolve("changed.txt"), "before");
+        Files.writeString(tempDir.resolve("removed.txt"), "gone soon");
+        Files.writeString(tempDir.resolve("untouched.txt"), "same");
+        String token = startMonitor(tempDir).getToken();
+
+        Files.writeString(tempDir.resolve("changed.txt"), "after");
+        Files.delete(tempDir.resolve("removed.txt"));
+        Files.writeString(tempDir.resolve("added.txt"), "new");
+        FsMonitor.Response response = FsMonitor.query(tempDir, token);
+
+        assertFalse(response.isFullScan());
+        assertEquals(Set.of("changed.txt", "removed.txt", "added.txt"), Set.copyOf(response.getChangedPaths()));
+        assertEquals(3, response.getChangedPaths().size());
+        assertNotEquals(token, response.getToken());
+
+        FsMonitor.Response unchanged = FsMonitor.query(tempDir, response.getToken());
+        assertFalse(unchanged.isFullScan());
+        assertTrue(unchanged.getChangedPaths().isEmpty());
+    }
+
+    @Test
+    void testNewDirectoryIsReported() throws Exception {
+        String token = startMonitor(tempDir).getToken();
+
+        Files.createDirectories(tempDir.resolve("dir/sub"));
+        Files.writeString(tempDir.resolve("dir/sub/file.txt"), "content");
+        FsMonitor.Response response = FsMonitor.query(tempDir, token);
+
+        assertFalse(response.isFullScan());
+        assertTrue(response.getChangedPaths().contains("dir"), "Everything below a new directory is re-examined");
+    }
+
+    @Test
+    void testFirstQueryAndUnknownTokensGetFullScan() throws Exception {
+        FsMonitor.Response first = startMonitor(tempDir);
+        assertTrue(first.isFullScan());
+
+        assertTrue(FsMonitor.query(tempDir, "other-daemon:1").isFullScan());
+        assertTrue(FsMonitor.query(tempDir, "not a token").isFullScan());
+        assertFalse(FsMonitor.query(tempDir, first.getToken()).isFullScan());
+    }
+
+    @Test
+    void testTokenOlderThanTheRememberedOnesGetsFullScan() throws Exception {
+        String oldToken = startMonitor(tempDir).getToken();
+
+        String token = oldToken;
+        for (int i = 0; i < FSMONITOR_MAX_TOKENS; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".txt"), "content");
+            token = FsMonitor.query(tempDir, token).getToken();
+        }
+
+        assertTrue(FsMonitor.query(tempDir, oldToken).isFullScan());
+        assertFalse(FsMonitor.query(tempDir, token).isFullScan());
+    }
+
+    @Test
+    void testLostEventsGetFullScan() throws Exception {
+        String token = startMonitor(tempDir).getToken();
+
+        // New ignore rules change what is visible everywhere, like an event queue overflow
+        Files.writeString(tempDir.resolve(GITTERIGNORE_FILE), "build/\n");
+        FsMonitor.Response response = FsMonitor.query(tempDir, token);
+
+        assertTrue(response.isFullScan());
+        assertFalse(FsMonitor.query(tempDir, response.getToken()).isFullScan(), "Later tokens are honoured again");
+    }
+
+    @Test
+    void testStatusIsTheSameWithAndWithoutMonitor() throws Exception {
+        Path workingDir = GITTER.getParent();
+        Path scratch = workingDir.resolve("target/fsmonitor-status");
+        Files.createDirectories(GITTER);
+        String savedIndex = Files.exists(INDEX) ? Files.readString(INDEX) : null;
+        try {
+            Files.createDirectories(scratch);
+            List<FileEntry> entries = new ArrayList<>();
+            for (String name : List.of("kept.txt", "changed.txt", "removed.txt")) {
+                Path file = scratch.resolve(name);
+                Files.writeString(file, name);
+                String path = workingDir.relativize(file).toString();
+                entries.add(new FileEntry(path, HashUtils.hashFile(file), FileUtils.readStat(file)));
+            }
+            Indexing.saveIndex(entries);
+
+            startMonitor(workingDir);
+            RepositoryState.getWorkingDirectoryStatus();
+            WorkingTreeSnapshot snapshot = WorkingTreeSnapshot.load();
+            assertNotNull(snapshot, "Status keeps the files it saw with the monitor's token");
+            Files.writeString(scratch.resolve("changed.txt"), "changed");
+            Files.delete(scratch.resolve("removed.txt"));
+            Files.writeString(scratch.resolve("added.txt"), "added");
+
+            FsMonitor.Response changes = FsMonitor.query(workingDir, snapshot.getToken());
+            assertFalse(changes.isFullScan(), "Status with the monitor only looks at the changed paths");
+            WorkingDirectoryStatus monitored = RepositoryState.getWorkingDirectoryStatus();
+
+            FsMonitor.stop(workingDir);
+            monitorThread.join(START_TIMEOUT_MS);
+            monitorThread = null;
+            WorkingDirectoryStatus scanned = RepositoryState.getWorkingDirectoryStatus();
+
+            assertEquals(scanned.getAllWorkingFiles(), monitored.getAllWorkingFiles());
+            assertEquals(scanned.getStagedNew(), monitored.getStagedNew());
+            assertEquals(scanned.getStagedModified(), monitored.getStagedModified());
+            assertEquals(scanned.getStagedDeleted(), monitored.getStagedDeleted());
+            assertEquals(scanned.getUnstagedModified(), monitored.getUnstagedModified());
+            assertEquals(scanned.getUnstagedDeleted(), monitored.getUnstagedDeleted());
+            assertEquals(scanned.getUntracked(), monitored.getUntracked());
+            assertTrue(monitored.getUnstagedModified().contains("target/fsmonitor-status/changed.txt"));
+            assertTrue(monitored.getUnstagedDeleted().contains("target/fsmonitor-status/removed.txt"));
+            assertTrue(monitored.getUntracked().contains("target/fsmonitor-status/added.txt"));
+        } finally {
+            WorkingTreeSnapshot.delete();
+            if (savedIndex != null) {
+                Files.writeString(INDEX, savedIndex);
+            } else {
+                Files.deleteIfExists(INDEX);
+            }
+            FileUtils.deleteFile(scratch.resolve("kept.txt"), workingDir);
+            FileUtils.deleteFile(scratch.resolve("changed.txt"), workingDir);
+            FileUtils.deleteFile(scratch.resolve("added.txt"), workingDir);
+        }
+    }
+}
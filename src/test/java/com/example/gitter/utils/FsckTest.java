@@ -0,0 +1,148 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.FsckReport;
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.example.gitter.constants.PathConstants.HEADS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FsckTest {
+
+    private InMemoryObjectDatabase database;
+    private Path branchFile;
+
+    @BeforeEach
+    void setUp() {
+        database = new InMemoryObjectDatabase();
+        ObjectStore.useDatabase(database);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ObjectStore.useDatabase(null);
+        if (branchFile != null) {
+            Files.deleteIfExists(branchFile);
+        }
+    }
+
+    private static FsckReport runFsck() throws IOException {
+        return new Fsck((checked, total, bytes, elapsedNanos) -> {}).run();
+    }
+
+    private static List<ObjectId> ids(List<FsckReport.Finding> findings) {
+        return findings.stream().map(FsckReport.Finding::getId).collect(Collectors.toList());
+    }
+
+    private static ObjectId writeCommit(String message, ObjectId parent, Map<String, ObjectId> files) throws IOException {
+        Map<String, FileEntry> entries = new LinkedHashMap<>();
+        files.forEach((path, hash) -> entries.put(path, new FileEntry(path, hash)));
+        return ObjectStore.writeCommit(new Commit(message, parent, entries).serialize());
+    }
+
+    private void pointBranchAt(ObjectId commit) throws IOException {
+        Files.createDirectories(HEADS);
+        branchFile = HEADS.resolve("fsck-test-" + System.nanoTime());
+        Files.writeString(branchFile, commit.name());
+    }
+
+    @Test
+    void testObjectWhoseContentDoesNotMatchItsIdIsCorrupt() throws IOException {
+        ObjectId good = ObjectStore.writeBlob("good".getBytes());
+        ObjectId wrong = HashUtils.hashBytes("expected".getBytes());
+        database.write(wrong, "blob", "tampered".getBytes());
+
+        FsckReport report = runFsck();
+
+        assertEquals(List.of(wrong), ids(report.getCorrupt()));
+        assertEquals("blob", report.getCorrupt().get(0).getType());
+        assertFalse(report.isHealthy());
+        assertEquals(List.of(good), ids(report.getDangling()));
+        assertEquals(2, report.getObjectCount());
+        assertEquals("good".length() + "tampered".length(), report.getByteCount());
+    }
+
+    @Test
+    void testMissingAndDanglingObjects() throws IOException {
+        ObjectId stored = ObjectStore.writeBlob("stored".getBytes());
+        ObjectId missingBlob = HashUtils.hashBytes("never written".getBytes());
+        ObjectId missingParent = HashUtils.hashBytes("lost commit".getBytes());
+        ObjectId tip = writeCommit("tip", missingParent, Map.of("a.txt", stored, "b.txt", missingBlob));
+        pointBranchAt(tip);
+
+        ObjectId lostBlob = ObjectStore.writeBlob("only in lost history".getBytes());
+        ObjectId lostCommit = writeCommit("lost", tip, Map.of("c.txt", lostBlob));
+
+        FsckReport report = runFsck();
+
+        assertTrue(report.getCorrupt().isEmpty());
+        assertEquals(List.of(missingBlob, missingParent).stream().sorted().collect(Collectors.toList()),
+                ids(report.getMissing()));
+        for (FsckReport.Finding finding : report.getMissing()) {
+            assertEquals(tip.name(), finding.getDetail());
+        }
+        assertEquals(List.of(lostCommit), ids(report.getDangling()), "Objects of lost history are not listed separately");
+        assertEquals("commit", report.getDangling().get(0).getType());
+    }
+
+    @Test
+    void testHealthyRepository() throws IOException {
+        ObjectId blob = ObjectStore.writeBlob("content".getBytes());
+        ObjectId first = writeCommit("first", null, Map.of("a.txt", blob));
+        pointBranchAt(writeCommit("second", first, Map.of("a.txt", blob)));
+        AtomicLong lastChecked = new AtomicLong();
+
+        FsckReport report = new Fsck((checked, total, bytes, elapsedNanos) -> lastChecked.set(checked)).run();
+
+        assertTrue(report.isHealthy());
+        assertTrue(report.getDangling().isEmpty());
+        assertEquals(3, lastChecked.get(), "Progress is reported once the objects are checked");
+    }
+
+    @Test
+    void testTreeNamedByItsContentAloneIsCorrupt() throws IOException {
+        byte[] content = ObjectStore.readTree(TreeUtils.writeTrees(Map.of())).getData();
+        ObjectId untyped = HashUtils.hashBytes(content);
+        database.write(untyped, "tree", content);
+
+        FsckReport report = runFsck();
+
+        assertTrue(ids(report.getCorrupt()).contains(untyped));
+    }
+
+    @Test
+    void testCommitWithTrees() throws IOException {
+        ObjectId kept = HashUtils.hashBytes("kept".getBytes());
+        ObjectId lost = HashUtils.hashBytes("never written".getBytes());
+        ObjectStore.writeBlob("kept".getBytes());
+        Map<String, FileEntry> files = new LinkedHashMap<>();
+        files.put("src/kept.txt", new FileEntry("src/kept.txt", kept));
+        files.put("src/deep/lost.txt", new FileEntry("src/deep/lost.txt", lost));
+        ObjectId tree = TreeUtils.writeTrees(files);
+        pointBranchAt(ObjectStore.writeCommit(new Commit("trees", null, tree).serialize()));
+
+        files.remove("src/deep/lost.txt");
+        ObjectId unusedTree = TreeUtils.writeTrees(files);
+
+        FsckReport report = runFsck();
+
+        assertTrue(report.getCorrupt().isEmpty());
+        assertEquals(List.of(lost), ids(report.getMissing()));
+        assertEquals("blob", report.getMissing().get(0).getType());
+        assertEquals(List.of(unusedTree), ids(report.getDangling()));
+        assertEquals("tree", report.getDangling().get(0).getType());
+    }
+}
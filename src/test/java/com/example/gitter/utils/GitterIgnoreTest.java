@@ -219,5 +219,19 @@ class GitterIgnoreTest {
         assertFalse(gitterIgnore.shouldIgnore("app.log"));
         assertFalse(gitterIgnore.shouldIgnore("Test.java"));
     }
-}
 
+    @Test
+    void testShouldIgnoreDirectory() throws IOException {
+        Files.writeString(gitterIgnoreFile, "build/\nsecrets.env\n");
+        GitterIgnore gitterIgnore = GitterIgnore.getInstance();
+        
+        assertTrue(gitterIgnore.shouldIgnoreDirectory(".gitter"));
+        assertTrue(gitterIgnore.shouldIgnoreDirectory("build"));
+        assertTrue(gitterIgnore.shouldIgnoreDirectory("build/nested"));
+        
+        // Exact file entries never prune a directory
+        assertFalse(gitterIgnore.shouldIgnoreDirectory("secrets.env"));
+        assertFalse(gitterIgnore.shouldIgnoreDirectory("src"));
+        assertFalse(gitterIgnore.shouldIgnoreDirectory("src/build"));
+    }
+}
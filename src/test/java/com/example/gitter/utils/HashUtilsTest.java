@@ -1,11 +1,18 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.models.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static com.example.gitter.constants.Constants.HASH_BUFFER_SIZE;
+import static com.example.gitter.constants.Constants.HASH_MMAP_THRESHOLD;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,13 +21,13 @@ class HashUtilsTest {
     @Test
     void testHashBytes() {
         byte[] content = "Hello, World!".getBytes();
-        String hash = HashUtils.hashBytes(content);
+        ObjectId hash = HashUtils.hashBytes(content);
         
         assertNotNull(hash);
-        assertEquals(40, hash.length()); // SHA-1 produces 40 character hex string
+        assertEquals(40, hash.name().length()); // SHA-1 produces 40 character hex string
         
         // Same content should produce same hash
-        String hash2 = HashUtils.hashBytes(content);
+        ObjectId hash2 = HashUtils.hashBytes(content);
         assertEquals(hash, hash2);
     }
     
@@ -29,8 +36,8 @@ class HashUtilsTest {
         byte[] content1 = "Hello, World!".getBytes();
         byte[] content2 = "Hello, World".getBytes();
         
-        String hash1 = HashUtils.hashBytes(content1);
-        String hash2 = HashUtils.hashBytes(content2);
+        ObjectId hash1 = HashUtils.hashBytes(content1);
+        ObjectId hash2 = HashUtils.hashBytes(content2);
         
         assertNotEquals(hash1, hash2);
     }
@@ -43,8 +50,8 @@ class HashUtilsTest {
         Files.writeString(testFile, content);
         
         // Hash the file
-        String fileHash = HashUtils.hashFile(testFile);
-        String bytesHash = HashUtils.hashBytes(content.getBytes());
+        ObjectId fileHash = HashUtils.hashFile(testFile);
+        ObjectId bytesHash = HashUtils.hashBytes(content.getBytes());
         
         // File hash should match bytes hash of same content
         assertEquals(bytesHash, fileHash);
@@ -52,12 +59,12 @@ class HashUtilsTest {
     
     @Test
     void testHashEmptyBytes() {
-        String hash = HashUtils.hashBytes(new byte[0]);
+        ObjectId hash = HashUtils.hashBytes(new byte[0]);
         
         assertNotNull(hash);
-        assertEquals(40, hash.length());
+        assertEquals(40, hash.name().length());
         // SHA-1 of empty bytes is always the same
-        assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", hash);
+        assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", hash.name());
     }
     
     @Test
@@ -65,12 +72,50 @@ class HashUtilsTest {
         byte[] content = "Consistent content".getBytes();
         
         // Hash multiple times
-        String hash1 = HashUtils.hashBytes(content);
-        String hash2 = HashUtils.hashBytes(content);
-        String hash3 = HashUtils.hashBytes(content);
+        ObjectId hash1 = HashUtils.hashBytes(content);
+        ObjectId hash2 = HashUtils.hashBytes(content);
+        ObjectId hash3 = HashUtils.hashBytes(content);
         
         // All should be identical
         assertEquals(hash1, hash2);
         assertEquals(hash2, hash3);
     }
+    
+    @Test
+    void testHashFileSpanningMultipleBuffers(@TempDir Path tempDir) throws IOException {
+        byte[] content = new byte[HASH_BUFFER_SIZE * 3 + 17];
+        new Random(42).nextBytes(content);
+        Path testFile = tempDir.resolve("multi-buffer.bin");
+        Files.write(testFile, content);
+        
+        assertEquals(HashUtils.hashBytes(content), HashUtils.hashFile(testFile));
+    }
+    
+    @Test
+    void testHashLargeFileUsesMappedPath(@TempDir Path tempDir) throws Exception {
+        // Sparse file of zeros just above the memory-mapping threshold
+        Path testFile = tempDir.resolve("large.bin");
+        long size = HASH_MMAP_THRESHOLD + 5;
+        try (RandomAccessFile file = new RandomAccessFile(testFile.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        
+        MessageDigest expected = MessageDigest.getInstance("SHA-1");
+        byte[] zeros = new byte[1024 * 1024];
+        for (long remaining = size; remaining > 0; remaining -= zeros.length) {
+            expected.update(zeros, 0, (int) Math.min(zeros.length, remaining));
+        }
+        
+        assertEquals(ObjectId.fromRaw(expected.digest()), HashUtils.hashFile(testFile));
+    }
+    
+    @Test
+    void testDigestReuseAfterFileHash(@TempDir Path tempDir) throws IOException {
+        Path testFile = tempDir.resolve("test.txt");
+        Files.writeString(testFile, "first");
+        HashUtils.hashFile(testFile);
+        
+        // Reused per-thread digest must not carry state between calls
+        assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", HashUtils.hashBytes(new byte[0]).name());
+    }
 }
@@ -0,0 +1,58 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryObjectDatabaseTest {
+
+    @Test
+    void testObjectsAppearOnCommit() throws IOException {
+        InMemoryObjectDatabase database = new InMemoryObjectDatabase();
+        byte[] content = "in memory".getBytes();
+
+        try (WriteBatch batch = database.newBatch()) {
+            ObjectId id = batch.writeBlob(content);
+            assertEquals(id, batch.writeBlob(content));
+            assertEquals(1, batch.getPendingCount());
+            assertFalse(database.exists(id), "Pending objects are not visible yet");
+
+            batch.commit();
+
+            ObjectContent stored = database.read(id);
+            assertEquals("blob", stored.getType());
+            assertArrayEquals(content, stored.getData());
+        }
+        assertEquals(1, database.size());
+    }
+
+    @Test
+    void testUncommittedObjectsAreDiscarded() throws IOException {
+        InMemoryObjectDatabase database = new InMemoryObjectDatabase();
+        ObjectId id;
+        try (WriteBatch batch = database.newBatch()) {
+            id = batch.writeCommit("abandoned");
+        }
+
+        assertFalse(database.exists(id));
+        assertNull(database.stream(id));
+        assertNull(database.read(id));
+    }
+
+    @Test
+    void testWriteAndBatchExists() throws IOException {
+        InMemoryObjectDatabase database = new InMemoryObjectDatabase();
+        ObjectId stored = HashUtils.hashBytes("stored".getBytes());
+        ObjectId missing = HashUtils.hashBytes("missing".getBytes());
+
+        database.write(stored, "blob", "stored".getBytes());
+
+        assertEquals(Set.of(stored), database.batchExists(List.of(stored, missing)));
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.constants.PathConstants;
+import com.example.gitter.models.Commit;
 import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.FileStat;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeAll;
@@ -12,10 +16,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class IndexingTest {
+
+    /**
+     * @return Object id made of the given hex digits followed by zeros
+     */
+    private static ObjectId id(String hexPrefix) {
+        return ObjectId.fromString(String.format("%-40s", hexPrefix).replace(' ', '0'));
+    }
     
     static Path testRoot;
     Path indexFile;
@@ -52,9 +64,9 @@ class IndexingTest {
     void testSaveAndLoadIndex() throws IOException {
         // Create some file entries
         List<FileEntry> entries = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456"),
-            new FileEntry("subdir/file3.txt", "ghi789")
+            new FileEntry("file1.txt", id("abc123")),
+            new FileEntry("file2.txt", id("def456")),
+            new FileEntry("subdir/file3.txt", id("789"))
         );
         
         // Save to index
@@ -68,8 +80,8 @@ class IndexingTest {
         assertTrue(loadedIndex.containsKey("file2.txt"));
         assertTrue(loadedIndex.containsKey("subdir/file3.txt"));
         
-        assertEquals("abc123", loadedIndex.get("file1.txt").getHash());
-        assertEquals("def456", loadedIndex.get("file2.txt").getHash());
+        assertEquals(id("abc123"), loadedIndex.get("file1.txt").getHash());
+        assertEquals(id("def456"), loadedIndex.get("file2.txt").getHash());
     }
     
     @Test
@@ -86,8 +98,8 @@ class IndexingTest {
     void testClearIndex() throws IOException {
         // First add some entries
         List<FileEntry> entries = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456")
+            new FileEntry("file1.txt", id("abc123")),
+            new FileEntry("file2.txt", id("def456"))
         );
         Indexing.saveIndex(entries);
         
@@ -102,7 +114,7 @@ class IndexingTest {
     @Test
     void testIndexWithSpacesInFilename() throws IOException {
         List<FileEntry> entries = Collections.singletonList(
-            new FileEntry("file with spaces.txt", "abc123")
+            new FileEntry("file with spaces.txt", id("abc123"))
         );
         
         Indexing.saveIndex(entries);
@@ -116,14 +128,14 @@ class IndexingTest {
     void testIndexOverwrite() throws IOException {
         // Save first set of entries
         List<FileEntry> entries1 = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456")
+            new FileEntry("file1.txt", id("abc123")),
+            new FileEntry("file2.txt", id("def456"))
         );
         Indexing.saveIndex(entries1);
         
         // Overwrite with second set
         List<FileEntry> entries2 = Collections.singletonList(
-            new FileEntry("file3.txt", "ghi789")
+            new FileEntry("file3.txt", id("789"))
         );
         Indexing.saveIndex(entries2);
         
@@ -141,7 +153,7 @@ class IndexingTest {
         Map<String, FileEntry> indexMap = new HashMap<>();
         
         // Stage empty collection
-        Indexing.stageFiles(Collections.emptySet(), indexMap);
+        Indexing.stageFiles(Collections.emptySet(), Collections.emptyMap(), indexMap);
         
         // Verify index is still empty
         assertTrue(indexMap.isEmpty());
@@ -152,19 +164,41 @@ class IndexingTest {
         Map<String, FileEntry> indexMap = new HashMap<>();
         
         // Stage empty collection
-        Indexing.stageFiles(Collections.emptySet(), indexMap);
+        Indexing.stageFiles(Collections.emptySet(), Collections.emptyMap(), indexMap);
         
         // Verify index is still empty
         assertTrue(indexMap.isEmpty());
     }
     
+    @Test
+    void testStageFilesSkipsStoredBlobs() throws IOException {
+        ObjectStore.useDatabase(new InMemoryObjectDatabase());
+        Path file = PathConstants.GITTER.getParent().resolve("target/stage-stored.txt");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "content on disk");
+            ObjectId stored = ObjectStore.writeBlob("already stored".getBytes());
+            Map<String, FileEntry> indexMap = new HashMap<>();
+            
+            // Had the file been read, it would be staged under the hash of its own content
+            Indexing.stageFiles(Set.of("target/stage-stored.txt"), Map.of("target/stage-stored.txt", stored), indexMap);
+            
+            FileEntry entry = indexMap.get("target/stage-stored.txt");
+            assertEquals(stored, entry.getHash());
+            assertEquals(FileUtils.readStat(file), entry.getStat());
+        } finally {
+            Files.deleteIfExists(file);
+            ObjectStore.useDatabase(null);
+        }
+    }
+    
     @Test
     void testUnstageFiles() throws IOException {
         // First stage some files
         List<FileEntry> entries = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456"),
-            new FileEntry("file3.txt", "ghi789")
+            new FileEntry("file1.txt", id("abc123")),
+            new FileEntry("file2.txt", id("def456")),
+            new FileEntry("file3.txt", id("789"))
         );
         Indexing.saveIndex(entries);
         
@@ -183,9 +217,9 @@ class IndexingTest {
     void testUnstageMultipleFiles() throws IOException {
         // Stage multiple files
         List<FileEntry> entries = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456"),
-            new FileEntry("file3.txt", "ghi789")
+            new FileEntry("file1.txt", id("abc123")),
+            new FileEntry("file2.txt", id("def456")),
+            new FileEntry("file3.txt", id("789"))
         );
         Indexing.saveIndex(entries);
         
@@ -204,8 +238,8 @@ class IndexingTest {
     void testUnstageFilesEmpty() throws IOException {
         // Stage some files
         List<FileEntry> entries = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456")
+            new FileEntry("file1.txt", id("abc123")),
+            new FileEntry("file2.txt", id("def456"))
         );
         Indexing.saveIndex(entries);
         
@@ -220,11 +254,11 @@ class IndexingTest {
     @Test
     void testStageModifiedFilesNoChanges() throws IOException {
         Map<String, FileEntry> indexMap = new HashMap<>();
-        indexMap.put("file1.txt", new FileEntry("file1.txt", "abc123"));
+        indexMap.put("file1.txt", new FileEntry("file1.txt", id("abc123")));
         
         // Create status with no unstaged changes
-        Map<String, String> allWorkingFiles = new HashMap<>();
-        allWorkingFiles.put("file1.txt", "abc123");
+        Map<String, ObjectId> allWorkingFiles = new HashMap<>();
+        allWorkingFiles.put("file1.txt", id("abc123"));
         
         WorkingDirectoryStatus status = new WorkingDirectoryStatus(allWorkingFiles);
         
@@ -239,16 +273,16 @@ class IndexingTest {
     }
     
     @Test
-    void testUpdateIndexWithEmptyCommitHash() throws IOException {
+    void testUpdateIndexWithNullCommitHash() throws IOException {
         // Stage files
         List<FileEntry> entries = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456")
+            new FileEntry("file1.txt", id("abc123")),
+            new FileEntry("file2.txt", id("def456"))
         );
         Indexing.saveIndex(entries);
         
-        // Update with empty hash should clear index
-        Indexing.updateIndex("");
+        // Update with null hash should clear index
+        Indexing.updateIndex(null);
         
         // Verify index is cleared
         Map<String, FileEntry> loadedIndex = Indexing.loadIndex();
@@ -256,19 +290,60 @@ class IndexingTest {
     }
     
     @Test
-    void testUpdateIndexWithNullCommitHash() throws IOException {
-        // Stage files
-        List<FileEntry> entries = Arrays.asList(
-            new FileEntry("file1.txt", "abc123"),
-            new FileEntry("file2.txt", "def456")
-        );
-        Indexing.saveIndex(entries);
+    void testTreeCacheFollowsTheIndex() throws IOException {
+        ObjectStore.useDatabase(new InMemoryObjectDatabase());
+        try {
+            Map<String, FileEntry> files = new HashMap<>();
+            for (String path : List.of("README", "docs/guide.md", "src/util/A.java")) {
+                files.put(path, new FileEntry(path, ObjectStore.writeBlob(path.getBytes())));
+            }
+            ObjectId tree = TreeUtils.writeTrees(files);
+            ObjectId commit = ObjectStore.writeCommit(new Commit("message", null, tree).serialize());
+
+            Indexing.updateIndex(commit);
+
+            TreeCache trees = TreeCache.load();
+            assertEquals(tree, trees.get(""));
+            assertNotNull(trees.get("docs"));
+            assertNotNull(trees.get("src/util"));
+
+            files.put("src/util/A.java", new FileEntry("src/util/A.java", id("abc123")));
+            Indexing.saveIndex(files.values());
+
+            trees = TreeCache.load();
+            assertNull(trees.get(""));
+            assertNull(trees.get("src"));
+            assertNull(trees.get("src/util"));
+            assertNotNull(trees.get("docs"), "Directories without changes stay cached");
+
+            Files.writeString(PathConstants.INDEX, "README\t" + id("def456") + "\n");
+            assertTrue(TreeCache.load().isEmpty(), "An index written elsewhere has no cached trees");
+        } finally {
+            TreeCache.delete();
+            ObjectStore.useDatabase(null);
+        }
+    }
+    
+    @Test
+    void testSaveAndLoadIndexWithStat() throws IOException {
+        FileStat stat = new FileStat(TimeUnit.SECONDS.toNanos(1_000_000), 0, 12, 34, 56);
+        Indexing.saveIndex(Collections.singletonList(new FileEntry("file1.txt", id("abc123"), stat)));
         
-        // Update with null hash should clear index
-        Indexing.updateIndex(null);
+        Map<String, FileEntry> loadedIndex = Indexing.loadIndex();
+        
+        assertEquals(id("abc123"), loadedIndex.get("file1.txt").getHash());
+        assertEquals(stat, loadedIndex.get("file1.txt").getStat());
+    }
+    
+    @Test
+    void testSaveIndexDropsRacyStat() throws IOException {
+        long now = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        FileStat racyStat = new FileStat(now + TimeUnit.SECONDS.toNanos(5), 0, 12, 34, 56);
+        Indexing.saveIndex(Collections.singletonList(new FileEntry("file1.txt", id("abc123"), racyStat)));
         
-        // Verify index is cleared
         Map<String, FileEntry> loadedIndex = Indexing.loadIndex();
-        assertTrue(loadedIndex.isEmpty());
+        
+        assertEquals(id("abc123"), loadedIndex.get("file1.txt").getHash());
+        assertNull(loadedIndex.get("file1.txt").getStat());
     }
 }
@@ -0,0 +1,122 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogObjectDatabaseTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testObjectsSurviveReopening() throws IOException {
+        Path log = tempDir.resolve("objects.log");
+        byte[] first = "first object".getBytes();
+        byte[] second = "second object".getBytes();
+        ObjectId firstId;
+        ObjectId secondId;
+
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "batch")) {
+            try (WriteBatch batch = database.newBatch()) {
+                firstId = batch.writeBlob(first);
+                secondId = batch.writeCommit(new String(second));
+                assertEquals(firstId, batch.writeBlob(first));
+                assertEquals(2, batch.getPendingCount());
+                batch.commit();
+                assertEquals(0, batch.getPendingCount());
+            }
+            assertArrayEquals(first, database.read(firstId).getData());
+        }
+
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "batch")) {
+            assertEquals(2, database.size());
+            assertEquals("blob", database.read(firstId).getType());
+            assertArrayEquals(first, database.read(firstId).getData());
+            assertArrayEquals(second, database.read(secondId).getData());
+            assertNull(database.stream(HashUtils.hashBytes("missing".getBytes())));
+        }
+    }
+
+    @Test
+    void testTornRecordIsTruncated() throws IOException {
+        Path log = tempDir.resolve("objects.log");
+        ObjectId kept = HashUtils.hashBytes("kept".getBytes());
+        ObjectId torn = HashUtils.hashBytes("torn".getBytes());
+
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "none")) {
+            database.write(kept, "blob", "kept".getBytes());
+        }
+        long intactSize = Files.size(log);
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "none")) {
+            database.write(torn, "blob", "torn".getBytes());
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(log) - 3);
+        }
+
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "none")) {
+            assertTrue(database.exists(kept));
+            assertFalse(database.exists(torn));
+            assertEquals(intactSize, Files.size(log));
+
+            database.write(torn, "blob", "torn".getBytes());
+            assertArrayEquals("torn".getBytes(), database.read(torn).getData());
+        }
+    }
+
+    @Test
+    void testWritersSharingTheLogAppendAfterEachOther() throws IOException {
+        Path log = tempDir.resolve("objects.log");
+        ObjectId first = HashUtils.hashBytes("first".getBytes());
+        ObjectId second = HashUtils.hashBytes("second".getBytes());
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "none")) {
+            database.write(HashUtils.hashBytes("seed".getBytes()), "blob", "seed".getBytes());
+        }
+
+        try (LogObjectDatabase stale = new LogObjectDatabase(log, "none");
+             LogObjectDatabase other = new LogObjectDatabase(log, "none")) {
+            // Both have scanned the log before either appends
+            assertFalse(stale.exists(first));
+            assertFalse(other.exists(first));
+
+            other.write(first, "blob", "first".getBytes());
+            stale.write(second, "blob", "second".getBytes());
+            assertTrue(stale.exists(first));
+        }
+
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "none")) {
+            assertEquals(3, database.size());
+            assertArrayEquals("first".getBytes(), database.read(first).getData());
+            assertArrayEquals("second".getBytes(), database.read(second).getData());
+        }
+    }
+
+    @Test
+    void testMissingLogIsNotCreatedByReads() throws IOException {
+        Path log = tempDir.resolve("objects.log");
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "batch")) {
+            assertFalse(database.exists(HashUtils.hashBytes("anything".getBytes())));
+            assertEquals(0, database.size());
+        }
+        assertFalse(Files.exists(log));
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Path log = tempDir.resolve("objects.log");
+        Files.writeString(log, "not an object log");
+
+        try (LogObjectDatabase database = new LogObjectDatabase(log, "batch")) {
+            assertThrows(IOException.class, () -> database.exists(HashUtils.hashBytes("x".getBytes())));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LooseObjectDatabaseTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBatchExistsFindsLooseAndPackedObjects() throws IOException {
+        LooseObjectDatabase database = new LooseObjectDatabase(tempDir, "none");
+        ObjectId loose = HashUtils.hashBytes("loose".getBytes());
+        ObjectId packed = HashUtils.hashBytes("packed".getBytes());
+        ObjectId missing = HashUtils.hashBytes("missing".getBytes());
+
+        database.write(loose, "blob", "loose".getBytes());
+        try (PackWriter writer = new PackWriter(database.getPackDirectory())) {
+            writer.add(packed, "blob", "packed".getBytes());
+            writer.finish();
+        }
+        database.resetPacks();
+
+        assertEquals(Set.of(loose, packed), database.batchExists(List.of(loose, packed, missing)));
+        assertTrue(Files.exists(tempDir.resolve("presence-filter")), "The filter is kept for later runs");
+    }
+
+    @Test
+    void testObjectsWrittenLaterAreFound() throws IOException {
+        LooseObjectDatabase database = new LooseObjectDatabase(tempDir, "batch");
+        ObjectId first = HashUtils.hashBytes("first".getBytes());
+        ObjectId second = HashUtils.hashBytes("second".getBytes());
+        database.write(first, "blob", "first".getBytes());
+        assertEquals(Set.of(first), database.batchExists(List.of(first, second)));
+
+        database.write(second, "blob", "second".getBytes());
+
+        assertEquals(Set.of(first, second), database.batchExists(List.of(first, second)));
+        LooseObjectDatabase reopened = new LooseObjectDatabase(tempDir, "batch");
+        assertEquals(Set.of(first, second), reopened.batchExists(List.of(first, second)));
+    }
+
+    @Test
+    void testStoredFilterIsRemovedWhilePlacingObjects() throws IOException {
+        LooseObjectDatabase database = new LooseObjectDatabase(tempDir, "none");
+        Path filterFile = tempDir.resolve("presence-filter");
+        database.batchExists(List.of());
+        assertTrue(Files.exists(filterFile));
+
+        try (WriteBatch batch = database.newBatch()) {
+            ObjectId id = batch.writeBlob("placed".getBytes());
+
+            assertFalse(Files.exists(filterFile), "A crash now must not leave a filter missing the object");
+            assertTrue(database.batchExists(List.of(id)).contains(id));
+        }
+        assertTrue(Files.exists(filterFile));
+    }
+
+    @Test
+    void testConcurrentWritersOnlyWidenTheStoredFilter() throws IOException {
+        LooseObjectDatabase first = new LooseObjectDatabase(tempDir, "batch");
+        LooseObjectDatabase second = new LooseObjectDatabase(tempDir, "batch");
+        ObjectId fromFirst = HashUtils.hashBytes("from first".getBytes());
+        ObjectId fromSecond = HashUtils.hashBytes("from second".getBytes());
+        first.batchExists(List.of());
+        second.batchExists(List.of());
+
+        second.write(fromSecond, "blob", "from second".getBytes());
+        first.write(fromFirst, "blob", "from first".getBytes());
+
+        LooseObjectDatabase reopened = new LooseObjectDatabase(tempDir, "batch");
+        assertEquals(Set.of(fromFirst, fromSecond), reopened.batchExists(List.of(fromFirst, fromSecond)),
+                "The second writer's object is not lost when the first stores its filter");
+    }
+
+    @Test
+    void testFilterBuiltWhilePlacingUnfilteredIsReplaced() throws IOException {
+        LooseObjectDatabase writer = new LooseObjectDatabase(tempDir, "none");
+        LooseObjectDatabase reader = new LooseObjectDatabase(tempDir, "none");
+        ObjectId later;
+
+        try (WriteBatch batch = writer.newBatch()) {
+            batch.writeBlob("placed first".getBytes());
+            reader.batchExists(List.of());
+            later = batch.writeBlob("placed after the reader built a filter".getBytes());
+        }
+
+        LooseObjectDatabase reopened = new LooseObjectDatabase(tempDir, "none");
+        assertEquals(Set.of(later), reopened.batchExists(List.of(later)));
+    }
+}
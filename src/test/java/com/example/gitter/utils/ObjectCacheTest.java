@@ -0,0 +1,78 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectCacheTest {
+
+    private static ObjectId id(String content) {
+        return HashUtils.hashBytes(content.getBytes());
+    }
+
+    private static ObjectContent blob(int size) {
+        return new ObjectContent("blob", size, new byte[size]);
+    }
+
+    @Test
+    void testCountsHitsAndMisses() {
+        ObjectCache cache = new ObjectCache(10_000);
+        ObjectId id = id("a");
+
+        assertNull(cache.getContent(id));
+        cache.putContent(id, blob(10));
+        assertNotNull(cache.getContent(id));
+        assertNotNull(cache.getContent(id));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testCommitIsCachedAlongsideContent() {
+        ObjectCache cache = new ObjectCache(10_000);
+        ObjectId id = id("commit");
+        Commit commit = new Commit(id, "message", "timestamp", null, Map.of());
+
+        cache.putContent(id, new ObjectContent("commit", 20, new byte[20]));
+        assertNull(cache.getCommit(id), "Only the content has been cached so far");
+        cache.putCommit(id, commit, 40);
+
+        assertSame(commit, cache.getCommit(id));
+        assertNotNull(cache.getContent(id));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWithinBudget() {
+        ObjectCache cache = new ObjectCache(1000);
+        ObjectId a = id("a");
+        ObjectId b = id("b");
+        ObjectId c = id("c");
+
+        cache.putContent(a, blob(300));
+        cache.putContent(b, blob(300));
+        cache.getContent(a);
+        cache.putContent(c, blob(300));
+
+        assertNotNull(cache.getContent(a));
+        assertNull(cache.getContent(b));
+        assertNotNull(cache.getContent(c));
+        assertTrue(cache.getSize() <= 1000);
+    }
+
+    @Test
+    void testObjectLargerThanBudgetIsNotCached() {
+        ObjectCache cache = new ObjectCache(1000);
+        ObjectId id = id("large");
+
+        cache.putContent(id, blob(2000));
+
+        assertNull(cache.getContent(id));
+        assertEquals(0, cache.getSize());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ObjectId id(int i) {
+        return HashUtils.hashBytes(("object " + i).getBytes());
+    }
+
+    @Test
+    void testAddedObjectsAreAlwaysFound() {
+        ObjectFilter filter = new ObjectFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(id(i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(id(i)));
+        }
+        assertEquals(10_000, filter.getCount());
+        assertFalse(filter.isOverfilled());
+    }
+
+    @Test
+    void testMostOtherObjectsAreRuledOut() {
+        ObjectFilter filter = new ObjectFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(id(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (filter.mightContain(id(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "Expected about 1% false positives, got " + falsePositives);
+    }
+
+    @Test
+    void testOverfilled() {
+        ObjectFilter filter = new ObjectFilter(2);
+        filter.add(id(1));
+        filter.add(id(2));
+        assertFalse(filter.isOverfilled());
+
+        filter.add(id(3));
+        assertTrue(filter.isOverfilled());
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        Path file = tempDir.resolve("presence-filter");
+        ObjectFilter filter = new ObjectFilter(100);
+        filter.add(id(1));
+        filter.write(file);
+
+        ObjectFilter read = ObjectFilter.read(file);
+
+        assertTrue(read.mightContain(id(1)));
+        assertFalse(read.mightContain(id(2)));
+        assertEquals(1, read.getCount());
+    }
+
+    @Test
+    void testUnusableFileIsIgnored() throws IOException {
+        Path file = tempDir.resolve("presence-filter");
+        assertNull(ObjectFilter.read(file));
+
+        Files.writeString(file, "GFLT but truncated");
+        assertNull(ObjectFilter.read(file));
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.models.Commit;
 import com.example.gitter.models.ObjectContent;
+import com.example.gitter.models.ObjectHeader;
+import com.example.gitter.models.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
 
+import static com.example.gitter.constants.PathConstants.CONFIG;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ObjectStoreTest {
@@ -32,10 +41,10 @@ class ObjectStoreTest {
         byte[] content = "Hello, World!".getBytes();
         
         // Write blob (returns computed hash)
-        String hash = ObjectStore.writeBlob(content);
+        ObjectId hash = ObjectStore.writeBlob(content);
         
         // Verify hash is correct
-        String expectedHash = HashUtils.hashBytes("Hello, World!".getBytes());
+        ObjectId expectedHash = HashUtils.hashBytes("Hello, World!".getBytes());
         assertEquals(expectedHash, hash);
         
         // Verify object exists
@@ -51,7 +60,7 @@ class ObjectStoreTest {
         String commitContent = "message: Test commit\nparent: abc123\nfiles:\n";
         
         // Write commit
-        String hash = ObjectStore.writeCommit(commitContent);
+        ObjectId hash = ObjectStore.writeCommit(commitContent);
         
         // Verify object exists
         assertTrue(ObjectStore.exists(hash));
@@ -70,7 +79,7 @@ class ObjectStoreTest {
         
         byte[] content = "Test content".getBytes();
         
-        String hash = ObjectStore.writeBlob(content);
+        ObjectId hash = ObjectStore.writeBlob(content);
         
         // Verify object exists (sharding is internal implementation detail)
         assertTrue(ObjectStore.exists(hash), "Object should exist after write");
@@ -82,7 +91,7 @@ class ObjectStoreTest {
     
     @Test
     void testReadNonExistentObject() {
-        String fakeHash = "0000000000000000000000000000000000000000";
+        ObjectId fakeHash = ObjectId.fromString("0000000000000000000000000000000000000000");
         
         assertThrows(IOException.class, () -> {
             ObjectStore.readBlob(fakeHash);
@@ -93,7 +102,7 @@ class ObjectStoreTest {
     void testReadWrongObjectType() throws IOException {
         // Write a blob
         byte[] content = "blob content".getBytes();
-        String hash = ObjectStore.writeBlob(content);
+        ObjectId hash = ObjectStore.writeBlob(content);
         
         // Try to read it as a commit (should fail)
         assertThrows(IOException.class, () -> {
@@ -105,10 +114,298 @@ class ObjectStoreTest {
     void testEmptyBlobStorage() throws IOException {
         byte[] emptyContent = new byte[0];
         
-        String hash = ObjectStore.writeBlob(emptyContent);
+        ObjectId hash = ObjectStore.writeBlob(emptyContent);
         
         assertTrue(ObjectStore.exists(hash));
         ObjectContent blobContent = ObjectStore.readBlob(hash);
         assertEquals(0, blobContent.getData().length);
     }
+    
+    @Test
+    void testObjectsAreCompressed() throws IOException {
+        // Unique content: an object that already exists (possibly packed) is not written again
+        byte[] content = ("repeated line " + System.nanoTime() + "\n").repeat(200).getBytes();
+        
+        ObjectId hash = ObjectStore.writeBlob(content);
+        
+        byte[] stored = Files.readAllBytes(ObjectStore.getObjectPath(hash));
+        assertEquals(0x78, stored[0] & 0xff, "Object file should be a zlib stream");
+        assertTrue(stored.length < content.length);
+        assertArrayEquals(content, ObjectStore.readBlob(hash).getData());
+    }
+    
+    @Test
+    void testReadLegacyUncompressedObject() throws IOException {
+        byte[] content = "written before compression".getBytes();
+        ObjectId hash = HashUtils.hashBytes(content);
+        Path objectPath = ObjectStore.getObjectPath(hash);
+        Files.createDirectories(objectPath.getParent());
+        Files.write(objectPath, ("blob " + content.length + "\0" + new String(content)).getBytes());
+        
+        assertArrayEquals(content, ObjectStore.readBlob(hash).getData());
+        assertEquals(content.length, ObjectStore.readHeader(hash).getSize());
+    }
+    
+    @Test
+    void testReadHeader() throws IOException {
+        ObjectId hash = ObjectStore.writeCommit("message: header only\n");
+        
+        ObjectHeader header = ObjectStore.readHeader(hash);
+        
+        assertEquals("commit", header.getType());
+        assertEquals("message: header only\n".length(), header.getSize());
+    }
+    
+    @Test
+    void testTruncatedObjectIsRejected() throws IOException {
+        ObjectId hash = ObjectStore.writeBlob("some content to truncate".getBytes());
+        Path objectPath = ObjectStore.getObjectPath(hash);
+        byte[] stored = Files.readAllBytes(objectPath);
+        Files.write(objectPath, Arrays.copyOf(stored, stored.length / 2));
+        
+        assertThrows(IOException.class, () -> ObjectStore.readBlob(hash));
+        Files.delete(objectPath);
+    }
+    
+    @Test
+    void testRepackMovesLooseObjectsIntoPack() throws IOException {
+        ObjectId blob = ObjectStore.writeBlob("packed blob".getBytes());
+        ObjectId commit = ObjectStore.writeCommit("message: packed commit\n");
+        
+        PackFile pack = ObjectStore.repack();
+        
+        assertNotNull(pack);
+        assertTrue(pack.contains(blob));
+        assertFalse(Files.exists(ObjectStore.getObjectPath(blob)), "Loose copy should be deleted");
+        assertTrue(ObjectStore.exists(blob));
+        assertArrayEquals("packed blob".getBytes(), ObjectStore.readBlob(blob).getData());
+        assertEquals("message: packed commit\n", ObjectStore.readCommit(commit).getDataAsString());
+        assertEquals("blob", ObjectStore.readHeader(blob).getType());
+        assertTrue(ObjectStore.listLooseObjects().isEmpty());
+        
+        assertNull(ObjectStore.repack(), "Nothing left to repack");
+    }
+    
+    @Test
+    void testRepackCombinesExistingPacks() throws IOException {
+        ObjectId first = ObjectStore.writeBlob(("in first pack " + System.nanoTime()).getBytes());
+        ObjectStore.repack();
+        ObjectId second = ObjectStore.writeBlob(("in second pack " + System.nanoTime()).getBytes());
+        
+        PackFile pack = ObjectStore.repack();
+        
+        assertTrue(pack.contains(first));
+        assertTrue(pack.contains(second));
+        assertEquals(1, ObjectStore.getPacks().size());
+    }
+    
+    @Test
+    void testCompactStoresVersionsAsDeltas() throws IOException {
+        String text = "a line of some long document under version control\n".repeat(300);
+        ObjectId v1 = ObjectStore.writeBlob(text.getBytes());
+        ObjectId v2 = ObjectStore.writeBlob((text + "one more line\n").getBytes());
+        ObjectId v3 = ObjectStore.writeBlob(("changed first line\n" + text + "one more line\n").getBytes());
+        ObjectId commit = ObjectStore.writeCommit("message: compacted\n");
+        
+        PackFile pack = ObjectStore.compact(10, 50);
+        
+        assertTrue(Files.size(pack.getPackPath()) < text.length(), "Versions should be stored as deltas");
+        assertArrayEquals(text.getBytes(), ObjectStore.readBlob(v1).getData());
+        assertArrayEquals((text + "one more line\n").getBytes(), ObjectStore.readBlob(v2).getData());
+        assertEquals(text.length() + "one more line\n".length(), ObjectStore.readHeader(v2).getSize());
+        assertEquals("blob", ObjectStore.readHeader(v1).getType());
+        assertEquals("message: compacted\n", ObjectStore.readCommit(commit).getDataAsString());
+        assertTrue(ObjectStore.exists(v3));
+        
+        // Deltas survive a later repack
+        ObjectStore.writeBlob("loose again".getBytes());
+        ObjectStore.repack();
+        assertArrayEquals(text.getBytes(), ObjectStore.readBlob(v1).getData());
+    }
+    
+    @Test
+    void testLargeObjectIsReadThroughMappedWindows() throws IOException {
+        byte[] content = new byte[3 * 1024 * 1024];
+        new Random(1).nextBytes(content);
+        
+        ObjectId hash = ObjectStore.writeBlob(content);
+        
+        assertTrue(Files.size(ObjectStore.getObjectPath(hash)) >= 1024 * 1024);
+        assertArrayEquals(content, ObjectStore.readBlob(hash).getData());
+        Files.delete(ObjectStore.getObjectPath(hash));
+    }
+    
+    @Test
+    void testCopyBlobStreamsContentToFile() throws IOException {
+        byte[] content = "content restored by streaming\n".repeat(100).getBytes();
+        ObjectId hash = ObjectStore.writeBlob(content);
+        Path target = tempDir.resolve("restored.txt");
+        Files.writeString(target, "previous content that is longer than the blob ".repeat(100));
+        
+        long copied = ObjectStore.copyBlob(hash, target);
+        
+        assertEquals(content.length, copied);
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+    
+    @Test
+    void testCopyBlobWritesCachedContent() throws IOException {
+        byte[] content = "cached before checkout\n".repeat(50).getBytes();
+        ObjectId hash = ObjectStore.writeBlob(content);
+        ObjectStore.readBlob(hash);
+        Path target = tempDir.resolve("from-cache.txt");
+        Files.writeString(target, "stale ".repeat(500));
+
+        assertEquals(content.length, ObjectStore.copyBlob(hash, target));
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void testCopyBlobIsNotCountedByTheObjectCache() throws IOException {
+        ObjectId hash = ObjectStore.writeBlob(("streamed past the cache " + System.nanoTime()).getBytes());
+        ObjectCache cache = ObjectStore.getObjectCache();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+
+        ObjectStore.copyBlob(hash, tempDir.resolve("uncached.txt"));
+
+        assertEquals(hits, cache.getHits());
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    void testWriteBlobFromFile() throws IOException {
+        Path source = tempDir.resolve("streamed.txt");
+        byte[] content = ("streamed into the store " + System.nanoTime() + "\n").repeat(5000).getBytes();
+        Files.write(source, content);
+
+        ObjectId hash = ObjectStore.writeBlob(source);
+
+        assertEquals(HashUtils.hashFile(source), hash);
+        assertEquals(ObjectStore.writeBlob(content), hash);
+        assertArrayEquals(content, ObjectStore.readBlob(hash).getData());
+        assertEquals(content.length, ObjectStore.readHeader(hash).getSize());
+    }
+
+    @Test
+    void testWriteExistingObjectLeavesItUntouched() throws IOException {
+        Path source = tempDir.resolve("existing.txt");
+        Files.writeString(source, "written twice " + System.nanoTime());
+        ObjectId hash = ObjectStore.writeBlob(source);
+        Path objectPath = ObjectStore.getObjectPath(hash);
+        FileTime written = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(objectPath, written);
+
+        ObjectStore.writeBlob(source);
+        ObjectStore.writeBlob(Files.readAllBytes(source));
+
+        assertEquals(written, Files.getLastModifiedTime(objectPath));
+        try (Stream<Path> files = Files.list(objectPath.getParent().getParent())) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().startsWith("tmp-obj-")));
+        }
+    }
+
+    @Test
+    void testLargeFileIsStoredInChunks() throws IOException {
+        byte[] content = new byte[3 * 1024 * 1024];
+        new Random(16).nextBytes(content);
+        Path source = tempDir.resolve("dataset.bin");
+        Files.write(source, content);
+        
+        Files.writeString(CONFIG, "core.chunkThreshold = 1048576\n");
+        resetConfig();
+        try {
+            ObjectId hash = ObjectStore.writeBlob(source);
+            
+            assertEquals(HashUtils.hashFile(source), hash);
+            assertEquals(content.length, ObjectStore.readHeader(hash).getSize());
+            assertEquals("blob", ObjectStore.readHeader(hash).getType());
+            assertArrayEquals(content, ObjectStore.readBlob(hash).getData());
+            
+            Path restored = tempDir.resolve("restored.bin");
+            assertEquals(content.length, ObjectStore.copyBlob(hash, restored));
+            assertArrayEquals(content, Files.readAllBytes(restored));
+            
+            // Each chunk is a blob of its own
+            byte[] firstChunk = new Chunker(new ByteArrayInputStream(content)).next();
+            assertTrue(firstChunk.length < content.length);
+            assertTrue(ObjectStore.exists(HashUtils.hashBytes(firstChunk)));
+            
+            // An edit in the middle leaves the other chunks shared
+            byte[] edited = content.clone();
+            edited[edited.length / 2] ^= 1;
+            assertArrayEquals(edited, ObjectStore.readBlob(ObjectStore.writeBlob(edited)).getData());
+        } finally {
+            Files.deleteIfExists(CONFIG);
+            resetConfig();
+            // Other tests pack the whole store; keep these megabytes out of it
+            content[content.length / 2] ^= 1;
+            deleteChunkedBlob(content);
+            content[content.length / 2] ^= 1;
+            deleteChunkedBlob(content);
+        }
+    }
+    
+    @Test
+    void testUseDatabaseRoutesReadsAndWrites() throws IOException {
+        InMemoryObjectDatabase database = new InMemoryObjectDatabase();
+        ObjectStore.useDatabase(database);
+        try {
+            byte[] content = ("memory only " + System.nanoTime()).getBytes();
+            ObjectId hash = ObjectStore.writeBlob(content);
+            
+            assertEquals(1, database.size());
+            assertArrayEquals(content, ObjectStore.readBlob(hash).getData());
+            assertEquals(content.length, ObjectStore.readHeader(hash).getSize());
+            assertThrows(IOException.class, ObjectStore::repack);
+        } finally {
+            ObjectStore.useDatabase(null);
+        }
+    }
+    
+    private static void deleteChunkedBlob(byte[] content) throws IOException {
+        Chunker chunker = new Chunker(new ByteArrayInputStream(content));
+        byte[] chunk;
+        while ((chunk = chunker.next()) != null) {
+            Files.deleteIfExists(ObjectStore.getObjectPath(HashUtils.hashBytes(chunk)));
+        }
+        Files.deleteIfExists(ObjectStore.getObjectPath(HashUtils.hashBytes(content)));
+    }
+    
+    private static void resetConfig() {
+        try {
+            var instanceField = RepositoryConfig.class.getDeclaredField("instance");
+            instanceField.setAccessible(true);
+            instanceField.set(null, null);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to reset RepositoryConfig singleton", e);
+        }
+    }
+    
+    @Test
+    void testRepeatedReadsHitTheObjectCache() throws IOException {
+        ObjectId hash = ObjectStore.writeCommit("message: cached\ntimestamp: now\nparent: \nfiles:\n");
+        ObjectCache cache = ObjectStore.getObjectCache();
+        
+        Commit first = ObjectStore.readParsedCommit(hash);
+        long hits = cache.getHits();
+        Commit second = ObjectStore.readParsedCommit(hash);
+        
+        assertSame(first, second);
+        assertEquals(hits + 1, cache.getHits());
+        assertEquals("cached", second.getMessage());
+        assertEquals("message: cached\ntimestamp: now\nparent: \nfiles:\n", ObjectStore.readCommit(hash).getDataAsString());
+    }
+    
+    @Test
+    void testColdParsedReadCountsOneMiss() throws IOException {
+        ObjectId hash = ObjectStore.writeCommit("message: cold " + System.nanoTime() + "\ntimestamp: now\nparent: \nfiles:\n");
+        ObjectCache cache = ObjectStore.getObjectCache();
+        long misses = cache.getMisses();
+        
+        ObjectStore.readParsedCommit(hash);
+        
+        assertEquals(misses + 1, cache.getMisses());
+    }
 }
@@ -0,0 +1,68 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLookupAcrossFanoutBuckets() throws IOException {
+        List<ObjectId> ids = new ArrayList<>();
+        PackFile pack;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            for (int i = 0; i < 500; i++) {
+                byte[] content = ("object " + i).getBytes();
+                ObjectId id = HashUtils.hashBytes(content);
+                ids.add(id);
+                writer.add(id, "blob", content);
+            }
+            pack = writer.finish();
+        }
+
+        PackIndex index = PackIndex.load(pack.getIndexPath());
+
+        assertEquals(500, index.getObjectCount());
+        for (ObjectId id : ids) {
+            assertTrue(index.contains(id), id.name());
+            assertTrue(index.findOffset(id) >= 8);
+        }
+        assertFalse(index.contains(HashUtils.hashBytes("not packed".getBytes())));
+        assertEquals(-1, index.findOffset(ObjectId.fromString("ffffffffffffffffffffffffffffffffffffffff")));
+    }
+
+    @Test
+    void testObjectIdsAreSorted() throws IOException {
+        PackFile pack;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            for (String content : List.of("c", "a", "b")) {
+                writer.add(HashUtils.hashBytes(content.getBytes()), "blob", content.getBytes());
+            }
+            pack = writer.finish();
+        }
+
+        PackIndex index = pack.getIndex();
+        for (int i = 1; i < index.getObjectCount(); i++) {
+            assertTrue(index.getObjectId(i - 1).compareTo(index.getObjectId(i)) < 0);
+        }
+    }
+
+    @Test
+    void testCorruptIndexIsRejected() throws IOException {
+        Path indexPath = tempDir.resolve("pack-broken.idx");
+        Files.write(indexPath, "not an index".getBytes());
+
+        assertThrows(IOException.class, () -> PackIndex.load(indexPath));
+    }
+}
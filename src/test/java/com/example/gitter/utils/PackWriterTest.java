@@ -0,0 +1,85 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWrittenObjectsCanBeReadBack() throws IOException {
+        byte[] first = "first object".getBytes();
+        byte[] second = "second object".getBytes();
+        ObjectId firstId = HashUtils.hashBytes(first);
+        ObjectId secondId = HashUtils.hashBytes(second);
+
+        PackFile pack;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.add(firstId, "blob", first);
+            writer.add(secondId, "commit", second);
+            pack = writer.finish();
+        }
+
+        assertEquals(2, pack.getIndex().getObjectCount());
+        assertEquals("blob 12\0first object", readEntry(pack, firstId));
+        assertEquals("commit 13\0second object", readEntry(pack, secondId));
+        assertNull(pack.openObject(HashUtils.hashBytes("missing".getBytes())));
+    }
+
+    @Test
+    void testPackIsNamedAfterChecksumWithIndexNextToIt() throws IOException {
+        PackFile pack;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.add(HashUtils.hashBytes("x".getBytes()), "blob", "x".getBytes());
+            pack = writer.finish();
+        }
+
+        String packName = pack.getPackPath().getFileName().toString();
+        assertTrue(packName.matches("pack-[0-9a-f]{40}\\.pack"), packName);
+        assertTrue(Files.exists(pack.getIndexPath()));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.count(), "Temporary files should be gone");
+        }
+    }
+
+    @Test
+    void testDuplicatesAreSkipped() throws IOException {
+        ObjectId id = HashUtils.hashBytes("same".getBytes());
+
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.add(id, "blob", "same".getBytes());
+            writer.add(id, "blob", "same".getBytes());
+
+            assertTrue(writer.contains(id));
+            assertEquals(1, writer.getObjectCount());
+        }
+    }
+
+    @Test
+    void testUnfinishedPackIsDiscarded() throws IOException {
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.add(HashUtils.hashBytes("y".getBytes()), "blob", "y".getBytes());
+        }
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static String readEntry(PackFile pack, ObjectId id) throws IOException {
+        try (InputStream in = pack.openObject(id)) {
+            return new String(in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathspecTest {
+
+    @Test
+    void testEmptyPathspecMatchesEverything() {
+        Pathspec pathspec = Pathspec.of(List.of());
+
+        assertTrue(pathspec.matchesAll());
+        assertTrue(pathspec.matches("any/file.txt"));
+        assertTrue(pathspec.requiresFullWalk());
+    }
+
+    @Test
+    void testCurrentDirectoryMatchesEverything() {
+        assertTrue(Pathspec.of(List.of(".")).matchesAll());
+    }
+
+    @Test
+    void testDirectoryPattern() {
+        Pathspec pathspec = Pathspec.of(List.of("src/"));
+
+        assertFalse(pathspec.matchesAll());
+        assertFalse(pathspec.requiresFullWalk());
+        assertTrue(pathspec.matches("src/main/App.java"));
+        assertFalse(pathspec.matches("srcfile.txt"));
+        assertEquals(Set.of("src"), pathspec.getWalkRoots());
+    }
+
+    @Test
+    void testExactFilePattern() {
+        Pathspec pathspec = Pathspec.of(List.of("src/App.java"));
+
+        assertTrue(pathspec.matches("src/App.java"));
+        assertFalse(pathspec.matches("src/App.java.bak"));
+        assertEquals(Set.of("src/App.java"), pathspec.getWalkRoots());
+    }
+
+    @Test
+    void testGlobWithDirectoryWalksLiteralPrefix() {
+        Pathspec pathspec = Pathspec.of(List.of("src/main/*.java"));
+
+        assertTrue(pathspec.matches("src/main/App.java"));
+        assertFalse(pathspec.matches("src/test/AppTest.java"));
+        assertEquals(Set.of("src/main"), pathspec.getWalkRoots());
+    }
+
+    @Test
+    void testFileNameGlobMatchesEverywhere() {
+        Pathspec pathspec = Pathspec.of(List.of("*.txt"));
+
+        assertFalse(pathspec.matchesAll());
+        assertTrue(pathspec.requiresFullWalk());
+        assertTrue(pathspec.matches("docs/guide.txt"));
+        assertFalse(pathspec.matches("docs/guide.md"));
+    }
+
+    @Test
+    void testNestedRootsAreDropped() {
+        Pathspec pathspec = Pathspec.of(List.of("src/main/App.java", "src/", "docs/guide.txt"));
+
+        assertEquals(Set.of("docs/guide.txt", "src"), pathspec.getWalkRoots());
+        assertEquals(Set.of(""), Pathspec.of(List.of("src/", "*.md")).getWalkRoots());
+    }
+
+    @Test
+    void testFilterRestrictsMap() {
+        Map<String, String> files = Map.of("src/a.txt", "h1", "docs/b.txt", "h2");
+
+        assertEquals(Map.of("src/a.txt", "h1"), Pathspec.of(List.of("src")).filter(files));
+        assertEquals(files, Pathspec.all().filter(files));
+    }
+}
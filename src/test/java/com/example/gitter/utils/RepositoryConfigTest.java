@@ -0,0 +1,173 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.zip.Deflater;
+
+import static com.example.gitter.constants.PathConstants.CONFIG;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryConfigTest {
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(CONFIG.getParent());
+        resetInstance();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(CONFIG);
+        resetInstance();
+    }
+
+    private void resetInstance() {
+        try {
+            var instanceField = RepositoryConfig.class.getDeclaredField("instance");
+            instanceField.setAccessible(true);
+            instanceField.set(null, null);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to reset RepositoryConfig singleton", e);
+        }
+    }
+
+    @Test
+    void testDefaultsWithoutConfigFile() throws IOException {
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertEquals("fallback", config.getString("missing.key", "fallback"));
+        assertEquals(7, config.getInt("missing.key", 7));
+        assertEquals(Runtime.getRuntime().availableProcessors(), config.getWorkerCount());
+    }
+
+    @Test
+    void testParsesSettingsAndSkipsComments() throws IOException {
+        Files.writeString(CONFIG, "# comment\n\ncore.workers = 3\nsome.name=value with spaces \nnot a setting\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertEquals(3, config.getWorkerCount());
+        assertEquals("value with spaces", config.getString("some.name", null));
+        assertNull(config.getString("not a setting", null));
+    }
+
+    @Test
+    void testInvalidIntegerValue() throws IOException {
+        Files.writeString(CONFIG, "core.workers = many\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertThrows(IllegalArgumentException.class, config::getWorkerCount);
+    }
+
+    @Test
+    void testWorkerCountMustBePositive() throws IOException {
+        Files.writeString(CONFIG, "core.workers = 0\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertThrows(IllegalArgumentException.class, config::getWorkerCount);
+    }
+
+    @Test
+    void testCompressionLevel() throws IOException {
+        assertEquals(Deflater.DEFAULT_COMPRESSION, RepositoryConfig.getInstance().getCompressionLevel());
+
+        Files.writeString(CONFIG, "core.compression = 9\n");
+        resetInstance();
+
+        assertEquals(Deflater.BEST_COMPRESSION, RepositoryConfig.getInstance().getCompressionLevel());
+    }
+
+    @Test
+    void testCompressionLevelOutOfRange() throws IOException {
+        Files.writeString(CONFIG, "core.compression = 10\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertThrows(IllegalArgumentException.class, config::getCompressionLevel);
+    }
+
+    @Test
+    void testPackSettings() throws IOException {
+        Files.writeString(CONFIG, "pack.window = 4\npack.depth = 0\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertEquals(4, config.getPackWindow());
+        assertEquals(0, config.getPackDepth());
+        assertEquals(16 * 1024 * 1024, config.getDeltaBaseCacheLimit());
+        assertEquals(32 * 1024 * 1024, config.getObjectCacheLimit());
+    }
+
+    @Test
+    void testNegativePackDepthIsRejected() throws IOException {
+        Files.writeString(CONFIG, "pack.depth = -1\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertThrows(IllegalArgumentException.class, config::getPackDepth);
+    }
+
+    @Test
+    void testMmapSettings() throws IOException {
+        Files.writeString(CONFIG, "core.mmapWindowSize = 1048576\ncore.mmapLimit = 8589934592\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertEquals(1048576, config.getMmapWindowSize());
+        assertEquals(8589934592L, config.getMmapLimit());
+    }
+
+    @Test
+    void testMmapWindowSizeMustBePositive() throws IOException {
+        Files.writeString(CONFIG, "core.mmapWindowSize = 0\n");
+
+        RepositoryConfig config = RepositoryConfig.getInstance();
+
+        assertThrows(IllegalArgumentException.class, config::getMmapWindowSize);
+    }
+
+    @Test
+    void testChunkThreshold() throws IOException {
+        assertEquals(16L * 1024 * 1024, RepositoryConfig.getInstance().getChunkThreshold());
+
+        Files.writeString(CONFIG, "core.chunkThreshold = 4294967296\n");
+        resetInstance();
+        assertEquals(4294967296L, RepositoryConfig.getInstance().getChunkThreshold());
+
+        Files.writeString(CONFIG, "core.chunkThreshold = -5\n");
+        resetInstance();
+        assertThrows(IllegalArgumentException.class, RepositoryConfig.getInstance()::getChunkThreshold);
+    }
+
+    @Test
+    void testFsyncMode() throws IOException {
+        assertEquals("batch", RepositoryConfig.getInstance().getFsyncMode());
+
+        Files.writeString(CONFIG, "core.fsync = per-object\n");
+        resetInstance();
+        assertEquals("per-object", RepositoryConfig.getInstance().getFsyncMode());
+
+        Files.writeString(CONFIG, "core.fsync = always\n");
+        resetInstance();
+        assertThrows(IllegalArgumentException.class, RepositoryConfig.getInstance()::getFsyncMode);
+    }
+
+    @Test
+    void testObjectDatabase() throws IOException {
+        assertEquals("loose", RepositoryConfig.getInstance().getObjectDatabase());
+
+        Files.writeString(CONFIG, "core.objectDatabase = log\n");
+        resetInstance();
+        assertEquals("log", RepositoryConfig.getInstance().getObjectDatabase());
+
+        Files.writeString(CONFIG, "core.objectDatabase = sqlite\n");
+        resetInstance();
+        assertThrows(IllegalArgumentException.class, RepositoryConfig.getInstance()::getObjectDatabase);
+    }
+}
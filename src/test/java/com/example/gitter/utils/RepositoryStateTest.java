@@ -1,10 +1,14 @@
 package com.example.gitter.utils;
 
+import com.example.gitter.models.Commit;
 import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.ObjectId;
 import com.example.gitter.models.WorkingDirectoryStatus;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,9 +24,7 @@ class RepositoryStateTest {
     private boolean hasValidRepo() {
         try {
             String branch = RepositoryState.getCurrentBranch();
-            String hash = RepositoryState.getCurrentCommitHash();
-            // Valid if we have a 40-char hex hash
-            return hash != null && hash.length() == 40 && hash.matches("[0-9a-fA-F]+");
+            return RepositoryState.getCurrentCommitHash() != null;
         } catch (Exception e) {
             return false;
         }
@@ -30,22 +32,21 @@ class RepositoryStateTest {
     
     @Test
     void testGetWorkingFilesReturnsNonNullMap() throws IOException {
-        Map<String, String> workingFiles = RepositoryState.getWorkingFiles();
+        Map<String, ObjectId> workingFiles = RepositoryState.getWorkingFiles();
         
         assertNotNull(workingFiles);
         // Should contain files from the working directory
         // Verify each file has a hash
-        for (Map.Entry<String, String> entry : workingFiles.entrySet()) {
+        for (Map.Entry<String, ObjectId> entry : workingFiles.entrySet()) {
             assertNotNull(entry.getKey(), "File path should not be null");
             assertNotNull(entry.getValue(), "File hash should not be null");
-            assertFalse(entry.getValue().isEmpty(), "File hash should not be empty");
             assertFalse(entry.getKey().isEmpty(), "File path should not be empty");
         }
     }
     
     @Test
     void testGetWorkingFilesExcludesGitterDirectory() throws IOException {
-        Map<String, String> workingFiles = RepositoryState.getWorkingFiles();
+        Map<String, ObjectId> workingFiles = RepositoryState.getWorkingFiles();
         
         // Should not include any files from .gitter directory
         for (String path : workingFiles.keySet()) {
@@ -54,6 +55,28 @@ class RepositoryStateTest {
         }
     }
     
+    @Test
+    void testGetWorkingFilesWithPathspecOnlyContainsMatches() throws IOException {
+        Map<String, ObjectId> workingFiles = RepositoryState.getWorkingFiles(Pathspec.of(List.of("src/main/**")));
+        
+        assertFalse(workingFiles.isEmpty());
+        for (String path : workingFiles.keySet()) {
+            assertTrue(path.startsWith("src/main/"), "Working files should be limited to the pathspec: " + path);
+        }
+        assertEquals(
+            RepositoryState.getWorkingFiles().keySet().stream().filter(path -> path.startsWith("src/main/")).count(),
+            workingFiles.size());
+    }
+    
+    @Test
+    void testGetWorkingDirectoryStatusWithPathspecOnlyContainsMatches() throws IOException {
+        WorkingDirectoryStatus status = RepositoryState.getWorkingDirectoryStatus(Pathspec.of(List.of("pom.xm?")));
+        
+        assertEquals(Map.of("pom.xml", HashUtils.hashFile(Path.of("pom.xml"))), status.getAllWorkingFiles());
+        assertTrue(status.getStagedNew().stream().allMatch("pom.xml"::equals));
+        assertTrue(status.getUnstagedDeleted().isEmpty());
+    }
+    
     @Test
     void testGetCurrentBranchReturnsValidBranch() throws IOException {
         String branch = RepositoryState.getCurrentBranch();
@@ -72,13 +95,10 @@ class RepositoryStateTest {
         }
         
         String branch = RepositoryState.getCurrentBranch();
-        String commitHash = RepositoryState.getCommitHashFromBranch(branch);
+        ObjectId commitHash = RepositoryState.getCommitHashFromBranch(branch);
         
         assertNotNull(commitHash);
-        assertFalse(commitHash.isEmpty());
-        // SHA-1 hash should be 40 hex characters (case insensitive)
-        assertEquals(40, commitHash.length());
-        assertTrue(commitHash.matches("[0-9a-fA-F]+"));
+        assertEquals(40, commitHash.name().length());
     }
     
     @Test
@@ -87,17 +107,20 @@ class RepositoryStateTest {
             return; // Skip if no valid repo
         }
         
-        String commitHash = RepositoryState.getCurrentCommitHash();
+        ObjectId commitHash = RepositoryState.getCurrentCommitHash();
         
         assertNotNull(commitHash);
-        assertFalse(commitHash.isEmpty());
-        assertEquals(40, commitHash.length());
-        assertTrue(commitHash.matches("[0-9a-fA-F]+"));
+        assertEquals(40, commitHash.name().length());
     }
     
     @Test
-    void testGetCommittedFilesReturnsMap() throws IOException {
-        Map<String, FileEntry> committedFiles = RepositoryState.getCommittedFiles();
+    void testCommittedFilesHavePathsAndHashes() throws IOException {
+        if (!hasValidRepo()) {
+            return; // Skip if no valid repo
+        }
+        
+        Commit commit = ObjectStore.readParsedCommit(RepositoryState.getCurrentCommitHash());
+        Map<String, FileEntry> committedFiles = TreeUtils.readFiles(commit);
         
         assertNotNull(committedFiles);
         // Verify structure
@@ -109,29 +132,14 @@ class RepositoryStateTest {
         }
     }
     
-    @Test
-    void testGetFilesFromCommitReturnsMap() throws IOException {
-        String currentCommit = RepositoryState.getCurrentCommitHash();
-        Map<String, FileEntry> files = RepositoryState.getFilesFromCommit(currentCommit);
-        
-        assertNotNull(files);
-        for (Map.Entry<String, FileEntry> entry : files.entrySet()) {
-            assertNotNull(entry.getKey());
-            assertNotNull(entry.getValue());
-            assertEquals(entry.getKey(), entry.getValue().getPath());
-        }
-    }
-    
     @Test
     void testGetParentCommitHashReturnsValidHashOrNull() throws IOException {
-        String currentCommit = RepositoryState.getCurrentCommitHash();
-        String parentHash = RepositoryState.getParentCommitHash(currentCommit);
+        ObjectId currentCommit = RepositoryState.getCurrentCommitHash();
+        ObjectId parentHash = RepositoryState.getParentCommitHash(currentCommit);
         
         // Parent can be null for initial commit, or a valid hash
         if (parentHash != null) {
-            assertFalse(parentHash.isEmpty());
-            assertEquals(40, parentHash.length());
-            assertTrue(parentHash.matches("[0-9a-fA-F]+"));
+            assertEquals(40, parentHash.name().length());
         }
     }
     
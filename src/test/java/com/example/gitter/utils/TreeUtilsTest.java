@@ -0,0 +1,191 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.Commit;
+import com.example.gitter.models.FileEntry;
+import com.example.gitter.models.FileStat;
+import com.example.gitter.models.ObjectId;
+import com.example.gitter.models.Tree;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeUtilsTest {
+
+    private InMemoryObjectDatabase database;
+
+    @BeforeEach
+    void setUp() {
+        database = new InMemoryObjectDatabase();
+        ObjectStore.useDatabase(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ObjectStore.useDatabase(null);
+    }
+
+    private static Map<String, FileEntry> files(String... pathsAndContents) {
+        Map<String, FileEntry> files = new HashMap<>();
+        for (int i = 0; i < pathsAndContents.length; i += 2) {
+            String path = pathsAndContents[i];
+            files.put(path, new FileEntry(path, HashUtils.hashBytes(pathsAndContents[i + 1].getBytes())));
+        }
+        return files;
+    }
+
+    private static Commit commit(Map<String, FileEntry> files) throws IOException {
+        return new Commit("message", null, TreeUtils.writeTrees(files));
+    }
+
+    @Test
+    void testOneTreePerDirectory() throws IOException {
+        ObjectId root = TreeUtils.writeTrees(files("README", "r", "src/Main.java", "m", "src/util/A.java", "a"));
+
+        assertEquals(3, database.size());
+        Tree tree = ObjectStore.readParsedTree(root);
+        assertEquals(2, tree.getEntries().size());
+        assertEquals("README", tree.getEntries().get(0).getName());
+        assertEquals("src", tree.getEntries().get(1).getName());
+        assertTrue(tree.getEntries().get(1).isTree());
+    }
+
+    @Test
+    void testUnchangedDirectoriesAreShared() throws IOException {
+        Map<String, FileEntry> files = files("README", "r", "docs/guide.md", "g", "src/util/A.java", "a");
+        TreeUtils.writeTrees(files);
+        int treesBefore = database.size();
+
+        files.putAll(files("src/util/A.java", "changed"));
+        TreeUtils.writeTrees(files);
+
+        assertEquals(treesBefore + 3, database.size(), "Only src/util, src and the root are new");
+    }
+
+    @Test
+    void testReadFilesRoundTrip() throws IOException {
+        Map<String, FileEntry> files = files("README", "r", "src/Main.java", "m", "src/util/A.java", "a");
+
+        Map<String, FileEntry> read = TreeUtils.readFiles(commit(files));
+
+        assertEquals(files.keySet(), read.keySet());
+        for (FileEntry entry : files.values()) {
+            assertEquals(entry.getHash(), read.get(entry.getPath()).getHash());
+        }
+    }
+
+    @Test
+    void testEmptyCommitHasNoFiles() throws IOException {
+        assertTrue(TreeUtils.readFiles(commit(Map.of())).isEmpty());
+    }
+
+    @Test
+    void testEmptyTreeIsNotTheEmptyBlob() throws IOException {
+        ObjectId emptyBlob = ObjectStore.writeBlob(new byte[0]);
+
+        Commit commit = commit(Map.of());
+
+        assertNotEquals(emptyBlob, commit.getTree());
+        assertTrue(TreeUtils.readFiles(commit).isEmpty());
+        assertTrue(ObjectStore.readParsedTree(commit.getTree()).getEntries().isEmpty());
+    }
+
+    @Test
+    void testDirectoriesMatchingKnownFilesAreTakenFromThem() throws IOException {
+        Commit commit = commit(files("src/Main.java", "m", "docs/guide.md", "g"));
+        FileStat stat = new FileStat(1, 2, 3, 4, 5);
+        Map<String, FileEntry> known = new HashMap<>();
+        for (FileEntry entry : files("src/Main.java", "m", "docs/guide.md", "changed").values()) {
+            known.put(entry.getPath(), entry.withStat(stat));
+        }
+
+        Map<String, FileEntry> read = TreeUtils.readFiles(commit, known);
+
+        assertEquals(stat, read.get("src/Main.java").getStat(), "Unchanged src is not read from its tree");
+        assertNull(read.get("docs/guide.md").getStat());
+        assertEquals(HashUtils.hashBytes("g".getBytes()), read.get("docs/guide.md").getHash());
+    }
+
+    @Test
+    void testReadFilesRecordsTheCommitsTrees() throws IOException {
+        Map<String, FileEntry> files = files("README", "r", "src/Main.java", "m", "src/util/A.java", "a");
+        Commit commit = commit(files);
+        Map<String, FileEntry> known = new HashMap<>(files);
+        known.putAll(files("src/Main.java", "changed"));
+        TreeCache trees = new TreeCache();
+
+        TreeUtils.readFiles(commit, known, trees);
+
+        assertEquals(commit.getTree(), trees.get(""));
+        assertEquals(TreeUtils.hashTrees(files).get("src"), trees.get("src"));
+        assertEquals(TreeUtils.hashTrees(files).get("src/util"), trees.get("src/util"),
+                "Taken from known, whose src/util matches");
+    }
+
+    @Test
+    void testCachedDirectoriesAreNotHashedAgain() throws IOException {
+        Map<String, FileEntry> files = files("README", "r", "docs/guide.md", "g", "src/util/A.java", "a");
+        TreeCache trees = new TreeCache();
+        TreeUtils.readFiles(commit(files), files, trees);
+        // A stored tree other than the real one shows whether docs is rebuilt
+        ObjectId otherTree = trees.get("src");
+        Map<String, ObjectId> cached = new HashMap<>(trees.getIds());
+        cached.put("docs", otherTree);
+        trees.replace(cached);
+
+        files.putAll(files("src/util/A.java", "changed"));
+        trees.invalidate("src/util/A.java");
+        ObjectId root = TreeUtils.writeTrees(files, trees);
+
+        Tree tree = ObjectStore.readParsedTree(root);
+        assertEquals(otherTree, tree.getEntries().get(1).getHash(), "docs is taken from the cache");
+        assertNotEquals(otherTree, tree.getEntries().get(2).getHash(), "src is rebuilt");
+        assertEquals(HashUtils.hashBytes("changed".getBytes()),
+                TreeUtils.readFiles(new Commit("message", null, root)).get("src/util/A.java").getHash());
+    }
+
+    @Test
+    void testMissingCachedTreeIsRebuilt() throws IOException {
+        Map<String, FileEntry> files = files("README", "r", "docs/guide.md", "g");
+        ObjectId expected = TreeUtils.writeTrees(files);
+        TreeCache trees = new TreeCache();
+        trees.replace(Map.of("docs", HashUtils.hashBytes("not a stored tree".getBytes())));
+
+        assertEquals(expected, TreeUtils.writeTrees(files, trees));
+    }
+
+    @Test
+    void testDiffListsOnlyChangedFiles() throws IOException {
+        Commit source = commit(files("same/a", "a", "changed/b", "b", "gone/c", "c", "moved", "file"));
+        Commit target = commit(files("same/a", "a", "changed/b", "b2", "added/d", "d", "moved/e", "e"));
+
+        Map<String, FileEntry> changes = TreeUtils.diff(source, target);
+
+        assertEquals(5, changes.size());
+        assertEquals(HashUtils.hashBytes("b2".getBytes()), changes.get("changed/b").getHash());
+        assertNull(changes.get("gone/c"));
+        assertTrue(changes.containsKey("gone/c"));
+        assertEquals(HashUtils.hashBytes("d".getBytes()), changes.get("added/d").getHash());
+        assertTrue(changes.containsKey("moved"));
+        assertNull(changes.get("moved"), "A file replaced by a directory is deleted");
+        assertNotNull(changes.get("moved/e"));
+    }
+
+    @Test
+    void testDiffAgainstCommitWithoutTree() throws IOException {
+        Commit flat = new Commit("flat", null, files("a", "a", "b", "b"));
+        Commit tree = commit(files("a", "a", "c", "c"));
+
+        Map<String, FileEntry> changes = TreeUtils.diff(flat, tree);
+
+        assertEquals(2, changes.size());
+        assertNull(changes.get("b"));
+        assertNotNull(changes.get("c"));
+        assertEquals(2, TreeUtils.diff(null, tree).size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.gitter.constants.PathConstants.UNTRACKED_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UntrackedCacheTest {
+
+    private static final long OLD_MTIME = TimeUnit.SECONDS.toNanos(1_000_000_000L);
+
+    @AfterEach
+    void tearDown() throws IOException {
+        UntrackedCache.delete();
+    }
+
+    @Test
+    void testLoadWithoutCache() throws IOException {
+        UntrackedCache.delete();
+
+        assertNull(UntrackedCache.load().getEntries("", OLD_MTIME));
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws IOException {
+        UntrackedCache cache = UntrackedCache.load();
+        cache.putEntries("", OLD_MTIME, List.of("a.txt", "src/"));
+        cache.putEntries("src", OLD_MTIME + 1, List.of("file with spaces.txt"));
+        cache.save();
+
+        UntrackedCache loaded = UntrackedCache.load();
+
+        assertEquals(List.of("a.txt", "src/"), loaded.getEntries("", OLD_MTIME));
+        assertEquals(List.of("file with spaces.txt"), loaded.getEntries("src", OLD_MTIME + 1));
+    }
+
+    @Test
+    void testChangedMtimeMisses() throws IOException {
+        UntrackedCache cache = UntrackedCache.load();
+        cache.putEntries("", OLD_MTIME, List.of("a.txt"));
+        cache.save();
+
+        assertNull(UntrackedCache.load().getEntries("", OLD_MTIME + 1));
+    }
+
+    @Test
+    void testRacyDirectoryIsNotSaved() throws IOException {
+        long now = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        UntrackedCache cache = UntrackedCache.load();
+        cache.putEntries("", now, List.of("a.txt"));
+        cache.save();
+
+        assertNull(UntrackedCache.load().getEntries("", now));
+    }
+
+    @Test
+    void testUnvisitedDirectoriesAreDropped() throws IOException {
+        UntrackedCache cache = UntrackedCache.load();
+        cache.putEntries("", OLD_MTIME, List.of("a.txt"));
+        cache.putEntries("removed", OLD_MTIME, List.of("b.txt"));
+        cache.save();
+
+        UntrackedCache second = UntrackedCache.load();
+        second.getEntries("", OLD_MTIME);
+        second.save();
+
+        UntrackedCache third = UntrackedCache.load();
+        assertNotNull(third.getEntries("", OLD_MTIME));
+        assertNull(third.getEntries("removed", OLD_MTIME));
+    }
+
+    @Test
+    void testCacheForOtherIgnoreRulesIsDiscarded() throws IOException {
+        Files.writeString(UNTRACKED_CACHE, "other-fingerprint\n.\t" + OLD_MTIME + "\ta.txt\n");
+
+        assertNull(UntrackedCache.load().getEntries("", OLD_MTIME));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeFile(String name, int size) throws IOException {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31 + 7);
+        }
+        Path file = tempDir.resolve(name);
+        Files.write(file, data);
+        return file;
+    }
+
+    @Test
+    void testReadsAcrossWindowBoundaries() throws IOException {
+        Path file = writeFile("data", 1000);
+        WindowCache cache = new WindowCache(64, 1024);
+
+        byte[] expected = Files.readAllBytes(file);
+        try (InputStream in = cache.open(file, 100)) {
+            assertArrayEquals(Arrays.copyOfRange(expected, 100, 1000), in.readAllBytes());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void testWindowsAreReused() throws IOException {
+        Path file = writeFile("data", 256);
+        WindowCache cache = new WindowCache(128, 1024);
+
+        try (InputStream in = cache.open(file, 0)) {
+            in.readAllBytes();
+        }
+        try (InputStream in = cache.open(file, 10)) {
+            in.readAllBytes();
+        }
+
+        assertEquals(2, cache.getMapCount());
+        assertEquals(256, cache.getMappedBytes());
+    }
+
+    @Test
+    void testMappedBytesStayWithinLimit() throws IOException {
+        Path file = writeFile("data", 1000);
+        WindowCache cache = new WindowCache(100, 300);
+
+        try (InputStream in = cache.open(file, 0)) {
+            assertEquals(1000, in.readAllBytes().length);
+        }
+
+        assertTrue(cache.getMappedBytes() <= 300, "Mapped " + cache.getMappedBytes());
+        assertEquals(10, cache.getMapCount());
+    }
+
+    @Test
+    void testMarkAndReset() throws IOException {
+        Path file = writeFile("data", 300);
+        WindowCache cache = new WindowCache(64, 1024);
+
+        try (InputStream in = cache.open(file, 0)) {
+            in.skipNBytes(70);
+            in.mark(1);
+            int first = in.read();
+            in.reset();
+
+            assertEquals(first, in.read());
+            assertEquals((byte) (70 * 31 + 7), (byte) first);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerPoolTest {
+
+    @Test
+    void testProcessesEveryItem() throws IOException {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+
+        WorkerPool.forEach(items, seen::add, "testing");
+
+        assertEquals(1000, seen.size());
+    }
+
+    @Test
+    void testEmptyCollection() throws IOException {
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+
+        WorkerPool.forEach(List.of(), seen::add, "testing");
+
+        assertTrue(seen.isEmpty());
+    }
+
+    @Test
+    void testUncheckedIOExceptionIsRethrownAsIOException() {
+        IOException thrown = assertThrows(IOException.class, () ->
+            WorkerPool.forEach(List.of(1, 2, 3, 4), item -> {
+                throw new UncheckedIOException(new IOException("boom"));
+            }, "testing"));
+
+        assertEquals("boom", thrown.getMessage());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static com.example.gitter.constants.PathConstants.FSMONITOR_STATE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkingTreeSnapshotTest {
+
+    @AfterEach
+    void tearDown() throws IOException {
+        WorkingTreeSnapshot.delete();
+    }
+
+    @Test
+    void testLoadWithoutSnapshot() throws IOException {
+        WorkingTreeSnapshot.delete();
+
+        assertNull(WorkingTreeSnapshot.load());
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws IOException {
+        Map<String, ObjectId> files = Map.of(
+                "b.txt", HashUtils.hashBytes("b".getBytes()),
+                "a/file with spaces.txt", HashUtils.hashBytes("a".getBytes()));
+
+        WorkingTreeSnapshot.save("daemon:42", files);
+        WorkingTreeSnapshot snapshot = WorkingTreeSnapshot.load();
+
+        assertNotNull(snapshot);
+        assertEquals("daemon:42", snapshot.getToken());
+        assertEquals(files, snapshot.getFiles());
+    }
+
+    @Test
+    void testCorruptSnapshotIsIgnored() throws IOException {
+        Files.writeString(FSMONITOR_STATE, "daemon:1\nnot-a-file-entry\n");
+
+        assertNull(WorkingTreeSnapshot.load());
+    }
+
+    @Test
+    void testGetFilesReturnsCopy() throws IOException {
+        WorkingTreeSnapshot.save("daemon:1", Map.of("a.txt", HashUtils.hashBytes("a".getBytes())));
+        WorkingTreeSnapshot snapshot = WorkingTreeSnapshot.load();
+
+        snapshot.getFiles().clear();
+
+        assertEquals(1, snapshot.getFiles().size());
+    }
+}
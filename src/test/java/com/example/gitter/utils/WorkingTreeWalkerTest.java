@@ -0,0 +1,136 @@
+package com.example.gitter.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.example.gitter.constants.PathConstants.UNTRACKED_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkingTreeWalkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Set<String> walk() throws IOException {
+        List<Path> files = WorkingTreeWalker.listFiles(tempDir, GitterIgnore.getInstance());
+        return files.stream()
+                .map(file -> tempDir.relativize(file).toString())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    void testListsRegularFilesRecursively() throws IOException {
+        Files.createDirectories(tempDir.resolve("src/main"));
+        Files.writeString(tempDir.resolve("README.md"), "readme");
+        Files.writeString(tempDir.resolve("src/main/App.java"), "class App {}");
+
+        assertEquals(Set.of("README.md", "src/main/App.java"), walk());
+    }
+
+    @Test
+    void testSkipsIgnoredDirectories() throws IOException {
+        Files.createDirectories(tempDir.resolve(".gitter/objects/ab"));
+        Files.writeString(tempDir.resolve(".gitter/objects/ab/cdef"), "object");
+        Files.writeString(tempDir.resolve("file.txt"), "content");
+
+        assertEquals(Set.of("file.txt"), walk());
+    }
+
+    @Test
+    void testDirectoriesAreNotListed() throws IOException {
+        Files.createDirectories(tempDir.resolve("empty/nested"));
+
+        assertTrue(walk().isEmpty());
+    }
+
+    @Test
+    void testIncludesSymlinksToRegularFiles() throws IOException {
+        Path target = Files.writeString(tempDir.resolve("target.txt"), "content");
+        try {
+            Files.createSymbolicLink(tempDir.resolve("link.txt"), target);
+        } catch (UnsupportedOperationException | IOException e) {
+            return; // Symlinks not supported on this file system
+        }
+
+        assertEquals(Set.of("target.txt", "link.txt"), walk());
+    }
+
+    @Test
+    void testCachedWalkMatchesPlainWalk() throws IOException {
+        Files.createDirectories(tempDir.resolve("src/main"));
+        Files.createDirectories(tempDir.resolve(".gitter/objects"));
+        Files.writeString(tempDir.resolve("README.md"), "readme");
+        Files.writeString(tempDir.resolve("src/main/App.java"), "class App {}");
+        Files.writeString(tempDir.resolve(".gitter/objects/abc"), "object");
+
+        try {
+            List<Path> files = WorkingTreeWalker.listFiles(tempDir, GitterIgnore.getInstance(), UntrackedCache.load());
+            Set<String> cached = files.stream()
+                    .map(file -> tempDir.relativize(file).toString())
+                    .collect(Collectors.toSet());
+
+            assertEquals(walk(), cached);
+        } finally {
+            Files.deleteIfExists(UNTRACKED_CACHE);
+        }
+    }
+
+    @Test
+    void testCachedWalkReusesListingOfUnchangedDirectory() throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve("dir"));
+        Files.writeString(dir.resolve("a.txt"), "a");
+        FileTime oldTime = FileTime.from(1_000_000_000L, TimeUnit.SECONDS);
+        Files.setLastModifiedTime(dir, oldTime);
+        Files.setLastModifiedTime(tempDir, oldTime);
+
+        try {
+            UntrackedCache cache = UntrackedCache.load();
+            WorkingTreeWalker.listFiles(tempDir, GitterIgnore.getInstance(), cache);
+            cache.save();
+
+            // A new file with the directory mtime restored is only found by reading the directory
+            Files.writeString(dir.resolve("b.txt"), "b");
+            Files.setLastModifiedTime(dir, oldTime);
+            List<Path> files = WorkingTreeWalker.listFiles(tempDir, GitterIgnore.getInstance(), UntrackedCache.load());
+
+            assertEquals(List.of(dir.resolve("a.txt")), files);
+        } finally {
+            Files.deleteIfExists(UNTRACKED_CACHE);
+        }
+    }
+
+    @Test
+    void testCachedWalkSkipsDirectoryThatCannotBeRead() throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve("dir"));
+        Files.writeString(dir.resolve("a.txt"), "a");
+        Files.writeString(tempDir.resolve("kept.txt"), "kept");
+        FileTime oldTime = FileTime.from(1_000_000_000L, TimeUnit.SECONDS);
+        Files.setLastModifiedTime(tempDir, oldTime);
+
+        try {
+            UntrackedCache cache = UntrackedCache.load();
+            WorkingTreeWalker.listFiles(tempDir, GitterIgnore.getInstance(), cache);
+            cache.save();
+
+            // The cached listing still names dir/, but it can no longer be listed
+            Files.delete(dir.resolve("a.txt"));
+            Files.delete(dir);
+            Files.writeString(dir, "now a file");
+            Files.setLastModifiedTime(tempDir, oldTime);
+            List<Path> files = WorkingTreeWalker.listFiles(tempDir, GitterIgnore.getInstance(), UntrackedCache.load());
+
+            assertEquals(List.of(tempDir.resolve("kept.txt")), files);
+        } finally {
+            Files.deleteIfExists(UNTRACKED_CACHE);
+        }
+    }
+}
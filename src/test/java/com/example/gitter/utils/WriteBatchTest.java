@@ -0,0 +1,107 @@
+package com.example.gitter.utils;
+
+import com.example.gitter.models.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static com.example.gitter.constants.PathConstants.OBJECTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBatchTest {
+
+    private static byte[] uniqueContent(String label) {
+        return (label + " " + System.nanoTime()).getBytes();
+    }
+
+    private static WriteBatch newBatch(String fsyncMode) {
+        return new LooseObjectDatabase(OBJECTS, fsyncMode).newBatch();
+    }
+
+    private static long countTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(OBJECTS)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("tmp-obj-")).count();
+        }
+    }
+
+    @Test
+    void testBatchObjectsAppearOnCommit() throws IOException {
+        byte[] first = uniqueContent("first");
+        byte[] second = uniqueContent("second");
+
+        try (WriteBatch batch = newBatch("batch")) {
+            ObjectId firstId = batch.writeBlob(first);
+            ObjectId secondId = batch.writeCommit(new String(second));
+
+            assertEquals(2, batch.getPendingCount());
+            assertFalse(ObjectStore.exists(firstId), "Pending objects are not visible yet");
+
+            batch.commit();
+
+            assertEquals(0, batch.getPendingCount());
+            assertArrayEquals(first, ObjectStore.readBlob(firstId).getData());
+            assertEquals(new String(second), ObjectStore.readCommit(secondId).getDataAsString());
+        }
+        assertEquals(0, countTempFiles());
+    }
+
+    @Test
+    void testSameObjectIsWrittenOncePerBatch() throws IOException {
+        byte[] content = uniqueContent("duplicate");
+
+        try (WriteBatch batch = newBatch("batch")) {
+            ObjectId id = batch.writeBlob(content);
+            assertEquals(id, batch.writeBlob(content));
+            assertEquals(1, batch.getPendingCount());
+            batch.commit();
+
+            batch.writeBlob(content);
+            assertEquals(0, batch.getPendingCount(), "Stored objects are not written again");
+        }
+    }
+
+    @Test
+    void testUncommittedObjectsAreDiscarded() throws IOException {
+        ObjectId id;
+        try (WriteBatch batch = newBatch("batch")) {
+            id = batch.writeBlob(uniqueContent("abandoned"));
+        }
+
+        assertFalse(ObjectStore.exists(id));
+        assertEquals(0, countTempFiles());
+    }
+
+    @Test
+    void testOtherModesPlaceObjectsImmediately() throws IOException {
+        for (String mode : new String[] {"none", "per-object"}) {
+            byte[] content = uniqueContent(mode);
+            try (WriteBatch batch = newBatch(mode)) {
+                ObjectId id = batch.writeBlob(content);
+
+                assertEquals(0, batch.getPendingCount());
+                assertArrayEquals(content, ObjectStore.readBlob(id).getData());
+            }
+        }
+        assertEquals(0, countTempFiles());
+    }
+
+    @Test
+    void testFileIsStreamedIntoBatch() throws IOException {
+        Path file = Files.createTempFile("write-batch", ".txt");
+        try {
+            Files.write(file, uniqueContent("file"));
+            try (WriteBatch batch = newBatch("batch")) {
+                ObjectId id = batch.writeBlob(file);
+                batch.commit();
+
+                assertEquals(HashUtils.hashFile(file), id);
+                assertArrayEquals(Files.readAllBytes(file), ObjectStore.readBlob(id).getData());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}